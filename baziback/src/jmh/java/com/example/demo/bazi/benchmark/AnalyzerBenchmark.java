@@ -0,0 +1,151 @@
+package com.example.demo.bazi.benchmark;
+
+import com.example.demo.bazi.analyzer.*;
+import com.example.demo.bazi.model.BaZiChart;
+import com.example.demo.bazi.model.DaYunResult;
+import com.example.demo.bazi.model.FortuneTimeline;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.model.RiZhuInfo;
+import com.example.demo.bazi.model.ShenShaResult;
+import com.example.demo.bazi.model.TiaoHouResult;
+import com.example.demo.bazi.model.XiYongShenResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * bazi.analyzer 各分析器单独计时，输入取自 {@link ChartCorpus}
+ *
+ * 与 BaZiService 的分析图一致：神煞、刑冲合会、子女星走三柱预计算 + 时柱补算的路径，
+ * 喜用神复用调候结果（调候结果在 setup 中预先算好，不计入喜用神耗时）。
+ *
+ * 运行：mvn -Pjmh compile exec:exec -Djmh.includes=AnalyzerBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalyzerBenchmark {
+
+    private static final int CORPUS_SIZE = 1024;
+    private static final int QI_YUN_AGE = 4;
+    private static final int TIMELINE_YEARS = 10;
+
+    private final CaiXingAnalyzer caiXing = new CaiXingAnalyzer();
+    private final FuQiXingAnalyzer fuQiXing = new FuQiXingAnalyzer();
+    private final FuMuXingAnalyzer fuMuXing = new FuMuXingAnalyzer();
+    private final ZiNvXingAnalyzer ziNvXing = new ZiNvXingAnalyzer();
+    private final XingChongHeHuiAnalyzer xingChongHeHui = new XingChongHeHuiAnalyzer();
+    private final ShenShaAnalyzer shenSha = new ShenShaAnalyzer();
+    private final TiaoHouAnalyzer tiaoHou = new TiaoHouAnalyzer();
+    private final XiYongShenAnalyzer xiYongShen = new XiYongShenAnalyzer();
+    private final DaYunAnalyzer daYun = new DaYunAnalyzer();
+    private final TimelineAnalyzer timeline = new TimelineAnalyzer();
+    private final RiZhuAnalyzer riZhu = new RiZhuAnalyzer();
+    private final ShiShenLunMingAnalyzer shiShenLunMing = new ShiShenLunMingAnalyzer();
+    private final CompatibilityAnalyzer compatibility = new CompatibilityAnalyzer();
+
+    private ChartCorpus corpus;
+    private TiaoHouResult[] tiaoHouResults;
+    private CompatibilityAnalyzer.Scorer scorer;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        corpus = new ChartCorpus(CORPUS_SIZE, 20240601L);
+        tiaoHouResults = new TiaoHouResult[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            tiaoHouResults[i] = tiaoHou.analyze(corpus.charts[i]);
+        }
+        scorer = new CompatibilityAnalyzer.Scorer(corpus.packed[0]);
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (CORPUS_SIZE - 1);
+    }
+
+    @Benchmark
+    public Map<String, Object> caiXing() {
+        return caiXing.analyze(corpus.charts[next()]);
+    }
+
+    @Benchmark
+    public Map<String, Object> fuQiXing() {
+        int i = next();
+        return fuQiXing.analyze(corpus.charts[i], corpus.male[i]);
+    }
+
+    @Benchmark
+    public Map<String, Object> fuMuXing() {
+        return fuMuXing.analyze(corpus.charts[next()]);
+    }
+
+    @Benchmark
+    public Map<String, Object> ziNvXing() {
+        int i = next();
+        return ziNvXing.analyze(corpus.charts[i], corpus.male[i],
+                ziNvXing.sanZhu(corpus.packed[i], corpus.male[i]));
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Object>> xingChongHeHui() {
+        PackedBaZiChart packed = corpus.packed[next()];
+        return xingChongHeHui.analyze(packed, xingChongHeHui.sanZhu(packed));
+    }
+
+    @Benchmark
+    public ShenShaResult shenSha() {
+        PackedBaZiChart packed = corpus.packed[next()];
+        return shenSha.analyze(packed, shenSha.sanZhuMasks(packed));
+    }
+
+    @Benchmark
+    public TiaoHouResult tiaoHou() {
+        return tiaoHou.analyze(corpus.charts[next()]);
+    }
+
+    @Benchmark
+    public XiYongShenResult xiYongShen() {
+        int i = next();
+        return xiYongShen.analyze(corpus.charts[i], tiaoHouResults[i]);
+    }
+
+    @Benchmark
+    public DaYunResult daYun() {
+        int i = next();
+        return daYun.calculateFromStartYear(corpus.packed[i], corpus.birthYears[i] + QI_YUN_AGE, corpus.male[i]);
+    }
+
+    @Benchmark
+    public FortuneTimeline timeline() {
+        int i = next();
+        int birthYear = corpus.birthYears[i];
+        return timeline.generate(corpus.packed[i], corpus.male[i], birthYear, QI_YUN_AGE,
+                birthYear + 30, TIMELINE_YEARS);
+    }
+
+    @Benchmark
+    public RiZhuInfo riZhu() {
+        return riZhu.analyze(corpus.charts[next()]);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> shiShenLunMing() {
+        return shiShenLunMing.analyze(corpus.charts[next()]);
+    }
+
+    @Benchmark
+    public Map<String, Object> compatibility() {
+        int i = next();
+        return compatibility.analyze(corpus.packed[i], corpus.packed[(i + 1) & (CORPUS_SIZE - 1)]);
+    }
+
+    @Benchmark
+    public int compatibilityScore() {
+        return scorer.score(corpus.packed[next()].code());
+    }
+}
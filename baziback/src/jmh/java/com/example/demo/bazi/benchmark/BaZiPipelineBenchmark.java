@@ -0,0 +1,98 @@
+package com.example.demo.bazi.benchmark;
+
+import com.example.demo.bazi.model.BaZiChart;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.service.BaZiService;
+import com.example.demo.bazi.util.DateToBaZiConverter;
+import com.example.demo.dto.response.bazi.BaziAnalysisResponse;
+import com.example.demo.dto.response.bazi.BaziResponseMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 八字分析全流程基准：时刻换算 → 解析 → 全量分析 → 响应映射
+ *
+ * 全量分析分两种情形：
+ * 1 analyzeWarm：1024 个命盘轮转，分析缓存命中后只剩请求级分析段（流年、流月等）
+ * 2 analyzeCold：每轮迭代新建服务（缓存为空），语料足够大，一轮内不会重复命盘
+ * 配合 -prof gc 观察每次调用的分配量（gc.alloc.rate.norm）。
+ *
+ * 运行：mvn -Pjmh compile exec:exec -Djmh.includes=BaZiPipelineBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BaZiPipelineBenchmark {
+
+    private static final int CORPUS_SIZE = 1024;
+    private static final int COLD_CORPUS_SIZE = 1 << 16;
+    private static final int QI_YUN_AGE = 4;
+
+    private ChartCorpus corpus;
+    private ChartCorpus coldCorpus;
+    private BaZiService warmService;
+    private BaZiService coldService;
+    private List<Map<String, Object>> analyses;
+    private int cursor;
+    private int coldCursor;
+
+    @Setup
+    public void setup() {
+        corpus = new ChartCorpus(CORPUS_SIZE, 20240601L);
+        coldCorpus = new ChartCorpus(COLD_CORPUS_SIZE, 20240602L);
+        warmService = new BaZiService();
+        analyses = new ArrayList<>(CORPUS_SIZE);
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            analyses.add(warmService.analyze(corpus.baZiStrs[i], corpus.birthYears[i], corpus.male[i], QI_YUN_AGE));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void newColdService() {
+        coldService = new BaZiService();
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (CORPUS_SIZE - 1);
+    }
+
+    @Benchmark
+    public PackedBaZiChart parsePacked() {
+        return PackedBaZiChart.parse(corpus.baZiStrs[next()]);
+    }
+
+    @Benchmark
+    public BaZiChart parseChart() {
+        return BaZiChart.parse(corpus.baZiStrs[next()]);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertDetailed() {
+        int i = next();
+        return DateToBaZiConverter.convertDetailed(corpus.birthTimes[i], corpus.male[i]);
+    }
+
+    @Benchmark
+    public Map<String, Object> analyzeWarm() {
+        int i = next();
+        return warmService.analyze(corpus.baZiStrs[i], corpus.birthYears[i], corpus.male[i], QI_YUN_AGE);
+    }
+
+    @Benchmark
+    public Map<String, Object> analyzeCold() {
+        int i = coldCursor = (coldCursor + 1) & (COLD_CORPUS_SIZE - 1);
+        return coldService.analyze(coldCorpus.baZiStrs[i], coldCorpus.birthYears[i], coldCorpus.male[i], QI_YUN_AGE);
+    }
+
+    @Benchmark
+    public BaziAnalysisResponse fromAnalysisMap() {
+        return BaziResponseMapper.fromAnalysisMap(analyses.get(next()));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.bazi.benchmark;
+
+import com.example.demo.bazi.model.BaZiChart;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.util.BulkBaZiConverter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+/**
+ * 基准测试用命盘语料
+ *
+ * 出生时刻在 1940-2010 年间均匀抽取（固定种子，各次运行一致），由 {@link BulkBaZiConverter} 换算八字，
+ * 因此年月、日时的干支搭配都是真实可出现的组合，男女各半。
+ * 各数组按下标一一对应，长度为 2 的幂，便于按位与轮转。
+ */
+final class ChartCorpus {
+
+    private static final long FROM_SECOND = LocalDateTime.of(1940, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final long TO_SECOND = LocalDateTime.of(2010, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+    final LocalDateTime[] birthTimes;
+    final String[] baZiStrs;
+    final PackedBaZiChart[] packed;
+    final BaZiChart[] charts;
+    final boolean[] male;
+    final int[] birthYears;
+
+    ChartCorpus(int size, long seed) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("语料大小须为 2 的幂: " + size);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        BulkBaZiConverter converter = BulkBaZiConverter.getInstance();
+        birthTimes = new LocalDateTime[size];
+        baZiStrs = new String[size];
+        packed = new PackedBaZiChart[size];
+        charts = new BaZiChart[size];
+        male = new boolean[size];
+        birthYears = new int[size];
+        for (int i = 0; i < size; i++) {
+            LocalDateTime time = LocalDateTime.ofEpochSecond(random.nextLong(FROM_SECOND, TO_SECOND), 0, ZoneOffset.UTC);
+            birthTimes[i] = time;
+            baZiStrs[i] = BulkBaZiConverter.format(converter.convertSolarTime(time));
+            packed[i] = PackedBaZiChart.parse(baZiStrs[i]);
+            charts[i] = BaZiChart.parse(baZiStrs[i]);
+            male[i] = random.nextBoolean();
+            birthYears[i] = time.getYear();
+        }
+    }
+
+    int size() {
+        return baZiStrs.length;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.bazi.benchmark;
+
+import com.example.demo.bazi.analyzer.ShenShaAnalyzer;
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.BaZiChart;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.model.ShenShaResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 神煞计算基准：查表化之前的原实现（{@link LegacyShenShaAnalyzer}，每次调用新建规则 HashMap） vs 位掩码查表
+ *
+ * 运行：mvn -Pjmh compile exec:exec -Djmh.includes=ShenShaBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShenShaBenchmark {
+
+    private static final int CORPUS_SIZE = 1024;
+
+    private BaZiChart[] charts;
+    private PackedBaZiChart[] packedCharts;
+    private final ShenShaAnalyzer analyzer = new ShenShaAnalyzer();
+    private final LegacyShenShaAnalyzer legacyAnalyzer = new LegacyShenShaAnalyzer();
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20240601L);
+        charts = new BaZiChart[CORPUS_SIZE];
+        packedCharts = new PackedBaZiChart[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            PackedBaZiChart packed = PackedBaZiChart.of(
+                    random.nextInt(GanZhi.JIA_ZI_COUNT), random.nextInt(GanZhi.JIA_ZI_COUNT),
+                    random.nextInt(GanZhi.JIA_ZI_COUNT), random.nextInt(GanZhi.JIA_ZI_COUNT));
+            charts[i] = BaZiChart.fromPacked(packed);
+            packedCharts[i] = packed;
+        }
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (CORPUS_SIZE - 1);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> legacyRules() {
+        return legacyAnalyzer.analyze(charts[next()]);
+    }
+
+    @Benchmark
+    public ShenShaResult tableAnalyzer() {
+        return analyzer.analyze(charts[next()]);
+    }
+
+    @Benchmark
+    public void tableMasksOnly(Blackhole bh) {
+        bh.consume(analyzer.sanZhuMasks(packedCharts[next()]));
+    }
+}
@@ -2,11 +2,13 @@ package com.example.demo.bazi.analyzer;
 
 import com.example.demo.bazi.constants.*;
 import com.example.demo.bazi.model.*;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
  * 财星分析器
  */
+@Component
 public class CaiXingAnalyzer {
     
     /**
@@ -15,8 +17,8 @@ public class CaiXingAnalyzer {
     public Map<String, Object> analyze(BaZiChart chart) {
         Map<String, Object> result = new LinkedHashMap<>();
         
-        String riZhu = chart.getRiZhuTianGan();
-        WuXing riWuXing = WuXing.fromName(chart.getRiZhuWuXing());
+        PackedBaZiChart packed = chart.getPacked();
+        WuXing riWuXing = GanZhi.wuXing(GanZhi.stemWuXing(packed.riGan()));
         WuXing caiWuXing = riWuXing.getKe(); // 我克者为财
         
         result.put("财星五行", caiWuXing.getName());
@@ -27,10 +29,9 @@ public class CaiXingAnalyzer {
         caiXing.put("偏财", new ArrayList<>());
         
         // 检查四柱
-        analyzePillar(chart.getNianZhu(), "年柱", riZhu, caiXing);
-        analyzePillar(chart.getYueZhu(), "月柱", riZhu, caiXing);
-        analyzePillar(chart.getRiZhu(), "日柱", riZhu, caiXing);
-        analyzePillar(chart.getShiZhu(), "时柱", riZhu, caiXing);
+        for (int i = 0; i < PackedBaZiChart.PILLAR_COUNT; i++) {
+            analyzePillar(packed, i, caiXing);
+        }
         
         result.put("财星", caiXing);
         
@@ -39,7 +40,7 @@ public class CaiXingAnalyzer {
         String kuZhi = caiWuXing.getKu();
         caiKu.put("财库", kuZhi);
         
-        List<String> kuFenBu = findKuDistribution(chart, kuZhi);
+        List<String> kuFenBu = findKuDistribution(packed, DiZhi.fromName(kuZhi).ordinal());
         caiKu.put("财库分布", kuFenBu.isEmpty() ? 
                   Collections.singletonList("四柱无财库") : kuFenBu);
         
@@ -48,41 +49,37 @@ public class CaiXingAnalyzer {
         return result;
     }
 
-    private void analyzePillar(Pillar pillar, String pillarName, String riZhu, 
+    private void analyzePillar(PackedBaZiChart packed, int pillar,
                                Map<String, List<String>> caiXing) {
+        String pillarName = PackedBaZiChart.pillarName(pillar) + "柱";
+
         // 检查天干
-        ShiShen tianGanShiShen = ShiShen.calculate(riZhu, pillar.getTianGan());
+        ShiShen tianGanShiShen = packed.stemShiShen(pillar);
         if (tianGanShiShen == ShiShen.ZHENG_CAI) {
-            caiXing.get("正财").add(pillarName + "天干**" + pillar.getTianGan() + "**");
+            caiXing.get("正财").add(pillarName + "天干**" + GanZhi.stemName(packed.stem(pillar)) + "**");
         } else if (tianGanShiShen == ShiShen.PIAN_CAI) {
-            caiXing.get("偏财").add(pillarName + "天干**" + pillar.getTianGan() + "**");
+            caiXing.get("偏财").add(pillarName + "天干**" + GanZhi.stemName(packed.stem(pillar)) + "**");
         }
         
         // 检查藏干
-        for (String cangGan : pillar.getDiZhiCangGan()) {
-            ShiShen cangGanShiShen = ShiShen.calculate(riZhu, cangGan);
+        int branch = packed.branch(pillar);
+        for (int i = 0, n = GanZhi.cangGanCount(branch); i < n; i++) {
+            ShiShen cangGanShiShen = packed.cangGanShiShen(pillar, i);
             if (cangGanShiShen == ShiShen.ZHENG_CAI) {
-                caiXing.get("正财").add(pillarName + "地支**" + pillar.getDiZhi() + "**藏正财");
+                caiXing.get("正财").add(pillarName + "地支**" + GanZhi.branchName(branch) + "**藏正财");
             } else if (cangGanShiShen == ShiShen.PIAN_CAI) {
-                caiXing.get("偏财").add(pillarName + "地支**" + pillar.getDiZhi() + "**藏偏财");
+                caiXing.get("偏财").add(pillarName + "地支**" + GanZhi.branchName(branch) + "**藏偏财");
             }
         }
     }
 
-    private List<String> findKuDistribution(BaZiChart chart, String kuZhi) {
+    private List<String> findKuDistribution(PackedBaZiChart packed, int kuZhi) {
         List<String> result = new ArrayList<>();
         
-        if (chart.getNianZhu().getDiZhi().equals(kuZhi)) {
-            result.add("年柱地支有财库");
-        }
-        if (chart.getYueZhu().getDiZhi().equals(kuZhi)) {
-            result.add("月柱地支有财库");
-        }
-        if (chart.getRiZhu().getDiZhi().equals(kuZhi)) {
-            result.add("日柱地支有财库");
-        }
-        if (chart.getShiZhu().getDiZhi().equals(kuZhi)) {
-            result.add("时柱地支有财库");
+        for (int i = 0; i < PackedBaZiChart.PILLAR_COUNT; i++) {
+            if (packed.branch(i) == kuZhi) {
+                result.add(PackedBaZiChart.pillarName(i) + "柱地支有财库");
+            }
         }
         
         return result;
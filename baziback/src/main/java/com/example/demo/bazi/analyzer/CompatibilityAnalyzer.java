@@ -0,0 +1,223 @@
+package com.example.demo.bazi.analyzer;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.util.ChartSimilarityIndex;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 八字合盘分析器
+ *
+ * 两盘四柱两两比较（4 x 4）：天干五合、相克，地支六合、半合、冲、刑、害、破，
+ * 关系判定沿用 {@link XingChongHeHuiAnalyzer} 的关系表，日柱之间权重最高；
+ * 再加五行互补：一方偏少（不足 2 个）的五行由另一方偏多（超过 2 个）的五行补足的程度。
+ * 基础分 60，加减后截断到 0-100。
+ *
+ * 一对多时先按主盘把"对方某柱为某干/某支"的得分展开成 4 x 10 与 4 x 12 的表，
+ * 每个对象只需 8 次查表加一次五行计数，见 {@link Scorer}。
+ */
+@Component
+public class CompatibilityAnalyzer {
+
+    private static final double BASE_SCORE = 60;
+    private static final double COMPLEMENT_WEIGHT = 2.5;
+    // 五行偏少、偏多的界限（八个字平均每行 1.6 个）
+    private static final int BALANCED_COUNT = 2;
+
+    private static final double GAN_HE_SCORE = 4;
+    private static final double GAN_KE_SCORE = -1.5;
+    private static final double ZHI_HE_SCORE = 4;
+    private static final double ZHI_BAN_HE_SCORE = 2;
+    private static final double ZHI_CHONG_SCORE = -4;
+    private static final double ZHI_XING_SCORE = -2;
+    private static final double ZHI_HAI_SCORE = -2;
+    private static final double ZHI_PO_SCORE = -1;
+
+    private static final double[] GAN_SCORE = new double[GanZhi.STEM_COUNT * GanZhi.STEM_COUNT];
+    private static final double[] ZHI_SCORE = new double[GanZhi.BRANCH_COUNT * GanZhi.BRANCH_COUNT];
+
+    static {
+        for (int g1 = 0; g1 < GanZhi.STEM_COUNT; g1++) {
+            for (int g2 = 0; g2 < GanZhi.STEM_COUNT; g2++) {
+                GAN_SCORE[g1 * GanZhi.STEM_COUNT + g2] = ganScore(ganMask(g1, g2));
+            }
+        }
+        for (int z1 = 0; z1 < GanZhi.BRANCH_COUNT; z1++) {
+            for (int z2 = 0; z2 < GanZhi.BRANCH_COUNT; z2++) {
+                ZHI_SCORE[z1 * GanZhi.BRANCH_COUNT + z2] = zhiScore(XingChongHeHuiAnalyzer.zhiRelation(z1, z2));
+            }
+        }
+    }
+
+    /**
+     * 两盘相克不分方向
+     */
+    private static int ganMask(int g1, int g2) {
+        return XingChongHeHuiAnalyzer.ganRelation(g1, g2) | XingChongHeHuiAnalyzer.ganRelation(g2, g1);
+    }
+
+    private static double ganScore(int mask) {
+        double score = 0;
+        if ((mask & XingChongHeHuiAnalyzer.GAN_HE) != 0) score += GAN_HE_SCORE;
+        if ((mask & XingChongHeHuiAnalyzer.GAN_KE) != 0) score += GAN_KE_SCORE;
+        return score;
+    }
+
+    private static double zhiScore(int mask) {
+        double score = 0;
+        if ((mask & XingChongHeHuiAnalyzer.ZHI_HE) != 0) score += ZHI_HE_SCORE;
+        if ((mask & XingChongHeHuiAnalyzer.ZHI_BAN_HE) != 0) score += ZHI_BAN_HE_SCORE;
+        if ((mask & XingChongHeHuiAnalyzer.ZHI_CHONG) != 0) score += ZHI_CHONG_SCORE;
+        if ((mask & XingChongHeHuiAnalyzer.ZHI_XING) != 0) score += ZHI_XING_SCORE;
+        if ((mask & XingChongHeHuiAnalyzer.ZHI_HAI) != 0) score += ZHI_HAI_SCORE;
+        if ((mask & XingChongHeHuiAnalyzer.ZHI_PO) != 0) score += ZHI_PO_SCORE;
+        return score;
+    }
+
+    /**
+     * 两柱之间的权重：日柱对日柱 3，日柱对其他柱 1.5，其余 1
+     */
+    private static double pairWeight(int pillar1, int pillar2) {
+        if (pillar1 == PackedBaZiChart.RI && pillar2 == PackedBaZiChart.RI) return 3;
+        if (pillar1 == PackedBaZiChart.RI || pillar2 == PackedBaZiChart.RI) return 1.5;
+        return 1;
+    }
+
+    /**
+     * 两盘合盘详情
+     */
+    public Map<String, Object> analyze(PackedBaZiChart self, PackedBaZiChart partner) {
+        List<String> ganRelations = new ArrayList<>();
+        List<String> zhiRelations = new ArrayList<>();
+        for (int i = 0; i < PackedBaZiChart.PILLAR_COUNT; i++) {
+            for (int j = 0; j < PackedBaZiChart.PILLAR_COUNT; j++) {
+                String pillars = PackedBaZiChart.pillarName(i) + "-" + PackedBaZiChart.pillarName(j) + " ";
+                int g1 = self.stem(i);
+                int g2 = partner.stem(j);
+                int ganMask = ganMask(g1, g2);
+                String ganPair = GanZhi.stemName(g1) + GanZhi.stemName(g2);
+                if ((ganMask & XingChongHeHuiAnalyzer.GAN_HE) != 0) ganRelations.add(pillars + ganPair + "合");
+                if ((ganMask & XingChongHeHuiAnalyzer.GAN_KE) != 0) ganRelations.add(pillars + ganPair + "相克");
+
+                int z1 = self.branch(i);
+                int z2 = partner.branch(j);
+                int zhiMask = XingChongHeHuiAnalyzer.zhiRelation(z1, z2);
+                String zhiPair = GanZhi.branchName(z1) + GanZhi.branchName(z2);
+                if ((zhiMask & XingChongHeHuiAnalyzer.ZHI_HE) != 0) zhiRelations.add(pillars + zhiPair + "六合");
+                if ((zhiMask & XingChongHeHuiAnalyzer.ZHI_BAN_HE) != 0) zhiRelations.add(pillars + zhiPair + "半合");
+                if ((zhiMask & XingChongHeHuiAnalyzer.ZHI_CHONG) != 0) zhiRelations.add(pillars + zhiPair + "相冲");
+                if ((zhiMask & XingChongHeHuiAnalyzer.ZHI_XING) != 0) zhiRelations.add(pillars + zhiPair + "相刑");
+                if ((zhiMask & XingChongHeHuiAnalyzer.ZHI_HAI) != 0) zhiRelations.add(pillars + zhiPair + "相害");
+                if ((zhiMask & XingChongHeHuiAnalyzer.ZHI_PO) != 0) zhiRelations.add(pillars + zhiPair + "相破");
+            }
+        }
+        int[] selfCounts = ChartSimilarityIndex.histogram(self);
+        int[] partnerCounts = ChartSimilarityIndex.histogram(partner);
+        int complement = complement(selfCounts, partnerCounts);
+        int score = new Scorer(self).score(partner.code());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("总分", score);
+        result.put("评级", level(score));
+        result.put("天干关系", ganRelations);
+        result.put("地支关系", zhiRelations);
+        Map<String, Object> wuXing = new LinkedHashMap<>();
+        wuXing.put("本人", countsMap(selfCounts));
+        wuXing.put("对方", countsMap(partnerCounts));
+        wuXing.put("互补度", complement);
+        result.put("五行互补", wuXing);
+        return result;
+    }
+
+    /**
+     * 一对多评分器：按主盘预先展开得分表，线程安全，可对任意多个对象复用
+     */
+    public static final class Scorer {
+        // 下标：对方柱位 * 10 + 天干 / 对方柱位 * 12 + 地支
+        private final double[] stemScore = new double[PackedBaZiChart.PILLAR_COUNT * GanZhi.STEM_COUNT];
+        private final double[] branchScore = new double[PackedBaZiChart.PILLAR_COUNT * GanZhi.BRANCH_COUNT];
+        private final int[] deficit = new int[ChartSimilarityIndex.ELEMENT_COUNT];
+        private final int[] surplus = new int[ChartSimilarityIndex.ELEMENT_COUNT];
+
+        public Scorer(PackedBaZiChart self) {
+            for (int j = 0; j < PackedBaZiChart.PILLAR_COUNT; j++) {
+                for (int i = 0; i < PackedBaZiChart.PILLAR_COUNT; i++) {
+                    double weight = pairWeight(i, j);
+                    for (int g = 0; g < GanZhi.STEM_COUNT; g++) {
+                        stemScore[j * GanZhi.STEM_COUNT + g] += weight * GAN_SCORE[self.stem(i) * GanZhi.STEM_COUNT + g];
+                    }
+                    for (int z = 0; z < GanZhi.BRANCH_COUNT; z++) {
+                        branchScore[j * GanZhi.BRANCH_COUNT + z] += weight * ZHI_SCORE[self.branch(i) * GanZhi.BRANCH_COUNT + z];
+                    }
+                }
+            }
+            int[] counts = ChartSimilarityIndex.histogram(self);
+            for (int e = 0; e < ChartSimilarityIndex.ELEMENT_COUNT; e++) {
+                deficit[e] = Math.max(0, BALANCED_COUNT - counts[e]);
+                surplus[e] = Math.max(0, counts[e] - BALANCED_COUNT);
+            }
+        }
+
+        /**
+         * @param partnerCode 对方的 {@link PackedBaZiChart#code()}
+         */
+        public int score(int partnerCode) {
+            int[] counts = new int[ChartSimilarityIndex.ELEMENT_COUNT];
+            double relation = 0;
+            int code = partnerCode;
+            for (int j = PackedBaZiChart.PILLAR_COUNT - 1; j >= 0; j--) {
+                int jiaZi = code % GanZhi.JIA_ZI_COUNT;
+                code /= GanZhi.JIA_ZI_COUNT;
+                int stem = GanZhi.stemOf(jiaZi);
+                int branch = GanZhi.branchOf(jiaZi);
+                relation += stemScore[j * GanZhi.STEM_COUNT + stem] + branchScore[j * GanZhi.BRANCH_COUNT + branch];
+                counts[GanZhi.stemWuXing(stem)]++;
+                counts[GanZhi.branchWuXing(branch)]++;
+            }
+            int complement = 0;
+            for (int e = 0; e < ChartSimilarityIndex.ELEMENT_COUNT; e++) {
+                complement += Math.min(deficit[e], Math.max(0, counts[e] - BALANCED_COUNT))
+                        + Math.min(surplus[e], Math.max(0, BALANCED_COUNT - counts[e]));
+            }
+            double total = BASE_SCORE + relation + complement * COMPLEMENT_WEIGHT;
+            return (int) Math.round(Math.max(0, Math.min(100, total)));
+        }
+
+        /**
+         * 批量评分，结果与输入下标一一对应
+         */
+        public int[] scoreAll(int[] partnerCodes) {
+            int[] scores = new int[partnerCodes.length];
+            for (int i = 0; i < partnerCodes.length; i++) {
+                scores[i] = score(partnerCodes[i]);
+            }
+            return scores;
+        }
+    }
+
+    private static int complement(int[] a, int[] b) {
+        int complement = 0;
+        for (int e = 0; e < ChartSimilarityIndex.ELEMENT_COUNT; e++) {
+            complement += Math.min(Math.max(0, BALANCED_COUNT - a[e]), Math.max(0, b[e] - BALANCED_COUNT))
+                    + Math.min(Math.max(0, a[e] - BALANCED_COUNT), Math.max(0, BALANCED_COUNT - b[e]));
+        }
+        return complement;
+    }
+
+    private static Map<String, Integer> countsMap(int[] counts) {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int e = 0; e < counts.length; e++) {
+            map.put(GanZhi.wuXing(e).getName(), counts[e]);
+        }
+        return map;
+    }
+
+    private static String level(int score) {
+        if (score >= 85) return "上等";
+        if (score >= 70) return "中上";
+        if (score >= 55) return "中等";
+        return "欠佳";
+    }
+}
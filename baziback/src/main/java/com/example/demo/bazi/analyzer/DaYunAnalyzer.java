@@ -2,11 +2,13 @@ package com.example.demo.bazi.analyzer;
 
 import com.example.demo.bazi.constants.*;
 import com.example.demo.bazi.model.*;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
  * 大运分析器
  */
+@Component
 public class DaYunAnalyzer {
 
     /**
@@ -17,54 +19,14 @@ public class DaYunAnalyzer {
      * @param startAge 起运岁数（通常为1-10之间）
      * @return 大运数据
      */
-    public Map<String, Object> calculate(BaZiChart chart, int birthYear, boolean isMale, int startAge) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
-        int qiYunYear = birthYear + startAge;
-        result.put("起运日期", qiYunYear);
-        
-        List<Map<String, Object>> daYunList = new ArrayList<>();
-        
-        // 获取月柱天干地支
-        String yueGan = chart.getYueZhu().getTianGan();
-        String yueZhi = chart.getYueZhu().getDiZhi();
-        String riZhu = chart.getRiZhuTianGan();
-        
-        TianGan currentGan = TianGan.fromName(yueGan);
-        DiZhi currentZhi = DiZhi.fromName(yueZhi);
-        
-        // 判断顺逆
-        // 阳年男命、阴年女命顺行；阴年男命、阳年女命逆行
-        String nianGan = chart.getNianZhu().getTianGan();
-        boolean isYangYear = TianGan.fromName(nianGan).isYang();
-        boolean isShun = (isYangYear && isMale) || (!isYangYear && !isMale);
-        
-        // 计算10步大运
-        for (int i = 0; i < 10; i++) {
-            if (isShun) {
-                currentGan = TianGan.fromIndex(currentGan.getIndex() + 1);
-                currentZhi = DiZhi.fromIndex(currentZhi.getIndex() + 1);
-            } else {
-                currentGan = TianGan.fromIndex(currentGan.getIndex() - 1 + 10);
-                currentZhi = DiZhi.fromIndex(currentZhi.getIndex() - 1 + 12);
-            }
-            
-            String ganZhi = currentGan.getName() + currentZhi.getName();
-            int startYear = qiYunYear + i * 10;
-            
-            DaYun daYun = new DaYun(ganZhi, startYear, riZhu);
-            daYunList.add(daYun.toMap());
-        }
-        
-        result.put("大运", daYunList);
-        
-        return result;
+    public DaYunResult calculate(BaZiChart chart, int birthYear, boolean isMale, int startAge) {
+        return calculateFromStartYear(chart, birthYear + startAge, isMale);
     }
 
     /**
      * 使用默认参数计算大运（假设起运年龄为3岁）
      */
-    public Map<String, Object> calculate(BaZiChart chart, int birthYear, boolean isMale) {
+    public DaYunResult calculate(BaZiChart chart, int birthYear, boolean isMale) {
         // 默认起运年龄为3岁
         return calculate(chart, birthYear, isMale, 3);
     }
@@ -72,42 +34,48 @@ public class DaYunAnalyzer {
     /**
      * 从指定起运年份开始计算大运
      */
-    public Map<String, Object> calculateFromStartYear(BaZiChart chart, int startYear, boolean isMale) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
-        result.put("起运日期", startYear);
-        
-        List<Map<String, Object>> daYunList = new ArrayList<>();
-        
-        String yueGan = chart.getYueZhu().getTianGan();
-        String yueZhi = chart.getYueZhu().getDiZhi();
-        String riZhu = chart.getRiZhuTianGan();
-        
-        TianGan currentGan = TianGan.fromName(yueGan);
-        DiZhi currentZhi = DiZhi.fromName(yueZhi);
-        
-        String nianGan = chart.getNianZhu().getTianGan();
-        boolean isYangYear = TianGan.fromName(nianGan).isYang();
-        boolean isShun = (isYangYear && isMale) || (!isYangYear && !isMale);
-        
-        for (int i = 0; i < 10; i++) {
-            if (isShun) {
-                currentGan = TianGan.fromIndex(currentGan.getIndex() + 1);
-                currentZhi = DiZhi.fromIndex(currentZhi.getIndex() + 1);
-            } else {
-                currentGan = TianGan.fromIndex(currentGan.getIndex() - 1 + 10);
-                currentZhi = DiZhi.fromIndex(currentZhi.getIndex() - 1 + 12);
-            }
-            
-            String ganZhi = currentGan.getName() + currentZhi.getName();
-            int currentStartYear = startYear + i * 10;
-            
-            DaYun daYun = new DaYun(ganZhi, currentStartYear, riZhu);
-            daYunList.add(daYun.toMap());
+    public DaYunResult calculateFromStartYear(BaZiChart chart, int startYear, boolean isMale) {
+        return calculateFromStartYear(chart.getPacked(), startYear, isMale);
+    }
+
+    /**
+     * 从指定起运年份开始计算大运（整数命盘）
+     */
+    public DaYunResult calculateFromStartYear(PackedBaZiChart packed, int startYear, boolean isMale) {
+        return calculateFromStartYear(packed, startYear, isMale, 10);
+    }
+
+    /**
+     * 从指定起运年份开始计算指定步数的大运
+     */
+    public DaYunResult calculateFromStartYear(PackedBaZiChart packed, int startYear, boolean isMale, int steps) {
+        List<DaYunStep> daYunList = new ArrayList<>(steps);
+        String riZhu = GanZhi.stemName(packed.riGan());
+        byte[] jiaZi = daYunJiaZi(packed, isMale, steps);
+        for (int i = 0; i < steps; i++) {
+            DaYun daYun = new DaYun(GanZhi.jiaZiName(jiaZi[i]), startYear + i * 10, riZhu);
+            daYunList.add(daYun.toStep());
+        }
+        return new DaYunResult(startYear, daYunList);
+    }
+
+    /**
+     * 各步大运的六十甲子编码
+     */
+    public byte[] daYunJiaZi(PackedBaZiChart packed, boolean isMale, int steps) {
+        // 判断顺逆
+        // 阳年男命、阴年女命顺行；阴年男命、阳年女命逆行
+        boolean isYangYear = GanZhi.isYangStem(packed.stem(PackedBaZiChart.NIAN));
+        boolean isShun = isYangYear == isMale;
+
+        // 自月柱起在六十甲子上顺推或逆推
+        int step = isShun ? 1 : GanZhi.JIA_ZI_COUNT - 1;
+        int jiaZi = packed.jiaZi(PackedBaZiChart.YUE);
+        byte[] result = new byte[steps];
+        for (int i = 0; i < steps; i++) {
+            jiaZi = (jiaZi + step) % GanZhi.JIA_ZI_COUNT;
+            result[i] = (byte) jiaZi;
         }
-        
-        result.put("大运", daYunList);
-        
         return result;
     }
 }
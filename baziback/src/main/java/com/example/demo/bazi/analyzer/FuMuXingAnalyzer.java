@@ -2,12 +2,14 @@ package com.example.demo.bazi.analyzer;
 
 import com.example.demo.bazi.constants.*;
 import com.example.demo.bazi.model.*;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
  * 父母星分析器
  * 正印为母亲，偏财为父亲
  */
+@Component
 public class FuMuXingAnalyzer {
     
     /**
@@ -16,31 +18,32 @@ public class FuMuXingAnalyzer {
     public Map<String, Object> analyze(BaZiChart chart) {
         Map<String, Object> result = new LinkedHashMap<>();
         
-        String riZhu = chart.getRiZhuTianGan();
+        PackedBaZiChart packed = chart.getPacked();
         
         Map<String, List<String>> fuMuXing = new LinkedHashMap<>();
         fuMuXing.put("正印-母亲", new ArrayList<>());
         fuMuXing.put("偏财-父亲", new ArrayList<>());
         
         // 分析四柱
-        for (Pillar pillar : chart.getAllPillars()) {
-            String pillarName = pillar.getName() + "柱";
+        for (int p = 0; p < PackedBaZiChart.PILLAR_COUNT; p++) {
+            String pillarName = PackedBaZiChart.pillarName(p) + "柱";
             
             // 检查天干
-            ShiShen tianGanSs = ShiShen.calculate(riZhu, pillar.getTianGan());
+            ShiShen tianGanSs = packed.stemShiShen(p);
             if (tianGanSs == ShiShen.ZHENG_YIN) {
-                fuMuXing.get("正印-母亲").add(pillarName + "天干**" + pillar.getTianGan() + "**");
+                fuMuXing.get("正印-母亲").add(pillarName + "天干**" + GanZhi.stemName(packed.stem(p)) + "**");
             } else if (tianGanSs == ShiShen.PIAN_CAI) {
-                fuMuXing.get("偏财-父亲").add(pillarName + "天干**" + pillar.getTianGan() + "**");
+                fuMuXing.get("偏财-父亲").add(pillarName + "天干**" + GanZhi.stemName(packed.stem(p)) + "**");
             }
             
             // 检查藏干
-            for (String cangGan : pillar.getDiZhiCangGan()) {
-                ShiShen ss = ShiShen.calculate(riZhu, cangGan);
+            int branch = packed.branch(p);
+            for (int i = 0, n = GanZhi.cangGanCount(branch); i < n; i++) {
+                ShiShen ss = packed.cangGanShiShen(p, i);
                 if (ss == ShiShen.ZHENG_YIN) {
-                    fuMuXing.get("正印-母亲").add(pillarName + "地支**" + pillar.getDiZhi() + "**藏正印");
+                    fuMuXing.get("正印-母亲").add(pillarName + "地支**" + GanZhi.branchName(branch) + "**藏正印");
                 } else if (ss == ShiShen.PIAN_CAI) {
-                    fuMuXing.get("偏财-父亲").add(pillarName + "地支**" + pillar.getDiZhi() + "**藏偏财");
+                    fuMuXing.get("偏财-父亲").add(pillarName + "地支**" + GanZhi.branchName(branch) + "**藏偏财");
                 }
             }
         }
@@ -2,11 +2,13 @@ package com.example.demo.bazi.analyzer;
 
 import com.example.demo.bazi.constants.*;
 import com.example.demo.bazi.model.*;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
  * 夫妻星分析器
  */
+@Component
 public class FuQiXingAnalyzer {
     
     /**
@@ -15,8 +17,8 @@ public class FuQiXingAnalyzer {
     public Map<String, Object> analyze(BaZiChart chart, boolean isMale) {
         Map<String, Object> result = new LinkedHashMap<>();
         
-        String riZhu = chart.getRiZhuTianGan();
-        WuXing riWuXing = WuXing.fromName(chart.getRiZhuWuXing());
+        PackedBaZiChart packed = chart.getPacked();
+        WuXing riWuXing = GanZhi.wuXing(GanZhi.stemWuXing(packed.riGan()));
         
         if (isMale) {
             // 男命：财星为妻
@@ -27,14 +29,14 @@ public class FuQiXingAnalyzer {
             qiXing.put("正财妻星", new ArrayList<>());
             qiXing.put("偏财妻星", new ArrayList<>());
             
-            analyzeQiXing(chart, riZhu, qiXing);
+            analyzeQiXing(packed, qiXing);
             result.put("妻星", qiXing);
             
             // 妻库（财库）
             Map<String, Object> qiKu = new LinkedHashMap<>();
             String kuZhi = qiWuXing.getKu();
             qiKu.put("妻库", kuZhi);
-            qiKu.put("妻库分布", findKuDistribution(chart, kuZhi));
+            qiKu.put("妻库分布", findKuDistribution(packed, DiZhi.fromName(kuZhi).ordinal()));
             result.put("妻库(财库)", qiKu);
             
         } else {
@@ -46,14 +48,14 @@ public class FuQiXingAnalyzer {
             fuXing.put("正官夫星", new ArrayList<>());
             fuXing.put("七杀夫星", new ArrayList<>());
             
-            analyzeFuXing(chart, riZhu, fuXing);
+            analyzeFuXing(packed, fuXing);
             result.put("夫星", fuXing);
             
             // 夫库（官库）
             Map<String, Object> fuKu = new LinkedHashMap<>();
             String kuZhi = fuWuXing.getKu();
             fuKu.put("夫库", kuZhi);
-            fuKu.put("夫库分布", findKuDistribution(chart, kuZhi));
+            fuKu.put("夫库分布", findKuDistribution(packed, DiZhi.fromName(kuZhi).ordinal()));
             result.put("夫库(官库)", fuKu);
         }
         
@@ -63,50 +65,52 @@ public class FuQiXingAnalyzer {
         return result;
     }
 
-    private void analyzeQiXing(BaZiChart chart, String riZhu, Map<String, List<String>> qiXing) {
-        for (Pillar pillar : chart.getAllPillars()) {
+    private void analyzeQiXing(PackedBaZiChart packed, Map<String, List<String>> qiXing) {
+        for (int p = 0; p < PackedBaZiChart.PILLAR_COUNT; p++) {
             // 检查藏干
-            for (String cangGan : pillar.getDiZhiCangGan()) {
-                ShiShen ss = ShiShen.calculate(riZhu, cangGan);
+            int branch = packed.branch(p);
+            for (int i = 0, n = GanZhi.cangGanCount(branch); i < n; i++) {
+                ShiShen ss = packed.cangGanShiShen(p, i);
                 if (ss == ShiShen.ZHENG_CAI) {
-                    qiXing.get("正财妻星").add(pillar.getName() + "柱地支**" + pillar.getDiZhi() + "**藏正财");
+                    qiXing.get("正财妻星").add(PackedBaZiChart.pillarName(p) + "柱地支**" + GanZhi.branchName(branch) + "**藏正财");
                 } else if (ss == ShiShen.PIAN_CAI) {
-                    qiXing.get("偏财妻星").add(pillar.getName() + "柱地支**" + pillar.getDiZhi() + "**藏偏财");
+                    qiXing.get("偏财妻星").add(PackedBaZiChart.pillarName(p) + "柱地支**" + GanZhi.branchName(branch) + "**藏偏财");
                 }
             }
         }
     }
 
-    private void analyzeFuXing(BaZiChart chart, String riZhu, Map<String, List<String>> fuXing) {
-        for (Pillar pillar : chart.getAllPillars()) {
+    private void analyzeFuXing(PackedBaZiChart packed, Map<String, List<String>> fuXing) {
+        for (int p = 0; p < PackedBaZiChart.PILLAR_COUNT; p++) {
+            String pillarName = PackedBaZiChart.pillarName(p);
+            
             // 检查天干
-            ShiShen tianGanSs = ShiShen.calculate(riZhu, pillar.getTianGan());
+            ShiShen tianGanSs = packed.stemShiShen(p);
             if (tianGanSs == ShiShen.ZHENG_GUAN) {
-                fuXing.get("正官夫星").add(pillar.getName() + "柱天干**" + pillar.getTianGan() + "**");
+                fuXing.get("正官夫星").add(pillarName + "柱天干**" + GanZhi.stemName(packed.stem(p)) + "**");
             } else if (tianGanSs == ShiShen.QI_SHA) {
-                fuXing.get("七杀夫星").add(pillar.getName() + "柱天干**" + pillar.getTianGan() + "**");
+                fuXing.get("七杀夫星").add(pillarName + "柱天干**" + GanZhi.stemName(packed.stem(p)) + "**");
             }
             
             // 检查藏干
-            for (String cangGan : pillar.getDiZhiCangGan()) {
-                ShiShen ss = ShiShen.calculate(riZhu, cangGan);
+            int branch = packed.branch(p);
+            for (int i = 0, n = GanZhi.cangGanCount(branch); i < n; i++) {
+                ShiShen ss = packed.cangGanShiShen(p, i);
                 if (ss == ShiShen.ZHENG_GUAN) {
-                    fuXing.get("正官夫星").add(pillar.getName() + "柱地支**" + pillar.getDiZhi() + "**藏正官");
+                    fuXing.get("正官夫星").add(pillarName + "柱地支**" + GanZhi.branchName(branch) + "**藏正官");
                 } else if (ss == ShiShen.QI_SHA) {
-                    fuXing.get("七杀夫星").add(pillar.getName() + "柱地支**" + pillar.getDiZhi() + "**藏七杀");
+                    fuXing.get("七杀夫星").add(pillarName + "柱地支**" + GanZhi.branchName(branch) + "**藏七杀");
                 }
             }
         }
     }
 
-    private List<String> findKuDistribution(BaZiChart chart, String kuZhi) {
+    private List<String> findKuDistribution(PackedBaZiChart packed, int kuZhi) {
         List<String> result = new ArrayList<>();
-        String[] names = {"年", "月", "日", "时"};
-        Pillar[] pillars = {chart.getNianZhu(), chart.getYueZhu(), chart.getRiZhu(), chart.getShiZhu()};
         
-        for (int i = 0; i < pillars.length; i++) {
-            if (pillars[i].getDiZhi().equals(kuZhi)) {
-                result.add(names[i] + "柱地支有库");
+        for (int p = 0; p < PackedBaZiChart.PILLAR_COUNT; p++) {
+            if (packed.branch(p) == kuZhi) {
+                result.add(PackedBaZiChart.pillarName(p) + "柱地支有库");
             }
         }
         
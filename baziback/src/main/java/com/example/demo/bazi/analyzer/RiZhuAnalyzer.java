@@ -2,11 +2,13 @@ package com.example.demo.bazi.analyzer;
 
 import com.example.demo.bazi.constants.*;
 import com.example.demo.bazi.model.*;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
  * 日柱分析器 - 分析日柱等级信息
  */
+@Component
 public class RiZhuAnalyzer {
 
     // 上等日柱
@@ -107,66 +109,55 @@ public class RiZhuAnalyzer {
         RI_TE_DIAN.put("壬戌", "魁罡日");
     }
 
+    // 按六十甲子编码展开的日柱等级、类象、日特点
+    private static final byte[] LEVEL = new byte[GanZhi.JIA_ZI_COUNT];
+    private static final String[] LEI_XIANG_BY_JIA_ZI = new String[GanZhi.JIA_ZI_COUNT];
+    private static final String[] RI_TE_DIAN_BY_JIA_ZI = new String[GanZhi.JIA_ZI_COUNT];
+
+    static {
+        for (int j = 0; j < GanZhi.JIA_ZI_COUNT; j++) {
+            String ganZhi = GanZhi.jiaZiName(j);
+            LEVEL[j] = (byte) (SHANG_DENG.contains(ganZhi) ? 1 : ZHONG_DENG.contains(ganZhi) ? 2 : 3);
+            LEI_XIANG_BY_JIA_ZI[j] = LEI_XIANG.getOrDefault(ganZhi, "伏潭之龙");
+            RI_TE_DIAN_BY_JIA_ZI[j] = RI_TE_DIAN.getOrDefault(ganZhi, "普通日柱");
+        }
+    }
+
+    private static final String[] LEVEL_LABELS = {"", "上等日柱", "中等日柱", "下等日柱"};
+
     /**
      * 分析日柱等级信息
      */
-    public Map<String, Object> analyze(BaZiChart chart) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
-        String riZhuGanZhi = chart.getRiZhu().getGanZhi();
-        String tianGan = chart.getRiZhu().getTianGan();
-        String diZhi = chart.getRiZhu().getDiZhi();
+    public RiZhuInfo analyze(BaZiChart chart) {
+        PackedBaZiChart packed = chart.getPacked();
+        int jiaZi = packed.jiaZi(PackedBaZiChart.RI);
+        int stem = packed.stem(PackedBaZiChart.RI);
+        int branch = packed.branch(PackedBaZiChart.RI);
+        String riZhuGanZhi = GanZhi.jiaZiName(jiaZi);
         
         // 等级
-        int level;
-        String levelLabel;
-        if (SHANG_DENG.contains(riZhuGanZhi)) {
-            level = 1;
-            levelLabel = "上等日柱";
-        } else if (ZHONG_DENG.contains(riZhuGanZhi)) {
-            level = 2;
-            levelLabel = "中等日柱";
-        } else {
-            level = 3;
-            levelLabel = "下等日柱";
-        }
-        result.put("等级", level);
-        result.put("等级标签", levelLabel);
+        int level = LEVEL[jiaZi];
         
         // 干支关系
-        WuXing tianGanWuXing = WuXing.fromName(TianGan.fromName(tianGan).getWuXing());
-        WuXing diZhiWuXing = WuXing.fromName(DiZhi.fromName(diZhi).getWuXing());
+        WuXing tianGanWuXing = GanZhi.wuXing(GanZhi.stemWuXing(stem));
+        WuXing diZhiWuXing = GanZhi.wuXing(GanZhi.branchWuXing(branch));
         String ganZhiRelation = determineGanZhiRelation(tianGanWuXing, diZhiWuXing);
-        result.put("干支关系", ganZhiRelation);
-        
-        // 十二运
-        String shiErYun = ShiErChangSheng.calculate(tianGan, diZhi);
-        result.put("十二运", shiErYun);
         
         // 吉神凶神
         List<String> jiShen = new ArrayList<>();
         List<String> xiongShen = new ArrayList<>();
         
-        if (ShenSha.isShiLing(riZhuGanZhi)) {
+        int shenShaMask = ShenShaTable.jiaZiMask(jiaZi);
+        if ((shenShaMask & ShenShaTable.SHI_LING) != 0) {
             jiShen.add("十灵");
         }
-        if (ShenSha.isShiEDaBai(riZhuGanZhi)) {
+        if ((shenShaMask & ShenShaTable.SHI_E_DA_BAI) != 0) {
             xiongShen.add("十恶大败");
         }
         
-        result.put("吉神", jiShen);
-        result.put("凶神", xiongShen);
-        
-        // 纳音
-        result.put("纳音", NaYin.getNaYin(riZhuGanZhi));
-        
-        // 类象
-        result.put("类象", LEI_XIANG.getOrDefault(riZhuGanZhi, "伏潭之龙"));
-        
-        // 日特点
-        result.put("日特点", RI_TE_DIAN.getOrDefault(riZhuGanZhi, "普通日柱"));
-        
-        return result;
+        return new RiZhuInfo(level, LEVEL_LABELS[level], ganZhiRelation,
+                ShiErChangSheng.calculate(stem, branch), jiShen, xiongShen,
+                NaYin.getNaYin(riZhuGanZhi), LEI_XIANG_BY_JIA_ZI[jiaZi], RI_TE_DIAN_BY_JIA_ZI[jiaZi]);
     }
 
     private String determineGanZhiRelation(WuXing tianGanWuXing, WuXing diZhiWuXing) {
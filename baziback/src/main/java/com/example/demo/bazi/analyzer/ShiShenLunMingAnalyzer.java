@@ -2,11 +2,13 @@ package com.example.demo.bazi.analyzer;
 
 import com.example.demo.bazi.constants.*;
 import com.example.demo.bazi.model.*;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
  * 四柱十神论命分析器
  */
+@Component
 public class ShiShenLunMingAnalyzer {
 
     // 十神论命知识库
@@ -118,6 +120,8 @@ public class ShiShenLunMingAnalyzer {
             "[家庭背景]祖业零落，家境清贫。",
             "[性格]独立性强，思想怪异。"
         ));
+        // 知识条目直接放入分析结果并被缓存共享，转为不可变列表
+        KNOWLEDGE_BASE.replaceAll((key, knowledge) -> List.copyOf(knowledge));
     }
 
     /**
@@ -126,105 +130,66 @@ public class ShiShenLunMingAnalyzer {
     public Map<String, List<String>> analyze(BaZiChart chart) {
         Map<String, List<String>> result = new LinkedHashMap<>();
         
-        String riZhu = chart.getRiZhuTianGan();
+        PackedBaZiChart packed = chart.getPacked();
         
-        // 分析日主坐支
-        String riZhiShiShen = getMainCangGanShiShen(chart.getRiZhu(), riZhu);
-        if (riZhiShiShen != null) {
-            String key = "日主坐" + riZhiShiShen;
-            if (KNOWLEDGE_BASE.containsKey(key)) {
-                result.put(key, KNOWLEDGE_BASE.get(key));
-            }
-        }
+        // 分析日主坐支（地支本气十神）
+        String riZhiShiShen = packed.cangGanShiShen(PackedBaZiChart.RI, 0).getName();
+        put(result, "日主坐" + riZhiShiShen);
         
         // 分析各柱十神
-        analyzeYearPillar(chart, result);
-        analyzeMonthPillar(chart, result);
-        analyzeHourPillar(chart, result);
+        analyzeYearPillar(packed, result);
+        analyzeMonthPillar(packed, result);
+        analyzeHourPillar(packed, result);
         
         return result;
     }
 
-    private String getMainCangGanShiShen(Pillar pillar, String riZhu) {
-        if (!pillar.getDiZhiCangGan().isEmpty()) {
-            String mainCangGan = pillar.getDiZhiCangGan().get(0);
-            return ShiShen.calculate(riZhu, mainCangGan).getName();
+    private void put(Map<String, List<String>> result, String key) {
+        List<String> knowledge = KNOWLEDGE_BASE.get(key);
+        if (knowledge != null) {
+            result.put(key, knowledge);
         }
-        return null;
     }
 
-    private void analyzeYearPillar(BaZiChart chart, Map<String, List<String>> result) {
-        Pillar nianZhu = chart.getNianZhu();
-        String riZhu = chart.getRiZhuTianGan();
-        
+    private void analyzeYearPillar(PackedBaZiChart packed, Map<String, List<String>> result) {
         // 年柱地支十神
-        for (String cangGan : nianZhu.getDiZhiCangGan()) {
-            ShiShen ss = ShiShen.calculate(riZhu, cangGan);
-            String key = ss.getName() + "在年柱地支";
-            if (KNOWLEDGE_BASE.containsKey(key)) {
-                result.put(key, KNOWLEDGE_BASE.get(key));
-            }
+        int n = GanZhi.cangGanCount(packed.branch(PackedBaZiChart.NIAN));
+        for (int i = 0; i < n; i++) {
+            put(result, packed.cangGanShiShen(PackedBaZiChart.NIAN, i).getName() + "在年柱地支");
         }
     }
 
-    private void analyzeMonthPillar(BaZiChart chart, Map<String, List<String>> result) {
-        Pillar yueZhu = chart.getYueZhu();
-        String riZhu = chart.getRiZhuTianGan();
-        
+    private void analyzeMonthPillar(PackedBaZiChart packed, Map<String, List<String>> result) {
         // 月柱天干十神
-        String tianGanSs = ShiShen.calculate(riZhu, yueZhu.getTianGan()).getName();
-        String key1 = tianGanSs + "在月柱天干";
-        if (KNOWLEDGE_BASE.containsKey(key1)) {
-            result.put(key1, KNOWLEDGE_BASE.get(key1));
-        }
+        String tianGanSs = packed.stemShiShen(PackedBaZiChart.YUE).getName();
+        put(result, tianGanSs + "在月柱天干");
         
         // 月柱地支十神
-        for (String cangGan : yueZhu.getDiZhiCangGan()) {
-            ShiShen ss = ShiShen.calculate(riZhu, cangGan);
-            String key2 = ss.getName() + "在月柱地支";
-            if (KNOWLEDGE_BASE.containsKey(key2)) {
-                result.put(key2, KNOWLEDGE_BASE.get(key2));
-            }
+        int n = GanZhi.cangGanCount(packed.branch(PackedBaZiChart.YUE));
+        for (int i = 0; i < n; i++) {
+            put(result, packed.cangGanShiShen(PackedBaZiChart.YUE, i).getName() + "在月柱地支");
         }
         
         // 月柱组合
-        if (!yueZhu.getDiZhiCangGan().isEmpty()) {
-            String diZhiMainSs = ShiShen.calculate(riZhu, yueZhu.getDiZhiCangGan().get(0)).getName();
-            String combKey = "月柱" + tianGanSs + "坐" + diZhiMainSs;
-            if (KNOWLEDGE_BASE.containsKey(combKey)) {
-                result.put(combKey, KNOWLEDGE_BASE.get(combKey));
-            }
-        }
+        String diZhiMainSs = packed.cangGanShiShen(PackedBaZiChart.YUE, 0).getName();
+        put(result, "月柱" + tianGanSs + "坐" + diZhiMainSs);
     }
 
-    private void analyzeHourPillar(BaZiChart chart, Map<String, List<String>> result) {
-        Pillar shiZhu = chart.getShiZhu();
-        String riZhu = chart.getRiZhuTianGan();
-        
-        String tianGanSs = ShiShen.calculate(riZhu, shiZhu.getTianGan()).getName();
+    private void analyzeHourPillar(PackedBaZiChart packed, Map<String, List<String>> result) {
+        String tianGanSs = packed.stemShiShen(PackedBaZiChart.SHI).getName();
+        int n = GanZhi.cangGanCount(packed.branch(PackedBaZiChart.SHI));
         
         // 时柱地支十神
-        for (String cangGan : shiZhu.getDiZhiCangGan()) {
-            ShiShen ss = ShiShen.calculate(riZhu, cangGan);
-            String key = ss.getName() + "在时柱地支";
-            if (KNOWLEDGE_BASE.containsKey(key)) {
-                result.put(key, KNOWLEDGE_BASE.get(key));
-            }
+        for (int i = 0; i < n; i++) {
+            put(result, packed.cangGanShiShen(PackedBaZiChart.SHI, i).getName() + "在时柱地支");
         }
         
         // 时柱组合
-        for (String cangGan : shiZhu.getDiZhiCangGan()) {
-            String diZhiSs = ShiShen.calculate(riZhu, cangGan).getName();
-            String combKey = "时柱" + tianGanSs + "坐" + diZhiSs;
-            if (KNOWLEDGE_BASE.containsKey(combKey)) {
-                result.put(combKey, KNOWLEDGE_BASE.get(combKey));
-            }
+        for (int i = 0; i < n; i++) {
+            put(result, "时柱" + tianGanSs + "坐" + packed.cangGanShiShen(PackedBaZiChart.SHI, i).getName());
         }
         
         // 时柱其他规则
-        String otherKey = tianGanSs + "在时柱其他规则";
-        if (KNOWLEDGE_BASE.containsKey(otherKey)) {
-            result.put(otherKey, KNOWLEDGE_BASE.get(otherKey));
-        }
+        put(result, tianGanSs + "在时柱其他规则");
     }
 }
@@ -1,11 +1,16 @@
 package com.example.demo.bazi.analyzer;
 
+import com.example.demo.bazi.constants.GanZhi;
 import com.example.demo.bazi.model.*;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
  * 调候分析器
+ *
+ * 调候用神表在类加载时展开为按日干、月支下标的不可变数组，实例无状态，由 Spring 以单例注入
  */
+@Component
 public class TiaoHouAnalyzer {
 
     // 调候用神表：日干 + 月支 -> 调候用神
@@ -173,37 +178,44 @@ public class TiaoHouAnalyzer {
         TIAO_HOU_TABLE.put("癸", gui);
     }
 
+    // 按 日干 * 12 + 月支 展开的调候用神（不可变列表）及其天干掩码
+    private static final List<List<String>> YONG_SHEN_BY_STEM_BRANCH;
+    private static final short[] YONG_SHEN_MASK = new short[GanZhi.STEM_COUNT * GanZhi.BRANCH_COUNT];
+
+    static {
+        List<List<String>> yongShen = new ArrayList<>(GanZhi.STEM_COUNT * GanZhi.BRANCH_COUNT);
+        for (int stem = 0; stem < GanZhi.STEM_COUNT; stem++) {
+            for (int branch = 0; branch < GanZhi.BRANCH_COUNT; branch++) {
+                String[] gans = TIAO_HOU_TABLE.get(GanZhi.stemName(stem)).get(GanZhi.branchName(branch));
+                int mask = 0;
+                for (String gan : gans) {
+                    mask |= 1 << GanZhi.stemIndex(gan.charAt(0));
+                }
+                yongShen.add(List.of(gans));
+                YONG_SHEN_MASK[stem * GanZhi.BRANCH_COUNT + branch] = (short) mask;
+            }
+        }
+        YONG_SHEN_BY_STEM_BRANCH = List.copyOf(yongShen);
+    }
+
     /**
      * 分析调候信息
      */
-    public Map<String, Object> analyze(BaZiChart chart) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
-        String riGan = chart.getRiZhuTianGan();
-        String yueZhi = chart.getYueZhu().getDiZhi();
+    public TiaoHouResult analyze(BaZiChart chart) {
+        PackedBaZiChart packed = chart.getPacked();
+        int riGan = packed.riGan();
+        int yueZhi = packed.branch(PackedBaZiChart.YUE);
         String jiJie = chart.getJiJie();
         
-        // 获取调候用神
-        String[] tiaoHouYongShen = getTiaoHouYongShen(riGan, yueZhi);
-        result.put("调候用神", tiaoHouYongShen != null ? Arrays.asList(tiaoHouYongShen) : new ArrayList<>());
-        
         // 检查当前八字的调候情况
-        Map<String, List<String>> currentTiaoHou = new LinkedHashMap<>();
-        currentTiaoHou.put("透干", new ArrayList<>());
-        currentTiaoHou.put("支藏", new ArrayList<>());
-        
-        if (tiaoHouYongShen != null) {
-            checkTiaoHou(chart, tiaoHouYongShen, currentTiaoHou);
-        }
-        result.put("当前八字调候情况", currentTiaoHou);
+        TiaoHouStatus status = checkTiaoHou(packed, YONG_SHEN_MASK[riGan * GanZhi.BRANCH_COUNT + yueZhi]);
         
         // 判断调候湿燥等级
-        String shiZaoLevel = determineShiZaoLevel(jiJie, currentTiaoHou);
-        result.put("调候湿燥等级", shiZaoLevel);
+        String shiZaoLevel = determineShiZaoLevel(jiJie, status);
         
         // 知识点
         List<String> zhiShiDian = new ArrayList<>();
-        if (currentTiaoHou.get("透干").isEmpty() && currentTiaoHou.get("支藏").isEmpty()) {
+        if (status.isEmpty()) {
             zhiShiDian.add("调候缺乏");
         }
         if ("寒湿".equals(shiZaoLevel)) {
@@ -213,9 +225,8 @@ public class TiaoHouAnalyzer {
         } else if ("中和".equals(shiZaoLevel)) {
             zhiShiDian.add("调候得宜");
         }
-        result.put("知识点", zhiShiDian);
         
-        return result;
+        return new TiaoHouResult(getTiaoHouYongShen(riGan, yueZhi), status, shiZaoLevel, zhiShiDian);
     }
 
     /**
@@ -224,39 +235,53 @@ public class TiaoHouAnalyzer {
     public String[] getTiaoHouYongShen(String riGan, String yueZhi) {
         Map<String, String[]> ganMap = TIAO_HOU_TABLE.get(riGan);
         if (ganMap != null) {
-            return ganMap.get(yueZhi);
+            String[] yongShen = ganMap.get(yueZhi);
+            return yongShen != null ? yongShen.clone() : null;
         }
         return null;
     }
 
     /**
-     * 检查调候情况
+     * 获取调候用神（不可变列表，十天干十二月支均有）
+     * @param riGan 日干编码
+     * @param yueZhi 月支编码
      */
-    private void checkTiaoHou(BaZiChart chart, String[] tiaoHouYongShen, 
-                              Map<String, List<String>> currentTiaoHou) {
-        Set<String> tiaoHouSet = new HashSet<>(Arrays.asList(tiaoHouYongShen));
-        
-        for (Pillar pillar : chart.getAllPillars()) {
+    public List<String> getTiaoHouYongShen(int riGan, int yueZhi) {
+        return YONG_SHEN_BY_STEM_BRANCH.get(riGan * GanZhi.BRANCH_COUNT + yueZhi);
+    }
+
+    /**
+     * 检查调候情况：各柱依次看天干、藏干是否在调候用神中
+     * @param mask 调候用神的天干掩码
+     */
+    private TiaoHouStatus checkTiaoHou(PackedBaZiChart packed, int mask) {
+        List<String> touGan = new ArrayList<>();
+        List<String> zhiCang = new ArrayList<>();
+        for (int p = 0; p < PackedBaZiChart.PILLAR_COUNT; p++) {
             // 检查天干
-            if (tiaoHouSet.contains(pillar.getTianGan())) {
-                currentTiaoHou.get("透干").add(pillar.getTianGan());
+            int stem = packed.stem(p);
+            if ((mask & 1 << stem) != 0) {
+                touGan.add(GanZhi.stemName(stem));
             }
             
             // 检查藏干
-            for (String cangGan : pillar.getDiZhiCangGan()) {
-                if (tiaoHouSet.contains(cangGan)) {
-                    currentTiaoHou.get("支藏").add(cangGan);
+            int branch = packed.branch(p);
+            for (int i = 0; i < GanZhi.cangGanCount(branch); i++) {
+                int cangGan = GanZhi.cangGan(branch, i);
+                if ((mask & 1 << cangGan) != 0) {
+                    zhiCang.add(GanZhi.stemName(cangGan));
                 }
             }
         }
+        return new TiaoHouStatus(touGan, zhiCang);
     }
 
     /**
      * 判断湿燥等级
      */
-    private String determineShiZaoLevel(String jiJie, Map<String, List<String>> currentTiaoHou) {
-        boolean hasTouGan = !currentTiaoHou.get("透干").isEmpty();
-        boolean hasZhiCang = !currentTiaoHou.get("支藏").isEmpty();
+    private String determineShiZaoLevel(String jiJie, TiaoHouStatus status) {
+        boolean hasTouGan = !status.touGan().isEmpty();
+        boolean hasZhiCang = !status.zhiCang().isEmpty();
         
         // 冬季或秋季偏寒湿
         if ("冬".equals(jiJie) || "秋".equals(jiJie)) {
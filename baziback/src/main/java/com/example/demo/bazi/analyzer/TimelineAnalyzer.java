@@ -0,0 +1,70 @@
+package com.example.demo.bazi.analyzer;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 运势时间轴生成器
+ *
+ * 一次生成任意年数的大运、流年、流月编码列：流年编码逐年加一，
+ * 流月按年干查五虎遁表整行拷贝，大运按步数顺逆推，全程不创建逐年对象。
+ */
+@Component
+public class TimelineAnalyzer {
+
+    // [年干] -> 十二个流月的甲子编码
+    private static final byte[][] MONTH_ROWS = new byte[GanZhi.STEM_COUNT][FortuneTimeline.MONTHS];
+
+    static {
+        for (int stem = 0; stem < GanZhi.STEM_COUNT; stem++) {
+            for (int m = 1; m <= FortuneTimeline.MONTHS; m++) {
+                MONTH_ROWS[stem][m - 1] = (byte) GanZhi.monthJiaZi(stem, m);
+            }
+        }
+    }
+
+    private final DaYunAnalyzer daYunAnalyzer;
+
+    public TimelineAnalyzer() {
+        this(new DaYunAnalyzer());
+    }
+
+    @Autowired
+    public TimelineAnalyzer(DaYunAnalyzer daYunAnalyzer) {
+        this.daYunAnalyzer = daYunAnalyzer;
+    }
+
+    /**
+     * 生成时间轴
+     * @param packed 整数命盘
+     * @param isMale 是否男命
+     * @param birthYear 出生年份
+     * @param qiYunAge 起运年龄
+     * @param fromYear 首个流年
+     * @param years 年数
+     */
+    public FortuneTimeline generate(PackedBaZiChart packed, boolean isMale, int birthYear, int qiYunAge,
+                                    int fromYear, int years) {
+        if (years < 0) {
+            throw new IllegalArgumentException("年数不能为负: " + years);
+        }
+        int daYunStartYear = birthYear + qiYunAge;
+        // 覆盖到时间轴最后一年所需的大运步数
+        int lastYear = fromYear + years - 1;
+        int steps = lastYear < daYunStartYear ? 0 : (lastYear - daYunStartYear) / 10 + 1;
+        byte[] daYun = daYunAnalyzer.daYunJiaZi(packed, isMale, steps);
+
+        byte[] liuNian = new byte[years];
+        byte[] liuYue = new byte[years * FortuneTimeline.MONTHS];
+        int jiaZi = GanZhi.yearJiaZi(fromYear);
+        for (int i = 0; i < years; i++) {
+            liuNian[i] = (byte) jiaZi;
+            System.arraycopy(MONTH_ROWS[GanZhi.stemOf(jiaZi)], 0, liuYue, i * FortuneTimeline.MONTHS,
+                    FortuneTimeline.MONTHS);
+            jiaZi = jiaZi + 1 == GanZhi.JIA_ZI_COUNT ? 0 : jiaZi + 1;
+        }
+        return new FortuneTimeline(packed.riGan(), birthYear, fromYear, daYunStartYear, daYun, liuNian, liuYue);
+    }
+}
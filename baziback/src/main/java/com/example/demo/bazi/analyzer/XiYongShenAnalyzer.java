@@ -2,216 +2,180 @@ package com.example.demo.bazi.analyzer;
 
 import com.example.demo.bazi.constants.*;
 import com.example.demo.bazi.model.*;
+import com.example.demo.bazi.util.WuXingStrength;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
  * 喜用神分析器
  */
+@Component
 public class XiYongShenAnalyzer {
 
-    private TiaoHouAnalyzer tiaoHouAnalyzer = new TiaoHouAnalyzer();
+    private final TiaoHouAnalyzer tiaoHouAnalyzer;
+
+    public XiYongShenAnalyzer() {
+        this(new TiaoHouAnalyzer());
+    }
+
+    /**
+     * @param tiaoHouAnalyzer 单独分析喜用神（无调候结果可复用）时查调候用神
+     */
+    @Autowired
+    public XiYongShenAnalyzer(TiaoHouAnalyzer tiaoHouAnalyzer) {
+        this.tiaoHouAnalyzer = tiaoHouAnalyzer;
+    }
 
     /**
      * 分析喜用神
      */
-    public Map<String, Object> analyze(BaZiChart chart) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
+    public XiYongShenResult analyze(BaZiChart chart) {
+        PackedBaZiChart packed = chart.getPacked();
+        return analyzeWithTiaoHou(chart,
+                tiaoHouAnalyzer.getTiaoHouYongShen(packed.riGan(), packed.branch(PackedBaZiChart.YUE)));
+    }
+
+    /**
+     * 分析喜用神，复用调候分析结果
+     * @param tiaoHou {@link TiaoHouAnalyzer#analyze} 的结果
+     */
+    public XiYongShenResult analyze(BaZiChart chart, TiaoHouResult tiaoHou) {
+        List<String> tiaoHouYongShen = tiaoHou.yongShen();
+        return analyzeWithTiaoHou(chart, tiaoHouYongShen.isEmpty() ? null : tiaoHouYongShen);
+    }
+
+    private XiYongShenResult analyzeWithTiaoHou(BaZiChart chart, List<String> tiaoHouYongShen) {
         // 分析日主强弱
-        Map<String, Object> riZhuQiangRuo = analyzeRiZhuStrength(chart);
-        boolean isStrong = (boolean) riZhuQiangRuo.get("身强");
-        
-        // 日主强弱推荐
-        Map<String, Object> riZhuTuiJian = new LinkedHashMap<>();
-        if (isStrong) {
-            riZhuTuiJian.put("喜用五行", Arrays.asList("金", "水", "木"));
-            riZhuTuiJian.put("忌用五行", Arrays.asList("土"));
-        } else {
-            riZhuTuiJian.put("喜用五行", Arrays.asList("木", "水", "火"));
-            riZhuTuiJian.put("忌用五行", Arrays.asList("土"));
-        }
-        result.put("日主强弱推荐", riZhuTuiJian);
+        double[] scores = new double[WuXingStrength.ELEMENT_COUNT];
+        WuXingStrength.getDefault().compute(chart.getPacked(), scores);
+        RiZhuStrength riZhuQiangRuo = analyzeRiZhuStrength(chart, scores);
+        boolean isStrong = riZhuQiangRuo.strong();
+        
+        // 日主强弱推荐：身强取克泄耗（官杀、食伤、财），身弱取生扶（印、比劫），各按五行力量由弱到强排列
+        int riWuXing = GanZhi.stemWuXing(chart.getPacked().riGan());
+        int[] support = {riWuXing, (riWuXing + 4) % 5};
+        int[] restrain = {(riWuXing + 3) % 5, (riWuXing + 1) % 5, (riWuXing + 2) % 5};
+        YongShenTuiJian riZhuTuiJian = new YongShenTuiJian(null, riZhuQiangRuo.panDuan(), null,
+                wuXingNames(isStrong ? restrain : support, scores), null,
+                wuXingNames(isStrong ? support : restrain, scores), null);
         
         // 调候推荐
-        String riGan = chart.getRiZhuTianGan();
-        String yueZhi = chart.getYueZhu().getDiZhi();
-        String[] tiaoHouYongShen = tiaoHouAnalyzer.getTiaoHouYongShen(riGan, yueZhi);
-        
-        Map<String, Object> tiaoHouTuiJian = new LinkedHashMap<>();
+        YongShenTuiJian tiaoHouTuiJian = YongShenTuiJian.NONE;
         if (tiaoHouYongShen != null) {
-            tiaoHouTuiJian.put("喜用天干", Arrays.asList(tiaoHouYongShen));
-            
             // 转换为五行
             Set<String> wuXingSet = new LinkedHashSet<>();
             for (String gan : tiaoHouYongShen) {
                 wuXingSet.add(TianGan.fromName(gan).getWuXing());
             }
-            tiaoHouTuiJian.put("喜用五行", new ArrayList<>(wuXingSet));
+            tiaoHouTuiJian = new YongShenTuiJian(null, null, tiaoHouYongShen, new ArrayList<>(wuXingSet),
+                    null, null, null);
         }
-        result.put("调候推荐", tiaoHouTuiJian);
         
         // 格局推荐
-        Map<String, Object> geJuTuiJian = analyzeGeJu(chart);
-        result.put("格局推荐", geJuTuiJian);
+        YongShenTuiJian geJuTuiJian = analyzeGeJu(chart);
         
         // 综合推荐
-        Map<String, Object> zongHeTuiJian = synthesizeRecommendation(riZhuTuiJian, tiaoHouTuiJian, geJuTuiJian);
-        result.put("综合推荐", zongHeTuiJian);
+        YongShenTuiJian zongHeTuiJian = synthesizeRecommendation(riZhuTuiJian, tiaoHouTuiJian, geJuTuiJian);
         
-        return result;
+        return new XiYongShenResult(riZhuQiangRuo, riZhuTuiJian, tiaoHouTuiJian, geJuTuiJian, zongHeTuiJian);
     }
 
     /**
-     * 分析日主强弱
+     * 分析日主强弱：按同党（比劫与印星）在五行力量中的占比判断，阈值见 {@link WuXingStrength#STRONG_SAME_SIDE_RATIO}
+     * @param scores {@link WuXingStrength} 计算的五行分值
      */
-    private Map<String, Object> analyzeRiZhuStrength(BaZiChart chart) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
-        String riGan = chart.getRiZhuTianGan();
-        WuXing riWuXing = WuXing.fromName(TianGan.fromName(riGan).getWuXing());
-        WuXing yinWuXing = riWuXing.getBeSheng(); // 生我者
-        
-        int strength = 0;
-        
-        // 检查月令
-        String yueZhi = chart.getYueZhu().getDiZhi();
-        String yueZhiWuXing = DiZhi.fromName(yueZhi).getWuXing();
-        if (yueZhiWuXing.equals(riWuXing.getName()) || yueZhiWuXing.equals(yinWuXing.getName())) {
-            strength += 30; // 得月令
-        }
-        
-        // 检查四柱天干地支
-        for (Pillar pillar : chart.getAllPillars()) {
-            // 天干
-            String tianGanWuXing = pillar.getTianGanWuXing();
-            if (tianGanWuXing.equals(riWuXing.getName())) {
-                strength += 10; // 比劫帮身
-            } else if (tianGanWuXing.equals(yinWuXing.getName())) {
-                strength += 8; // 印星生身
-            }
-            
-            // 地支
-            String diZhiWuXing = pillar.getDiZhiWuXing();
-            if (diZhiWuXing.equals(riWuXing.getName())) {
-                strength += 8;
-            } else if (diZhiWuXing.equals(yinWuXing.getName())) {
-                strength += 6;
-            }
-            
-            // 藏干
-            for (String cangGan : pillar.getDiZhiCangGan()) {
-                String cangGanWuXing = TianGan.fromName(cangGan).getWuXing();
-                if (cangGanWuXing.equals(riWuXing.getName())) {
-                    strength += 3;
-                } else if (cangGanWuXing.equals(yinWuXing.getName())) {
-                    strength += 2;
-                }
-            }
-        }
-        
-        // 检查十二长生状态
-        String riZhuXingYun = chart.getXingYun().get("日");
-        if (ShiErChangSheng.isWangXiang(riZhuXingYun)) {
-            strength += 15;
-        } else if (ShiErChangSheng.isShuaiBai(riZhuXingYun)) {
-            strength -= 10;
+    private RiZhuStrength analyzeRiZhuStrength(BaZiChart chart, double[] scores) {
+        int riWuXing = GanZhi.stemWuXing(chart.getPacked().riGan());
+        double ratio = WuXingStrength.sameSideRatio(scores, riWuXing);
+        boolean isStrong = WuXingStrength.isStrong(scores, riWuXing);
+
+        Map<String, Double> wuXingLiLiang = new LinkedHashMap<>();
+        for (int e = 0; e < scores.length; e++) {
+            wuXingLiLiang.put(GanZhi.wuXing(e).getName(), round2(scores[e]));
         }
-        
-        boolean isStrong = strength >= 50;
-        result.put("身强", isStrong);
-        result.put("强度分值", strength);
-        result.put("判断", isStrong ? "身强" : "身弱");
-        
-        return result;
+        // 强度分值为同党占比的百分数，50 分起为身强
+        return new RiZhuStrength(isStrong, (int) Math.round(ratio * 100), isStrong ? "身强" : "身弱",
+                wuXingLiLiang, round2(ratio));
+    }
+
+    private static List<String> wuXingNames(int[] wuXing, double[] scores) {
+        return Arrays.stream(wuXing).boxed()
+                .sorted(Comparator.comparingDouble(e -> scores[e]))
+                .map(e -> GanZhi.wuXing(e).getName())
+                .toList();
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
     }
 
     /**
      * 分析格局推荐
      */
-    private Map<String, Object> analyzeGeJu(BaZiChart chart) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
+    private YongShenTuiJian analyzeGeJu(BaZiChart chart) {
         // 检查月柱天干十神来确定格局
-        String yueGanShiShen = chart.getYueZhu().getTianGanShiShen();
+        String yueGanShiShen = chart.getPacked().stemShiShen(PackedBaZiChart.YUE).getName();
         
         // 根据格局推荐喜用神
         switch (yueGanShiShen) {
             case "正财":
             case "偏财":
-                result.put("格局", yueGanShiShen + "格");
-                result.put("喜用五行", Arrays.asList("金")); // 官星护财
-                result.put("喜用十神", Arrays.asList("正官"));
-                result.put("忌用五行", Arrays.asList("金", "火"));
-                result.put("忌用十神", Arrays.asList("七杀", "伤官"));
-                break;
+                return geJu(yueGanShiShen + "格",
+                        List.of("金"), List.of("正官"), // 官星护财
+                        List.of("金", "火"), List.of("七杀", "伤官"));
             case "正官":
-                result.put("格局", "正官格");
-                result.put("喜用五行", Arrays.asList("水")); // 印星化官
-                result.put("喜用十神", Arrays.asList("正印"));
-                result.put("忌用五行", Arrays.asList("火"));
-                result.put("忌用十神", Arrays.asList("伤官"));
-                break;
+                return geJu("正官格",
+                        List.of("水"), List.of("正印"), // 印星化官
+                        List.of("火"), List.of("伤官"));
             case "七杀":
-                result.put("格局", "七杀格");
-                result.put("喜用五行", Arrays.asList("火")); // 食神制杀
-                result.put("喜用十神", Arrays.asList("食神"));
-                result.put("忌用五行", Arrays.asList("金"));
-                result.put("忌用十神", Arrays.asList("财星"));
-                break;
+                return geJu("七杀格",
+                        List.of("火"), List.of("食神"), // 食神制杀
+                        List.of("金"), List.of("财星"));
             case "正印":
             case "偏印":
-                result.put("格局", yueGanShiShen + "格");
-                result.put("喜用五行", Arrays.asList("金")); // 官星生印
-                result.put("喜用十神", Arrays.asList("正官"));
-                result.put("忌用五行", Arrays.asList("土"));
-                result.put("忌用十神", Arrays.asList("财星"));
-                break;
+                return geJu(yueGanShiShen + "格",
+                        List.of("金"), List.of("正官"), // 官星生印
+                        List.of("土"), List.of("财星"));
             case "食神":
             case "伤官":
-                result.put("格局", yueGanShiShen + "格");
-                result.put("喜用五行", Arrays.asList("土")); // 食伤生财
-                result.put("喜用十神", Arrays.asList("正财", "偏财"));
-                result.put("忌用五行", Arrays.asList("水"));
-                result.put("忌用十神", Arrays.asList("印星"));
-                break;
+                return geJu(yueGanShiShen + "格",
+                        List.of("土"), List.of("正财", "偏财"), // 食伤生财
+                        List.of("水"), List.of("印星"));
             default:
-                result.put("格局", "比劫格");
-                result.put("喜用五行", Arrays.asList("金", "土"));
-                result.put("喜用十神", Arrays.asList("正官", "正财"));
-                result.put("忌用五行", Arrays.asList("木"));
-                result.put("忌用十神", Arrays.asList("比肩", "劫财"));
-                break;
+                return geJu("比劫格",
+                        List.of("金", "土"), List.of("正官", "正财"),
+                        List.of("木"), List.of("比肩", "劫财"));
         }
-        
-        return result;
+    }
+
+    private static YongShenTuiJian geJu(String geJu, List<String> xiYongWuXing, List<String> xiYongShiShen,
+                                        List<String> jiYongWuXing, List<String> jiYongShiShen) {
+        return new YongShenTuiJian(geJu, null, null, xiYongWuXing, xiYongShiShen, jiYongWuXing, jiYongShiShen);
     }
 
     /**
      * 综合推荐
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> synthesizeRecommendation(Map<String, Object> riZhuTuiJian,
-                                                          Map<String, Object> tiaoHouTuiJian,
-                                                          Map<String, Object> geJuTuiJian) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
+    private YongShenTuiJian synthesizeRecommendation(YongShenTuiJian riZhuTuiJian,
+                                                     YongShenTuiJian tiaoHouTuiJian,
+                                                     YongShenTuiJian geJuTuiJian) {
         // 综合喜用五行
         Set<String> xiYongWuXing = new LinkedHashSet<>();
-        if (tiaoHouTuiJian.containsKey("喜用五行")) {
-            xiYongWuXing.addAll((List<String>) tiaoHouTuiJian.get("喜用五行"));
+        if (tiaoHouTuiJian.xiYongWuXing() != null) {
+            xiYongWuXing.addAll(tiaoHouTuiJian.xiYongWuXing());
         }
-        if (geJuTuiJian.containsKey("喜用五行")) {
-            xiYongWuXing.addAll((List<String>) geJuTuiJian.get("喜用五行"));
+        if (geJuTuiJian.xiYongWuXing() != null) {
+            xiYongWuXing.addAll(geJuTuiJian.xiYongWuXing());
         }
-        result.put("喜用五行", new ArrayList<>(xiYongWuXing));
         
         // 综合忌用五行
         Set<String> jiYongWuXing = new LinkedHashSet<>();
-        if (riZhuTuiJian.containsKey("忌用五行")) {
-            jiYongWuXing.addAll((List<String>) riZhuTuiJian.get("忌用五行"));
+        if (riZhuTuiJian.jiYongWuXing() != null) {
+            jiYongWuXing.addAll(riZhuTuiJian.jiYongWuXing());
         }
-        result.put("忌用五行", new ArrayList<>(jiYongWuXing));
         
-        return result;
+        return new YongShenTuiJian(null, null, null, new ArrayList<>(xiYongWuXing), null,
+                new ArrayList<>(jiYongWuXing), null);
     }
 }
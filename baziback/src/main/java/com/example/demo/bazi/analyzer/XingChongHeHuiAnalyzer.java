@@ -2,196 +2,266 @@ package com.example.demo.bazi.analyzer;
 
 import com.example.demo.bazi.constants.*;
 import com.example.demo.bazi.model.*;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
  * 刑冲合会分析器
  */
+@Component
 public class XingChongHeHuiAnalyzer {
+
+    // 天干关系位
+    public static final int GAN_HE = 1;
+    public static final int GAN_KE = 1 << 1;
+
+    // 地支关系位
+    public static final int ZHI_HE = 1;
+    public static final int ZHI_CHONG = 1 << 1;
+    public static final int ZHI_BAN_HE = 1 << 2;
+    public static final int ZHI_XING = 1 << 3;
+    public static final int ZHI_PO = 1 << 4;
+    public static final int ZHI_HAI = 1 << 5;
+
+    // 半合五行：按地支编码 % 4 分组（申子辰水、巳酉丑金、寅午戌火、亥卯未木）
+    private static final String[] BAN_HE_WU_XING = {"水", "金", "火", "木"};
+
+    // 相破、相害对照（地支编码）
+    private static final int[] PO = {9, 4, 11, 6, 1, 8, 3, 10, 5, 0, 7, 2};
+    private static final int[] HAI = {7, 6, 5, 4, 3, 2, 1, 0, 11, 10, 9, 8};
+
+    private static final byte[][] GAN_RELATION = new byte[GanZhi.STEM_COUNT][GanZhi.STEM_COUNT];
+    private static final byte[][] ZHI_RELATION = new byte[GanZhi.BRANCH_COUNT][GanZhi.BRANCH_COUNT];
+
+    static {
+        for (int g1 = 0; g1 < GanZhi.STEM_COUNT; g1++) {
+            for (int g2 = 0; g2 < GanZhi.STEM_COUNT; g2++) {
+                int mask = 0;
+                if (GanZhi.stem(g1).getHe() == GanZhi.stem(g2)) mask |= GAN_HE;
+                if (GanZhi.wuXing(GanZhi.stemWuXing(g1)).getKe().ordinal() == GanZhi.stemWuXing(g2)) mask |= GAN_KE;
+                GAN_RELATION[g1][g2] = (byte) mask;
+            }
+        }
+        for (int z1 = 0; z1 < GanZhi.BRANCH_COUNT; z1++) {
+            for (int z2 = 0; z2 < GanZhi.BRANCH_COUNT; z2++) {
+                int mask = 0;
+                if (GanZhi.branch(z1).getLiuHe() == GanZhi.branch(z2)) mask |= ZHI_HE;
+                if ((z1 + 6) % 12 == z2) mask |= ZHI_CHONG;
+                if (z1 != z2 && z1 % 4 == z2 % 4) mask |= ZHI_BAN_HE;
+                if (isXing(z1, z2)) mask |= ZHI_XING;
+                if (PO[z1] == z2) mask |= ZHI_PO;
+                if (HAI[z1] == z2) mask |= ZHI_HAI;
+                ZHI_RELATION[z1][z2] = (byte) mask;
+            }
+        }
+    }
+
+    /**
+     * 子卯刑；寅巳申、丑未戌互刑；辰午酉亥自刑
+     */
+    private static boolean isXing(int z1, int z2) {
+        if ((z1 == 0 && z2 == 3) || (z1 == 3 && z2 == 0)) return true;
+        if (z1 != z2 && inGroup(z1, 2, 5, 8) && inGroup(z2, 2, 5, 8)) return true;
+        if (z1 != z2 && inGroup(z1, 1, 7, 10) && inGroup(z2, 1, 7, 10)) return true;
+        return z1 == z2 && inGroup(z1, 4, 6, 9, 11);
+    }
+
+    private static boolean inGroup(int z, int... group) {
+        for (int g : group) {
+            if (g == z) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 两天干的关系位（GAN_HE / GAN_KE）
+     */
+    public static int ganRelation(int gan1, int gan2) {
+        return GAN_RELATION[gan1][gan2];
+    }
+
+    /**
+     * 两地支的关系位（ZHI_HE / ZHI_CHONG / ZHI_BAN_HE / ZHI_XING / ZHI_PO / ZHI_HAI）
+     */
+    public static int zhiRelation(int zhi1, int zhi2) {
+        return ZHI_RELATION[zhi1][zhi2];
+    }
     
     /**
      * 分析八字的刑冲合会关系
      */
     public Map<String, Map<String, Object>> analyze(BaZiChart chart) {
+        PackedBaZiChart packed = chart.getPacked();
+        return analyze(packed, sanZhu(packed));
+    }
+
+    /**
+     * 年、月、日三柱相互之间的关系，同一三柱的各时辰可共用
+     */
+    public SanZhu sanZhu(PackedBaZiChart packed) {
+        SanZhu sanZhu = new SanZhu();
+        for (int i = 0; i < PackedBaZiChart.SHI; i++) {
+            for (int j = 0; j < PackedBaZiChart.SHI; j++) {
+                if (i != j) {
+                    analyzeTianGanRelation(packed.stem(i), packed.stem(j),
+                                          PackedBaZiChart.pillarName(j), sanZhu.tianGan.get(i));
+                    analyzeDiZhiRelation(packed.branch(i), packed.branch(j),
+                                        PackedBaZiChart.pillarName(j), sanZhu.diZhi.get(i));
+                }
+            }
+        }
+        return sanZhu;
+    }
+
+    /**
+     * 在三柱关系上补算与时柱的关系。时柱在各柱的比较对象中排在最后，
+     * 直接追加即与逐柱两两比较的顺序一致
+     * @param sanZhu {@link #sanZhu} 的结果，不会被修改
+     */
+    public Map<String, Map<String, Object>> analyze(PackedBaZiChart packed, SanZhu sanZhu) {
         Map<String, Map<String, Object>> result = new LinkedHashMap<>();
         
-        Pillar[] pillars = {chart.getNianZhu(), chart.getYueZhu(), chart.getRiZhu(), chart.getShiZhu()};
-        String[] names = {"年", "月", "日", "时"};
-        
-        for (int i = 0; i < pillars.length; i++) {
+        for (int i = 0; i < PackedBaZiChart.PILLAR_COUNT; i++) {
             Map<String, Object> pillarRelations = new LinkedHashMap<>();
+            Map<String, List<Map<String, Object>>> tianGanRelations;
+            Map<String, List<Map<String, Object>>> diZhiRelations;
             
-            // 天干关系
-            Map<String, List<Map<String, Object>>> tianGanRelations = new LinkedHashMap<>();
-            for (int j = 0; j < pillars.length; j++) {
-                if (i != j) {
-                    analyzeTianGanRelation(pillars[i].getTianGan(), pillars[j].getTianGan(), 
-                                          names[j], tianGanRelations);
+            if (i < PackedBaZiChart.SHI) {
+                tianGanRelations = copy(sanZhu.tianGan.get(i));
+                diZhiRelations = copy(sanZhu.diZhi.get(i));
+                String shiName = PackedBaZiChart.pillarName(PackedBaZiChart.SHI);
+                analyzeTianGanRelation(packed.stem(i), packed.stem(PackedBaZiChart.SHI), shiName, tianGanRelations);
+                analyzeDiZhiRelation(packed.branch(i), packed.branch(PackedBaZiChart.SHI), shiName, diZhiRelations);
+            } else {
+                tianGanRelations = new LinkedHashMap<>();
+                diZhiRelations = new LinkedHashMap<>();
+                for (int j = 0; j < PackedBaZiChart.SHI; j++) {
+                    analyzeTianGanRelation(packed.stem(i), packed.stem(j), 
+                                          PackedBaZiChart.pillarName(j), tianGanRelations);
+                    analyzeDiZhiRelation(packed.branch(i), packed.branch(j), 
+                                        PackedBaZiChart.pillarName(j), diZhiRelations);
                 }
             }
+            
+            // 天干关系
             if (!tianGanRelations.isEmpty()) {
                 pillarRelations.put("天干", tianGanRelations);
             }
             
             // 地支关系
-            Map<String, List<Map<String, Object>>> diZhiRelations = new LinkedHashMap<>();
-            for (int j = 0; j < pillars.length; j++) {
-                if (i != j) {
-                    analyzeDiZhiRelation(pillars[i].getDiZhi(), pillars[j].getDiZhi(), 
-                                        names[j], diZhiRelations);
-                }
-            }
             if (!diZhiRelations.isEmpty()) {
                 pillarRelations.put("地支", diZhiRelations);
             }
             
-            result.put(names[i], pillarRelations);
+            result.put(PackedBaZiChart.pillarName(i), pillarRelations);
         }
         
         return result;
     }
 
+    /**
+     * 年、月、日三柱各自与另两柱的天干、地支关系（按关系类型分组）
+     */
+    public static final class SanZhu {
+        private final List<Map<String, List<Map<String, Object>>>> tianGan = newPillarMaps();
+        private final List<Map<String, List<Map<String, Object>>>> diZhi = newPillarMaps();
+
+        private SanZhu() {
+        }
+
+        private static List<Map<String, List<Map<String, Object>>>> newPillarMaps() {
+            List<Map<String, List<Map<String, Object>>>> maps = new ArrayList<>(PackedBaZiChart.SHI);
+            for (int i = 0; i < PackedBaZiChart.SHI; i++) {
+                maps.add(new LinkedHashMap<>());
+            }
+            return maps;
+        }
+    }
+
+    private static Map<String, List<Map<String, Object>>> copy(Map<String, List<Map<String, Object>>> relations) {
+        Map<String, List<Map<String, Object>>> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Map<String, Object>>> entry : relations.entrySet()) {
+            copy.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        return copy;
+    }
+
     /**
      * 分析天干关系
      */
-    private void analyzeTianGanRelation(String gan1, String gan2, String targetName,
+    private void analyzeTianGanRelation(int gan1, int gan2, String targetName,
                                         Map<String, List<Map<String, Object>>> relations) {
-        TianGan tg1 = TianGan.fromName(gan1);
-        TianGan tg2 = TianGan.fromName(gan2);
+        int mask = GAN_RELATION[gan1][gan2];
+        if (mask == 0) {
+            return;
+        }
+        String pair = GanZhi.stemName(gan1) + GanZhi.stemName(gan2);
         
         // 天干相合
-        if (tg1.getHe() == tg2) {
-            addRelation(relations, "合", targetName, 
-                       gan1 + gan2 + "合" + tg1.getHeWuXing(), tg1.getHeWuXing());
+        if ((mask & GAN_HE) != 0) {
+            String heWuXing = GanZhi.stem(gan1).getHeWuXing();
+            addRelation(relations, "合", targetName, pair + "合" + heWuXing, heWuXing);
         }
         
         // 天干相克（冲）
-        WuXing wx1 = WuXing.fromName(tg1.getWuXing());
-        WuXing wx2 = WuXing.fromName(tg2.getWuXing());
-        if (wx1.getKe() == wx2) {
-            addRelation(relations, "冲", targetName, 
-                       gan1 + gan2 + "相尅", null);
+        if ((mask & GAN_KE) != 0) {
+            addRelation(relations, "冲", targetName, pair + "相尅", null);
         }
     }
 
     /**
      * 分析地支关系
      */
-    private void analyzeDiZhiRelation(String zhi1, String zhi2, String targetName,
+    private void analyzeDiZhiRelation(int zhi1, int zhi2, String targetName,
                                       Map<String, List<Map<String, Object>>> relations) {
-        DiZhi dz1 = DiZhi.fromName(zhi1);
-        DiZhi dz2 = DiZhi.fromName(zhi2);
+        int mask = ZHI_RELATION[zhi1][zhi2];
+        if (mask == 0) {
+            return;
+        }
+        String pair = GanZhi.branchName(zhi1) + GanZhi.branchName(zhi2);
         
         // 六合
-        if (dz1.getLiuHe() == dz2) {
-            addRelation(relations, "合", targetName, 
-                       zhi1 + zhi2 + "合" + dz1.getLiuHeWuXing(), dz1.getLiuHeWuXing());
+        if ((mask & ZHI_HE) != 0) {
+            String heWuXing = GanZhi.branch(zhi1).getLiuHeWuXing();
+            addRelation(relations, "合", targetName, pair + "合" + heWuXing, heWuXing);
         }
         
         // 六冲
-        if (dz1.getChong() == dz2) {
-            addRelation(relations, "冲", targetName, 
-                       zhi1 + zhi2 + "相冲", null);
+        if ((mask & ZHI_CHONG) != 0) {
+            addRelation(relations, "冲", targetName, pair + "相冲", null);
         }
         
         // 半合
-        List<Map<String, Object>> banHeList = dz1.getBanHe(dz2);
-        for (Map<String, Object> banHe : banHeList) {
-            addRelation(relations, "半合", targetName, 
-                       zhi1 + zhi2 + "半合" + banHe.get("元素"), (String) banHe.get("元素"));
+        if ((mask & ZHI_BAN_HE) != 0) {
+            String element = BAN_HE_WU_XING[zhi1 % 4];
+            addRelation(relations, "半合", targetName, pair + "半合" + element, element);
         }
         
         // 相刑
-        String xingResult = checkXing(zhi1, zhi2);
-        if (xingResult != null) {
-            addRelation(relations, "刑", targetName, xingResult, null);
+        if ((mask & ZHI_XING) != 0) {
+            addRelation(relations, "刑", targetName, pair + "相刑", null);
         }
         
         // 相破
-        String poResult = checkPo(zhi1, zhi2);
-        if (poResult != null) {
-            addRelation(relations, "破", targetName, poResult, "破");
+        if ((mask & ZHI_PO) != 0) {
+            addRelation(relations, "破", targetName, pair + "相破", "破");
         }
         
         // 相害
-        String haiResult = checkHai(zhi1, zhi2);
-        if (haiResult != null) {
-            addRelation(relations, "害", targetName, haiResult, null);
+        if ((mask & ZHI_HAI) != 0) {
+            addRelation(relations, "害", targetName, pair + "相害", null);
         }
     }
 
     private void addRelation(Map<String, List<Map<String, Object>>> relations, 
                             String type, String targetName, String zhiShiDian, String element) {
-        relations.computeIfAbsent(type, k -> new ArrayList<>());
         Map<String, Object> relation = new LinkedHashMap<>();
         relation.put("柱", targetName);
         relation.put("知识点", zhiShiDian);
         if (element != null) {
             relation.put("元素", element);
         }
-        relations.get(type).add(relation);
-    }
-
-    /**
-     * 检查相刑
-     */
-    private String checkXing(String zhi1, String zhi2) {
-        // 子卯刑
-        if ((zhi1.equals("子") && zhi2.equals("卯")) || (zhi1.equals("卯") && zhi2.equals("子"))) {
-            return zhi1 + zhi2 + "相刑";
-        }
-        // 寅巳申三刑
-        List<String> yinSiShen = Arrays.asList("寅", "巳", "申");
-        if (yinSiShen.contains(zhi1) && yinSiShen.contains(zhi2) && !zhi1.equals(zhi2)) {
-            return zhi1 + zhi2 + "相刑";
-        }
-        // 丑未戌三刑
-        List<String> chouWeiXu = Arrays.asList("丑", "未", "戌");
-        if (chouWeiXu.contains(zhi1) && chouWeiXu.contains(zhi2) && !zhi1.equals(zhi2)) {
-            return zhi1 + zhi2 + "相刑";
-        }
-        // 辰午酉亥自刑
-        List<String> ziXing = Arrays.asList("辰", "午", "酉", "亥");
-        if (ziXing.contains(zhi1) && zhi1.equals(zhi2)) {
-            return zhi1 + zhi2 + "相刑";
-        }
-        return null;
-    }
-
-    /**
-     * 检查相破
-     */
-    private String checkPo(String zhi1, String zhi2) {
-        Map<String, String> poMap = new HashMap<>();
-        poMap.put("子", "酉"); poMap.put("酉", "子");
-        poMap.put("丑", "辰"); poMap.put("辰", "丑");
-        poMap.put("寅", "亥"); poMap.put("亥", "寅");
-        poMap.put("卯", "午"); poMap.put("午", "卯");
-        poMap.put("巳", "申"); poMap.put("申", "巳");
-        poMap.put("未", "戌"); poMap.put("戌", "未");
-        
-        if (poMap.containsKey(zhi1) && poMap.get(zhi1).equals(zhi2)) {
-            return zhi1 + zhi2 + "相破";
-        }
-        return null;
-    }
-
-    /**
-     * 检查相害
-     */
-    private String checkHai(String zhi1, String zhi2) {
-        Map<String, String> haiMap = new HashMap<>();
-        haiMap.put("子", "未"); haiMap.put("未", "子");
-        haiMap.put("丑", "午"); haiMap.put("午", "丑");
-        haiMap.put("寅", "巳"); haiMap.put("巳", "寅");
-        haiMap.put("卯", "辰"); haiMap.put("辰", "卯");
-        haiMap.put("申", "亥"); haiMap.put("亥", "申");
-        haiMap.put("酉", "戌"); haiMap.put("戌", "酉");
-        
-        if (haiMap.containsKey(zhi1) && haiMap.get(zhi1).equals(zhi2)) {
-            return zhi1 + zhi2 + "相害";
-        }
-        return null;
+        relations.computeIfAbsent(type, k -> new ArrayList<>()).add(relation);
     }
 
     /**
@@ -2,6 +2,7 @@ package com.example.demo.bazi.analyzer;
 
 import com.example.demo.bazi.constants.*;
 import com.example.demo.bazi.model.*;
+import org.springframework.stereotype.Component;
 import java.util.*;
 
 /**
@@ -9,16 +10,37 @@ import java.util.*;
  * 男命：七杀为儿子，正官为女儿
  * 女命：伤官为儿子，食神为女儿
  */
+@Component
 public class ZiNvXingAnalyzer {
     
     /**
      * 分析子女星信息
      */
     public Map<String, Object> analyze(BaZiChart chart, boolean isMale) {
+        return analyze(chart, isMale, sanZhu(chart.getPacked(), isMale));
+    }
+
+    /**
+     * 年、月、日三柱中的子女星，同一三柱、性别的各时辰可共用
+     */
+    public SanZhu sanZhu(PackedBaZiChart packed, boolean isMale) {
+        SanZhu sanZhu = new SanZhu();
+        collectZiNv(packed, 0, PackedBaZiChart.SHI, isMale, sanZhu.daughters, sanZhu.sons);
+        return sanZhu;
+    }
+
+    /**
+     * 在三柱子女星上补查时柱
+     * @param sanZhu {@link #sanZhu} 的结果，不会被修改
+     */
+    public Map<String, Object> analyze(BaZiChart chart, boolean isMale, SanZhu sanZhu) {
         Map<String, Object> result = new LinkedHashMap<>();
         
-        String riZhu = chart.getRiZhuTianGan();
-        WuXing riWuXing = WuXing.fromName(chart.getRiZhuWuXing());
+        PackedBaZiChart packed = chart.getPacked();
+        WuXing riWuXing = GanZhi.wuXing(GanZhi.stemWuXing(packed.riGan()));
+        List<String> daughters = new ArrayList<>(sanZhu.daughters);
+        List<String> sons = new ArrayList<>(sanZhu.sons);
+        collectZiNv(packed, PackedBaZiChart.SHI, PackedBaZiChart.PILLAR_COUNT, isMale, daughters, sons);
         
         if (isMale) {
             // 男命：官杀为子女
@@ -26,10 +48,16 @@ public class ZiNvXingAnalyzer {
             result.put("子女星五行", ziNvWuXing.getName());
             
             Map<String, List<String>> ziNvXing = new LinkedHashMap<>();
-            ziNvXing.put("正官-女儿", new ArrayList<>());
-            ziNvXing.put("七杀-儿子", new ArrayList<>());
+            ziNvXing.put("正官-女儿", daughters);
+            ziNvXing.put("七杀-儿子", sons);
             
-            analyzeMaleZiNv(chart, riZhu, ziNvXing);
+            // 如果没有找到，添加说明
+            if (ziNvXing.get("七杀-儿子").isEmpty()) {
+                ziNvXing.get("七杀-儿子").add("四柱无七杀儿子星");
+            }
+            if (ziNvXing.get("正官-女儿").isEmpty()) {
+                ziNvXing.get("正官-女儿").add("四柱无正官女儿星");
+            }
             result.put("子女星", ziNvXing);
             
         } else {
@@ -38,10 +66,15 @@ public class ZiNvXingAnalyzer {
             result.put("子女星五行", ziNvWuXing.getName());
             
             Map<String, List<String>> ziNvXing = new LinkedHashMap<>();
-            ziNvXing.put("食神-女儿", new ArrayList<>());
-            ziNvXing.put("伤官-儿子", new ArrayList<>());
+            ziNvXing.put("食神-女儿", daughters);
+            ziNvXing.put("伤官-儿子", sons);
             
-            analyzeFemaleZiNv(chart, riZhu, ziNvXing);
+            if (ziNvXing.get("食神-女儿").isEmpty()) {
+                ziNvXing.get("食神-女儿").add("四柱无食神女儿星");
+            }
+            if (ziNvXing.get("伤官-儿子").isEmpty()) {
+                ziNvXing.get("伤官-儿子").add("四柱无伤官儿子星");
+            }
             result.put("子女星", ziNvXing);
         }
         
@@ -51,80 +84,46 @@ public class ZiNvXingAnalyzer {
         return result;
     }
 
-    private void analyzeMaleZiNv(BaZiChart chart, String riZhu, Map<String, List<String>> ziNvXing) {
-        boolean hasQiSha = false;
-        boolean hasZhengGuan = false;
-        
-        for (Pillar pillar : chart.getAllPillars()) {
-            String pillarName = pillar.getName() + "柱";
-            
-            // 检查天干
-            ShiShen tianGanSs = ShiShen.calculate(riZhu, pillar.getTianGan());
-            if (tianGanSs == ShiShen.ZHENG_GUAN) {
-                ziNvXing.get("正官-女儿").add(pillarName + "天干**" + pillar.getTianGan() + "**");
-                hasZhengGuan = true;
-            } else if (tianGanSs == ShiShen.QI_SHA) {
-                ziNvXing.get("七杀-儿子").add(pillarName + "天干**" + pillar.getTianGan() + "**");
-                hasQiSha = true;
-            }
-            
-            // 检查藏干
-            for (String cangGan : pillar.getDiZhiCangGan()) {
-                ShiShen ss = ShiShen.calculate(riZhu, cangGan);
-                if (ss == ShiShen.ZHENG_GUAN) {
-                    ziNvXing.get("正官-女儿").add(pillarName + "地支**" + pillar.getDiZhi() + "**藏正官");
-                    hasZhengGuan = true;
-                } else if (ss == ShiShen.QI_SHA) {
-                    ziNvXing.get("七杀-儿子").add(pillarName + "地支**" + pillar.getDiZhi() + "**藏七杀");
-                    hasQiSha = true;
-                }
-            }
-        }
-        
-        // 如果没有找到，添加说明
-        if (!hasQiSha) {
-            ziNvXing.get("七杀-儿子").add("四柱无七杀儿子星");
-        }
-        if (!hasZhengGuan) {
-            ziNvXing.get("正官-女儿").add("四柱无正官女儿星");
+    /**
+     * 年、月、日三柱中的女儿星、儿子星
+     */
+    public static final class SanZhu {
+        private final List<String> daughters = new ArrayList<>();
+        private final List<String> sons = new ArrayList<>();
+
+        private SanZhu() {
         }
     }
 
-    private void analyzeFemaleZiNv(BaZiChart chart, String riZhu, Map<String, List<String>> ziNvXing) {
-        boolean hasShiShen = false;
-        boolean hasShangGuan = false;
-        
-        for (Pillar pillar : chart.getAllPillars()) {
-            String pillarName = pillar.getName() + "柱";
+    /**
+     * 收集 [fromPillar, toPillar) 各柱天干与藏干中的子女星
+     * 男命正官为女儿、七杀为儿子；女命食神为女儿、伤官为儿子
+     */
+    private void collectZiNv(PackedBaZiChart packed, int fromPillar, int toPillar, boolean isMale,
+                             List<String> daughters, List<String> sons) {
+        ShiShen daughter = isMale ? ShiShen.ZHENG_GUAN : ShiShen.SHI_SHEN;
+        ShiShen son = isMale ? ShiShen.QI_SHA : ShiShen.SHANG_GUAN;
+        for (int p = fromPillar; p < toPillar; p++) {
+            String pillarName = PackedBaZiChart.pillarName(p) + "柱";
             
             // 检查天干
-            ShiShen tianGanSs = ShiShen.calculate(riZhu, pillar.getTianGan());
-            if (tianGanSs == ShiShen.SHI_SHEN) {
-                ziNvXing.get("食神-女儿").add(pillarName + "天干**" + pillar.getTianGan() + "**");
-                hasShiShen = true;
-            } else if (tianGanSs == ShiShen.SHANG_GUAN) {
-                ziNvXing.get("伤官-儿子").add(pillarName + "天干**" + pillar.getTianGan() + "**");
-                hasShangGuan = true;
+            ShiShen tianGanSs = packed.stemShiShen(p);
+            if (tianGanSs == daughter) {
+                daughters.add(pillarName + "天干**" + GanZhi.stemName(packed.stem(p)) + "**");
+            } else if (tianGanSs == son) {
+                sons.add(pillarName + "天干**" + GanZhi.stemName(packed.stem(p)) + "**");
             }
             
             // 检查藏干
-            for (String cangGan : pillar.getDiZhiCangGan()) {
-                ShiShen ss = ShiShen.calculate(riZhu, cangGan);
-                if (ss == ShiShen.SHI_SHEN) {
-                    ziNvXing.get("食神-女儿").add(pillarName + "地支**" + pillar.getDiZhi() + "**藏食神");
-                    hasShiShen = true;
-                } else if (ss == ShiShen.SHANG_GUAN) {
-                    ziNvXing.get("伤官-儿子").add(pillarName + "地支**" + pillar.getDiZhi() + "**藏伤官");
-                    hasShangGuan = true;
+            int branch = packed.branch(p);
+            for (int i = 0, n = GanZhi.cangGanCount(branch); i < n; i++) {
+                ShiShen ss = packed.cangGanShiShen(p, i);
+                if (ss == daughter) {
+                    daughters.add(pillarName + "地支**" + GanZhi.branchName(branch) + "**藏" + daughter.getName());
+                } else if (ss == son) {
+                    sons.add(pillarName + "地支**" + GanZhi.branchName(branch) + "**藏" + son.getName());
                 }
             }
         }
-        
-        if (!hasShiShen) {
-            ziNvXing.get("食神-女儿").add("四柱无食神女儿星");
-        }
-        if (!hasShangGuan) {
-            ziNvXing.get("伤官-儿子").add("四柱无伤官儿子星");
-        }
     }
 }
@@ -63,20 +63,20 @@ public enum DiZhi {
         return cangGan.length > 2 ? cangGan[2] : null;
     }
 
+    private static final DiZhi[] VALUES = values();
+
     public static DiZhi fromName(String name) {
-        for (DiZhi dz : values()) {
-            if (dz.name.equals(name)) return dz;
+        int branch = name != null && name.length() == 1 ? GanZhi.branchIndex(name.charAt(0)) : -1;
+        if (branch < 0) {
+            throw new IllegalArgumentException("无效地支: " + name);
         }
-        throw new IllegalArgumentException("无效地支: " + name);
+        return VALUES[branch];
     }
 
     public static DiZhi fromIndex(int index) {
         int normalizedIndex = ((index - 1) % 12) + 1;
         if (normalizedIndex <= 0) normalizedIndex += 12;
-        for (DiZhi dz : values()) {
-            if (dz.index == normalizedIndex) return dz;
-        }
-        throw new IllegalArgumentException("无效索引: " + index);
+        return VALUES[normalizedIndex - 1];
     }
 
     /**
@@ -0,0 +1,212 @@
+package com.example.demo.bazi.constants;
+
+/**
+ * 干支整数编码表
+ *
+ * 天干编码 0-9（甲=0 ... 癸=9），地支编码 0-11（子=0 ... 亥=11），
+ * 六十甲子编码 0-59（甲子=0 ... 癸亥=59）。
+ * 十神、十二长生、藏干等关系在类加载时一次性展开为数组，分析链路上只做下标访问。
+ */
+public final class GanZhi {
+
+    public static final int STEM_COUNT = 10;
+    public static final int BRANCH_COUNT = 12;
+    public static final int JIA_ZI_COUNT = 60;
+
+    private static final TianGan[] STEMS = TianGan.values();
+    private static final DiZhi[] BRANCHES = DiZhi.values();
+    private static final ShiShen[] SHI_SHEN_VALUES = ShiShen.values();
+    private static final WuXing[] WU_XING_VALUES = WuXing.values();
+
+    private static final String[] STEM_NAMES = new String[STEM_COUNT];
+    private static final String[] BRANCH_NAMES = new String[BRANCH_COUNT];
+    private static final String[] JIA_ZI_NAMES = new String[JIA_ZI_COUNT];
+
+    // 五行编码取 WuXing.ordinal()：木0 火1 土2 金3 水4
+    private static final byte[] STEM_WU_XING = new byte[STEM_COUNT];
+    private static final byte[] BRANCH_WU_XING = new byte[BRANCH_COUNT];
+
+    // 地支藏干（本气、中气、余气）
+    private static final byte[][] CANG_GAN = new byte[BRANCH_COUNT][];
+
+    // [日干][目标天干] -> ShiShen.ordinal()
+    private static final byte[][] SHI_SHEN = new byte[STEM_COUNT][STEM_COUNT];
+
+    // [天干][地支] -> ShiErChangSheng.NAMES 下标
+    private static final byte[][] CHANG_SHENG = new byte[STEM_COUNT][BRANCH_COUNT];
+
+    // [年干][月序 0-11，寅月起] -> 月柱甲子编码（五虎遁）
+    private static final byte[][] MONTH_JIA_ZI = new byte[STEM_COUNT][12];
+
+    // 长生起点地支：阳干顺行，阴干逆行
+    private static final int[] CHANG_SHENG_START = {11, 6, 2, 9, 2, 9, 5, 0, 8, 3};
+
+    static {
+        for (int s = 0; s < STEM_COUNT; s++) {
+            STEM_NAMES[s] = STEMS[s].getName();
+            STEM_WU_XING[s] = (byte) WuXing.fromName(STEMS[s].getWuXing()).ordinal();
+        }
+        for (int b = 0; b < BRANCH_COUNT; b++) {
+            BRANCH_NAMES[b] = BRANCHES[b].getName();
+            BRANCH_WU_XING[b] = (byte) WuXing.fromName(BRANCHES[b].getWuXing()).ordinal();
+            String[] cangGan = BRANCHES[b].getCangGan();
+            CANG_GAN[b] = new byte[cangGan.length];
+            for (int i = 0; i < cangGan.length; i++) {
+                CANG_GAN[b][i] = (byte) stemIndex(cangGan[i].charAt(0));
+            }
+        }
+        for (int j = 0; j < JIA_ZI_COUNT; j++) {
+            JIA_ZI_NAMES[j] = STEM_NAMES[j % STEM_COUNT] + BRANCH_NAMES[j % BRANCH_COUNT];
+        }
+        for (int d = 0; d < STEM_COUNT; d++) {
+            for (int t = 0; t < STEM_COUNT; t++) {
+                SHI_SHEN[d][t] = (byte) ShiShen.calculate(STEMS[d], STEMS[t]).ordinal();
+            }
+        }
+        for (int y = 0; y < STEM_COUNT; y++) {
+            // 甲己之年丙作首，乙庚之年戊为头，丙辛之年寻庚起，丁壬壬寅顺水流，戊癸甲寅
+            int firstStem = (y % 5 * 2 + 2) % STEM_COUNT;
+            for (int m = 0; m < 12; m++) {
+                MONTH_JIA_ZI[y][m] = (byte) jiaZi((firstStem + m) % STEM_COUNT, (m + 2) % BRANCH_COUNT);
+            }
+        }
+        for (int s = 0; s < STEM_COUNT; s++) {
+            int start = CHANG_SHENG_START[s];
+            boolean yang = (s & 1) == 0;
+            for (int b = 0; b < BRANCH_COUNT; b++) {
+                CHANG_SHENG[s][b] = (byte) (yang
+                        ? (b - start + BRANCH_COUNT) % BRANCH_COUNT
+                        : (start - b + BRANCH_COUNT) % BRANCH_COUNT);
+            }
+        }
+    }
+
+    private GanZhi() {
+    }
+
+    /**
+     * 天干字符转编码，非天干返回 -1
+     */
+    public static int stemIndex(char c) {
+        switch (c) {
+            case '甲': return 0;
+            case '乙': return 1;
+            case '丙': return 2;
+            case '丁': return 3;
+            case '戊': return 4;
+            case '己': return 5;
+            case '庚': return 6;
+            case '辛': return 7;
+            case '壬': return 8;
+            case '癸': return 9;
+            default: return -1;
+        }
+    }
+
+    /**
+     * 地支字符转编码，非地支返回 -1
+     */
+    public static int branchIndex(char c) {
+        switch (c) {
+            case '子': return 0;
+            case '丑': return 1;
+            case '寅': return 2;
+            case '卯': return 3;
+            case '辰': return 4;
+            case '巳': return 5;
+            case '午': return 6;
+            case '未': return 7;
+            case '申': return 8;
+            case '酉': return 9;
+            case '戌': return 10;
+            case '亥': return 11;
+            default: return -1;
+        }
+    }
+
+    /**
+     * 天干地支编码组合为六十甲子编码；阴阳不配（如"甲丑"）返回 -1
+     */
+    public static int jiaZi(int stem, int branch) {
+        if (((stem ^ branch) & 1) != 0) {
+            return -1;
+        }
+        return ((6 * stem - 5 * branch) % JIA_ZI_COUNT + JIA_ZI_COUNT) % JIA_ZI_COUNT;
+    }
+
+    /**
+     * 解析两字干支为六十甲子编码
+     */
+    public static int parseJiaZi(String ganZhi) {
+        if (ganZhi == null || ganZhi.length() != 2) {
+            throw new IllegalArgumentException("干支格式错误: " + ganZhi);
+        }
+        int stem = stemIndex(ganZhi.charAt(0));
+        if (stem < 0) {
+            throw new IllegalArgumentException("无效天干: " + ganZhi.charAt(0));
+        }
+        int branch = branchIndex(ganZhi.charAt(1));
+        if (branch < 0) {
+            throw new IllegalArgumentException("无效地支: " + ganZhi.charAt(1));
+        }
+        int jiaZi = jiaZi(stem, branch);
+        if (jiaZi < 0) {
+            throw new IllegalArgumentException("干支阴阳不配: " + ganZhi);
+        }
+        return jiaZi;
+    }
+
+    public static int stemOf(int jiaZi) { return jiaZi % STEM_COUNT; }
+    public static int branchOf(int jiaZi) { return jiaZi % BRANCH_COUNT; }
+
+    public static String stemName(int stem) { return STEM_NAMES[stem]; }
+    public static String branchName(int branch) { return BRANCH_NAMES[branch]; }
+    public static String jiaZiName(int jiaZi) { return JIA_ZI_NAMES[jiaZi]; }
+
+    public static TianGan stem(int stem) { return STEMS[stem]; }
+    public static DiZhi branch(int branch) { return BRANCHES[branch]; }
+
+    public static boolean isYangStem(int stem) { return (stem & 1) == 0; }
+    public static boolean isYangBranch(int branch) { return (branch & 1) == 0; }
+
+    public static int stemWuXing(int stem) { return STEM_WU_XING[stem]; }
+    public static int branchWuXing(int branch) { return BRANCH_WU_XING[branch]; }
+    public static WuXing wuXing(int wuXing) { return WU_XING_VALUES[wuXing]; }
+
+    public static int cangGanCount(int branch) { return CANG_GAN[branch].length; }
+
+    /**
+     * 地支第 i 个藏干的天干编码（0 本气，1 中气，2 余气）
+     */
+    public static int cangGan(int branch, int i) { return CANG_GAN[branch][i]; }
+
+    /**
+     * 日干对目标天干的十神（日干自身为"日主"）
+     */
+    public static ShiShen shiShen(int riGan, int stem) {
+        return SHI_SHEN_VALUES[SHI_SHEN[riGan][stem]];
+    }
+
+    /**
+     * 公历年份的流年甲子编码（按公历年份计，不区分立春前后）
+     */
+    public static int yearJiaZi(int year) {
+        return Math.floorMod(year - 4, JIA_ZI_COUNT);
+    }
+
+    /**
+     * 流月甲子编码（五虎遁）
+     * @param yearStem 年干编码
+     * @param month 月序 1-12，1 为寅月（立春起），12 为丑月
+     */
+    public static int monthJiaZi(int yearStem, int month) {
+        return MONTH_JIA_ZI[yearStem][month - 1];
+    }
+
+    /**
+     * 天干在地支的十二长生下标，对应 ShiErChangSheng.NAMES
+     */
+    public static int changSheng(int stem, int branch) {
+        return CHANG_SHENG[stem][branch];
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.bazi.constants;
+
+import java.util.*;
+
+/**
+ * 六十甲子属性表
+ *
+ * 类加载时为每个甲子算好纳音、旬首、空亡、藏干，以及按日干（10 种）展开的
+ * 天干十神、藏干十神、星运，构建一柱只需按甲子编码和日干编码读数组。
+ * 表项不可变，全局共享。
+ */
+public final class JiaZiTable {
+
+    /**
+     * 一个甲子的全部属性
+     */
+    public static final class Entry {
+        private final int jiaZi;
+        private final String name;
+        private final String tianGan;
+        private final String diZhi;
+        private final String tianGanWuXing;
+        private final String diZhiWuXing;
+        private final String naYin;
+        private final String xunShou;
+        private final String kongWang;
+        private final String ziZuo;
+        private final List<String> cangGan;
+        // 以下按日干编码下标
+        private final String[] tianGanShiShen = new String[GanZhi.STEM_COUNT];
+        private final List<List<String>> cangGanShiShen;
+        private final String[] xingYun = new String[GanZhi.STEM_COUNT];
+
+        private Entry(int jiaZi) {
+            int stem = GanZhi.stemOf(jiaZi);
+            int branch = GanZhi.branchOf(jiaZi);
+            this.jiaZi = jiaZi;
+            this.name = GanZhi.jiaZiName(jiaZi);
+            this.tianGan = GanZhi.stemName(stem);
+            this.diZhi = GanZhi.branchName(branch);
+            this.tianGanWuXing = GanZhi.stem(stem).getWuXing();
+            this.diZhiWuXing = GanZhi.branch(branch).getWuXing();
+            this.naYin = NaYin.getNaYin(name);
+            this.xunShou = XunShou.getXunShou(name);
+            this.kongWang = KongWang.getKongWangStr(name);
+            this.ziZuo = ShiErChangSheng.calculate(stem, branch);
+            this.cangGan = List.of(GanZhi.branch(branch).getCangGan());
+
+            List<List<String>> rows = new ArrayList<>(GanZhi.STEM_COUNT);
+            for (int riGan = 0; riGan < GanZhi.STEM_COUNT; riGan++) {
+                tianGanShiShen[riGan] = GanZhi.shiShen(riGan, stem).getName();
+                xingYun[riGan] = ShiErChangSheng.calculate(riGan, branch);
+                String[] row = new String[GanZhi.cangGanCount(branch)];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = GanZhi.shiShen(riGan, GanZhi.cangGan(branch, i)).getName();
+                }
+                rows.add(List.of(row));
+            }
+            this.cangGanShiShen = List.copyOf(rows);
+        }
+
+        public int getJiaZi() { return jiaZi; }
+        public String getName() { return name; }
+        public String getTianGan() { return tianGan; }
+        public String getDiZhi() { return diZhi; }
+        public String getTianGanWuXing() { return tianGanWuXing; }
+        public String getDiZhiWuXing() { return diZhiWuXing; }
+        public String getNaYin() { return naYin; }
+        public String getXunShou() { return xunShou; }
+
+        /**
+         * 本柱所在旬的空亡地支（拼接字符串，如"戌亥"）
+         */
+        public String getKongWang() { return kongWang; }
+
+        /**
+         * 天干坐本支的十二长生
+         */
+        public String getZiZuo() { return ziZuo; }
+
+        /**
+         * 地支藏干（本气、中气、余气），不可修改
+         */
+        public List<String> getCangGan() { return cangGan; }
+
+        /**
+         * 日干看本柱天干的十神
+         */
+        public String getTianGanShiShen(int riGan) { return tianGanShiShen[riGan]; }
+
+        /**
+         * 日干看本柱各藏干的十神，顺序同 {@link #getCangGan()}，不可修改
+         */
+        public List<String> getCangGanShiShen(int riGan) { return cangGanShiShen.get(riGan); }
+
+        /**
+         * 日干在本柱地支的十二长生（星运）
+         */
+        public String getXingYun(int riGan) { return xingYun[riGan]; }
+    }
+
+    private static final Entry[] ENTRIES = new Entry[GanZhi.JIA_ZI_COUNT];
+
+    static {
+        for (int j = 0; j < GanZhi.JIA_ZI_COUNT; j++) {
+            ENTRIES[j] = new Entry(j);
+        }
+    }
+
+    private JiaZiTable() {
+    }
+
+    /**
+     * 按六十甲子编码取表项
+     */
+    public static Entry get(int jiaZi) {
+        return ENTRIES[jiaZi];
+    }
+}
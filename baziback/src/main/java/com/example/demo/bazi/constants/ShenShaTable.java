@@ -0,0 +1,151 @@
+package com.example.demo.bazi.constants;
+
+import java.util.*;
+
+/**
+ * 神煞查表引擎
+ *
+ * 类加载时把 {@link ShenSha} 中的全部规则展开成位掩码矩阵：
+ * 日干×地支（10x12）、年支×地支（12x12）、月支×天干（12x10）、六十甲子（60）。
+ * 每颗神煞占一位，位序即输出顺序，一柱的神煞只需几次数组读取加按位或。
+ */
+public final class ShenShaTable {
+
+    // 神煞名称，下标即位序
+    private static final String[] NAMES = {
+        "天乙贵人", "文昌贵人", "驿马", "桃花", "华盖", "将星",
+        "天德贵人", "月德贵人", "天德合", "月德合", "羊刃", "飞刃",
+        "金舆", "福星贵人", "天官贵人", "德秀贵人", "天罗地网", "十恶大败",
+        "十灵", "流霞", "童子煞"
+    };
+
+    public static final int TIAN_YI_GUI_REN = 1;
+    public static final int WEN_CHANG_GUI_REN = 1 << 1;
+    public static final int YI_MA = 1 << 2;
+    public static final int TAO_HUA = 1 << 3;
+    public static final int HUA_GAI = 1 << 4;
+    public static final int JIANG_XING = 1 << 5;
+    public static final int TIAN_DE_GUI_REN = 1 << 6;
+    public static final int YUE_DE_GUI_REN = 1 << 7;
+    public static final int TIAN_DE_HE = 1 << 8;
+    public static final int YUE_DE_HE = 1 << 9;
+    public static final int YANG_REN = 1 << 10;
+    public static final int FEI_REN = 1 << 11;
+    public static final int JIN_YU = 1 << 12;
+    public static final int FU_XING_GUI_REN = 1 << 13;
+    public static final int TIAN_GUAN_GUI_REN = 1 << 14;
+    public static final int DE_XIU_GUI_REN = 1 << 15;
+    public static final int TIAN_LUO_DI_WANG = 1 << 16;
+    public static final int SHI_E_DA_BAI = 1 << 17;
+    public static final int SHI_LING = 1 << 18;
+    public static final int LIU_XIA = 1 << 19;
+    public static final int TONG_ZI_SHA = 1 << 20;
+
+    // [日干][目标地支]
+    private static final int[][] RI_GAN_ZHI = new int[GanZhi.STEM_COUNT][GanZhi.BRANCH_COUNT];
+    // [年支][目标地支]
+    private static final int[][] NIAN_ZHI_ZHI = new int[GanZhi.BRANCH_COUNT][GanZhi.BRANCH_COUNT];
+    // [月支][目标天干]
+    private static final int[][] YUE_ZHI_GAN = new int[GanZhi.BRANCH_COUNT][GanZhi.STEM_COUNT];
+    // [目标干支]
+    private static final int[] JIA_ZI = new int[GanZhi.JIA_ZI_COUNT];
+    // [月支] -> 日支/时支命中童子煞的地支集合（按地支编码的位集）
+    private static final int[] TONG_ZI_ZHI = new int[GanZhi.BRANCH_COUNT];
+
+    static {
+        for (int g = 0; g < GanZhi.STEM_COUNT; g++) {
+            String riGan = GanZhi.stemName(g);
+            List<String> tianYi = ShenSha.getTianYiGuiRen(riGan);
+            for (int z = 0; z < GanZhi.BRANCH_COUNT; z++) {
+                String zhi = GanZhi.branchName(z);
+                int mask = 0;
+                if (tianYi.contains(zhi)) mask |= TIAN_YI_GUI_REN;
+                if (zhi.equals(ShenSha.getWenChangGuiRen(riGan))) mask |= WEN_CHANG_GUI_REN;
+                if (zhi.equals(ShenSha.getYangRen(riGan))) mask |= YANG_REN;
+                if (zhi.equals(ShenSha.getFeiRen(riGan))) mask |= FEI_REN;
+                if (zhi.equals(ShenSha.getJinYu(riGan))) mask |= JIN_YU;
+                if (zhi.equals(ShenSha.getFuXingGuiRen(riGan))) mask |= FU_XING_GUI_REN;
+                if (zhi.equals(ShenSha.getTianGuanGuiRen(riGan))) mask |= TIAN_GUAN_GUI_REN;
+                if (zhi.equals(ShenSha.getLiuXia(riGan))) mask |= LIU_XIA;
+                RI_GAN_ZHI[g][z] = mask;
+            }
+        }
+        for (int n = 0; n < GanZhi.BRANCH_COUNT; n++) {
+            String nianZhi = GanZhi.branchName(n);
+            for (int z = 0; z < GanZhi.BRANCH_COUNT; z++) {
+                String zhi = GanZhi.branchName(z);
+                int mask = 0;
+                if (zhi.equals(ShenSha.getYiMa(nianZhi))) mask |= YI_MA;
+                if (zhi.equals(ShenSha.getTaoHua(nianZhi))) mask |= TAO_HUA;
+                if (zhi.equals(ShenSha.getHuaGai(nianZhi))) mask |= HUA_GAI;
+                if (zhi.equals(ShenSha.getJiangXing(nianZhi))) mask |= JIANG_XING;
+                NIAN_ZHI_ZHI[n][z] = mask;
+            }
+        }
+        for (int y = 0; y < GanZhi.BRANCH_COUNT; y++) {
+            String yueZhi = GanZhi.branchName(y);
+            for (int g = 0; g < GanZhi.STEM_COUNT; g++) {
+                String gan = GanZhi.stemName(g);
+                int mask = 0;
+                if (gan.equals(ShenSha.getTianDeGuiRen(yueZhi))) mask |= TIAN_DE_GUI_REN;
+                if (gan.equals(ShenSha.getYueDeGuiRen(yueZhi))) mask |= YUE_DE_GUI_REN;
+                if (gan.equals(ShenSha.getTianDeHe(yueZhi))) mask |= TIAN_DE_HE;
+                if (gan.equals(ShenSha.getYueDeHe(yueZhi))) mask |= YUE_DE_HE;
+                if (ShenSha.isDeXiuGuiRen(yueZhi, gan, null)) mask |= DE_XIU_GUI_REN;
+                YUE_ZHI_GAN[y][g] = mask;
+            }
+            for (int z = 0; z < GanZhi.BRANCH_COUNT; z++) {
+                // 童子煞只看日支或时支之一命中
+                if (ShenSha.isTongZiSha(yueZhi, GanZhi.branchName(z), null)) {
+                    TONG_ZI_ZHI[y] |= 1 << z;
+                }
+            }
+        }
+        for (int j = 0; j < GanZhi.JIA_ZI_COUNT; j++) {
+            String ganZhi = GanZhi.jiaZiName(j);
+            int mask = 0;
+            if (ShenSha.isTianLuoDiWang(GanZhi.branchName(GanZhi.branchOf(j)))) mask |= TIAN_LUO_DI_WANG;
+            if (ShenSha.isShiEDaBai(ganZhi)) mask |= SHI_E_DA_BAI;
+            if (ShenSha.isShiLing(ganZhi)) mask |= SHI_LING;
+            JIA_ZI[j] = mask;
+        }
+    }
+
+    private ShenShaTable() {
+    }
+
+    /**
+     * 某柱的神煞位掩码（不含童子煞）
+     */
+    public static int pillarMask(int riGan, int yueZhi, int nianZhi, int jiaZi) {
+        int gan = GanZhi.stemOf(jiaZi);
+        int zhi = GanZhi.branchOf(jiaZi);
+        return RI_GAN_ZHI[riGan][zhi] | NIAN_ZHI_ZHI[nianZhi][zhi] | YUE_ZHI_GAN[yueZhi][gan] | JIA_ZI[jiaZi];
+    }
+
+    /**
+     * 童子煞：以月支论，日支或时支命中即成立
+     */
+    public static boolean isTongZiSha(int yueZhi, int riZhi, int shiZhi) {
+        int hit = TONG_ZI_ZHI[yueZhi];
+        return ((hit >>> riZhi) & 1) != 0 || ((hit >>> shiZhi) & 1) != 0;
+    }
+
+    /**
+     * 干支自带的神煞位（天罗地网、十恶大败、十灵）
+     */
+    public static int jiaZiMask(int jiaZi) {
+        return JIA_ZI[jiaZi];
+    }
+
+    /**
+     * 位掩码转神煞名称列表（按固定顺序）
+     */
+    public static List<String> names(int mask) {
+        List<String> names = new ArrayList<>(Integer.bitCount(mask));
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            names.add(NAMES[Integer.numberOfTrailingZeros(bits)]);
+        }
+        return names;
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.demo.bazi.constants;
 
-import java.util.*;
-
 /**
  * 十二长生常量类
  */
@@ -13,55 +11,18 @@ public class ShiErChangSheng {
         "病", "死", "墓", "绝", "胎", "养"
     };
 
-    // 阳干起始地支索引 (从长生位开始)
-    private static final Map<String, Integer> YANG_GAN_START = new HashMap<>();
-    // 阴干起始地支索引 (从长生位开始)
-    private static final Map<String, Integer> YIN_GAN_START = new HashMap<>();
-    
-    static {
-        // 阳干长生位置 (地支索引，1-12)
-        YANG_GAN_START.put("甲", 12); // 甲木长生在亥
-        YANG_GAN_START.put("丙", 3);  // 丙火长生在寅
-        YANG_GAN_START.put("戊", 3);  // 戊土长生在寅
-        YANG_GAN_START.put("庚", 6);  // 庚金长生在巳
-        YANG_GAN_START.put("壬", 9);  // 壬水长生在申
-        
-        // 阴干长生位置 (逆行)
-        YIN_GAN_START.put("乙", 7);   // 乙木长生在午
-        YIN_GAN_START.put("丁", 10);  // 丁火长生在酉
-        YIN_GAN_START.put("己", 10);  // 己土长生在酉
-        YIN_GAN_START.put("辛", 1);   // 辛金长生在子
-        YIN_GAN_START.put("癸", 4);   // 癸水长生在卯
-    }
-
     /**
      * 计算天干在某地支的十二长生状态
      */
     public static String calculate(String tianGan, String diZhi) {
-        TianGan tg = TianGan.fromName(tianGan);
-        DiZhi dz = DiZhi.fromName(diZhi);
-        
-        int startIndex;
-        boolean isYang = tg.isYang();
-        
-        if (isYang) {
-            startIndex = YANG_GAN_START.getOrDefault(tianGan, 1);
-        } else {
-            startIndex = YIN_GAN_START.getOrDefault(tianGan, 1);
-        }
-        
-        int diZhiIndex = dz.getIndex();
-        int position;
-        
-        if (isYang) {
-            // 阳干顺行
-            position = (diZhiIndex - startIndex + 12) % 12;
-        } else {
-            // 阴干逆行
-            position = (startIndex - diZhiIndex + 12) % 12;
-        }
-        
-        return NAMES[position];
+        return NAMES[GanZhi.changSheng(TianGan.fromName(tianGan).ordinal(), DiZhi.fromName(diZhi).ordinal())];
+    }
+
+    /**
+     * 按干支编码计算十二长生状态
+     */
+    public static String calculate(int stem, int branch) {
+        return NAMES[GanZhi.changSheng(stem, branch)];
     }
 
     /**
@@ -78,7 +78,7 @@ public enum ShiShen {
      * 根据日主和目标天干名称计算十神
      */
     public static ShiShen calculate(String riZhuName, String targetName) {
-        return calculate(TianGan.fromName(riZhuName), TianGan.fromName(targetName));
+        return GanZhi.shiShen(TianGan.fromName(riZhuName).ordinal(), TianGan.fromName(targetName).ordinal());
     }
 
     /**
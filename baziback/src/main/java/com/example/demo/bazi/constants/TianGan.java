@@ -32,20 +32,20 @@ public enum TianGan {
     public boolean isYang() { return yang; }
     public int getIndex() { return index; }
 
+    private static final TianGan[] VALUES = values();
+
     public static TianGan fromName(String name) {
-        for (TianGan tg : values()) {
-            if (tg.name.equals(name)) return tg;
+        int stem = name != null && name.length() == 1 ? GanZhi.stemIndex(name.charAt(0)) : -1;
+        if (stem < 0) {
+            throw new IllegalArgumentException("无效天干: " + name);
         }
-        throw new IllegalArgumentException("无效天干: " + name);
+        return VALUES[stem];
     }
 
     public static TianGan fromIndex(int index) {
         int normalizedIndex = ((index - 1) % 10) + 1;
         if (normalizedIndex <= 0) normalizedIndex += 10;
-        for (TianGan tg : values()) {
-            if (tg.index == normalizedIndex) return tg;
-        }
-        throw new IllegalArgumentException("无效索引: " + index);
+        return VALUES[normalizedIndex - 1];
     }
 
     /**
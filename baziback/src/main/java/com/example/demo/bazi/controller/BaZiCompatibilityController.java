@@ -0,0 +1,138 @@
+package com.example.demo.bazi.controller;
+
+import com.example.demo.bazi.dto.BaZiCompatibilityRankRequest;
+import com.example.demo.bazi.dto.BaZiCompatibilityRequest;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.service.BaZiCompatibilityService;
+import com.example.demo.entity.BaziCompatibility;
+import com.example.demo.util.AuthUtil;
+import com.example.demo.util.I18nUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 八字合盘 Controller
+ */
+@RestController
+@RequestMapping("/api/bazi/compatibility")
+@CrossOrigin
+@Slf4j
+@RequiredArgsConstructor
+public class BaZiCompatibilityController {
+
+    // 一对多单次请求的最大候选数
+    private static final int MAX_RANK_CANDIDATES = 100_000;
+    // 一对多单次返回的最大条数
+    private static final int MAX_RANK_TOP = 1000;
+
+    private final BaZiCompatibilityService baZiCompatibilityService;
+    private final AuthUtil authUtil;
+    private final I18nUtil i18nUtil;
+
+    /**
+     * 两盘合盘；save=true 且已登录时保存并返回记录ID
+     */
+    @PostMapping
+    public ResponseEntity<?> compare(@RequestHeader(value = "Authorization", required = false) String token,
+                                     @RequestBody BaZiCompatibilityRequest request) {
+        if (isBlank(request.getUserBaZi()) || isBlank(request.getPartnerBaZi())) {
+            return badRequest(i18nUtil.getErrorMessage("bazi.invalidInput"));
+        }
+        Long userId = Boolean.TRUE.equals(request.getSave()) ? authUtil.requireUserId(token) : null;
+        try {
+            Map<String, Object> result = baZiCompatibilityService.compare(request.getUserBaZi(), request.getPartnerBaZi());
+            if (userId != null) {
+                BaziCompatibility saved = baZiCompatibilityService.save(
+                        userId, request.getPartnerType(), request.getPartnerName(), result);
+                result.put("记录ID", saved.getId());
+            }
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
+        }
+    }
+
+    /**
+     * 一对多合盘：候选可给八字字符串或八字编码，按总分从高到低返回前 top 个
+     */
+    @PostMapping("/rank")
+    public ResponseEntity<?> rank(@RequestBody BaZiCompatibilityRankRequest request) {
+        int[] partnerCodes = request.getPartnerCodes();
+        List<String> partners = request.getPartners();
+        int candidates = partnerCodes != null ? partnerCodes.length : partners != null ? partners.size() : -1;
+        int top = request.getTop() != null ? request.getTop() : 20;
+        // 先校验数量再解析，超限的候选列表不逐条解析
+        if (isBlank(request.getBaZi()) || candidates < 0 || candidates > MAX_RANK_CANDIDATES
+                || top < 1 || top > MAX_RANK_TOP) {
+            return badRequest(i18nUtil.getErrorMessage("bazi.invalidInput"));
+        }
+        try {
+            int[] codes = partnerCodes != null ? partnerCodes : partners.stream()
+                    .mapToInt(baZi -> PackedBaZiChart.parse(baZi).code())
+                    .toArray();
+
+            List<Map<String, Object>> ranked = baZiCompatibilityService.rank(request.getBaZi(), codes, top);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("八字", request.getBaZi().trim());
+            result.put("候选数", codes.length);
+            result.put("排名", ranked);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/records")
+    public ResponseEntity<List<BaziCompatibility>> records(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Long userId = authUtil.requireUserId(token);
+        return ResponseEntity.ok(baZiCompatibilityService.getUserRecords(userId, page, size));
+    }
+
+    @GetMapping("/records/{id}")
+    public ResponseEntity<?> record(@RequestHeader(value = "Authorization", required = false) String token,
+                                    @PathVariable Long id) {
+        Long userId = authUtil.requireUserId(token);
+        BaziCompatibility compatibility = baZiCompatibilityService.getUserRecord(userId, id);
+        if (compatibility == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(compatibility);
+    }
+
+    @DeleteMapping("/records/{id}")
+    public ResponseEntity<?> deleteRecord(@RequestHeader(value = "Authorization", required = false) String token,
+                                          @PathVariable Long id) {
+        Long userId = authUtil.requireUserId(token);
+        if (!baZiCompatibilityService.deleteUserRecord(userId, id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private ResponseEntity<Map<String, String>> badRequest(String message) {
+        return ResponseEntity.badRequest().body(Collections.singletonMap("error", message));
+    }
+}
@@ -1,28 +1,49 @@
 package com.example.demo.bazi.controller;
 
+import com.example.demo.bazi.dto.BaZiConvertBatchRequest;
+import com.example.demo.bazi.dto.BaZiRequest;
+import com.example.demo.bazi.model.BirthTimeWindow;
+import com.example.demo.bazi.model.DaYunResult;
+import com.example.demo.bazi.model.FortuneTimeline;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.service.BaZiBatchService;
 import com.example.demo.bazi.service.BaZiDeepSeekService;
 import com.example.demo.bazi.service.BaZiService;
+import com.example.demo.bazi.service.BaZiSimilarityService;
+import com.example.demo.bazi.util.BaZiReverseSearch;
+import com.example.demo.bazi.util.BulkBaZiConverter;
+import com.example.demo.bazi.util.ChartSimilarityIndex;
+import com.example.demo.bazi.util.CityLongitudeIndex;
 import com.example.demo.bazi.util.DateToBaZiConverter;
 import com.example.demo.dto.response.bazi.BaziAnalysisResponse;
 import com.example.demo.dto.response.bazi.BaziDaYunResponse;
 import com.example.demo.dto.response.bazi.BaziResponseMapper;
+import com.example.demo.service.BaziInterpretationService;
+import com.example.demo.util.AuthUtil;
 import com.example.demo.util.I18nUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/bazi")
@@ -31,61 +52,118 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class BaZiController {
 
+    // 时间轴单次请求的最大年数
+    private static final int MAX_TIMELINE_YEARS = 200;
+    // 相似八字单次返回的最大条数
+    private static final int MAX_SIMILAR_LIMIT = 100;
+    // 批量转换单次请求的最大条数（受请求体大小上限约束，更大批量请分段提交）
+    private static final int MAX_CONVERT_BATCH = 500_000;
+
     private final BaZiService baZiService;
+    private final BaZiBatchService baZiBatchService;
     private final BaZiDeepSeekService baZiDeepSeekService;
+    private final BaZiSimilarityService baZiSimilarityService;
+    private final BaziInterpretationService baziInterpretationService;
     private final I18nUtil i18nUtil;
+    private final AuthUtil authUtil;
 
     @PostMapping("/analyze")
-    public ResponseEntity<?> analyze(@RequestBody Map<String, Object> request) {
-        try {
+    public Mono<ResponseEntity<?>> analyze(@RequestBody Map<String, Object> request) {
+        return Mono.<ResponseEntity<?>>defer(() -> {
             String baZi = asString(request.get("baZi"));
             Integer birthYear = asInteger(request.get("birthYear"));
             boolean isMale = asBoolean(request.get("isMale"), true);
             int qiYunAge = asInteger(request.get("qiYunAge")) != null ? asInteger(request.get("qiYunAge")) : 4;
+            List<String> sections = asStringList(request.get("sections"));
+            // 附带十神解读（内存表查询，不访问数据库）
+            boolean withInterpretations = asBoolean(request.get("withInterpretations"), false);
 
             if (baZi == null || baZi.isBlank()) {
-                return badRequest(i18nUtil.getErrorMessage("bazi.invalidInput"));
+                return Mono.just(badRequest(i18nUtil.getErrorMessage("bazi.invalidInput")));
             }
 
             int resolvedBirthYear = birthYear != null ? birthYear : 2000;
-            return ResponseEntity.ok(BaziResponseMapper.fromAnalysisMap(
-                    baZiService.analyze(baZi, resolvedBirthYear, isMale, qiYunAge)
-            ));
-        } catch (Exception e) {
-            return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
-        }
+            if (withInterpretations && sections != null && !sections.isEmpty()) {
+                sections = new ArrayList<>(sections);
+                sections.add("interpretations");
+            }
+            return analyzeSections(baZi, resolvedBirthYear, isMale, qiYunAge, sections).map(analysis -> {
+                BaziAnalysisResponse response = BaziResponseMapper.fromAnalysisMap(analysis);
+                if (withInterpretations) {
+                    response.setInterpretations(baziInterpretationService.getInterpretationsFromPillars(response.getPillars())
+                            .stream()
+                            .map(BaziResponseMapper::fromInterpretationMap)
+                            .toList());
+                }
+                return ResponseEntity.ok(response);
+            });
+        }).onErrorResume(BaZiController::isNotRejected,
+                e -> Mono.just(badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()))));
+    }
+
+    /**
+     * 批量分析：请求体为 NDJSON（每行一个 BaZiRequest）或 JSON 数组，
+     * 结果按输入顺序逐行以 NDJSON 流式返回
+     */
+    @PostMapping(value = "/analyze/batch",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> analyzeBatch(@RequestBody Flux<BaZiRequest> requests) {
+        return baZiBatchService.analyze(requests);
+    }
+
+    /**
+     * 出生时辰不确定：传年、月、日三柱，一次返回子时至亥时十二个时辰的分析结果
+     */
+    @PostMapping("/analyze/hours")
+    public Mono<ResponseEntity<?>> analyzeHours(@RequestBody Map<String, Object> request) {
+        return Mono.<ResponseEntity<?>>defer(() -> {
+            String sanZhu = asString(request.get("sanZhu"));
+            Integer birthYear = asInteger(request.get("birthYear"));
+            boolean isMale = asBoolean(request.get("isMale"), true);
+            int qiYunAge = asInteger(request.get("qiYunAge")) != null ? asInteger(request.get("qiYunAge")) : 4;
+            List<String> sections = asStringList(request.get("sections"));
+
+            if (sanZhu == null || sanZhu.isBlank()) {
+                return Mono.just(badRequest(i18nUtil.getErrorMessage("bazi.invalidInput")));
+            }
+
+            return baZiService.analyzeHourVariantsAsync(sanZhu,
+                    birthYear != null ? birthYear : 2000, isMale, qiYunAge,
+                    sections == null || sections.isEmpty()
+                            ? baZiService.getSections()
+                            : BaziResponseMapper.resolveSections(sections))
+                    .map(variants -> ResponseEntity.ok(variants.stream().map(BaziResponseMapper::fromAnalysisMap).toList()));
+        }).onErrorResume(BaZiController::isNotRejected,
+                e -> Mono.just(badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()))));
     }
 
     @PostMapping("/analyze/simple")
-    public ResponseEntity<?> analyzeSimple(@RequestBody Map<String, Object> request) {
-        try {
+    public Mono<ResponseEntity<?>> analyzeSimple(@RequestBody Map<String, Object> request) {
+        return Mono.<ResponseEntity<?>>defer(() -> {
             String baZi = asString(request.get("baZi"));
             boolean isMale = asBoolean(request.get("isMale"), true);
 
             if (baZi == null || baZi.isBlank()) {
-                return badRequest(i18nUtil.getErrorMessage("bazi.invalidInput"));
+                return Mono.just(badRequest(i18nUtil.getErrorMessage("bazi.invalidInput")));
             }
 
-            return ResponseEntity.ok(BaziResponseMapper.fromAnalysisMap(
-                    baZiService.analyzeSimple(baZi, isMale)
-            ));
-        } catch (Exception e) {
-            return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
-        }
+            return baZiService.analyzeSimpleAsync(baZi, isMale)
+                    .map(analysis -> ResponseEntity.ok(BaziResponseMapper.fromAnalysisMap(analysis)));
+        }).onErrorResume(BaZiController::isNotRejected,
+                e -> Mono.just(badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()))));
     }
 
     @GetMapping("/analyze")
-    public ResponseEntity<?> analyzeGet(@RequestParam String baZi,
-                                        @RequestParam(defaultValue = "2000") int birthYear,
-                                        @RequestParam(defaultValue = "true") boolean isMale,
-                                        @RequestParam(defaultValue = "4") int qiYunAge) {
-        try {
-            return ResponseEntity.ok(BaziResponseMapper.fromAnalysisMap(
-                    baZiService.analyze(baZi, birthYear, isMale, qiYunAge)
-            ));
-        } catch (Exception e) {
-            return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
-        }
+    public Mono<ResponseEntity<?>> analyzeGet(@RequestParam String baZi,
+                                              @RequestParam(defaultValue = "2000") int birthYear,
+                                              @RequestParam(defaultValue = "true") boolean isMale,
+                                              @RequestParam(defaultValue = "4") int qiYunAge,
+                                              @RequestParam(required = false) List<String> sections) {
+        return Mono.<ResponseEntity<?>>defer(() -> analyzeSections(baZi, birthYear, isMale, qiYunAge, sections)
+                        .map(analysis -> ResponseEntity.ok(BaziResponseMapper.fromAnalysisMap(analysis))))
+                .onErrorResume(BaZiController::isNotRejected,
+                        e -> Mono.just(badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()))));
     }
 
     @PostMapping("/dayun")
@@ -108,6 +186,107 @@ public class BaZiController {
         }
     }
 
+    /**
+     * 运势时间轴（列式）：fromYear 缺省为出生年份，years 即页长，分页时按 fromYear 翻页
+     */
+    @GetMapping("/timeline")
+    public ResponseEntity<?> timeline(@RequestParam String baZi,
+                                      @RequestParam int birthYear,
+                                      @RequestParam(defaultValue = "true") boolean isMale,
+                                      @RequestParam(defaultValue = "4") int qiYunAge,
+                                      @RequestParam(required = false) Integer fromYear,
+                                      @RequestParam(defaultValue = "100") int years) {
+        try {
+            if (baZi.isBlank() || years < 1 || years > MAX_TIMELINE_YEARS) {
+                return badRequest(i18nUtil.getErrorMessage("bazi.invalidInput"));
+            }
+            return ResponseEntity.ok(baZiService.timeline(baZi, birthYear, isMale, qiYunAge,
+                    fromYear != null ? fromYear : birthYear, years).toColumns());
+        } catch (Exception e) {
+            return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
+        }
+    }
+
+    /**
+     * 运势时间轴逐年流式输出（NDJSON，每行一年）
+     */
+    @GetMapping(value = "/timeline/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> timelineStream(@RequestParam String baZi,
+                                                    @RequestParam int birthYear,
+                                                    @RequestParam(defaultValue = "true") boolean isMale,
+                                                    @RequestParam(defaultValue = "4") int qiYunAge,
+                                                    @RequestParam(required = false) Integer fromYear,
+                                                    @RequestParam(defaultValue = "100") int years) {
+        if (baZi.isBlank() || years < 1 || years > MAX_TIMELINE_YEARS) {
+            return Flux.error(new IllegalArgumentException(i18nUtil.getErrorMessage("bazi.invalidInput")));
+        }
+        return Flux.defer(() -> {
+            FortuneTimeline timeline = baZiService.timeline(baZi, birthYear, isMale, qiYunAge,
+                    fromYear != null ? fromYear : birthYear, years);
+            return Flux.range(0, timeline.size()).map(timeline::row);
+        });
+    }
+
+    /**
+     * 八字反查出生时间：返回干支年在 [fromYear, toYear] 内所有相符的时辰段，
+     * 提供经度时按东八区钟表时间给出，否则为真太阳时
+     */
+    @GetMapping("/reverse")
+    public ResponseEntity<?> reverse(@RequestParam String baZi,
+                                     @RequestParam(required = false) Integer fromYear,
+                                     @RequestParam(required = false) Integer toYear,
+                                     @RequestParam(required = false) Double longitude) {
+        try {
+            if (baZi.isBlank()) {
+                return badRequest(i18nUtil.getErrorMessage("bazi.invalidInput"));
+            }
+            PackedBaZiChart chart = PackedBaZiChart.parse(baZi.trim());
+            BaZiReverseSearch search = BaZiReverseSearch.getInstance();
+            int from = fromYear != null ? fromYear : search.getFirstYear();
+            int to = toYear != null ? toYear : search.getLastYear();
+            List<BirthTimeWindow> windows = search.search(chart, from, to, longitude);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("八字", chart.toString());
+            result.put("有效", BaZiReverseSearch.isConsistent(chart));
+            result.put("起始年份", Math.max(from, search.getFirstYear()));
+            result.put("结束年份", Math.min(to, search.getLastYear()));
+            result.put("数量", windows.size());
+            result.put("时间段", windows);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
+        }
+    }
+
+    /**
+     * 相似八字：当前用户已保存的八字记录中日柱、月令相同且五行分布相差不超过 tolerance 个字的记录，需登录
+     */
+    @GetMapping("/similar")
+    public ResponseEntity<?> similar(@RequestHeader(value = "Authorization", required = false) String token,
+                                     @RequestParam String baZi,
+                                     @RequestParam(defaultValue = "1") int tolerance,
+                                     @RequestParam(defaultValue = "false") boolean samePattern,
+                                     @RequestParam(defaultValue = "20") int limit,
+                                     @RequestParam(required = false) Long excludeRecordId) {
+        Long userId = authUtil.requireUserId(token);
+        try {
+            if (baZi.isBlank() || tolerance < 0 || limit < 1 || limit > MAX_SIMILAR_LIMIT) {
+                return badRequest(i18nUtil.getErrorMessage("bazi.invalidInput"));
+            }
+            ChartSimilarityIndex.SimilarityResult similar =
+                    baZiSimilarityService.findSimilar(userId, baZi, tolerance, samePattern, limit, excludeRecordId);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("八字", baZi.trim());
+            result.put("索引记录数", baZiSimilarityService.size(userId));
+            result.put("命中数", similar.total());
+            result.put("相似八字", similar.matches());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
+        }
+    }
+
     @PostMapping("/xingchonghe")
     public ResponseEntity<?> analyzeXingChongHeHui(@RequestBody Map<String, Object> request) {
         try {
@@ -155,6 +334,21 @@ public class BaZiController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/sections")
+    public ResponseEntity<List<String>> sections() {
+        return ResponseEntity.ok(baZiService.getSections());
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(baZiService.getCacheStats());
+    }
+
+    @GetMapping("/analyzer/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> analyzerStats() {
+        return ResponseEntity.ok(baZiService.getAnalyzerStats());
+    }
+
     @PostMapping("/generate")
     public ResponseEntity<?> generateBaZi(@RequestBody Map<String, Object> request) {
         try {
@@ -162,20 +356,30 @@ public class BaZiController {
             boolean isMale = asBoolean(request.get("isMale"), true);
             int qiYunAge = asInteger(request.get("qiYunAge")) != null ? asInteger(request.get("qiYunAge")) : 4;
             Double longitude = asDouble(request.get("longitude"));
+            String cityName = asString(request.get("city"));
 
             if (birthDateTime == null || birthDateTime.isBlank()) {
                 return badRequest("出生日期时间不能为空，格式：yyyy-MM-dd HH:mm:ss");
             }
+            CityLongitudeIndex.City city = longitude == null ? findCity(cityName) : null;
+            if (longitude == null && cityName != null && !cityName.isBlank() && city == null) {
+                return badRequest("未找到城市: " + cityName + "，请直接提供经度");
+            }
 
-            String baZi = DateToBaZiConverter.convert(birthDateTime, longitude);
             int birthYear = Integer.parseInt(birthDateTime.substring(0, 4));
-            Map<String, Object> dateInfo = DateToBaZiConverter.convertDetailed(birthDateTime, isMale, longitude);
+            Map<String, Object> dateInfo = city != null
+                    ? DateToBaZiConverter.convertDetailed(birthDateTime, isMale, city)
+                    : DateToBaZiConverter.convertDetailed(birthDateTime, isMale, longitude);
+            String baZi = (String) dateInfo.get("八字");
             Map<String, Object> analysisResult = baZiService.analyze(baZi, birthYear, isMale, qiYunAge);
 
             Map<String, Object> result = new LinkedHashMap<>(analysisResult);
             result.put("出生时间", dateInfo.get("出生时间"));
             result.put("计算用时间", dateInfo.get("计算用时间"));
             result.put("性别", isMale ? "男" : "女");
+            if (dateInfo.containsKey("城市")) {
+                result.put("城市", dateInfo.get("城市"));
+            }
             if (dateInfo.containsKey("经度")) {
                 result.put("经度", dateInfo.get("经度"));
             }
@@ -199,12 +403,63 @@ public class BaZiController {
             String birthDateTime = asString(request.get("birthDateTime"));
             boolean isMale = asBoolean(request.get("isMale"), true);
             Double longitude = asDouble(request.get("longitude"));
+            String cityName = asString(request.get("city"));
 
             if (birthDateTime == null || birthDateTime.isBlank()) {
                 return badRequest("出生日期时间不能为空，格式：yyyy-MM-dd HH:mm:ss");
             }
+            CityLongitudeIndex.City city = longitude == null ? findCity(cityName) : null;
+            if (longitude == null && cityName != null && !cityName.isBlank() && city == null) {
+                return badRequest("未找到城市: " + cityName + "，请直接提供经度");
+            }
 
-            return ResponseEntity.ok(DateToBaZiConverter.convertDetailed(birthDateTime, isMale, longitude));
+            return ResponseEntity.ok(city != null
+                    ? DateToBaZiConverter.convertDetailed(birthDateTime, isMale, city)
+                    : DateToBaZiConverter.convertDetailed(birthDateTime, isMale, longitude));
+        } catch (Exception e) {
+            return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
+        }
+    }
+
+    /**
+     * 按城市名查经纬度和时区，供客户端确认真太阳时换算所用地点
+     */
+    @GetMapping("/city")
+    public ResponseEntity<?> city(@RequestParam String name) {
+        CityLongitudeIndex.City city = findCity(name);
+        if (city == null) {
+            return badRequest("未找到城市: " + name);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("城市", city.name());
+        result.put("经度", city.longitude());
+        result.put("纬度", city.latitude());
+        result.put("时区", city.zone().getId());
+        // 当前偏移；换算出生时间时按出生时刻重新取，夏令时等历史变更都计入
+        result.put("时区偏移分钟", city.offsetAt(LocalDateTime.now(city.zone())).getTotalSeconds() / 60);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 批量时间转八字：返回与输入一一对应的八字编码（60 进制，年柱为最高位），
+     * text=true 时同时返回八字字符串
+     */
+    @PostMapping("/convert/batch")
+    public ResponseEntity<?> convertBatch(@RequestBody BaZiConvertBatchRequest request) {
+        try {
+            long[] timestamps = request.getTimestamps();
+            if (timestamps == null || timestamps.length > MAX_CONVERT_BATCH) {
+                return badRequest(i18nUtil.getErrorMessage("bazi.invalidInput"));
+            }
+
+            int[] codes = BulkBaZiConverter.getInstance().convertAll(timestamps, request.getLongitude());
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("数量", codes.length);
+            result.put("八字编码", codes);
+            if (Boolean.TRUE.equals(request.getText())) {
+                result.put("八字", Arrays.stream(codes).mapToObj(BulkBaZiConverter::format).toArray(String[]::new));
+            }
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             return badRequest(i18nUtil.getErrorMessage("bazi.failed", e.getMessage()));
         }
@@ -276,10 +531,35 @@ public class BaZiController {
         }
     }
 
+    /**
+     * 未指定 sections 时完整分析；指定时只计算所需分析段，各段在映射响应时按需计算
+     */
+    /**
+     * 分析段在分析器线程池上并发求值，不阻塞请求线程
+     */
+    private Mono<Map<String, Object>> analyzeSections(String baZi, int birthYear, boolean isMale, int qiYunAge,
+                                                      List<String> sections) {
+        return baZiService.analyzeAsync(baZi, birthYear, isMale, qiYunAge,
+                sections == null || sections.isEmpty()
+                        ? baZiService.getSections()
+                        : BaziResponseMapper.resolveSections(sections));
+    }
+
+    /**
+     * 分析器线程池已满的 RejectedExecutionException 不转成 400，交给 GlobalExceptionHandler 返回 503
+     */
+    private static boolean isNotRejected(Throwable e) {
+        return !(e instanceof RejectedExecutionException);
+    }
+
     private ResponseEntity<Map<String, String>> badRequest(String message) {
         return ResponseEntity.badRequest().body(Collections.singletonMap("error", message));
     }
 
+    private CityLongitudeIndex.City findCity(String name) {
+        return CityLongitudeIndex.getInstance().find(name).orElse(null);
+    }
+
     private String asString(Object value) {
         return value == null ? null : value.toString();
     }
@@ -301,6 +581,16 @@ public class BaZiController {
         return null;
     }
 
+    private List<String> asStringList(Object value) {
+        if (value instanceof List<?> list) {
+            return list.stream().map(String::valueOf).toList();
+        }
+        if (value instanceof String text && !text.isBlank()) {
+            return Arrays.asList(text.split(","));
+        }
+        return null;
+    }
+
     private Double asDouble(Object value) {
         if (value instanceof Double aDouble) {
             return aDouble;
@@ -328,7 +618,7 @@ public class BaZiController {
         return defaultValue;
     }
 
-    private Map<String, Object> wrapDaYun(Map<String, Object> daYun) {
+    private Map<String, Object> wrapDaYun(DaYunResult daYun) {
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("大运数据", daYun);
         return result;
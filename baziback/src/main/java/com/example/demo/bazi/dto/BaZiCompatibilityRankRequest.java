@@ -0,0 +1,22 @@
+package com.example.demo.bazi.dto;
+
+import java.util.List;
+
+/**
+ * 一对多合盘排序请求DTO
+ */
+public class BaZiCompatibilityRankRequest {
+    private String baZi;            // 本人八字
+    private List<String> partners;  // 候选八字字符串（与 partnerCodes 二选一）
+    private int[] partnerCodes;     // 候选八字编码，见 /convert/batch
+    private Integer top;            // 返回前几名（可选，默认 20）
+
+    public String getBaZi() { return baZi; }
+    public void setBaZi(String baZi) { this.baZi = baZi; }
+    public List<String> getPartners() { return partners; }
+    public void setPartners(List<String> partners) { this.partners = partners; }
+    public int[] getPartnerCodes() { return partnerCodes; }
+    public void setPartnerCodes(int[] partnerCodes) { this.partnerCodes = partnerCodes; }
+    public Integer getTop() { return top; }
+    public void setTop(Integer top) { this.top = top; }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.bazi.dto;
+
+/**
+ * 八字合盘请求DTO
+ */
+public class BaZiCompatibilityRequest {
+    private String userBaZi;       // 本人八字，格式：乙酉 己丑 甲辰 戊辰
+    private String partnerBaZi;    // 对方八字
+    private String partnerType;    // 合盘对象类型：friend, lover, spouse等（可选）
+    private String partnerName;    // 合盘对象姓名（可选）
+    private Boolean save;          // 是否保存到合盘记录（需登录，可选）
+
+    public String getUserBaZi() { return userBaZi; }
+    public void setUserBaZi(String userBaZi) { this.userBaZi = userBaZi; }
+    public String getPartnerBaZi() { return partnerBaZi; }
+    public void setPartnerBaZi(String partnerBaZi) { this.partnerBaZi = partnerBaZi; }
+    public String getPartnerType() { return partnerType; }
+    public void setPartnerType(String partnerType) { this.partnerType = partnerType; }
+    public String getPartnerName() { return partnerName; }
+    public void setPartnerName(String partnerName) { this.partnerName = partnerName; }
+    public Boolean getSave() { return save; }
+    public void setSave(Boolean save) { this.save = save; }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.bazi.dto;
+
+/**
+ * 批量时间转八字请求DTO
+ */
+public class BaZiConvertBatchRequest {
+    private long[] timestamps;     // UTC 时间戳（秒），按北京时间取时刻
+    private Double longitude;      // 经度（可选，整批按真太阳时换算）
+    private Boolean text;          // 是否同时返回八字字符串（可选，默认只返回编码）
+
+    public long[] getTimestamps() { return timestamps; }
+    public void setTimestamps(long[] timestamps) { this.timestamps = timestamps; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public Boolean getText() { return text; }
+    public void setText(Boolean text) { this.text = text; }
+}
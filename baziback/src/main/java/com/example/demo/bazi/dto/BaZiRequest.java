@@ -1,5 +1,7 @@
 package com.example.demo.bazi.dto;
 
+import java.util.List;
+
 /**
  * 八字分析请求DTO
  */
@@ -8,6 +10,8 @@ public class BaZiRequest {
     private Integer birthYear;     // 出生年份
     private Boolean isMale;        // 是否男命
     private Integer qiYunAge;      // 起运年龄（可选，默认4岁）
+    private String id;             // 调用方标识（可选，批量分析时原样返回）
+    private List<String> sections; // 需要的分析段（可选，默认全部）
 
     public BaZiRequest() {
         this.isMale = true;
@@ -29,4 +33,8 @@ public class BaZiRequest {
     public void setIsMale(Boolean isMale) { this.isMale = isMale; }
     public Integer getQiYunAge() { return qiYunAge; }
     public void setQiYunAge(Integer qiYunAge) { this.qiYunAge = qiYunAge; }
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public List<String> getSections() { return sections; }
+    public void setSections(List<String> sections) { this.sections = sections; }
 }
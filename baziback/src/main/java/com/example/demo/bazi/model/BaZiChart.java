@@ -27,6 +27,13 @@ public class BaZiChart {
     private String renYuanSiLing; // 人元司令（月令当值天干）
     private Map<String, Object> qiYunInfo; // 起运信息（年、月、日、小时）
     
+    // 按月支编码取季节：子丑为冬，寅卯辰为春 ...
+    private static final String[] JI_JIE = {
+        "冬", "冬", "春", "春", "春", "夏", "夏", "夏", "秋", "秋", "秋", "冬"
+    };
+
+    private PackedBaZiChart packed; // 整数编码命盘
+
     public BaZiChart() {
         this.xingYun = new LinkedHashMap<>();
         this.ziZuo = new LinkedHashMap<>();
@@ -38,125 +45,134 @@ public class BaZiChart {
      * 从八字字符串解析
      */
     public static BaZiChart parse(String baZiStr) {
-        BaZiChart chart = new BaZiChart();
+        BaZiChart chart = fromPacked(PackedBaZiChart.parse(baZiStr));
         chart.baZiStr = baZiStr;
-        
-        // 解析格式：乙酉 己丑 甲辰 戊辰
-        String[] parts = baZiStr.split(" ");
-        if (parts.length != 4) {
-            throw new IllegalArgumentException("八字格式错误，应为：天干地支 天干地支 天干地支 天干地支");
-        }
-        
-        // 解析四柱
-        chart.nianZhu = parsePillar("年", parts[0]);
-        chart.yueZhu = parsePillar("月", parts[1]);
-        chart.riZhu = parsePillar("日", parts[2]);
-        chart.shiZhu = parsePillar("时", parts[3]);
-        
+        chart.id = baZiStr.replace(" ", "") + "1";
+        return chart;
+    }
+
+    /**
+     * 从整数编码命盘构建
+     */
+    public static BaZiChart fromPacked(PackedBaZiChart packed) {
+        BaZiChart chart = new BaZiChart();
+        chart.packed = packed;
+        chart.baZiStr = packed.toString();
+
+        // 四柱
+        chart.nianZhu = new Pillar("年", packed.jiaZi(PackedBaZiChart.NIAN));
+        chart.yueZhu = new Pillar("月", packed.jiaZi(PackedBaZiChart.YUE));
+        chart.riZhu = new Pillar("日", packed.jiaZi(PackedBaZiChart.RI));
+        chart.shiZhu = new Pillar("时", packed.jiaZi(PackedBaZiChart.SHI));
+
         // 设置生肖
-        chart.shengXiao = DiZhi.fromName(chart.nianZhu.getDiZhi()).getShengXiao();
-        
-        // 计算十神
-        String riZhuTianGan = chart.riZhu.getTianGan();
-        chart.nianZhu.calculateShiShen(riZhuTianGan);
-        chart.yueZhu.calculateShiShen(riZhuTianGan);
-        chart.riZhu.calculateShiShen(riZhuTianGan);
-        chart.shiZhu.calculateShiShen(riZhuTianGan);
-        
-        // 计算星运
-        chart.nianZhu.calculateXingYun(riZhuTianGan);
-        chart.yueZhu.calculateXingYun(riZhuTianGan);
-        chart.riZhu.calculateXingYun(riZhuTianGan);
-        chart.shiZhu.calculateXingYun(riZhuTianGan);
-        
-        chart.xingYun.put("年", chart.nianZhu.getXingYun());
-        chart.xingYun.put("月", chart.yueZhu.getXingYun());
-        chart.xingYun.put("日", chart.riZhu.getXingYun());
-        chart.xingYun.put("时", chart.shiZhu.getXingYun());
-        
-        // 计算自坐
-        chart.nianZhu.calculateZiZuo();
-        chart.yueZhu.calculateZiZuo();
-        chart.riZhu.calculateZiZuo();
-        chart.shiZhu.calculateZiZuo();
-        
-        chart.ziZuo.put("年", chart.nianZhu.getZiZuo());
-        chart.ziZuo.put("月", chart.yueZhu.getZiZuo());
-        chart.ziZuo.put("日", chart.riZhu.getZiZuo());
-        chart.ziZuo.put("时", chart.shiZhu.getZiZuo());
-        
-        // 计算空亡
-        chart.kongWang.put("年", KongWang.getKongWangStr(chart.nianZhu.getGanZhi()));
-        chart.kongWang.put("月", KongWang.getKongWangStr(chart.yueZhu.getGanZhi()));
-        chart.kongWang.put("日", KongWang.getKongWangStr(chart.riZhu.getGanZhi()));
-        chart.kongWang.put("时", KongWang.getKongWangStr(chart.shiZhu.getGanZhi()));
-        
-        // 纳音
-        chart.naYin.put("年", Collections.singletonList(chart.nianZhu.getNaYin()));
-        chart.naYin.put("月", Collections.singletonList(chart.yueZhu.getNaYin()));
-        chart.naYin.put("日", Collections.singletonList(chart.riZhu.getNaYin()));
-        chart.naYin.put("时", Collections.singletonList(chart.shiZhu.getNaYin()));
-        
+        chart.shengXiao = GanZhi.branch(packed.branch(PackedBaZiChart.NIAN)).getShengXiao();
+
+        // 十神、星运、自坐
+        int riGan = packed.riGan();
+        Pillar[] pillars = {chart.nianZhu, chart.yueZhu, chart.riZhu, chart.shiZhu};
+        for (Pillar pillar : pillars) {
+            pillar.calculateShiShen(riGan);
+            pillar.calculateXingYun(riGan);
+            pillar.calculateZiZuo();
+        }
+
+        for (Pillar pillar : pillars) {
+            String name = pillar.getName();
+            chart.xingYun.put(name, pillar.getXingYun());
+            chart.ziZuo.put(name, pillar.getZiZuo());
+            // 计算空亡
+            chart.kongWang.put(name, JiaZiTable.get(pillar.getJiaZi()).getKongWang());
+            // 纳音
+            chart.naYin.put(name, Collections.singletonList(pillar.getNaYin()));
+        }
+
         // 确定季节
-        chart.jiJie = determineJiJie(chart.yueZhu.getDiZhi());
-        
+        chart.jiJie = JI_JIE[packed.branch(PackedBaZiChart.YUE)];
+
         // 计算胎元命宫身宫
         chart.calculateTaiMingShen();
-        
+
         // 计算阴阳分布
         chart.calculateYinYang();
-        
+
         // 计算人元司令（月令当值天干，简化处理：取月支藏干的本气）
         chart.calculateRenYuanSiLing();
-        
+
         // 生成ID
         chart.id = chart.baZiStr.replace(" ", "") + "1";
-        
+
         return chart;
     }
 
-    private static Pillar parsePillar(String name, String ganZhi) {
-        if (ganZhi.length() != 2) {
-            throw new IllegalArgumentException("干支格式错误: " + ganZhi);
-        }
-        String tianGan = ganZhi.substring(0, 1);
-        String diZhi = ganZhi.substring(1, 2);
-        return new Pillar(name, tianGan, diZhi);
-    }
+    /**
+     * 换时柱：年、月、日三柱对象及只依赖三柱的信息沿用本命盘，
+     * 只重算时柱、各柱信息中的时柱一项、命宫身宫和阴阳分布。用于出生时辰不确定时的十二时辰比对。
+     * @param shiJiaZi 时柱甲子编码
+     */
+    public BaZiChart withShiZhu(int shiJiaZi) {
+        PackedBaZiChart newPacked = PackedBaZiChart.of(packed.jiaZi(PackedBaZiChart.NIAN),
+                packed.jiaZi(PackedBaZiChart.YUE), packed.jiaZi(PackedBaZiChart.RI), shiJiaZi);
+        BaZiChart chart = new BaZiChart();
+        chart.packed = newPacked;
+        chart.baZiStr = newPacked.toString();
+        chart.nianZhu = nianZhu;
+        chart.yueZhu = yueZhu;
+        chart.riZhu = riZhu;
+        chart.shiZhu = new Pillar("时", shiJiaZi);
+        chart.shiZhu.calculateShiShen(newPacked.riGan());
+        chart.shiZhu.calculateXingYun(newPacked.riGan());
+        chart.shiZhu.calculateZiZuo();
+        chart.shengXiao = shengXiao;
+        chart.jiJie = jiJie;
+        chart.renYuanSiLing = renYuanSiLing;
 
-    private static String determineJiJie(String yueZhi) {
-        switch (yueZhi) {
-            case "寅": case "卯": case "辰": return "春";
-            case "巳": case "午": case "未": return "夏";
-            case "申": case "酉": case "戌": return "秋";
-            case "亥": case "子": case "丑": return "冬";
-            default: return "未知";
-        }
+        // 各柱信息按年月日时排列，替换时柱一项不改变顺序
+        String name = chart.shiZhu.getName();
+        chart.xingYun.putAll(xingYun);
+        chart.xingYun.put(name, chart.shiZhu.getXingYun());
+        chart.ziZuo.putAll(ziZuo);
+        chart.ziZuo.put(name, chart.shiZhu.getZiZuo());
+        chart.kongWang.putAll(kongWang);
+        chart.kongWang.put(name, JiaZiTable.get(shiJiaZi).getKongWang());
+        chart.naYin.putAll(naYin);
+        chart.naYin.put(name, Collections.singletonList(chart.shiZhu.getNaYin()));
+
+        chart.calculateTaiMingShen((String) taiMingShen.get("胎元"));
+        chart.calculateYinYang();
+        chart.id = chart.baZiStr.replace(" ", "") + "1";
+        return chart;
     }
 
     /**
      * 计算胎元、命宫、身宫
      */
     private void calculateTaiMingShen() {
-        this.taiMingShen = new LinkedHashMap<>();
-        
         // 胎元：月干进一位 + 月支进三位
-        TianGan yueGan = TianGan.fromName(yueZhu.getTianGan());
-        DiZhi yueZhi = DiZhi.fromName(yueZhu.getDiZhi());
+        TianGan yueGan = GanZhi.stem(packed.stem(PackedBaZiChart.YUE));
+        DiZhi yueZhi = GanZhi.branch(packed.branch(PackedBaZiChart.YUE));
         
         TianGan taiYuanGan = TianGan.fromIndex(yueGan.getIndex() + 1);
         DiZhi taiYuanZhi = DiZhi.fromIndex(yueZhi.getIndex() + 3);
-        String taiYuan = taiYuanGan.getName() + taiYuanZhi.getName();
+        calculateTaiMingShen(taiYuanGan.getName() + taiYuanZhi.getName());
+    }
+
+    /**
+     * 计算命宫、身宫（依赖时支），胎元只依赖月柱，由调用方给出
+     */
+    private void calculateTaiMingShen(String taiYuan) {
+        this.taiMingShen = new LinkedHashMap<>();
+        DiZhi yueZhi = GanZhi.branch(packed.branch(PackedBaZiChart.YUE));
         
         // 命宫计算（简化算法）
         int yueZhiIndex = yueZhi.getIndex();
-        int shiZhiIndex = DiZhi.fromName(shiZhu.getDiZhi()).getIndex();
+        int shiZhiIndex = packed.branch(PackedBaZiChart.SHI) + 1;
         int mingGongIndex = (14 - yueZhiIndex - shiZhiIndex + 12) % 12;
         if (mingGongIndex == 0) mingGongIndex = 12;
         DiZhi mingGongZhi = DiZhi.fromIndex(mingGongIndex);
         
         // 根据年干确定命宫天干
-        TianGan nianGan = TianGan.fromName(nianZhu.getTianGan());
+        TianGan nianGan = GanZhi.stem(packed.stem(PackedBaZiChart.NIAN));
         int baseIndex = ((nianGan.getIndex() - 1) % 5) * 2 + 1;
         int mingGongGanIndex = (baseIndex + mingGongIndex - 1) % 10;
         if (mingGongGanIndex == 0) mingGongGanIndex = 10;
@@ -187,7 +203,7 @@ public class BaZiChart {
      * 简化处理：取月支藏干的本气（第一个藏干）
      */
     private void calculateRenYuanSiLing() {
-        DiZhi yueZhi = DiZhi.fromName(yueZhu.getDiZhi());
+        DiZhi yueZhi = GanZhi.branch(packed.branch(PackedBaZiChart.YUE));
         String[] cangGan = yueZhi.getCangGan();
         if (cangGan.length > 0) {
             this.renYuanSiLing = cangGan[0];
@@ -204,17 +220,11 @@ public class BaZiChart {
         int yangCount = 0;
         int yinCount = 0;
         
-        // 统计天干
-        if (TianGan.fromName(nianZhu.getTianGan()).isYang()) yangCount++; else yinCount++;
-        if (TianGan.fromName(yueZhu.getTianGan()).isYang()) yangCount++; else yinCount++;
-        if (TianGan.fromName(riZhu.getTianGan()).isYang()) yangCount++; else yinCount++;
-        if (TianGan.fromName(shiZhu.getTianGan()).isYang()) yangCount++; else yinCount++;
-        
-        // 统计地支
-        if (DiZhi.fromName(nianZhu.getDiZhi()).isYang()) yangCount++; else yinCount++;
-        if (DiZhi.fromName(yueZhu.getDiZhi()).isYang()) yangCount++; else yinCount++;
-        if (DiZhi.fromName(riZhu.getDiZhi()).isYang()) yangCount++; else yinCount++;
-        if (DiZhi.fromName(shiZhu.getDiZhi()).isYang()) yangCount++; else yinCount++;
+        // 统计天干地支
+        for (int i = 0; i < PackedBaZiChart.PILLAR_COUNT; i++) {
+            if (GanZhi.isYangStem(packed.stem(i))) yangCount++; else yinCount++;
+            if (GanZhi.isYangBranch(packed.branch(i))) yangCount++; else yinCount++;
+        }
         
         Map<String, Integer> fenBu = new LinkedHashMap<>();
         fenBu.put("阳", yangCount);
@@ -255,6 +265,13 @@ public class BaZiChart {
         return result;
     }
 
+    /**
+     * 获取整数编码命盘
+     */
+    public PackedBaZiChart getPacked() {
+        return packed;
+    }
+
     // Getters and Setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
@@ -0,0 +1,14 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+/**
+ * 八字反查得到的出生时间段，左闭右开
+ */
+public record BirthTimeWindow(
+        @JsonProperty("开始时间") @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+        @JsonProperty("结束时间") @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end) {
+}
@@ -0,0 +1,23 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 藏干信息（本气、中气、余气）
+ */
+public record CangGanInfo(
+        @JsonProperty("名称") String name,
+        @JsonProperty("十神") String shiShen,
+        @JsonProperty("五行") String wuXing) {
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("名称", name);
+        map.put("十神", shiShen);
+        map.put("五行", wuXing);
+        return map;
+    }
+}
@@ -109,6 +109,22 @@ public class DaYun {
         return map;
     }
 
+    /**
+     * 转换为不可变记录
+     */
+    public DaYunStep toStep() {
+        return new DaYunStep(ganZhi, startYear, endYear, tianGan, tianGanShiShen, tianGanWuXing,
+                diZhi, diZhiWuXing, diZhiShiShen, diZhiCangGan,
+                toCangGanInfo(diZhiBenQi), toCangGanInfo(diZhiZhongQi), toCangGanInfo(diZhiYuQi));
+    }
+
+    private static CangGanInfo toCangGanInfo(Map<String, Object> qi) {
+        if (qi == null) {
+            return null;
+        }
+        return new CangGanInfo((String) qi.get("名称"), (String) qi.get("十神"), (String) qi.get("五行"));
+    }
+
     // Getters and Setters
     public String getGanZhi() { return ganZhi; }
     public void setGanZhi(String ganZhi) { this.ganZhi = ganZhi; }
@@ -0,0 +1,17 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 大运数据：起运年份与各步大运
+ */
+public record DaYunResult(
+        @JsonProperty("起运日期") int startYear,
+        @JsonProperty("大运") List<DaYunStep> steps) {
+
+    public DaYunResult {
+        steps = List.copyOf(steps);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 一步大运
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DaYunStep(
+        @JsonProperty("干支") String ganZhi,
+        @JsonProperty("开始") int startYear,
+        @JsonProperty("结束") int endYear,
+        @JsonProperty("天干") String tianGan,
+        @JsonProperty("天干十神") String tianGanShiShen,
+        @JsonProperty("天干五行") String tianGanWuXing,
+        @JsonProperty("地支") String diZhi,
+        @JsonProperty("地支五行") String diZhiWuXing,
+        @JsonProperty("地支十神") List<String> diZhiShiShen,
+        @JsonProperty("地支藏干") List<String> diZhiCangGan,
+        @JsonProperty("地支本气") CangGanInfo benQi,
+        @JsonProperty("地支中气") CangGanInfo zhongQi,
+        @JsonProperty("地支余气") CangGanInfo yuQi) {
+
+    public DaYunStep {
+        diZhiShiShen = List.copyOf(diZhiShiShen);
+        diZhiCangGan = List.copyOf(diZhiCangGan);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.bazi.model;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.constants.JiaZiTable;
+
+import java.util.*;
+
+/**
+ * 运势时间轴（列式存储）
+ *
+ * 大运、流年、流月都只存六十甲子编码：流年一年一个字节，流月一年十二个字节，
+ * 大运一步一个字节。名称、十神、纳音等在输出时由 {@link JiaZiTable} 查出，
+ * 百年时间轴只占一千多字节，可整体返回、分页或逐年流式输出。
+ */
+public final class FortuneTimeline {
+
+    public static final int MONTHS = 12;
+
+    private final int riGan;
+    private final int birthYear;
+    private final int fromYear;
+    private final int daYunStartYear;
+    private final byte[] daYunJiaZi;
+    private final byte[] liuNianJiaZi;
+    private final byte[] liuYueJiaZi;
+
+    /**
+     * 各列数组直接引用，不做拷贝，调用方转交后不应再修改
+     */
+    public FortuneTimeline(int riGan, int birthYear, int fromYear, int daYunStartYear,
+                           byte[] daYunJiaZi, byte[] liuNianJiaZi, byte[] liuYueJiaZi) {
+        if (liuYueJiaZi.length != liuNianJiaZi.length * MONTHS) {
+            throw new IllegalArgumentException("流月列长度应为流年的12倍");
+        }
+        this.riGan = riGan;
+        this.birthYear = birthYear;
+        this.fromYear = fromYear;
+        this.daYunStartYear = daYunStartYear;
+        this.daYunJiaZi = daYunJiaZi;
+        this.liuNianJiaZi = liuNianJiaZi;
+        this.liuYueJiaZi = liuYueJiaZi;
+    }
+
+    public int getRiGan() { return riGan; }
+    public int getBirthYear() { return birthYear; }
+    public int getFromYear() { return fromYear; }
+    public int getDaYunStartYear() { return daYunStartYear; }
+
+    /**
+     * 时间轴覆盖的年数
+     */
+    public int size() { return liuNianJiaZi.length; }
+
+    public int daYunCount() { return daYunJiaZi.length; }
+
+    public int year(int i) { return fromYear + i; }
+
+    public int daYunJiaZi(int step) { return daYunJiaZi[step]; }
+
+    public int liuNianJiaZi(int i) { return liuNianJiaZi[i]; }
+
+    /**
+     * @param month 月序 1-12，1 为寅月
+     */
+    public int liuYueJiaZi(int i, int month) { return liuYueJiaZi[i * MONTHS + month - 1]; }
+
+    /**
+     * 第 i 年所行大运的步序，起运前为 -1
+     */
+    public int daYunIndex(int i) {
+        int offset = year(i) - daYunStartYear;
+        return offset < 0 ? -1 : offset / 10;
+    }
+
+    /**
+     * 列式输出：各列为甲子编码，附本命日干下的甲子名称、天干十神、纳音对照表
+     */
+    public Map<String, Object> toColumns() {
+        String[] names = new String[GanZhi.JIA_ZI_COUNT];
+        String[] shiShen = new String[GanZhi.JIA_ZI_COUNT];
+        String[] naYin = new String[GanZhi.JIA_ZI_COUNT];
+        for (int j = 0; j < GanZhi.JIA_ZI_COUNT; j++) {
+            JiaZiTable.Entry entry = JiaZiTable.get(j);
+            names[j] = entry.getName();
+            shiShen[j] = entry.getTianGanShiShen(riGan);
+            naYin[j] = entry.getNaYin();
+        }
+        int[] daYunIndex = new int[size()];
+        for (int i = 0; i < daYunIndex.length; i++) {
+            daYunIndex[i] = daYunIndex(i);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("日干", GanZhi.stemName(riGan));
+        result.put("起始年份", fromYear);
+        result.put("年数", size());
+        result.put("起运年份", daYunStartYear);
+        result.put("干支表", names);
+        result.put("十神表", shiShen);
+        result.put("纳音表", naYin);
+        result.put("大运", toInts(daYunJiaZi));
+        result.put("大运序号", daYunIndex);
+        result.put("流年", toInts(liuNianJiaZi));
+        result.put("流月", toInts(liuYueJiaZi));
+        return result;
+    }
+
+    /**
+     * 第 i 年的逐行输出（流式接口每行一年）
+     */
+    public Map<String, Object> row(int i) {
+        JiaZiTable.Entry liuNian = JiaZiTable.get(liuNianJiaZi[i]);
+        int step = daYunIndex(i);
+        String[] months = new String[MONTHS];
+        for (int m = 0; m < MONTHS; m++) {
+            months[m] = GanZhi.jiaZiName(liuYueJiaZi[i * MONTHS + m]);
+        }
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("年份", year(i));
+        row.put("年龄", (year(i) - birthYear) + "岁");
+        row.put("流年", liuNian.getName());
+        row.put("流年十神", liuNian.getTianGanShiShen(riGan));
+        row.put("纳音", liuNian.getNaYin());
+        row.put("大运", step >= 0 && step < daYunJiaZi.length ? GanZhi.jiaZiName(daYunJiaZi[step]) : null);
+        row.put("流月", List.of(months));
+        return row;
+    }
+
+    private static int[] toInts(byte[] column) {
+        int[] result = new int[column.length];
+        for (int i = 0; i < column.length; i++) {
+            result[i] = column[i];
+        }
+        return result;
+    }
+}
@@ -30,11 +30,9 @@ public class LiuNian {
         this.age = age;
         
         // 计算流年干支（年份对应的天干地支）
-        int ganIndex = (year - 4) % 10;
-        int zhiIndex = (year - 4) % 12;
-        
-        TianGan gan = TianGan.fromIndex(ganIndex == 0 ? 10 : ganIndex);
-        DiZhi zhi = DiZhi.fromIndex(zhiIndex == 0 ? 12 : zhiIndex);
+        int jiaZi = GanZhi.yearJiaZi(year);
+        TianGan gan = GanZhi.stem(GanZhi.stemOf(jiaZi));
+        DiZhi zhi = GanZhi.branch(GanZhi.branchOf(jiaZi));
         
         this.ganZhi = gan.getName() + zhi.getName();
         this.tianGan = gan.getName();
@@ -75,6 +73,14 @@ public class LiuNian {
         return map;
     }
 
+    /**
+     * 转换为不可变记录
+     */
+    public LiuNianEntry toEntry() {
+        return new LiuNianEntry(year, age + "岁", ganZhi, tianGan, tianGanShiShen, tianGanWuXing,
+                diZhi, diZhiWuXing, diZhiCangGan, diZhiShiShen, naYin);
+    }
+
     // Getters and Setters
     public int getYear() { return year; }
     public void setYear(int year) { this.year = year; }
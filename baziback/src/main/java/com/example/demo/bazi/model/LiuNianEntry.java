@@ -0,0 +1,39 @@
+package com.example.demo.bazi.model;
+
+import com.example.demo.bazi.constants.JiaZiTable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 一个流年
+ */
+public record LiuNianEntry(
+        @JsonProperty("年份") int year,
+        @JsonProperty("年龄") String age,
+        @JsonProperty("干支") String ganZhi,
+        @JsonProperty("天干") String tianGan,
+        @JsonProperty("天干十神") String tianGanShiShen,
+        @JsonProperty("天干五行") String tianGanWuXing,
+        @JsonProperty("地支") String diZhi,
+        @JsonProperty("地支五行") String diZhiWuXing,
+        @JsonProperty("地支藏干") List<String> diZhiCangGan,
+        @JsonProperty("地支十神") List<String> diZhiShiShen,
+        @JsonProperty("纳音") String naYin) {
+
+    public LiuNianEntry {
+        diZhiCangGan = List.copyOf(diZhiCangGan);
+        diZhiShiShen = List.copyOf(diZhiShiShen);
+    }
+
+    /**
+     * 按甲子编码查表构建
+     * @param riGan 日干编码
+     */
+    public static LiuNianEntry of(int year, int age, int jiaZi, int riGan) {
+        JiaZiTable.Entry entry = JiaZiTable.get(jiaZi);
+        return new LiuNianEntry(year, age + "岁", entry.getName(), entry.getTianGan(),
+                entry.getTianGanShiShen(riGan), entry.getTianGanWuXing(), entry.getDiZhi(),
+                entry.getDiZhiWuXing(), entry.getCangGan(), entry.getCangGanShiShen(riGan), entry.getNaYin());
+    }
+}
@@ -30,29 +30,10 @@ public class LiuYue {
         this.solarTerm = solarTerm;
         this.solarTermDate = solarTermDate;
         
-        // 流月天干：年干起月干（五虎遁）
-        // 甲己之年丙作首，乙庚之年戊为头，丙辛之年寻庚起，丁壬壬寅顺水流，若问戊癸何处起，甲寅之上好追求
-        int yearGanIndex = (year - 4) % 10;
-        if (yearGanIndex == 0) yearGanIndex = 10;
-        TianGan yearGan = TianGan.fromIndex(yearGanIndex);
-        
-        int monthGanIndex;
-        String ganName = yearGan.getName();
-        if ("甲".equals(ganName) || "己".equals(ganName)) {
-            monthGanIndex = (2 + month - 1) % 10; // 丙为2，正月为丙
-        } else if ("乙".equals(ganName) || "庚".equals(ganName)) {
-            monthGanIndex = (4 + month - 1) % 10; // 戊为4
-        } else if ("丙".equals(ganName) || "辛".equals(ganName)) {
-            monthGanIndex = (6 + month - 1) % 10; // 庚为6
-        } else if ("丁".equals(ganName) || "壬".equals(ganName)) {
-            monthGanIndex = (8 + month - 1) % 10; // 壬为8
-        } else { // 戊或癸
-            monthGanIndex = (0 + month - 1) % 10; // 甲为0
-        }
-        if (monthGanIndex == 0) monthGanIndex = 10;
-        
-        TianGan monthGan = TianGan.fromIndex(monthGanIndex);
-        DiZhi monthZhi = DiZhi.fromIndex(month);
+        // 流月干支：年干起月干（五虎遁），正月为寅月
+        int jiaZi = GanZhi.monthJiaZi(GanZhi.stemOf(GanZhi.yearJiaZi(year)), month);
+        TianGan monthGan = GanZhi.stem(GanZhi.stemOf(jiaZi));
+        DiZhi monthZhi = GanZhi.branch(GanZhi.branchOf(jiaZi));
         
         this.ganZhi = monthGan.getName() + monthZhi.getName();
         this.tianGan = monthGan.getName();
@@ -92,6 +73,14 @@ public class LiuYue {
         return map;
     }
 
+    /**
+     * 转换为不可变记录
+     */
+    public LiuYueEntry toEntry() {
+        return new LiuYueEntry(month, solarTerm, solarTermDate, ganZhi, tianGan, tianGanShiShen,
+                tianGanWuXing, diZhi, diZhiWuXing, diZhiCangGan, diZhiShiShen);
+    }
+
     // Getters and Setters
     public int getMonth() { return month; }
     public void setMonth(int month) { this.month = month; }
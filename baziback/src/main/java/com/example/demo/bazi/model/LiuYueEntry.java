@@ -0,0 +1,39 @@
+package com.example.demo.bazi.model;
+
+import com.example.demo.bazi.constants.JiaZiTable;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 一个流月
+ */
+public record LiuYueEntry(
+        @JsonProperty("月份") int month,
+        @JsonProperty("节气") String solarTerm,
+        @JsonProperty("节气日期") String solarTermDate,
+        @JsonProperty("干支") String ganZhi,
+        @JsonProperty("天干") String tianGan,
+        @JsonProperty("天干十神") String tianGanShiShen,
+        @JsonProperty("天干五行") String tianGanWuXing,
+        @JsonProperty("地支") String diZhi,
+        @JsonProperty("地支五行") String diZhiWuXing,
+        @JsonProperty("地支藏干") List<String> diZhiCangGan,
+        @JsonProperty("地支十神") List<String> diZhiShiShen) {
+
+    public LiuYueEntry {
+        diZhiCangGan = List.copyOf(diZhiCangGan);
+        diZhiShiShen = List.copyOf(diZhiShiShen);
+    }
+
+    /**
+     * 按甲子编码查表构建
+     * @param riGan 日干编码
+     */
+    public static LiuYueEntry of(int month, String solarTerm, String solarTermDate, int jiaZi, int riGan) {
+        JiaZiTable.Entry entry = JiaZiTable.get(jiaZi);
+        return new LiuYueEntry(month, solarTerm, solarTermDate, entry.getName(), entry.getTianGan(),
+                entry.getTianGanShiShen(riGan), entry.getTianGanWuXing(), entry.getDiZhi(),
+                entry.getDiZhiWuXing(), entry.getCangGan(), entry.getCangGanShiShen(riGan));
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo.bazi.model;
+
+import com.example.demo.bazi.constants.*;
+
+/**
+ * 整数编码的八字命盘
+ *
+ * 四柱各存一个六十甲子编码（0-59），天干/地支按字节展开，
+ * 十神、星运、自坐在构造时一次查表算好。实例不可变，可在线程间共享。
+ */
+public final class PackedBaZiChart {
+
+    public static final int NIAN = 0;
+    public static final int YUE = 1;
+    public static final int RI = 2;
+    public static final int SHI = 3;
+    public static final int PILLAR_COUNT = 4;
+
+    private static final String[] PILLAR_NAMES = {"年", "月", "日", "时"};
+
+    private final int[] jiaZi = new int[PILLAR_COUNT];
+    private final byte[] stems = new byte[PILLAR_COUNT];
+    private final byte[] branches = new byte[PILLAR_COUNT];
+    private final byte[] xingYun = new byte[PILLAR_COUNT];
+    private final byte[] ziZuo = new byte[PILLAR_COUNT];
+
+    private PackedBaZiChart(int nian, int yue, int ri, int shi) {
+        jiaZi[NIAN] = nian;
+        jiaZi[YUE] = yue;
+        jiaZi[RI] = ri;
+        jiaZi[SHI] = shi;
+        for (int i = 0; i < PILLAR_COUNT; i++) {
+            stems[i] = (byte) GanZhi.stemOf(jiaZi[i]);
+            branches[i] = (byte) GanZhi.branchOf(jiaZi[i]);
+        }
+        int riGan = stems[RI];
+        for (int i = 0; i < PILLAR_COUNT; i++) {
+            xingYun[i] = (byte) GanZhi.changSheng(riGan, branches[i]);
+            ziZuo[i] = (byte) GanZhi.changSheng(stems[i], branches[i]);
+        }
+    }
+
+    /**
+     * 由四柱六十甲子编码构造
+     */
+    public static PackedBaZiChart of(int nian, int yue, int ri, int shi) {
+        checkJiaZi(nian);
+        checkJiaZi(yue);
+        checkJiaZi(ri);
+        checkJiaZi(shi);
+        return new PackedBaZiChart(nian, yue, ri, shi);
+    }
+
+    /**
+     * 由 {@link #code()} 的结果还原
+     */
+    public static PackedBaZiChart fromCode(int code) {
+        if (code < 0 || code >= 60 * 60 * 60 * 60) {
+            throw new IllegalArgumentException("无效八字编码: " + code);
+        }
+        return new PackedBaZiChart(code / 216000, code / 3600 % 60, code / 60 % 60, code % 60);
+    }
+
+    /**
+     * 解析八字字符串，格式：乙酉 己丑 甲辰 戊辰
+     */
+    public static PackedBaZiChart parse(String baZiStr) {
+        if (baZiStr == null) {
+            throw new IllegalArgumentException("八字格式错误，应为：天干地支 天干地支 天干地支 天干地支");
+        }
+        if (baZiStr.length() == 11 && baZiStr.charAt(2) == ' '
+                && baZiStr.charAt(5) == ' ' && baZiStr.charAt(8) == ' ') {
+            return new PackedBaZiChart(
+                    parsePillar(baZiStr, 0), parsePillar(baZiStr, 3),
+                    parsePillar(baZiStr, 6), parsePillar(baZiStr, 9));
+        }
+        String[] parts = baZiStr.split(" ");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("八字格式错误，应为：天干地支 天干地支 天干地支 天干地支");
+        }
+        return new PackedBaZiChart(
+                GanZhi.parseJiaZi(parts[0]), GanZhi.parseJiaZi(parts[1]),
+                GanZhi.parseJiaZi(parts[2]), GanZhi.parseJiaZi(parts[3]));
+    }
+
+    private static int parsePillar(String baZiStr, int offset) {
+        int stem = GanZhi.stemIndex(baZiStr.charAt(offset));
+        int branch = GanZhi.branchIndex(baZiStr.charAt(offset + 1));
+        int jiaZi = stem < 0 || branch < 0 ? -1 : GanZhi.jiaZi(stem, branch);
+        if (jiaZi < 0) {
+            // 交给逐字解析给出具体错误信息
+            return GanZhi.parseJiaZi(baZiStr.substring(offset, offset + 2));
+        }
+        return jiaZi;
+    }
+
+    private static void checkJiaZi(int jiaZi) {
+        if (jiaZi < 0 || jiaZi >= GanZhi.JIA_ZI_COUNT) {
+            throw new IllegalArgumentException("无效六十甲子编码: " + jiaZi);
+        }
+    }
+
+    /**
+     * 四柱合成一个 int（60 进制，年柱为最高位），可作为缓存/索引键
+     */
+    public int code() {
+        return code(jiaZi[NIAN], jiaZi[YUE], jiaZi[RI], jiaZi[SHI]);
+    }
+
+    /**
+     * 不建对象直接合成四柱编码，与 {@link #code()} 一致
+     */
+    public static int code(int nian, int yue, int ri, int shi) {
+        return ((nian * 60 + yue) * 60 + ri) * 60 + shi;
+    }
+
+    public int jiaZi(int pillar) { return jiaZi[pillar]; }
+    public int stem(int pillar) { return stems[pillar]; }
+    public int branch(int pillar) { return branches[pillar]; }
+    public int riGan() { return stems[RI]; }
+
+    /**
+     * 天干十神；日柱天干固定为"日主"
+     */
+    public ShiShen stemShiShen(int pillar) {
+        return GanZhi.shiShen(stems[RI], stems[pillar]);
+    }
+
+    /**
+     * 地支第 i 个藏干的十神
+     */
+    public ShiShen cangGanShiShen(int pillar, int i) {
+        return GanZhi.shiShen(stems[RI], GanZhi.cangGan(branches[pillar], i));
+    }
+
+    /**
+     * 日干在该柱地支的十二长生下标
+     */
+    public int xingYun(int pillar) { return xingYun[pillar]; }
+
+    /**
+     * 该柱天干坐本支的十二长生下标
+     */
+    public int ziZuo(int pillar) { return ziZuo[pillar]; }
+
+    public static String pillarName(int pillar) { return PILLAR_NAMES[pillar]; }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PackedBaZiChart && ((PackedBaZiChart) o).code() == code();
+    }
+
+    @Override
+    public int hashCode() {
+        return code();
+    }
+
+    @Override
+    public String toString() {
+        return GanZhi.jiaZiName(jiaZi[NIAN]) + " " + GanZhi.jiaZiName(jiaZi[YUE]) + " "
+                + GanZhi.jiaZiName(jiaZi[RI]) + " " + GanZhi.jiaZiName(jiaZi[SHI]);
+    }
+}
@@ -22,6 +22,11 @@ public class Pillar {
     private String xunShou;        // 旬首
     private List<String> shenSha;  // 神煞
 
+    private int jiaZi = -1;        // 六十甲子编码（0-59）
+    private int stemIndex = -1;    // 天干编码（0-9）
+    private int branchIndex = -1;  // 地支编码（0-11）
+    private JiaZiTable.Entry entry; // 六十甲子属性表项
+
     public Pillar() {
         this.diZhiCangGan = new ArrayList<>();
         this.diZhiShiShen = new ArrayList<>();
@@ -29,51 +34,63 @@ public class Pillar {
     }
 
     public Pillar(String name, String tianGan, String diZhi) {
+        this(name, GanZhi.parseJiaZi(tianGan + diZhi));
+    }
+
+    /**
+     * 按六十甲子编码构造
+     */
+    public Pillar(String name, int jiaZi) {
         this();
         this.name = name;
-        this.tianGan = tianGan;
-        this.diZhi = diZhi;
-        this.tianGanWuXing = TianGan.fromName(tianGan).getWuXing();
-        this.diZhiWuXing = DiZhi.fromName(diZhi).getWuXing();
-        this.naYin = NaYin.getNaYin(tianGan + diZhi);
-        
-        // 设置藏干
-        DiZhi dz = DiZhi.fromName(diZhi);
-        Collections.addAll(this.diZhiCangGan, dz.getCangGan());
-        
-        // 计算旬首
-        this.xunShou = XunShou.getXunShou(tianGan + diZhi);
+        this.jiaZi = jiaZi;
+        this.stemIndex = GanZhi.stemOf(jiaZi);
+        this.branchIndex = GanZhi.branchOf(jiaZi);
+        this.entry = JiaZiTable.get(jiaZi);
+        this.tianGan = entry.getTianGan();
+        this.diZhi = entry.getDiZhi();
+        this.tianGanWuXing = entry.getTianGanWuXing();
+        this.diZhiWuXing = entry.getDiZhiWuXing();
+        this.naYin = entry.getNaYin();
+        // 藏干与表项共享，不可修改
+        this.diZhiCangGan = entry.getCangGan();
+        this.xunShou = entry.getXunShou();
     }
 
     /**
      * 计算十神（需要日主天干）
      */
     public void calculateShiShen(String riZhuTianGan) {
-        if (this.tianGan.equals(riZhuTianGan) && "日".equals(this.name)) {
-            this.tianGanShiShen = "日主";
-        } else {
-            this.tianGanShiShen = ShiShen.calculate(riZhuTianGan, this.tianGan).getName();
-        }
-        
-        // 计算藏干十神
-        this.diZhiShiShen.clear();
-        for (String cangGan : this.diZhiCangGan) {
-            this.diZhiShiShen.add(ShiShen.calculate(riZhuTianGan, cangGan).getName());
-        }
+        calculateShiShen(TianGan.fromName(riZhuTianGan).ordinal());
+    }
+
+    /**
+     * 计算十神（日干编码）；与日干相同的天干记为"日主"
+     */
+    public void calculateShiShen(int riGan) {
+        this.tianGanShiShen = entry.getTianGanShiShen(riGan);
+        this.diZhiShiShen = entry.getCangGanShiShen(riGan);
     }
 
     /**
      * 计算星运（十二长生）
      */
     public void calculateXingYun(String riZhuTianGan) {
-        this.xingYun = ShiErChangSheng.calculate(riZhuTianGan, this.diZhi);
+        calculateXingYun(TianGan.fromName(riZhuTianGan).ordinal());
+    }
+
+    /**
+     * 计算星运（日干编码）
+     */
+    public void calculateXingYun(int riGan) {
+        this.xingYun = entry.getXingYun(riGan);
     }
 
     /**
      * 计算自坐
      */
     public void calculateZiZuo() {
-        this.ziZuo = ShiErChangSheng.calculate(this.tianGan, this.diZhi);
+        this.ziZuo = entry.getZiZuo();
     }
 
     /**
@@ -104,6 +121,15 @@ public class Pillar {
         return map;
     }
 
+    /**
+     * 转换为不可变记录
+     * @param shenSha 本柱神煞
+     */
+    public PillarDetail toDetail(List<String> shenSha) {
+        return new PillarDetail(tianGan, tianGanShiShen, diZhi, diZhiCangGan, diZhiShiShen,
+                tianGanWuXing, diZhiWuXing, naYin, xingYun, ziZuo, kongWang, xunShou, shenSha);
+    }
+
     // Getters and Setters
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -133,4 +159,7 @@ public class Pillar {
     public void setXunShou(String xunShou) { this.xunShou = xunShou; }
     public List<String> getShenSha() { return shenSha; }
     public void setShenSha(List<String> shenSha) { this.shenSha = shenSha; }
+    public int getJiaZi() { return jiaZi; }
+    public int getStemIndex() { return stemIndex; }
+    public int getBranchIndex() { return branchIndex; }
 }
@@ -0,0 +1,30 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 单柱详细信息（含旬首、神煞）
+ */
+public record PillarDetail(
+        @JsonProperty("天干") String tianGan,
+        @JsonProperty("天干十神") String tianGanShiShen,
+        @JsonProperty("地支") String diZhi,
+        @JsonProperty("地支藏干") List<String> diZhiCangGan,
+        @JsonProperty("地支十神") List<String> diZhiShiShen,
+        @JsonProperty("天干五行") String tianGanWuXing,
+        @JsonProperty("地支五行") String diZhiWuXing,
+        @JsonProperty("纳音") String naYin,
+        @JsonProperty("星运") String xingYun,
+        @JsonProperty("自坐") String ziZuo,
+        @JsonProperty("空亡") String kongWang,
+        @JsonProperty("旬首") String xunShou,
+        @JsonProperty("神煞") List<String> shenSha) {
+
+    public PillarDetail {
+        diZhiCangGan = List.copyOf(diZhiCangGan);
+        diZhiShiShen = List.copyOf(diZhiShiShen);
+        shenSha = List.copyOf(shenSha);
+    }
+}
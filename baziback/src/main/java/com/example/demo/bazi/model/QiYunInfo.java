@@ -0,0 +1,12 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 起运信息
+ */
+public record QiYunInfo(
+        @JsonProperty("起运年龄") String age,
+        @JsonProperty("起运年份") int year,
+        @JsonProperty("起运描述") String description) {
+}
@@ -0,0 +1,25 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 日柱等级信息
+ */
+public record RiZhuInfo(
+        @JsonProperty("等级") int level,
+        @JsonProperty("等级标签") String levelLabel,
+        @JsonProperty("干支关系") String ganZhiRelation,
+        @JsonProperty("十二运") String shiErYun,
+        @JsonProperty("吉神") List<String> jiShen,
+        @JsonProperty("凶神") List<String> xiongShen,
+        @JsonProperty("纳音") String naYin,
+        @JsonProperty("类象") String leiXiang,
+        @JsonProperty("日特点") String riTeDian) {
+
+    public RiZhuInfo {
+        jiShen = List.copyOf(jiShen);
+        xiongShen = List.copyOf(xiongShen);
+    }
+}
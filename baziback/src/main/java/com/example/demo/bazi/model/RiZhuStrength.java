@@ -0,0 +1,26 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 日主强弱
+ *
+ * 按同党（比劫与印星）在五行力量中的占比判断，强度分值为该占比的百分数（0-100），
+ * 不低于 {@link com.example.demo.bazi.util.WuXingStrength#STRONG_SAME_SIDE_RATIO} 为身强。
+ */
+public record RiZhuStrength(
+        @JsonProperty("身强") boolean strong,
+        @JsonProperty("强度分值") int score,
+        @JsonProperty("判断") String panDuan,
+        @JsonProperty("五行力量") Map<String, Double> wuXingLiLiang,
+        @JsonProperty("同党占比") double sameSideRatio) {
+
+    public RiZhuStrength {
+        // 保留木火土金水的顺序
+        wuXingLiLiang = Collections.unmodifiableMap(new LinkedHashMap<>(wuXingLiLiang));
+    }
+}
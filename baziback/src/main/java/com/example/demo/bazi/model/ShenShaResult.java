@@ -0,0 +1,22 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 四柱神煞，每柱为该柱所带的神煞名
+ */
+public record ShenShaResult(
+        @JsonProperty("年") List<String> nian,
+        @JsonProperty("月") List<String> yue,
+        @JsonProperty("日") List<String> ri,
+        @JsonProperty("时") List<String> shi) {
+
+    public ShenShaResult {
+        nian = List.copyOf(nian);
+        yue = List.copyOf(yue);
+        ri = List.copyOf(ri);
+        shi = List.copyOf(shi);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 相似八字查询的一条命中记录
+ */
+public record SimilarChart(
+        @JsonProperty("记录ID") long recordId,
+        @JsonProperty("八字") String baZi,
+        @JsonProperty("五行差异") int distance) {
+}
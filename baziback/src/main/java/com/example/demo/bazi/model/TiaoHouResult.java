@@ -0,0 +1,20 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 调候分析结果
+ */
+public record TiaoHouResult(
+        @JsonProperty("调候用神") List<String> yongShen,
+        @JsonProperty("当前八字调候情况") TiaoHouStatus status,
+        @JsonProperty("调候湿燥等级") String shiZaoLevel,
+        @JsonProperty("知识点") List<String> zhiShiDian) {
+
+    public TiaoHouResult {
+        yongShen = List.copyOf(yongShen);
+        zhiShiDian = List.copyOf(zhiShiDian);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 八字中调候用神的出现情况
+ */
+public record TiaoHouStatus(
+        @JsonProperty("透干") List<String> touGan,
+        @JsonProperty("支藏") List<String> zhiCang) {
+
+    public TiaoHouStatus {
+        touGan = List.copyOf(touGan);
+        zhiCang = List.copyOf(zhiCang);
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return touGan.isEmpty() && zhiCang.isEmpty();
+    }
+}
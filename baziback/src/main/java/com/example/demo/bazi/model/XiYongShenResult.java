@@ -0,0 +1,14 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 喜用神分析结果
+ */
+public record XiYongShenResult(
+        @JsonProperty("日主强弱") RiZhuStrength riZhuStrength,
+        @JsonProperty("日主强弱推荐") YongShenTuiJian riZhu,
+        @JsonProperty("调候推荐") YongShenTuiJian tiaoHou,
+        @JsonProperty("格局推荐") YongShenTuiJian geJu,
+        @JsonProperty("综合推荐") YongShenTuiJian zongHe) {
+}
@@ -0,0 +1,37 @@
+package com.example.demo.bazi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * 一种取用思路的喜忌推荐（日主强弱、调候、格局或综合），不适用的项为 null，不输出
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record YongShenTuiJian(
+        @JsonProperty("格局") String geJu,
+        @JsonProperty("判断") String panDuan,
+        @JsonProperty("喜用天干") List<String> xiYongTianGan,
+        @JsonProperty("喜用五行") List<String> xiYongWuXing,
+        @JsonProperty("喜用十神") List<String> xiYongShiShen,
+        @JsonProperty("忌用五行") List<String> jiYongWuXing,
+        @JsonProperty("忌用十神") List<String> jiYongShiShen) {
+
+    /**
+     * 无推荐（如调候表未收录）
+     */
+    public static final YongShenTuiJian NONE = new YongShenTuiJian(null, null, null, null, null, null, null);
+
+    public YongShenTuiJian {
+        xiYongTianGan = copy(xiYongTianGan);
+        xiYongWuXing = copy(xiYongWuXing);
+        xiYongShiShen = copy(xiYongShiShen);
+        jiYongWuXing = copy(jiYongWuXing);
+        jiYongShiShen = copy(jiYongShiShen);
+    }
+
+    private static List<String> copy(List<String> list) {
+        return list == null ? null : List.copyOf(list);
+    }
+}
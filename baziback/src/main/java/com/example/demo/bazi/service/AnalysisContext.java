@@ -0,0 +1,73 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.model.BaZiChart;
+import com.example.demo.bazi.model.PackedBaZiChart;
+
+import java.util.function.Function;
+
+/**
+ * 单次八字分析的输入
+ *
+ * 完整命盘 {@link BaZiChart} 按需构建且只构建一次：所需分析段全部命中缓存时不会构建。
+ * 同一三柱的多个时辰一起分析时共用一个 {@link SanZhuContext}。
+ */
+public class AnalysisContext {
+
+    private final String baZiStr;
+    private final PackedBaZiChart packed;
+    private final boolean male;
+    private final int birthYear;
+    private final int qiYunAge;
+    private final SanZhuContext sanZhu;
+    private volatile BaZiChart chart;
+
+    public AnalysisContext(String baZiStr, PackedBaZiChart packed, boolean male, int birthYear, int qiYunAge) {
+        this(baZiStr, packed, male, birthYear, qiYunAge, null);
+    }
+
+    /**
+     * @param sanZhu 与同一三柱其他时辰共享的状态，可为 null
+     */
+    public AnalysisContext(String baZiStr, PackedBaZiChart packed, boolean male, int birthYear, int qiYunAge,
+                           SanZhuContext sanZhu) {
+        this.baZiStr = baZiStr;
+        this.packed = packed;
+        this.male = male;
+        this.birthYear = birthYear;
+        this.qiYunAge = qiYunAge;
+        this.sanZhu = sanZhu;
+    }
+
+    public String getBaZiStr() { return baZiStr; }
+
+    public PackedBaZiChart getPacked() { return packed; }
+
+    public boolean isMale() { return male; }
+
+    public int getBirthYear() { return birthYear; }
+
+    public int getQiYunAge() { return qiYunAge; }
+
+    public SanZhuContext getSanZhu() { return sanZhu; }
+
+    /**
+     * 分析器中只依赖年、月、日三柱的部分：多时辰分析时各时辰共用一份，否则现算
+     * @param key 在同一 {@link SanZhuContext} 内唯一的名称
+     */
+    public <T> T sanZhuPart(String key, Function<PackedBaZiChart, T> compute) {
+        return sanZhu != null ? sanZhu.part(key, () -> compute.apply(packed)) : compute.apply(packed);
+    }
+
+    public BaZiChart getChart() {
+        BaZiChart result = chart;
+        if (result == null) {
+            synchronized (this) {
+                result = chart;
+                if (result == null) {
+                    chart = result = sanZhu != null ? sanZhu.chart(packed) : BaZiChart.fromPacked(packed);
+                }
+            }
+        }
+        return result;
+    }
+}
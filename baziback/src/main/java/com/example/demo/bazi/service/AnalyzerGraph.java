@@ -0,0 +1,300 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.constants.GanZhi;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分析器依赖图
+ *
+ * 每个分析段（输出中的一个键）登记为一个节点，声明所依赖的其他分析段。
+ * 求值时只计算请求的分析段及其依赖，互不依赖的节点在线程池上并发执行；
+ * 只依赖四柱（及性别）的节点结果写入 {@link BaZiAnalysisCache}，命中时其依赖也不再计算；
+ * 与性别无关的节点男女命共用一条缓存。
+ * 只依赖年、月、日三柱的节点按三柱缓存，同一三柱的各时辰一起求值时只算一次。
+ * 输出按节点登记顺序排列，可以在调用线程上等待结果，也可以返回全部算完时完成的 future。
+ * 每个节点记录实际计算（不含缓存命中）的次数与耗时，见 {@link #getTimingStats()}。
+ */
+public class AnalyzerGraph {
+
+    /**
+     * 分析段计算逻辑，deps 中为已算好的依赖段
+     */
+    @FunctionalInterface
+    public interface Analysis {
+        Object compute(AnalysisContext context, Map<String, Object> deps);
+    }
+
+    private static final class Node {
+        final String name;
+        final int index;
+        final boolean cacheable;
+        final boolean dayOnly;
+        final boolean byGender;
+        final String[] deps;
+        final Analysis analysis;
+        final LongAdder calls = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Node(String name, int index, boolean cacheable, boolean dayOnly, boolean byGender,
+             String[] deps, Analysis analysis) {
+            this.name = name;
+            this.index = index;
+            this.cacheable = cacheable;
+            this.dayOnly = dayOnly;
+            this.byGender = byGender;
+            this.deps = deps;
+            this.analysis = analysis;
+        }
+    }
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    /**
+     * 登记只依赖四柱、与性别无关的分析段（结果可缓存，男女命共用），依赖也不能与性别相关
+     */
+    public AnalyzerGraph chartNode(String name, Analysis analysis, String... deps) {
+        return add(name, true, false, false, analysis, deps);
+    }
+
+    /**
+     * 登记只依赖四柱和性别的分析段（按四柱 + 性别缓存）
+     */
+    public AnalyzerGraph genderNode(String name, Analysis analysis, String... deps) {
+        return add(name, true, false, true, analysis, deps);
+    }
+
+    /**
+     * 登记只依赖年、月、日三柱的分析段（按三柱缓存，各时辰共用），依赖也必须是此类分析段
+     */
+    public AnalyzerGraph dayNode(String name, Analysis analysis, String... deps) {
+        return add(name, true, true, false, analysis, deps);
+    }
+
+    /**
+     * 登记依赖请求参数或当前日期的分析段（每次现算）
+     */
+    public AnalyzerGraph requestNode(String name, Analysis analysis, String... deps) {
+        return add(name, false, false, true, analysis, deps);
+    }
+
+    private AnalyzerGraph add(String name, boolean cacheable, boolean dayOnly, boolean byGender,
+                              Analysis analysis, String... deps) {
+        if (nodes.containsKey(name)) {
+            throw new IllegalStateException("分析段重复登记: " + name);
+        }
+        for (String dep : deps) {
+            if (!nodes.containsKey(dep)) {
+                // 依赖必须先登记，保证图无环
+                throw new IllegalStateException("分析段 " + name + " 依赖未登记的 " + dep);
+            }
+            if (dayOnly && !nodes.get(dep).dayOnly) {
+                throw new IllegalStateException("三柱分析段 " + name + " 不能依赖 " + dep);
+            }
+            if (!byGender && nodes.get(dep).byGender) {
+                throw new IllegalStateException("与性别无关的分析段 " + name + " 不能依赖 " + dep);
+            }
+        }
+        nodes.put(name, new Node(name, nodes.size(), cacheable, dayOnly, byGender, deps, analysis));
+        return this;
+    }
+
+    /**
+     * 全部分析段名称，按登记顺序
+     */
+    public List<String> sections() {
+        return new ArrayList<>(nodes.keySet());
+    }
+
+    public boolean contains(String section) {
+        return nodes.containsKey(section);
+    }
+
+    /**
+     * 各分析段的计算次数与耗时，按登记顺序；只统计实际计算，缓存命中不计
+     */
+    public Map<String, Map<String, Object>> getTimingStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (Node node : nodes.values()) {
+            long calls = node.calls.sum();
+            long totalNanos = node.totalNanos.sum();
+            Map<String, Object> stat = new LinkedHashMap<>();
+            stat.put("count", calls);
+            stat.put("totalMillis", totalNanos / 1_000_000.0);
+            stat.put("averageMicros", calls == 0 ? 0.0 : totalNanos / 1_000.0 / calls);
+            stat.put("maxMicros", node.maxNanos.get() / 1_000.0);
+            stats.put(node.name, stat);
+        }
+        return stats;
+    }
+
+    /**
+     * 计算指定分析段，在调用线程上等待结果
+     *
+     * @param context 分析输入
+     * @param sections 需要输出的分析段
+     * @param cache 分析段缓存，可为 null
+     * @param executor 执行节点计算的线程池
+     * @return 按登记顺序排列的分析结果（只含请求的分析段）
+     */
+    public Map<String, Object> evaluate(AnalysisContext context, Collection<String> sections,
+                                        BaZiAnalysisCache cache, Executor executor) {
+        return join(evaluateAsync(context, sections, cache, executor));
+    }
+
+    /**
+     * 计算指定分析段，不阻塞调用线程；线程池拒绝任务时返回的 future 以
+     * {@link java.util.concurrent.RejectedExecutionException} 异常完成
+     *
+     * @return 全部分析段算完后完成，值与 {@link #evaluate} 相同
+     */
+    public CompletableFuture<Map<String, Object>> evaluateAsync(AnalysisContext context, Collection<String> sections,
+                                                                BaZiAnalysisCache cache, Executor executor) {
+        List<String> ordered = order(sections);
+        return collect(ordered, new Evaluation(context, cache, executor));
+    }
+
+    /**
+     * 一次计算多个命盘的指定分析段，在调用线程上等待结果
+     * @return 与 contexts 一一对应的分析结果
+     */
+    public List<Map<String, Object>> evaluateAll(List<AnalysisContext> contexts, Collection<String> sections,
+                                                 BaZiAnalysisCache cache, Executor executor) {
+        return join(evaluateAllAsync(contexts, sections, cache, executor));
+    }
+
+    /**
+     * 一次计算多个命盘的指定分析段，不阻塞调用线程：全部排上再统一等待，
+     * 共用同一 {@link SanZhuContext} 的命盘之间只依赖三柱的分析段只算一次
+     * @return 与 contexts 一一对应的分析结果
+     */
+    public CompletableFuture<List<Map<String, Object>>> evaluateAllAsync(
+            List<AnalysisContext> contexts, Collection<String> sections,
+            BaZiAnalysisCache cache, Executor executor) {
+        List<String> ordered = order(sections);
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>(contexts.size());
+        for (AnalysisContext context : contexts) {
+            futures.add(collect(ordered, new Evaluation(context, cache, executor)));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<Map<String, Object>> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<Map<String, Object>> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * 先全部排上再统一等待，互不依赖的节点并发执行
+     */
+    private static CompletableFuture<Map<String, Object>> collect(List<String> ordered, Evaluation evaluation) {
+        List<CompletableFuture<Object>> futures = new ArrayList<>(ordered.size());
+        for (String section : ordered) {
+            futures.add(evaluation.schedule(section));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (int i = 0; i < ordered.size(); i++) {
+                result.put(ordered.get(i), futures.get(i).join());
+            }
+            return result;
+        });
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private List<String> order(Collection<String> sections) {
+        for (String section : sections) {
+            if (!nodes.containsKey(section)) {
+                throw new IllegalArgumentException("未知分析项: " + section);
+            }
+        }
+        List<String> ordered = new ArrayList<>(sections.size());
+        for (String name : nodes.keySet()) {
+            if (sections.contains(name)) {
+                ordered.add(name);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * 一次分析中各节点的计算状态
+     */
+    private final class Evaluation {
+        private final AnalysisContext context;
+        private final BaZiAnalysisCache cache;
+        private final Executor executor;
+        private final Map<String, CompletableFuture<Object>> futures = new HashMap<>();
+
+        Evaluation(AnalysisContext context, BaZiAnalysisCache cache, Executor executor) {
+            this.context = context;
+            this.cache = cache;
+            this.executor = executor;
+        }
+
+        synchronized CompletableFuture<Object> schedule(String section) {
+            CompletableFuture<Object> future = futures.get(section);
+            if (future != null) {
+                return future;
+            }
+            Node node = nodes.get(section);
+            future = node.dayOnly && context.getSanZhu() != null
+                    ? context.getSanZhu().future(section, () -> create(node))
+                    : create(node);
+            futures.put(section, future);
+            return future;
+        }
+
+        private CompletableFuture<Object> create(Node node) {
+            boolean cached = node.cacheable && cache != null;
+            // 三柱分析段以时柱置零的编码为键，各时辰命中同一条
+            int code = node.dayOnly
+                    ? context.getPacked().code() / GanZhi.JIA_ZI_COUNT * GanZhi.JIA_ZI_COUNT
+                    : context.getPacked().code();
+            Object hit = !cached ? null
+                    : node.byGender ? cache.getIfPresent(code, context.isMale(), node.index)
+                    : cache.getIfPresent(code, node.index);
+            if (hit != null) {
+                return CompletableFuture.completedFuture(hit);
+            }
+            CompletableFuture<?>[] depFutures = new CompletableFuture<?>[node.deps.length];
+            for (int i = 0; i < node.deps.length; i++) {
+                depFutures[i] = schedule(node.deps[i]);
+            }
+            return CompletableFuture.allOf(depFutures).thenApplyAsync(ignored -> {
+                Map<String, Object> deps = new HashMap<>();
+                for (int i = 0; i < node.deps.length; i++) {
+                    deps.put(node.deps[i], depFutures[i].join());
+                }
+                long start = System.nanoTime();
+                Object value = node.analysis.compute(context, deps);
+                long elapsed = System.nanoTime() - start;
+                node.calls.increment();
+                node.totalNanos.add(elapsed);
+                node.maxNanos.accumulate(elapsed);
+                if (!cached) {
+                    return value;
+                }
+                return node.byGender ? cache.put(code, context.isMale(), node.index, value)
+                        : cache.put(code, node.index, value);
+            }, executor);
+        }
+    }
+}
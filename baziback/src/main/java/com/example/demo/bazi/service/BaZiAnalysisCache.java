@@ -0,0 +1,166 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+
+/**
+ * 八字分析结果缓存
+ *
+ * 只缓存与当前日期、出生年份无关的分析段（命盘、各星、神煞、喜用神等），
+ * 键为四柱编码 + 分析段序号，各段独立缓存，只请求部分分析段时也能命中；
+ * 只有与性别相关的分析段（夫妻星、子女星等）键中才带性别，其余分析段男女命共用一条。
+ * 大运、起运、流年、流月每次请求现算。
+ * 缓存值在写入前整体转为不可变结构，可在请求间安全共享；
+ * 按结构节点数计权重，总权重有上限。
+ */
+public class BaZiAnalysisCache {
+
+    /**
+     * 默认权重上限（节点数）；单个命盘全部分析段约 400 个节点，约可容纳一万个命盘
+     */
+    public static final long DEFAULT_MAX_WEIGHT = 4_000_000L;
+
+    // 键中的性别位：与性别无关的分析段不区分男女
+    private static final int ANY_SEX = 0;
+    private static final int FEMALE = 2;
+    private static final int MALE = 3;
+
+    private final Cache<Long, Object> cache;
+
+    public BaZiAnalysisCache() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    public BaZiAnalysisCache(long maxWeight) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long key, Object value) -> weigh(value))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 取已缓存的分析段，未缓存返回 null
+     */
+    public Object getIfPresent(PackedBaZiChart chart, boolean isMale, int section) {
+        return getIfPresent(chart.code(), isMale, section);
+    }
+
+    /**
+     * 取与性别无关的分析段
+     *
+     * @param code 四柱编码；只依赖三柱的分析段以时柱置零的编码为键
+     */
+    public Object getIfPresent(int code, int section) {
+        return cache.getIfPresent(key(code, ANY_SEX, section));
+    }
+
+    /**
+     * 取与性别相关的分析段
+     */
+    public Object getIfPresent(int code, boolean isMale, int section) {
+        return cache.getIfPresent(key(code, sex(isMale), section));
+    }
+
+    /**
+     * 写入分析段，返回写入的不可变副本
+     */
+    public Object put(PackedBaZiChart chart, boolean isMale, int section, Object value) {
+        return put(chart.code(), isMale, section, value);
+    }
+
+    public Object put(int code, int section, Object value) {
+        return put(key(code, ANY_SEX, section), value);
+    }
+
+    public Object put(int code, boolean isMale, int section, Object value) {
+        return put(key(code, sex(isMale), section), value);
+    }
+
+    private Object put(Long key, Object value) {
+        Object frozen = freeze(value);
+        cache.put(key, frozen);
+        return frozen;
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 缓存统计信息（用于监控）
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("weightedSize", cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("averageLoadPenaltyNanos", stats.averageLoadPenalty());
+        return result;
+    }
+
+    private static int sex(boolean isMale) {
+        return isMale ? MALE : FEMALE;
+    }
+
+    private static Long key(int code, int sex, int section) {
+        // 四柱编码 | 性别 2 位 | 分析段序号 8 位
+        return ((long) code << 2 | sex) << 8 | section;
+    }
+
+    private static Map<String, Object> freezeMap(Map<String, ?> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            copy.put(entry.getKey(), freeze(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object freeze(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return freezeMap((Map<String, ?>) map);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object item : list) {
+                copy.add(freeze(item));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private static int weigh(Object value) {
+        int weight = 1;
+        if (value instanceof Map<?, ?> map) {
+            for (Object item : map.values()) {
+                weight += weigh(item);
+            }
+        } else if (value instanceof Collection<?> collection) {
+            for (Object item : collection) {
+                weight += weigh(item);
+            }
+        } else if (value instanceof Record record) {
+            // 记录类型本身不可变，按组件计重
+            for (RecordComponent component : record.getClass().getRecordComponents()) {
+                try {
+                    weight += weigh(component.getAccessor().invoke(record));
+                } catch (ReflectiveOperationException e) {
+                    weight++;
+                }
+            }
+        }
+        return weight;
+    }
+}
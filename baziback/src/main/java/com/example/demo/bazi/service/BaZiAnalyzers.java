@@ -0,0 +1,38 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.analyzer.*;
+import org.springframework.stereotype.Component;
+
+/**
+ * 八字主服务用到的全部分析器
+ *
+ * 分析器均为无状态单例，规则表在类加载时一次性展开；在 Spring 中按类型注入，
+ * 替换某个分析器只需提供同类型的 Bean。不经 Spring 构造时用 {@link #defaults()}。
+ */
+@Component
+public record BaZiAnalyzers(
+        CaiXingAnalyzer caiXing,
+        FuQiXingAnalyzer fuQiXing,
+        FuMuXingAnalyzer fuMuXing,
+        ZiNvXingAnalyzer ziNvXing,
+        XingChongHeHuiAnalyzer xingChongHeHui,
+        ShenShaAnalyzer shenSha,
+        TiaoHouAnalyzer tiaoHou,
+        XiYongShenAnalyzer xiYongShen,
+        DaYunAnalyzer daYun,
+        TimelineAnalyzer timeline,
+        RiZhuAnalyzer riZhu,
+        ShiShenLunMingAnalyzer shiShenLunMing) {
+
+    /**
+     * 按默认实现构造一组分析器，调候、大运分析器各只有一个实例
+     */
+    public static BaZiAnalyzers defaults() {
+        TiaoHouAnalyzer tiaoHou = new TiaoHouAnalyzer();
+        DaYunAnalyzer daYun = new DaYunAnalyzer();
+        return new BaZiAnalyzers(new CaiXingAnalyzer(), new FuQiXingAnalyzer(), new FuMuXingAnalyzer(),
+                new ZiNvXingAnalyzer(), new XingChongHeHuiAnalyzer(), new ShenShaAnalyzer(), tiaoHou,
+                new XiYongShenAnalyzer(tiaoHou), daYun, new TimelineAnalyzer(daYun), new RiZhuAnalyzer(),
+                new ShiShenLunMingAnalyzer());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.dto.BaZiRequest;
+import com.example.demo.dto.response.bazi.BaziResponseMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 八字批量分析服务
+ *
+ * 输入按流读取，同时处理的条数不超过并发数，上游按处理进度拉取，
+ * 因此内存占用与批量大小无关。每条在批量工作线程上完整算完（不再拆分到分析器线程池），
+ * 结果按输入顺序输出；单条失败只在该条结果中给出错误信息，不中断整个批次。
+ */
+@Service
+@Slf4j
+public class BaZiBatchService {
+
+    private final BaZiService baZiService;
+    private final int concurrency;
+    private final Scheduler scheduler;
+
+    public BaZiBatchService(BaZiService baZiService,
+                            @Value("${bazi.batch.concurrency:0}") int concurrency) {
+        this.baZiService = baZiService;
+        this.concurrency = concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        this.scheduler = Schedulers.newParallel("bazi-batch", this.concurrency);
+    }
+
+    /**
+     * 批量分析
+     * @param requests 分析请求流
+     * @return 每条请求一行结果：index（输入序号）、id（原样返回）、result 或 error
+     */
+    public Flux<Map<String, Object>> analyze(Flux<BaZiRequest> requests) {
+        return requests.index()
+                .flatMapSequential(item -> Mono.fromCallable(() -> analyzeOne(item.getT1(), item.getT2()))
+                        .subscribeOn(scheduler), concurrency, 1);
+    }
+
+    private Map<String, Object> analyzeOne(long index, BaZiRequest request) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("index", index);
+        if (request.getId() != null) {
+            line.put("id", request.getId());
+        }
+        try {
+            String baZi = request.getBaZi();
+            if (baZi == null || baZi.isBlank()) {
+                throw new IllegalArgumentException("八字不能为空");
+            }
+            int birthYear = request.getBirthYear() != null ? request.getBirthYear() : 2000;
+            boolean isMale = request.getIsMale() == null || request.getIsMale();
+            int qiYunAge = request.getQiYunAge() != null ? request.getQiYunAge() : 4;
+            Collection<String> sections = request.getSections() == null || request.getSections().isEmpty()
+                    ? baZiService.getSections()
+                    : BaziResponseMapper.resolveSections(request.getSections());
+
+            line.put("result", BaziResponseMapper.fromAnalysisMap(
+                    baZiService.analyzeInline(baZi, birthYear, isMale, qiYunAge, sections)));
+        } catch (Exception e) {
+            log.debug("批量分析第 {} 条失败: {}", index, e.getMessage());
+            line.put("error", e.getMessage());
+        }
+        return line;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.analyzer.CompatibilityAnalyzer;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.entity.BaziCompatibility;
+import com.example.demo.mapper.BaziCompatibilityMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 八字合盘服务
+ *
+ * 单对合盘返回明细并可保存到 tb_bazi_compatibility；
+ * 一对多时对全部候选做一遍查表评分，再按分数分桶取前若干名（分数只有 0-100，无需整体排序）。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BaZiCompatibilityService {
+
+    public static final String DEFAULT_PARTNER_TYPE = "lover";
+
+    private static final int MAX_SCORE = 100;
+    private static final int CODE_LIMIT = 60 * 60 * 60 * 60;
+
+    private final BaziCompatibilityMapper baziCompatibilityMapper;
+    private final ObjectMapper objectMapper;
+    private final CompatibilityAnalyzer analyzer;
+
+    /**
+     * 两盘合盘明细
+     */
+    public Map<String, Object> compare(String userBaZi, String partnerBaZi) {
+        PackedBaZiChart self = PackedBaZiChart.parse(userBaZi);
+        PackedBaZiChart partner = PackedBaZiChart.parse(partnerBaZi);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("本人八字", self.toString());
+        result.put("对方八字", partner.toString());
+        result.putAll(analyzer.analyze(self, partner));
+        return result;
+    }
+
+    /**
+     * 保存合盘结果
+     * @param detail {@link #compare} 的返回值
+     */
+    public BaziCompatibility save(Long userId, String partnerType, String partnerName, Map<String, Object> detail) {
+        BaziCompatibility compatibility = BaziCompatibility.builder()
+                .userId(userId)
+                .partnerType(partnerType != null && !partnerType.isBlank() ? partnerType : DEFAULT_PARTNER_TYPE)
+                .partnerName(partnerName)
+                .userBazi((String) detail.get("本人八字"))
+                .partnerBazi((String) detail.get("对方八字"))
+                .compatibilityScore((Integer) detail.get("总分"))
+                .compatibilityData(toJson(detail))
+                .isShared(false)
+                .build();
+        baziCompatibilityMapper.insert(compatibility);
+        return compatibility;
+    }
+
+    public List<BaziCompatibility> getUserRecords(Long userId, int page, int size) {
+        int safePage = Math.max(page, 1);
+        int safeSize = Math.min(Math.max(size, 1), 100);
+        return baziCompatibilityMapper.selectByUserIdPaged(userId, (safePage - 1) * safeSize, safeSize);
+    }
+
+    public BaziCompatibility getUserRecord(Long userId, Long id) {
+        return baziCompatibilityMapper.selectByIdAndUserId(id, userId);
+    }
+
+    public boolean deleteUserRecord(Long userId, Long id) {
+        return baziCompatibilityMapper.deleteByIdAndUserId(id, userId) > 0;
+    }
+
+    /**
+     * 一对多合盘：对全部候选评分，返回分数最高的 top 个（同分按输入顺序）
+     * @param partnerCodes 候选八字编码
+     */
+    public List<Map<String, Object>> rank(String userBaZi, int[] partnerCodes, int top) {
+        for (int code : partnerCodes) {
+            if (code < 0 || code >= CODE_LIMIT) {
+                throw new IllegalArgumentException("无效八字编码: " + code);
+            }
+        }
+        int[] scores = new CompatibilityAnalyzer.Scorer(PackedBaZiChart.parse(userBaZi)).scoreAll(partnerCodes);
+
+        // 按分数分桶：先数每个分数的个数，定出入选的最低分
+        int[] countByScore = new int[MAX_SCORE + 1];
+        for (int score : scores) {
+            countByScore[score]++;
+        }
+        int limit = Math.max(0, Math.min(top, scores.length));
+        int threshold = MAX_SCORE;
+        for (int taken = countByScore[MAX_SCORE]; taken < limit && threshold > 0; ) {
+            taken += countByScore[--threshold];
+        }
+        List<List<Integer>> buckets = new ArrayList<>(MAX_SCORE + 1);
+        for (int s = 0; s <= MAX_SCORE; s++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] >= threshold) {
+                buckets.get(scores[i]).add(i);
+            }
+        }
+
+        List<Map<String, Object>> ranked = new ArrayList<>(limit);
+        for (int s = MAX_SCORE; s >= threshold && ranked.size() < limit; s--) {
+            for (int i : buckets.get(s)) {
+                if (ranked.size() == limit) {
+                    break;
+                }
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("序号", i);
+                item.put("八字", PackedBaZiChart.fromCode(partnerCodes[i]).toString());
+                item.put("总分", s);
+                ranked.add(item);
+            }
+        }
+        return ranked;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.warn("合盘结果序列化失败", e);
+            return null;
+        }
+    }
+}
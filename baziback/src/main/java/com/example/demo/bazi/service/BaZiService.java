@@ -1,10 +1,18 @@
 package com.example.demo.bazi.service;
 
 import com.example.demo.bazi.analyzer.*;
+import com.example.demo.bazi.constants.GanZhi;
 import com.example.demo.bazi.model.*;
+import com.example.demo.bazi.util.SolarTermTable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * 八字测算主服务类
@@ -12,17 +20,81 @@ import java.time.LocalDate;
 @Service
 public class BaZiService {
 
-    private final CaiXingAnalyzer caiXingAnalyzer = new CaiXingAnalyzer();
-    private final FuQiXingAnalyzer fuQiXingAnalyzer = new FuQiXingAnalyzer();
-    private final FuMuXingAnalyzer fuMuXingAnalyzer = new FuMuXingAnalyzer();
-    private final ZiNvXingAnalyzer ziNvXingAnalyzer = new ZiNvXingAnalyzer();
-    private final XingChongHeHuiAnalyzer xingChongHeHuiAnalyzer = new XingChongHeHuiAnalyzer();
-    private final ShenShaAnalyzer shenShaAnalyzer = new ShenShaAnalyzer();
-    private final TiaoHouAnalyzer tiaoHouAnalyzer = new TiaoHouAnalyzer();
-    private final XiYongShenAnalyzer xiYongShenAnalyzer = new XiYongShenAnalyzer();
-    private final DaYunAnalyzer daYunAnalyzer = new DaYunAnalyzer();
-    private final RiZhuAnalyzer riZhuAnalyzer = new RiZhuAnalyzer();
-    private final ShiShenLunMingAnalyzer shiShenLunMingAnalyzer = new ShiShenLunMingAnalyzer();
+    private final CaiXingAnalyzer caiXingAnalyzer;
+    private final FuQiXingAnalyzer fuQiXingAnalyzer;
+    private final FuMuXingAnalyzer fuMuXingAnalyzer;
+    private final ZiNvXingAnalyzer ziNvXingAnalyzer;
+    private final XingChongHeHuiAnalyzer xingChongHeHuiAnalyzer;
+    private final ShenShaAnalyzer shenShaAnalyzer;
+    private final TiaoHouAnalyzer tiaoHouAnalyzer;
+    private final XiYongShenAnalyzer xiYongShenAnalyzer;
+    private final DaYunAnalyzer daYunAnalyzer;
+    private final TimelineAnalyzer timelineAnalyzer;
+    private final RiZhuAnalyzer riZhuAnalyzer;
+    private final ShiShenLunMingAnalyzer shiShenLunMingAnalyzer;
+    private final BaZiAnalysisCache analysisCache;
+    private final AnalyzerGraph graph;
+    private final Executor executor;
+
+    // 简易分析输出的分析段（不含大运、流年等），按输出顺序排列
+    private static final List<String> SIMPLE_SECTIONS = List.of(
+        "_id", "季节", "生肖", "八字", "星运", "自坐", "空亡", "纳音", "胎命身", "八字各柱信息",
+        "财星信息", "夫妻星信息", "父母星信息", "子女星信息", "阴阳情况分析",
+        "刑冲合会", "神煞", "调候信息", "日柱等级信息", "喜用神分析", "四柱十神论命知识", "参考格局信息"
+    );
+
+    // 12个月的节气信息；节气表范围外的年份使用近似日期
+    private static final String[] SOLAR_TERMS = {"立春", "惊蛰", "清明", "立夏", "芒种", "小暑",
+                                                 "立秋", "白露", "寒露", "立冬", "大雪", "小寒"};
+    private static final String[] SOLAR_TERM_DATES = {"2/4", "3/5", "4/4", "5/5", "6/5", "7/6",
+                                                      "8/7", "9/7", "10/8", "11/7", "12/6", "1/5"};
+
+    /**
+     * 分析器在调用线程上依次执行
+     */
+    public BaZiService() {
+        this(Runnable::run);
+    }
+
+    /**
+     * @param executor 分析器并发执行的线程池
+     */
+    public BaZiService(Executor executor) {
+        this(executor, BaZiAnalyzers.defaults());
+    }
+
+    /**
+     * @param executor 分析器并发执行的线程池
+     * @param analyzers 各分析器（无状态单例）
+     */
+    public BaZiService(Executor executor, BaZiAnalyzers analyzers) {
+        this(executor, analyzers, new BaZiAnalysisCache());
+    }
+
+    /**
+     * @param executor 分析器并发执行的线程池
+     * @param analyzers 各分析器（无状态单例）
+     * @param analysisCache 分析段缓存，容量见 bazi.analysis-cache.max-weight
+     */
+    @Autowired
+    public BaZiService(@Qualifier("baziAnalyzerExecutor") Executor executor, BaZiAnalyzers analyzers,
+                       BaZiAnalysisCache analysisCache) {
+        this.executor = executor;
+        this.analysisCache = analysisCache;
+        this.caiXingAnalyzer = analyzers.caiXing();
+        this.fuQiXingAnalyzer = analyzers.fuQiXing();
+        this.fuMuXingAnalyzer = analyzers.fuMuXing();
+        this.ziNvXingAnalyzer = analyzers.ziNvXing();
+        this.xingChongHeHuiAnalyzer = analyzers.xingChongHeHui();
+        this.shenShaAnalyzer = analyzers.shenSha();
+        this.tiaoHouAnalyzer = analyzers.tiaoHou();
+        this.xiYongShenAnalyzer = analyzers.xiYongShen();
+        this.daYunAnalyzer = analyzers.daYun();
+        this.timelineAnalyzer = analyzers.timeline();
+        this.riZhuAnalyzer = analyzers.riZhu();
+        this.shiShenLunMingAnalyzer = analyzers.shiShenLunMing();
+        this.graph = buildGraph();
+    }
 
     /**
      * 完整八字分析
@@ -44,140 +116,191 @@ public class BaZiService {
      * @return 完整的八字分析报告
      */
     public Map<String, Object> analyze(String baZiStr, int birthYear, boolean isMale, int qiYunAge) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
-        // 解析八字
-        BaZiChart chart = BaZiChart.parse(baZiStr);
-        
-        // 基础信息
-        result.put("_id", chart.getId());
-        result.put("季节", chart.getJiJie());
-        result.put("生肖", chart.getShengXiao());
-        result.put("八字", baZiStr);
-        
-        // 星运
-        result.put("星运", chart.getXingYun());
-        
-        // 自坐
-        result.put("自坐", chart.getZiZuo());
-        
-        // 空亡
-        result.put("空亡", chart.getKongWang());
-        
-        // 纳音
-        result.put("纳音", chart.getNaYin());
-        
-        // 胎命身
-        result.put("胎命身", chart.getTaiMingShen());
-        
-        // 八字各柱信息
-        result.put("八字各柱信息", chart.getBaZiGeZhuInfo());
-        
-        // 财星信息
-        result.put("财星信息", caiXingAnalyzer.analyze(chart));
-        
-        // 夫妻星信息
-        result.put("夫妻星信息", fuQiXingAnalyzer.analyze(chart, isMale));
-        
-        // 父母星信息
-        result.put("父母星信息", fuMuXingAnalyzer.analyze(chart));
-        
-        // 子女星信息
-        result.put("子女星信息", ziNvXingAnalyzer.analyze(chart, isMale));
-        
-        // 阴阳情况分析
-        result.put("阴阳情况分析", chart.getYinYangFenXi());
-        
-        // 刑冲合会
-        result.put("刑冲合会", xingChongHeHuiAnalyzer.analyze(chart));
-        
-        // 神煞
-        result.put("神煞", shenShaAnalyzer.analyze(chart));
-        
-        // 调候信息
-        result.put("调候信息", tiaoHouAnalyzer.analyze(chart));
-        
-        // 日柱等级信息
-        result.put("日柱等级信息", riZhuAnalyzer.analyze(chart));
-        
-        // 喜用神分析
-        result.put("喜用神分析", xiYongShenAnalyzer.analyze(chart));
-        
-        // 四柱十神论命知识
-        result.put("四柱十神论命知识", shiShenLunMingAnalyzer.analyze(chart));
-        
-        // 四柱关系论命知识
-        result.put("四柱关系论命知识", new LinkedHashMap<>());
-        
-        // 参考格局信息
-        result.put("参考格局信息", determineGeJu(chart));
-        
-        // 大运数据
-        Map<String, Object> daYunData = daYunAnalyzer.calculate(chart, birthYear, isMale, qiYunAge);
-        result.put("大运数据", daYunData);
-        
-        // 计算起运详细信息
-        Map<String, Object> qiYunInfo = calculateQiYunInfo(birthYear, qiYunAge);
-        result.put("起运信息", qiYunInfo);
-        chart.setQiYunInfo(qiYunInfo);
-        
-        // 人元司令
-        result.put("人元司令", chart.getRenYuanSiLing());
-        
-        // 流年数据（当前年份前后各5年）
-        List<Map<String, Object>> liuNianList = calculateLiuNian(chart, birthYear, 10);
-        result.put("流年数据", liuNianList);
-        
-        // 流月数据（当前年份的12个月）
-        int currentYear = LocalDate.now().getYear();
-        List<Map<String, Object>> liuYueList = calculateLiuYue(chart, currentYear);
-        result.put("流月数据", liuYueList);
-        
-        // 扩展各柱信息，包含旬首和神煞
-        Map<String, Map<String, Object>> detailedPillarInfo = getDetailedPillarInfo(chart);
-        result.put("详细各柱信息", detailedPillarInfo);
-        
-        return result;
+        return analyze(baZiStr, birthYear, isMale, qiYunAge, graph.sections());
+    }
+
+    /**
+     * 只计算指定分析段（及其依赖）
+     * @param sections 分析段名称，即结果中的键，如 "神煞"、"大运数据"
+     * @return 按固定顺序排列的分析结果，只含请求的分析段
+     */
+    public Map<String, Object> analyze(String baZiStr, int birthYear, boolean isMale, int qiYunAge,
+                                       Collection<String> sections) {
+        PackedBaZiChart packed = PackedBaZiChart.parse(baZiStr);
+        AnalysisContext context = new AnalysisContext(baZiStr, packed, isMale, birthYear, qiYunAge);
+        return graph.evaluate(context, sections, analysisCache, executor);
+    }
+
+    /**
+     * 只计算指定分析段（及其依赖），不阻塞调用线程，供 WebFlux 接口使用；
+     * 八字格式错误等以错误信号返回，分析器线程池已满时以 RejectedExecutionException 结束
+     * @param sections 分析段名称，即结果中的键，如 "神煞"、"大运数据"
+     */
+    public Mono<Map<String, Object>> analyzeAsync(String baZiStr, int birthYear, boolean isMale, int qiYunAge,
+                                                  Collection<String> sections) {
+        return Mono.fromFuture(() -> {
+            PackedBaZiChart packed = PackedBaZiChart.parse(baZiStr);
+            AnalysisContext context = new AnalysisContext(baZiStr, packed, isMale, birthYear, qiYunAge);
+            return graph.evaluateAsync(context, sections, analysisCache, executor);
+        });
+    }
+
+    /**
+     * 在调用线程上完成全部分析段，供已经在工作线程上并发的批量任务使用，
+     * 避免在分析器线程池内嵌套等待
+     */
+    public Map<String, Object> analyzeInline(String baZiStr, int birthYear, boolean isMale, int qiYunAge,
+                                             Collection<String> sections) {
+        PackedBaZiChart packed = PackedBaZiChart.parse(baZiStr);
+        AnalysisContext context = new AnalysisContext(baZiStr, packed, isMale, birthYear, qiYunAge);
+        return graph.evaluate(context, sections, analysisCache, Runnable::run);
+    }
+
+    /**
+     * 出生时辰不确定时，按年、月、日三柱一次分析十二个时辰（子时至亥时，时干按日干五鼠遁）
+     *
+     * 只依赖三柱的分析段和神煞、刑冲合会、子女星等的三柱部分只算一次，各时辰只补算与时柱有关的部分
+     * @param sanZhuStr 年、月、日三柱，格式：乙酉 己丑 甲辰
+     * @param sections 分析段名称，见 {@link #getSections()}
+     * @return 按子时至亥时排列的十二份分析结果
+     */
+    public List<Map<String, Object>> analyzeHourVariants(String sanZhuStr, int birthYear, boolean isMale,
+                                                         int qiYunAge, Collection<String> sections) {
+        return graph.evaluateAll(hourContexts(sanZhuStr, birthYear, isMale, qiYunAge),
+                sections, analysisCache, executor);
+    }
+
+    /**
+     * 十二时辰分析，不阻塞调用线程，见 {@link #analyzeHourVariants}
+     */
+    public Mono<List<Map<String, Object>>> analyzeHourVariantsAsync(String sanZhuStr, int birthYear, boolean isMale,
+                                                                    int qiYunAge, Collection<String> sections) {
+        return Mono.fromFuture(() -> graph.evaluateAllAsync(hourContexts(sanZhuStr, birthYear, isMale, qiYunAge),
+                sections, analysisCache, executor));
+    }
+
+    private List<AnalysisContext> hourContexts(String sanZhuStr, int birthYear, boolean isMale, int qiYunAge) {
+        String[] parts = sanZhuStr.trim().split("\\s+");
+        if (parts.length != PackedBaZiChart.SHI) {
+            throw new IllegalArgumentException("三柱格式错误，应为年、月、日三柱，如：乙酉 己丑 甲辰");
+        }
+        int nian = GanZhi.parseJiaZi(parts[0]);
+        int yue = GanZhi.parseJiaZi(parts[1]);
+        int ri = GanZhi.parseJiaZi(parts[2]);
+        int riGan = GanZhi.stemOf(ri);
+
+        SanZhuContext sanZhu = new SanZhuContext();
+        List<AnalysisContext> contexts = new ArrayList<>(GanZhi.BRANCH_COUNT);
+        for (int branch = 0; branch < GanZhi.BRANCH_COUNT; branch++) {
+            int shi = GanZhi.jiaZi((riGan % 5 * 2 + branch) % GanZhi.STEM_COUNT, branch);
+            PackedBaZiChart packed = PackedBaZiChart.of(nian, yue, ri, shi);
+            contexts.add(new AnalysisContext(packed.toString(), packed, isMale, birthYear, qiYunAge, sanZhu));
+        }
+        return contexts;
     }
 
     /**
      * 简易八字分析（不包含大运）
      */
     public Map<String, Object> analyzeSimple(String baZiStr, boolean isMale) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
-        BaZiChart chart = BaZiChart.parse(baZiStr);
-        
-        result.put("_id", chart.getId());
-        result.put("季节", chart.getJiJie());
-        result.put("生肖", chart.getShengXiao());
-        result.put("八字", baZiStr);
-        result.put("星运", chart.getXingYun());
-        result.put("自坐", chart.getZiZuo());
-        result.put("空亡", chart.getKongWang());
-        result.put("纳音", chart.getNaYin());
-        result.put("胎命身", chart.getTaiMingShen());
-        result.put("八字各柱信息", chart.getBaZiGeZhuInfo());
-        result.put("财星信息", caiXingAnalyzer.analyze(chart));
-        result.put("夫妻星信息", fuQiXingAnalyzer.analyze(chart, isMale));
-        result.put("父母星信息", fuMuXingAnalyzer.analyze(chart));
-        result.put("子女星信息", ziNvXingAnalyzer.analyze(chart, isMale));
-        result.put("阴阳情况分析", chart.getYinYangFenXi());
-        result.put("刑冲合会", xingChongHeHuiAnalyzer.analyze(chart));
-        result.put("神煞", shenShaAnalyzer.analyze(chart));
-        result.put("调候信息", tiaoHouAnalyzer.analyze(chart));
-        result.put("日柱等级信息", riZhuAnalyzer.analyze(chart));
-        result.put("喜用神分析", xiYongShenAnalyzer.analyze(chart));
-        result.put("四柱十神论命知识", shiShenLunMingAnalyzer.analyze(chart));
-        result.put("参考格局信息", determineGeJu(chart));
-        
-        return result;
+        return analyze(baZiStr, 0, isMale, 0, SIMPLE_SECTIONS);
+    }
+
+    /**
+     * 简易八字分析，不阻塞调用线程
+     */
+    public Mono<Map<String, Object>> analyzeSimpleAsync(String baZiStr, boolean isMale) {
+        return analyzeAsync(baZiStr, 0, isMale, 0, SIMPLE_SECTIONS);
+    }
+
+    /**
+     * 全部分析段名称，按输出顺序
+     */
+    public List<String> getSections() {
+        return graph.sections();
+    }
+
+    /**
+     * 分析结果缓存统计（命中率、条目数等）
+     */
+    public Map<String, Object> getCacheStats() {
+        return analysisCache.getStats();
+    }
+
+    /**
+     * 各分析段的计算耗时统计（不含缓存命中），按登记顺序
+     */
+    public Map<String, Map<String, Object>> getAnalyzerStats() {
+        return graph.getTimingStats();
+    }
+
+    /**
+     * 登记全部分析段：chartNode 只依赖四柱，男女命共用缓存；genderNode 另依赖性别，按性别分别缓存；
+     * dayNode 只依赖年、月、日三柱，各时辰共用；requestNode 依赖出生年份或当前日期
+     */
+    private AnalyzerGraph buildGraph() {
+        return new AnalyzerGraph()
+            // 基础信息
+            .requestNode("_id", (ctx, deps) -> ctx.getBaZiStr().replace(" ", "") + "1")
+            .dayNode("季节", (ctx, deps) -> ctx.getChart().getJiJie())
+            .dayNode("生肖", (ctx, deps) -> ctx.getChart().getShengXiao())
+            .requestNode("八字", (ctx, deps) -> ctx.getBaZiStr())
+            .chartNode("星运", (ctx, deps) -> ctx.getChart().getXingYun())
+            .chartNode("自坐", (ctx, deps) -> ctx.getChart().getZiZuo())
+            .chartNode("空亡", (ctx, deps) -> ctx.getChart().getKongWang())
+            .chartNode("纳音", (ctx, deps) -> ctx.getChart().getNaYin())
+            .chartNode("胎命身", (ctx, deps) -> ctx.getChart().getTaiMingShen())
+            .chartNode("八字各柱信息", (ctx, deps) -> ctx.getChart().getBaZiGeZhuInfo())
+            // 各星
+            .chartNode("财星信息", (ctx, deps) -> caiXingAnalyzer.analyze(ctx.getChart()))
+            .genderNode("夫妻星信息", (ctx, deps) -> fuQiXingAnalyzer.analyze(ctx.getChart(), ctx.isMale()))
+            .chartNode("父母星信息", (ctx, deps) -> fuMuXingAnalyzer.analyze(ctx.getChart()))
+            .genderNode("子女星信息", (ctx, deps) -> ziNvXingAnalyzer.analyze(ctx.getChart(), ctx.isMale(),
+                    ctx.sanZhuPart("子女星" + ctx.isMale(), packed -> ziNvXingAnalyzer.sanZhu(packed, ctx.isMale()))))
+            .chartNode("阴阳情况分析", (ctx, deps) -> ctx.getChart().getYinYangFenXi())
+            .chartNode("刑冲合会", (ctx, deps) -> xingChongHeHuiAnalyzer.analyze(ctx.getPacked(),
+                    ctx.sanZhuPart("刑冲合会", xingChongHeHuiAnalyzer::sanZhu)))
+            .chartNode("神煞", (ctx, deps) -> shenShaAnalyzer.analyze(ctx.getPacked(),
+                    ctx.sanZhuPart("神煞", shenShaAnalyzer::sanZhuMasks)))
+            .chartNode("调候信息", (ctx, deps) -> tiaoHouAnalyzer.analyze(ctx.getChart()))
+            .dayNode("日柱等级信息", (ctx, deps) -> riZhuAnalyzer.analyze(ctx.getChart()))
+            .chartNode("喜用神分析", (ctx, deps) -> xiYongShenAnalyzer.analyze(ctx.getChart(),
+                    BaZiService.<TiaoHouResult>section(deps, "调候信息")), "调候信息")
+            .chartNode("四柱十神论命知识", (ctx, deps) -> shiShenLunMingAnalyzer.analyze(ctx.getChart()))
+            .chartNode("四柱关系论命知识", (ctx, deps) -> new LinkedHashMap<>())
+            .dayNode("参考格局信息", (ctx, deps) -> determineGeJu(ctx.getChart()))
+            // 大运、起运
+            .requestNode("大运数据", (ctx, deps) -> daYunAnalyzer.calculateFromStartYear(
+                    ctx.getPacked(), ctx.getBirthYear() + ctx.getQiYunAge(), ctx.isMale()))
+            .requestNode("起运信息", (ctx, deps) -> calculateQiYunInfo(ctx.getBirthYear(), ctx.getQiYunAge()))
+            .dayNode("人元司令", (ctx, deps) -> ctx.getChart().getRenYuanSiLing())
+            // 流年数据（当前年份前后各5年）、流月数据（当前年份的12个月）
+            .requestNode("流年数据", (ctx, deps) -> calculateLiuNian(ctx, 10))
+            .requestNode("流月数据", (ctx, deps) -> calculateLiuYue(ctx, LocalDate.now().getYear()))
+            // 扩展各柱信息，包含旬首和神煞
+            .chartNode("详细各柱信息", (ctx, deps) -> getDetailedPillarInfo(ctx.getChart(),
+                    BaZiService.<ShenShaResult>section(deps, "神煞")), "神煞");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T section(Map<String, Object> deps, String name) {
+        return (T) deps.get(name);
+    }
+
+
+    /**
+     * 运势时间轴：自 fromYear 起 years 年的大运、流年、流月（列式）
+     */
+    public FortuneTimeline timeline(String baZiStr, int birthYear, boolean isMale, int qiYunAge,
+                                    int fromYear, int years) {
+        return timelineAnalyzer.generate(PackedBaZiChart.parse(baZiStr), isMale, birthYear, qiYunAge,
+                fromYear, years);
     }
 
     /**
      * 仅分析大运
      */
-    public Map<String, Object> analyzeDaYun(String baZiStr, int birthYear, boolean isMale) {
+    public DaYunResult analyzeDaYun(String baZiStr, int birthYear, boolean isMale) {
         BaZiChart chart = BaZiChart.parse(baZiStr);
         return daYunAnalyzer.calculate(chart, birthYear, isMale);
     }
@@ -193,7 +316,7 @@ public class BaZiService {
     /**
      * 仅分析神煞
      */
-    public Map<String, List<String>> analyzeShenSha(String baZiStr) {
+    public ShenShaResult analyzeShenSha(String baZiStr) {
         BaZiChart chart = BaZiChart.parse(baZiStr);
         return shenShaAnalyzer.analyze(chart);
     }
@@ -201,7 +324,7 @@ public class BaZiService {
     /**
      * 仅分析喜用神
      */
-    public Map<String, Object> analyzeXiYongShen(String baZiStr) {
+    public XiYongShenResult analyzeXiYongShen(String baZiStr) {
         BaZiChart chart = BaZiChart.parse(baZiStr);
         return xiYongShenAnalyzer.analyze(chart);
     }
@@ -237,85 +360,64 @@ public class BaZiService {
     /**
      * 计算起运详细信息
      */
-    private Map<String, Object> calculateQiYunInfo(int birthYear, int qiYunAge) {
-        Map<String, Object> info = new LinkedHashMap<>();
-        info.put("起运年龄", qiYunAge + "岁");
-        info.put("起运年份", birthYear + qiYunAge);
+    private QiYunInfo calculateQiYunInfo(int birthYear, int qiYunAge) {
         // 简化处理：假设起运为出生后3年1个月4天22小时
-        info.put("起运描述", String.format("出生后%d年1个月4天22个小时", qiYunAge));
-        return info;
+        return new QiYunInfo(qiYunAge + "岁", birthYear + qiYunAge,
+                String.format("出生后%d年1个月4天22个小时", qiYunAge));
     }
 
     /**
-     * 计算流年数据
+     * 计算流年数据（当前年份前后）
      */
-    private List<Map<String, Object>> calculateLiuNian(BaZiChart chart, int birthYear, int count) {
-        List<Map<String, Object>> liuNianList = new ArrayList<>();
-        String riZhuTianGan = chart.getRiZhuTianGan();
-        int currentYear = LocalDate.now().getYear();
-        int startYear = currentYear - count / 2;
-        
-        for (int i = 0; i < count; i++) {
-            int year = startYear + i;
-            int age = year - birthYear;
-            LiuNian liuNian = new LiuNian(year, age, riZhuTianGan);
-            liuNianList.add(liuNian.toMap());
+    private List<LiuNianEntry> calculateLiuNian(AnalysisContext ctx, int count) {
+        int startYear = LocalDate.now().getYear() - count / 2;
+        FortuneTimeline timeline = timelineAnalyzer.generate(ctx.getPacked(), ctx.isMale(),
+                ctx.getBirthYear(), ctx.getQiYunAge(), startYear, count);
+        List<LiuNianEntry> liuNianList = new ArrayList<>(count);
+        for (int i = 0; i < timeline.size(); i++) {
+            liuNianList.add(LiuNianEntry.of(timeline.year(i), timeline.year(i) - ctx.getBirthYear(),
+                    timeline.liuNianJiaZi(i), timeline.getRiGan()));
         }
-        
-        return liuNianList;
+        return List.copyOf(liuNianList);
     }
 
     /**
-     * 计算流月数据
+     * 计算流月数据（指定年份的12个月，正月为寅月）
      */
-    private List<Map<String, Object>> calculateLiuYue(BaZiChart chart, int year) {
-        List<Map<String, Object>> liuYueList = new ArrayList<>();
-        String riZhuTianGan = chart.getRiZhuTianGan();
-        
-        // 12个月的节气信息（简化处理）
-        String[] solarTerms = {"立春", "惊蛰", "清明", "立夏", "芒种", "小暑", 
-                               "立秋", "白露", "寒露", "立冬", "大雪", "小寒"};
-        String[] solarTermDates = {"2/4", "3/5", "4/4", "5/5", "6/5", "7/6",
-                                   "8/7", "9/7", "10/8", "11/7", "12/6", "1"};
-        
-        for (int month = 1; month <= 12; month++) {
-            LiuYue liuYue = new LiuYue(month, solarTerms[month - 1], 
-                                      solarTermDates[month - 1], year, riZhuTianGan);
-            liuYueList.add(liuYue.toMap());
+    private List<LiuYueEntry> calculateLiuYue(AnalysisContext ctx, int year) {
+        FortuneTimeline timeline = timelineAnalyzer.generate(ctx.getPacked(), ctx.isMale(),
+                ctx.getBirthYear(), ctx.getQiYunAge(), year, 1);
+        List<LiuYueEntry> liuYueList = new ArrayList<>(FortuneTimeline.MONTHS);
+        for (int month = 1; month <= FortuneTimeline.MONTHS; month++) {
+            liuYueList.add(LiuYueEntry.of(month, SOLAR_TERMS[month - 1], solarTermDate(year, month),
+                    timeline.liuYueJiaZi(0, month), timeline.getRiGan()));
         }
-        
-        return liuYueList;
+        return List.copyOf(liuYueList);
+    }
+
+    /**
+     * 流月起始节气的日期（M/d）：寅月立春至子月大雪在当年，丑月小寒在次年
+     */
+    private static String solarTermDate(int year, int month) {
+        int termYear = month == 12 ? year + 1 : year;
+        SolarTermTable table = SolarTermTable.getInstance();
+        if (!table.hasYear(termYear)) {
+            return SOLAR_TERM_DATES[month - 1];
+        }
+        LocalDateTime instant = table.instant(termYear, month == 12 ? 0 : month * 2);
+        return instant.getMonthValue() + "/" + instant.getDayOfMonth();
     }
 
     /**
      * 获取详细的各柱信息（包含旬首、神煞等）
      */
-    private Map<String, Map<String, Object>> getDetailedPillarInfo(BaZiChart chart) {
-        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
-        
-        // 计算神煞（如果还没有计算）
-        Map<String, List<String>> shenShaMap = shenShaAnalyzer.analyze(chart);
-        
-        // 年柱
-        Map<String, Object> nianInfo = chart.getNianZhu().toMap();
-        nianInfo.put("神煞", shenShaMap.getOrDefault("年", new ArrayList<>()));
-        result.put("年", nianInfo);
-        
-        // 月柱
-        Map<String, Object> yueInfo = chart.getYueZhu().toMap();
-        yueInfo.put("神煞", shenShaMap.getOrDefault("月", new ArrayList<>()));
-        result.put("月", yueInfo);
-        
-        // 日柱
-        Map<String, Object> riInfo = chart.getRiZhu().toMap();
-        riInfo.put("神煞", shenShaMap.getOrDefault("日", new ArrayList<>()));
-        result.put("日", riInfo);
-        
-        // 时柱
-        Map<String, Object> shiInfo = chart.getShiZhu().toMap();
-        shiInfo.put("神煞", shenShaMap.getOrDefault("时", new ArrayList<>()));
-        result.put("时", shiInfo);
-        
-        return result;
+    private Map<String, PillarDetail> getDetailedPillarInfo(BaZiChart chart,
+                                                         ShenShaResult shenSha) {
+        Map<String, PillarDetail> result = new LinkedHashMap<>();
+        result.put("年", chart.getNianZhu().toDetail(shenSha.nian()));
+        result.put("月", chart.getYueZhu().toDetail(shenSha.yue()));
+        result.put("日", chart.getRiZhu().toDetail(shenSha.ri()));
+        result.put("时", chart.getShiZhu().toDetail(shenSha.shi()));
+        return Collections.unmodifiableMap(result);
     }
 }
@@ -0,0 +1,146 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.util.ChartSimilarityIndex;
+import com.example.demo.entity.TbCalculationRecord;
+import com.example.demo.mapper.CalculationRecordMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * 相似八字查询服务
+ *
+ * 启动后在后台按 id 分批把已保存的八字测算记录载入 {@link ChartSimilarityIndex}，
+ * 之后由 CalculationRecordService 在保存、修改、删除记录的事务提交后增量更新。
+ * 加载期间发生的增量更新优先，加载不会复活其间已删除的记录（见 {@link ChartSimilarityIndex#beginLoad()}）。
+ * 查询只在调用者自己的记录中进行。
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BaZiSimilarityService {
+
+    public static final String RECORD_TYPE = "bazi";
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final CalculationRecordMapper calculationRecordMapper;
+    private final ObjectMapper objectMapper;
+    private final ChartSimilarityIndex index = new ChartSimilarityIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Schedulers.boundedElastic().schedule(this::loadAll);
+    }
+
+    void loadAll() {
+        long afterId = 0;
+        int loaded = 0;
+        index.beginLoad();
+        try {
+            while (true) {
+                List<TbCalculationRecord> batch =
+                        calculationRecordMapper.selectByTypeAfterId(RECORD_TYPE, afterId, LOAD_BATCH_SIZE);
+                for (TbCalculationRecord record : batch) {
+                    PackedBaZiChart chart = extractChart(record);
+                    if (chart != null && index.load(record.getId(), record.getUserId(), chart)) {
+                        loaded++;
+                    }
+                    afterId = record.getId();
+                }
+                if (batch.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+            }
+            log.info("相似八字索引加载完成: {} 条", loaded);
+        } catch (Exception e) {
+            log.error("相似八字索引加载失败，已加载 {} 条", loaded, e);
+        } finally {
+            index.endLoad();
+        }
+    }
+
+    /**
+     * 记录保存或修改后调用；非八字记录或解析不出八字时忽略
+     */
+    public void onSaved(TbCalculationRecord record) {
+        if (record == null || record.getId() == null) {
+            return;
+        }
+        if (!RECORD_TYPE.equals(record.getRecordType()) || !index(record)) {
+            index.remove(record.getId());
+        }
+    }
+
+    public void onDeleted(Long recordId) {
+        if (recordId != null) {
+            index.remove(recordId);
+        }
+    }
+
+    public void onUserDeleted(Long userId) {
+        if (userId != null) {
+            index.removeUser(userId);
+        }
+    }
+
+    /**
+     * @param userId 查询者，只在其本人的记录中查找
+     * @param tolerance 五行分布允许相差的字数
+     * @param excludeRecordId 排除的记录，可为空
+     */
+    public ChartSimilarityIndex.SimilarityResult findSimilar(long userId, String baZi, int tolerance,
+                                                             boolean samePattern, int limit, Long excludeRecordId) {
+        return index.query(PackedBaZiChart.parse(baZi.trim()), userId, tolerance, samePattern, limit, excludeRecordId);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public int size(long userId) {
+        return index.size(userId);
+    }
+
+    private boolean index(TbCalculationRecord record) {
+        PackedBaZiChart chart = extractChart(record);
+        if (chart == null) {
+            return false;
+        }
+        index.put(record.getId(), record.getUserId(), chart);
+        return true;
+    }
+
+    /**
+     * 摘要以八字开头（前端保存格式"乙酉 己丑 甲辰 戊辰 - 鸡"），否则从结果 JSON 的 baZi/八字 字段读取
+     */
+    PackedBaZiChart extractChart(TbCalculationRecord record) {
+        String summary = record.getSummary();
+        if (summary != null && summary.length() >= 11) {
+            try {
+                return PackedBaZiChart.parse(summary.substring(0, 11));
+            } catch (IllegalArgumentException ignored) {
+                // 摘要不是八字开头，再看结果数据
+            }
+        }
+        String data = record.getData();
+        if (data == null || data.isBlank()) {
+            return null;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(data);
+            JsonNode baZi = root.hasNonNull("baZi") ? root.get("baZi") : root.get("八字");
+            return baZi != null && baZi.isTextual() ? PackedBaZiChart.parse(baZi.asText().trim()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
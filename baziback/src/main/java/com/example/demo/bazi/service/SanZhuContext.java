@@ -0,0 +1,61 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.model.BaZiChart;
+import com.example.demo.bazi.model.PackedBaZiChart;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 同一年、月、日三柱的各时辰变体共享的分析状态
+ *
+ * 只依赖三柱的分析段（{@link AnalyzerGraph#dayNode}）、各分析器的三柱部分以及三柱的命盘对象
+ * 在这里各算一次，各时辰只补算与时柱有关的部分。
+ */
+public class SanZhuContext {
+
+    private final Map<String, Object> parts = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Object>> futures = new HashMap<>();
+    private volatile BaZiChart baseChart;
+
+    /**
+     * 取三柱部分的计算结果，首次取时计算
+     */
+    @SuppressWarnings("unchecked")
+    <T> T part(String key, Supplier<T> compute) {
+        return (T) parts.computeIfAbsent(key, k -> compute.get());
+    }
+
+    /**
+     * 取只依赖三柱的分析段的计算任务，首个时辰登记，其余时辰共用
+     */
+    synchronized CompletableFuture<Object> future(String section, Supplier<CompletableFuture<Object>> create) {
+        CompletableFuture<Object> future = futures.get(section);
+        if (future == null) {
+            // create 会先登记依赖段，不能用 computeIfAbsent
+            future = create.get();
+            futures.put(section, future);
+        }
+        return future;
+    }
+
+    /**
+     * 某时辰的命盘：年、月、日三柱对象沿用首个构建的命盘
+     */
+    BaZiChart chart(PackedBaZiChart packed) {
+        BaZiChart base = baseChart;
+        if (base == null) {
+            synchronized (this) {
+                base = baseChart;
+                if (base == null) {
+                    baseChart = BaZiChart.fromPacked(packed);
+                    return baseChart;
+                }
+            }
+        }
+        return base.getPacked().code() == packed.code() ? base : base.withShiZhu(packed.jiaZi(PackedBaZiChart.SHI));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.BirthTimeWindow;
+import com.example.demo.bazi.model.PackedBaZiChart;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 八字反查出生时间
+ *
+ * 不逐时刻换算，而是按四柱各自的周期直接定位，规则与 {@link BulkBaZiConverter} 一致：
+ * 1 年柱六十年一轮，只看干支年与之相同的年份
+ * 2 月柱由年干五虎遁确定是该年第几个月，月份起止取 {@link SolarTermTable} 中相邻两个"节"；
+ *   立春前一日夜子时年柱已按次日入新年，月柱仍为上一年丑月，也一并查找
+ * 3 日柱六十日一轮（epoch 日数取模），一个月内至多一两天
+ * 4 时柱由日干五鼠遁确定时辰；子时分早子（当日 0 点）与夜子（前一日 23 点，年、日柱按次日）
+ * 最后用月份起止（按真太阳时）与立春界限（按夜子时调整后的时间）裁剪时辰。
+ * 每个候选年份只做常数次计算，120 年范围只有两个候选年份。
+ */
+public final class BaZiReverseSearch {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int SECONDS_PER_HOUR = 3_600;
+    // 1970-01-01 日柱辛巳
+    private static final int EPOCH_DAY_JIA_ZI = 17;
+
+    private static final BaZiReverseSearch INSTANCE = new BaZiReverseSearch(SolarTermTable.getInstance());
+
+    private final SolarTermTable table;
+
+    BaZiReverseSearch(SolarTermTable table) {
+        this.table = table;
+    }
+
+    public static BaZiReverseSearch getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 可查询的首个干支年
+     */
+    public int getFirstYear() {
+        return table.getFirstYear();
+    }
+
+    /**
+     * 可查询的末个干支年（需要次年立春作为年末）
+     */
+    public int getLastYear() {
+        return table.getLastYear() - 1;
+    }
+
+    /**
+     * 四柱自身是否自洽：月干合年干五虎遁，时干合日干（或夜子时的次日日干）五鼠遁
+     */
+    public static boolean isConsistent(PackedBaZiChart chart) {
+        int month = monthOf(chart);
+        long[] slot = hourSlot(chart);
+        return month >= 0 && slot != null && (month > 0 || slot[2] > 0);
+    }
+
+    /**
+     * 查找干支年在 [fromYear, toYear] 内与八字相符的全部时间段，按时间先后排列
+     * @param longitude 经度，可为空；非空时结果换算回东八区钟表时间，否则为真太阳时
+     */
+    public List<BirthTimeWindow> search(PackedBaZiChart chart, int fromYear, int toYear, Double longitude) {
+        List<BirthTimeWindow> windows = new ArrayList<>();
+        int month = monthOf(chart);
+        long[] slot = hourSlot(chart);
+        if (month < 0 || slot == null || (month == 0 && slot[2] == 0)) {
+            return windows;
+        }
+        int from = Math.max(fromYear, getFirstYear());
+        int to = Math.min(toYear, getLastYear());
+        int nian = chart.jiaZi(PackedBaZiChart.NIAN);
+        // 第一个干支年相符的年份，此后每 60 年一次
+        int year = from + Math.floorMod(nian - GanZhi.yearJiaZi(from), GanZhi.JIA_ZI_COUNT);
+        for (; year <= to; year += GanZhi.JIA_ZI_COUNT) {
+            searchYear(chart.jiaZi(PackedBaZiChart.RI), year, month, slot, longitude, windows);
+        }
+        return windows;
+    }
+
+    private void searchYear(int ri, int year, int month, long[] slot, Double longitude,
+                            List<BirthTimeWindow> windows) {
+        int base = (year - table.getFirstYear()) * 12;
+        // 寅月为当年第 1 个节（立春），丑月为次年小寒，上一年丑月为当年小寒
+        long monthStart = table.jieSecond(base + month);
+        long monthEnd = table.jieSecond(base + month + 1);
+        long yearStart = table.jieSecond(base + 1);
+        long yearEnd = table.jieSecond(base + 13);
+
+        long offset = slot[0];
+        long length = slot[1];
+        long shift = slot[2];
+        long day = Math.floorDiv(monthStart, SECONDS_PER_DAY);
+        day += Math.floorMod(ri - EPOCH_DAY_JIA_ZI - day, GanZhi.JIA_ZI_COUNT);
+        for (; day * SECONDS_PER_DAY + offset < monthEnd; day += GanZhi.JIA_ZI_COUNT) {
+            long start = day * SECONDS_PER_DAY + offset;
+            // 月柱按真太阳时，年柱按夜子时调整后的时间
+            long clippedStart = Math.max(start, Math.max(monthStart, yearStart - shift));
+            long clippedEnd = Math.min(start + length, Math.min(monthEnd, yearEnd - shift));
+            if (clippedStart < clippedEnd) {
+                windows.add(toWindow(clippedStart, clippedEnd, longitude));
+            }
+        }
+    }
+
+    private static BirthTimeWindow toWindow(long start, long end, Double longitude) {
+        LocalDateTime solarStart = LocalDateTime.ofEpochSecond(start, 0, ZoneOffset.UTC);
+        LocalDateTime solarEnd = LocalDateTime.ofEpochSecond(end, 0, ZoneOffset.UTC);
+        if (longitude == null) {
+            return new BirthTimeWindow(solarStart, solarEnd);
+        }
+        // 一个时辰内均时差变化不足一秒，按开始日期统一换算
+        LocalDate date = solarStart.toLocalDate();
+        int offset = TrueSolarTime.offsetSeconds(date, longitude, TrueSolarTime.BEIJING_MERIDIAN);
+        return new BirthTimeWindow(solarStart.minusSeconds(offset), solarEnd.minusSeconds(offset));
+    }
+
+    /**
+     * 月柱在干支年中的月序（1 为寅月，12 为丑月，0 为上一年丑月），与年干不合时返回 -1
+     */
+    private static int monthOf(PackedBaZiChart chart) {
+        int yearStem = chart.stem(PackedBaZiChart.NIAN);
+        int yue = chart.jiaZi(PackedBaZiChart.YUE);
+        for (int month = 1; month <= 12; month++) {
+            if (GanZhi.monthJiaZi(yearStem, month) == yue) {
+                return month;
+            }
+        }
+        if (GanZhi.monthJiaZi((yearStem + 9) % 10, 12) == yue) {
+            return 0;
+        }
+        return -1;
+    }
+
+    /**
+     * 时柱相对日柱所在日零点的时间段：{起点秒, 长度秒, 年柱判定的偏移秒}，与日干不合时返回 null
+     */
+    private static long[] hourSlot(PackedBaZiChart chart) {
+        int riStem = chart.stem(PackedBaZiChart.RI);
+        int branch = chart.branch(PackedBaZiChart.SHI);
+        int stem = chart.stem(PackedBaZiChart.SHI);
+        if (branch != 0) {
+            if ((riStem % 5 * 2 + branch) % 10 != stem) {
+                return null;
+            }
+            return new long[]{(2L * branch - 1) * SECONDS_PER_HOUR, 2L * SECONDS_PER_HOUR, 0};
+        }
+        if (riStem % 5 * 2 % 10 == stem) {
+            // 早子时：当日 0 点
+            return new long[]{0, SECONDS_PER_HOUR, 0};
+        }
+        if ((riStem + 1) % 5 * 2 % 10 == stem) {
+            // 夜子时：前一日 23 点，日柱已按次日，时干随节气库再按次日起
+            return new long[]{-SECONDS_PER_HOUR, SECONDS_PER_HOUR, SECONDS_PER_DAY};
+        }
+        return null;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.PackedBaZiChart;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * 批量阳历时刻转八字
+ *
+ * 与 {@link DateToBaZiConverter#convert(LocalDateTime, Double)} 结果一致，但不建 Solar/Lunar 对象：
+ * 1 年柱、月柱：在 {@link SolarTermTable} 上二分查找（年柱按夜子时调整后的时刻，月柱按真太阳时）
+ * 2 日柱：epoch 日数取模，1970-01-01 为辛巳
+ * 3 时柱：地支按小时，天干按五鼠遁；23 点起的子时天干随次日，与节气库一致
+ * 节气表覆盖范围外的时刻退回节气库逐次计算。结果为 {@link PackedBaZiChart#code()} 编码。
+ * 实例只读，可多线程共享。
+ */
+public final class BulkBaZiConverter {
+
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int SECONDS_PER_HOUR = 3_600;
+    /**
+     * 1970-01-01（epoch 第 0 日）的日柱序号：辛巳
+     */
+    public static final int EPOCH_DAY_JIA_ZI = 17;
+    // 批量接口的时间戳按北京时间换算
+    private static final ZoneOffset BEIJING = ZoneOffset.ofHours(8);
+
+    private static final BulkBaZiConverter INSTANCE = new BulkBaZiConverter(SolarTermTable.getInstance());
+
+    private final SolarTermTable table;
+
+    BulkBaZiConverter(SolarTermTable table) {
+        this.table = table;
+    }
+
+    public static BulkBaZiConverter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param longitude 经度（东经为正），可为空；非空时按真太阳时换算
+     * @return 八字编码
+     */
+    public int convert(LocalDateTime dateTime, Double longitude) {
+        return convertSolarTime(TrueSolarTime.apply(dateTime, longitude));
+    }
+
+    /**
+     * 已换算为真太阳时（或不做换算）的时刻转八字编码
+     */
+    public int convertSolarTime(LocalDateTime solarTime) {
+        int code = tableCode(solarTime.toEpochSecond(ZoneOffset.UTC));
+        return code >= 0 ? code : libraryCode(solarTime, solarTime);
+    }
+
+    /**
+     * 东八区以外的时刻转八字编码：节气时刻按东八区记，年柱、月柱用同一时刻的北京时间比较节气，
+     * 日柱、时柱（含夜子时判断）仍按当地真太阳时
+     * @param solarTime 当地真太阳时
+     * @param beijingTime 同一时刻的北京时间
+     */
+    public int convertSolarTime(LocalDateTime solarTime, LocalDateTime beijingTime) {
+        int code = tableCode(solarTime.toEpochSecond(ZoneOffset.UTC), beijingTime.toEpochSecond(ZoneOffset.UTC));
+        return code >= 0 ? code : libraryCode(solarTime, beijingTime);
+    }
+
+    /**
+     * 批量转换，按下标一一对应，并行计算
+     * @param epochSeconds UTC 时间戳（秒），按北京时间取时刻
+     * @param longitude 经度，可为空，对整批生效
+     * @return 八字编码
+     */
+    public int[] convertAll(long[] epochSeconds, Double longitude) {
+        int longitudeOffset = longitude == null ? 0
+                : TrueSolarTime.longitudeOffsetSeconds(longitude, TrueSolarTime.BEIJING_MERIDIAN);
+        int[] codes = new int[epochSeconds.length];
+        Arrays.parallelSetAll(codes, i -> {
+            long localSecond = epochSeconds[i] + BEIJING.getTotalSeconds();
+            if (longitude != null) {
+                // 均时差按钟表时间的日期查表
+                LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(localSecond, SECONDS_PER_DAY));
+                localSecond += longitudeOffset + TrueSolarTime.equationOfTimeSeconds(date);
+            }
+            int code = tableCode(localSecond);
+            if (code >= 0) {
+                return code;
+            }
+            LocalDateTime solarTime = LocalDateTime.ofEpochSecond(localSecond, 0, ZoneOffset.UTC);
+            return libraryCode(solarTime, solarTime);
+        });
+        return codes;
+    }
+
+    /**
+     * 八字编码转字符串，格式：乙酉 己丑 甲辰 戊辰
+     */
+    public static String format(int code) {
+        return GanZhi.jiaZiName(code / 216000) + " " + GanZhi.jiaZiName(code / 3600 % 60) + " "
+                + GanZhi.jiaZiName(code / 60 % 60) + " " + GanZhi.jiaZiName(code % 60);
+    }
+
+    /**
+     * 节气表内的纯算术换算，超出范围返回 -1
+     * @param localSecond 真太阳时按 UTC 换算的 epoch 秒
+     */
+    int tableCode(long localSecond) {
+        return tableCode(localSecond, localSecond);
+    }
+
+    /**
+     * @param localSecond 真太阳时按 UTC 换算的 epoch 秒，定日柱、时柱
+     * @param termSecond 与节气比较的时刻（北京时间）按 UTC 换算的 epoch 秒，定年柱、月柱
+     */
+    int tableCode(long localSecond, long termSecond) {
+        int hour = Math.floorMod(localSecond, SECONDS_PER_DAY) / SECONDS_PER_HOUR;
+        // 夜子时：23:00-23:59 年、日、时三柱按次日
+        int nightZi = hour == 23 ? SECONDS_PER_DAY : 0;
+        long adjusted = localSecond + nightZi;
+        long termAdjusted = termSecond + nightZi;
+        if (!table.covers(termSecond) || !table.covers(termAdjusted)) {
+            return -1;
+        }
+        int yue = table.monthJiaZi(termSecond);
+        int nian = table.yearJiaZi(termAdjusted);
+        int ri = Math.floorMod(Math.floorDiv(adjusted, SECONDS_PER_DAY) + EPOCH_DAY_JIA_ZI, GanZhi.JIA_ZI_COUNT);
+        int branch = (hour + 1) / 2 % 12;
+        // 节气库在 23 点按次日日干起时干，叠加夜子时调整后即再后一日
+        int dayStem = GanZhi.stemOf(hour == 23 ? (ri + 1) % GanZhi.JIA_ZI_COUNT : ri);
+        int shi = GanZhi.jiaZi((dayStem % 5 * 2 + branch) % 10, branch);
+        return PackedBaZiChart.code(nian, yue, ri, shi);
+    }
+
+    private static int libraryCode(LocalDateTime solarTime, LocalDateTime beijingTime) {
+        return PackedBaZiChart.parse(DateToBaZiConverter.convertWithLibrary(solarTime, beijingTime)).code();
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.model.SimilarChart;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 相似八字倒排索引
+ *
+ * 每条记录分配一个连续的内部序号，按以下特征各建一组位图（BitSet，下标为内部序号）：
+ * 1 四柱各柱的六十甲子（4 x 60）
+ * 2 月令（月支，12）
+ * 3 十神格局：年、月、时三干透出的十神集合（10 位掩码）
+ * 4 五行分布：八字八个字的五行计数，共 495 种组合
+ * 查询先对日柱、月令（及十神格局）位图求交，百万条记录时为若干次约 15K 个 long 的按位与；
+ * 五行分布精确匹配再与对应位图求交，放宽容差时只在交集内逐条比对分布序号，不扫描全部记录。
+ * 另按所属用户建位图，查询只在调用者自己的记录内求交，不会返回他人的记录。
+ * 写入、删除为增量更新，读写锁保护；覆盖写入沿用原序号，删除空出的序号由后续写入复用。
+ *
+ * 启动时的全量加载与增量更新并行：{@link #beginLoad()} 之后被增量写入、删除过的记录
+ * （以及被整体删除的用户）记为已变更，{@link #load} 不再用加载时读到的旧数据覆盖或复活它们。
+ */
+public final class ChartSimilarityIndex {
+
+    public static final int ELEMENT_COUNT = 5;
+    public static final int CHAR_COUNT = 8;
+
+    // 五行分布：计数按 9 进制编码 → 组合序号
+    private static final int[] HISTOGRAM_ORDINAL = new int[9 * 9 * 9 * 9 * 9];
+    private static final int[][] HISTOGRAMS;
+
+    static {
+        Arrays.fill(HISTOGRAM_ORDINAL, -1);
+        List<int[]> all = new ArrayList<>();
+        for (int a = 0; a <= CHAR_COUNT; a++) {
+            for (int b = 0; a + b <= CHAR_COUNT; b++) {
+                for (int c = 0; a + b + c <= CHAR_COUNT; c++) {
+                    for (int d = 0; a + b + c + d <= CHAR_COUNT; d++) {
+                        int[] histogram = {a, b, c, d, CHAR_COUNT - a - b - c - d};
+                        HISTOGRAM_ORDINAL[histogramCode(histogram)] = all.size();
+                        all.add(histogram);
+                    }
+                }
+            }
+        }
+        HISTOGRAMS = all.toArray(new int[0][]);
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final BitSet[] byPillar = newBitSets(PackedBaZiChart.PILLAR_COUNT * GanZhi.JIA_ZI_COUNT);
+    private final BitSet[] byMonthBranch = newBitSets(GanZhi.BRANCH_COUNT);
+    private final BitSet[] byHistogram = newBitSets(HISTOGRAMS.length);
+    private final Map<Integer, BitSet> byPattern = new HashMap<>();
+    private final Map<Long, BitSet> byUser = new HashMap<>();
+    private final BitSet free = new BitSet();
+
+    private final Map<Long, Integer> docOf = new HashMap<>();
+    private long[] recordIds = new long[1024];
+    private long[] userIds = new long[1024];
+    private int[] chartCodes = new int[1024];
+    private short[] histogramOrdinals = new short[1024];
+    private int nextDoc;
+
+    // 全量加载期间增量变更过的记录与用户，不在加载时为 null
+    private Set<Long> changedRecords;
+    private Set<Long> changedUsers;
+
+    private static BitSet[] newBitSets(int n) {
+        BitSet[] sets = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            sets[i] = new BitSet();
+        }
+        return sets;
+    }
+
+    /**
+     * 写入或覆盖一条记录
+     * @param userId 记录所属用户，可为空
+     */
+    public void put(long recordId, Long userId, PackedBaZiChart chart) {
+        lock.writeLock().lock();
+        try {
+            markChanged(recordId);
+            putLocked(recordId, userId, chart);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long recordId) {
+        lock.writeLock().lock();
+        try {
+            markChanged(recordId);
+            removeLocked(recordId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 开始全量加载，此后的增量变更会被记下
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            changedRecords = new HashSet<>();
+            changedUsers = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 写入全量加载读到的记录；加载开始后已被增量写入、删除过的记录不覆盖
+     * @return 是否写入
+     */
+    public boolean load(long recordId, Long userId, PackedBaZiChart chart) {
+        lock.writeLock().lock();
+        try {
+            if (changedRecords != null
+                    && (changedRecords.contains(recordId) || userId != null && changedUsers.contains(userId))) {
+                return false;
+            }
+            putLocked(recordId, userId, chart);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endLoad() {
+        lock.writeLock().lock();
+        try {
+            changedRecords = null;
+            changedUsers = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除某用户的全部记录
+     */
+    public void removeUser(long userId) {
+        lock.writeLock().lock();
+        try {
+            if (changedUsers != null) {
+                changedUsers.add(userId);
+            }
+            BitSet docs = byUser.get(userId);
+            if (docs == null) {
+                return;
+            }
+            docs = (BitSet) docs.clone();
+            for (int doc = docs.nextSetBit(0); doc >= 0; doc = docs.nextSetBit(doc + 1)) {
+                removeLocked(recordIds[doc]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 某用户已索引的记录数
+     */
+    public int size(long userId) {
+        lock.readLock().lock();
+        try {
+            BitSet docs = byUser.get(userId);
+            return docs != null ? docs.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在 userId 的记录中查找日柱、月令相同，五行分布相差不超过 tolerance 个字的记录，
+     * samePattern 为真时还要求透干十神相同。按内部序号取前 limit 条。
+     * @param excludeRecordId 排除的记录（通常是当前查看的这条记录），可为空
+     */
+    public SimilarityResult query(PackedBaZiChart chart, long userId, int tolerance, boolean samePattern,
+                                  int limit, Long excludeRecordId) {
+        int[] histogram = histogram(chart);
+        lock.readLock().lock();
+        try {
+            BitSet own = byUser.get(userId);
+            if (own == null) {
+                return new SimilarityResult(0, List.of());
+            }
+            BitSet hits = (BitSet) own.clone();
+            hits.and(byPillar[pillarKey(PackedBaZiChart.RI, chart.jiaZi(PackedBaZiChart.RI))]);
+            hits.and(byMonthBranch[chart.branch(PackedBaZiChart.YUE)]);
+            if (samePattern) {
+                BitSet pattern = byPattern.get(pattern(chart));
+                if (pattern == null) {
+                    return new SimilarityResult(0, List.of());
+                }
+                hits.and(pattern);
+            }
+            if (tolerance <= 0) {
+                hits.and(byHistogram[HISTOGRAM_ORDINAL[histogramCode(histogram)]]);
+            } else {
+                // 日柱、月令求交后已很稀疏，逐条比对分布比并上几十组五行位图更省
+                boolean[] near = new boolean[HISTOGRAMS.length];
+                for (int i = 0; i < HISTOGRAMS.length; i++) {
+                    near[i] = distance(histogram, HISTOGRAMS[i]) <= tolerance;
+                }
+                for (int doc = hits.nextSetBit(0); doc >= 0; doc = hits.nextSetBit(doc + 1)) {
+                    if (!near[histogramOrdinals[doc]]) {
+                        hits.clear(doc);
+                    }
+                }
+            }
+            if (excludeRecordId != null) {
+                Integer doc = docOf.get(excludeRecordId);
+                if (doc != null) {
+                    hits.clear(doc);
+                }
+            }
+
+            List<SimilarChart> matches = new ArrayList<>(Math.min(limit, hits.cardinality()));
+            for (int doc = hits.nextSetBit(0); doc >= 0 && matches.size() < limit; doc = hits.nextSetBit(doc + 1)) {
+                PackedBaZiChart other = PackedBaZiChart.fromCode(chartCodes[doc]);
+                matches.add(new SimilarChart(recordIds[doc], other.toString(), distance(histogram, histogram(other))));
+            }
+            return new SimilarityResult(hits.cardinality(), matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查询结果：命中总数与前若干条
+     */
+    public record SimilarityResult(int total, List<SimilarChart> matches) {
+    }
+
+    /**
+     * 八字八个字的五行计数，下标为五行编码
+     */
+    public static int[] histogram(PackedBaZiChart chart) {
+        int[] counts = new int[ELEMENT_COUNT];
+        for (int p = 0; p < PackedBaZiChart.PILLAR_COUNT; p++) {
+            counts[GanZhi.stemWuXing(chart.stem(p))]++;
+            counts[GanZhi.branchWuXing(chart.branch(p))]++;
+        }
+        return counts;
+    }
+
+    /**
+     * 两种五行分布相差的字数（需挪动几个字才能一致）
+     */
+    public static int distance(int[] a, int[] b) {
+        int sum = 0;
+        for (int i = 0; i < ELEMENT_COUNT; i++) {
+            sum += Math.abs(a[i] - b[i]);
+        }
+        return sum / 2;
+    }
+
+    /**
+     * 透干十神：年、月、时三干相对日干的十神集合
+     */
+    static int pattern(PackedBaZiChart chart) {
+        return 1 << chart.stemShiShen(PackedBaZiChart.NIAN).ordinal()
+                | 1 << chart.stemShiShen(PackedBaZiChart.YUE).ordinal()
+                | 1 << chart.stemShiShen(PackedBaZiChart.SHI).ordinal();
+    }
+
+    private static int histogramCode(int[] histogram) {
+        int code = 0;
+        for (int count : histogram) {
+            code = code * 9 + count;
+        }
+        return code;
+    }
+
+    private static int pillarKey(int pillar, int jiaZi) {
+        return pillar * GanZhi.JIA_ZI_COUNT + jiaZi;
+    }
+
+    private List<BitSet> featureSets(PackedBaZiChart chart) {
+        List<BitSet> sets = new ArrayList<>(PackedBaZiChart.PILLAR_COUNT + 3);
+        for (int p = 0; p < PackedBaZiChart.PILLAR_COUNT; p++) {
+            sets.add(byPillar[pillarKey(p, chart.jiaZi(p))]);
+        }
+        sets.add(byMonthBranch[chart.branch(PackedBaZiChart.YUE)]);
+        sets.add(byHistogram[HISTOGRAM_ORDINAL[histogramCode(histogram(chart))]]);
+        sets.add(byPattern.computeIfAbsent(pattern(chart), k -> new BitSet()));
+        return sets;
+    }
+
+    private void markChanged(long recordId) {
+        if (changedRecords != null) {
+            changedRecords.add(recordId);
+        }
+    }
+
+    private void putLocked(long recordId, Long userId, PackedBaZiChart chart) {
+        Integer existing = docOf.get(recordId);
+        int doc;
+        if (existing != null) {
+            clearLocked(existing);
+            doc = existing;
+        } else {
+            doc = free.nextSetBit(0);
+            if (doc >= 0) {
+                free.clear(doc);
+            } else {
+                doc = nextDoc++;
+                ensureCapacity(doc);
+            }
+            docOf.put(recordId, doc);
+        }
+        recordIds[doc] = recordId;
+        userIds[doc] = userId != null ? userId : -1;
+        chartCodes[doc] = chart.code();
+        histogramOrdinals[doc] = (short) HISTOGRAM_ORDINAL[histogramCode(histogram(chart))];
+        for (BitSet set : featureSets(chart)) {
+            set.set(doc);
+        }
+        byUser.computeIfAbsent(userIds[doc], k -> new BitSet()).set(doc);
+    }
+
+    private void removeLocked(long recordId) {
+        Integer doc = docOf.remove(recordId);
+        if (doc == null) {
+            return;
+        }
+        clearLocked(doc);
+        free.set(doc);
+    }
+
+    /**
+     * 清掉序号 doc 在各位图中的位，序号本身的归属由调用方处理
+     */
+    private void clearLocked(int doc) {
+        for (BitSet set : featureSets(PackedBaZiChart.fromCode(chartCodes[doc]))) {
+            set.clear(doc);
+        }
+        BitSet owned = byUser.get(userIds[doc]);
+        if (owned != null) {
+            owned.clear(doc);
+            if (owned.isEmpty()) {
+                byUser.remove(userIds[doc]);
+            }
+        }
+    }
+
+    private void ensureCapacity(int doc) {
+        if (doc < recordIds.length) {
+            return;
+        }
+        int capacity = recordIds.length * 2;
+        recordIds = Arrays.copyOf(recordIds, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        chartCodes = Arrays.copyOf(chartCodes, capacity);
+        histogramOrdinals = Arrays.copyOf(histogramOrdinals, capacity);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.bazi.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * 城市经度索引
+ *
+ * 启动时从 classpath 下 bazi/cities.csv 读入常用城市的经纬度和 IANA 时区，
+ * 中文名与英文/拼音别名都建索引（忽略大小写、首尾空白和末尾的"市"），
+ * 客户端可直接传城市名，不必先自行查经度。
+ * 时区偏移按出生时刻从时区规则中取，夏令时和历史上的时区变更都计入。
+ */
+@Slf4j
+public final class CityLongitudeIndex {
+
+    private static final String RESOURCE = "/bazi/cities.csv";
+    // 节气时刻按东八区记，不随 Asia/Shanghai 的历史夏令时变化
+    private static final ZoneOffset BEIJING = ZoneOffset.ofHours(8);
+
+    /**
+     * @param zone 城市所在时区
+     */
+    public record City(String name, double longitude, double latitude, ZoneId zone) {
+
+        /**
+         * 当地钟表时间在该时刻的 UTC 偏移（含夏令时）；夏令时跳过的时间按跳变后的偏移
+         */
+        public ZoneOffset offsetAt(LocalDateTime localTime) {
+            return ZonedDateTime.of(localTime, zone).getOffset();
+        }
+
+        /**
+         * 当地钟表时间所用时区的中央经线
+         */
+        public double standardMeridian(LocalDateTime localTime) {
+            return offsetAt(localTime).getTotalSeconds() / 240d;
+        }
+
+        /**
+         * 当地钟表时间换算为同一时刻的北京时间
+         */
+        public LocalDateTime toBeijingTime(LocalDateTime localTime) {
+            return ZonedDateTime.of(localTime, zone).withZoneSameInstant(BEIJING).toLocalDateTime();
+        }
+    }
+
+    private final Map<String, City> index;
+    private final List<City> cities;
+
+    CityLongitudeIndex(List<City> cities, Map<String, City> index) {
+        this.cities = List.copyOf(cities);
+        this.index = Map.copyOf(index);
+    }
+
+    public static CityLongitudeIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        static final CityLongitudeIndex INSTANCE = loadOrEmpty();
+    }
+
+    private static CityLongitudeIndex loadOrEmpty() {
+        try (InputStream in = CityLongitudeIndex.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IOException("找不到 " + RESOURCE);
+            }
+            return parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        } catch (IOException | RuntimeException e) {
+            log.warn("城市经度表加载失败，城市名换算不可用: {}", e.getMessage());
+            return new CityLongitudeIndex(List.of(), Map.of());
+        }
+    }
+
+    /**
+     * 每行：城市名,别名(|分隔),经度,纬度,IANA 时区；# 开头为注释
+     */
+    static CityLongitudeIndex parse(BufferedReader reader) throws IOException {
+        List<City> cities = new ArrayList<>();
+        Map<String, City> index = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split(",");
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("城市经度表格式错误: " + line);
+            }
+            City city = new City(parts[0].trim(), Double.parseDouble(parts[2].trim()),
+                    Double.parseDouble(parts[3].trim()), parseZone(parts[4].trim(), line));
+            cities.add(city);
+            index.putIfAbsent(normalize(city.name()), city);
+            for (String alias : parts[1].split("\\|")) {
+                if (!alias.isBlank()) {
+                    index.putIfAbsent(normalize(alias), city);
+                }
+            }
+        }
+        return new CityLongitudeIndex(cities, index);
+    }
+
+    private static ZoneId parseZone(String zone, String line) {
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("城市经度表时区错误: " + line, e);
+        }
+    }
+
+    /**
+     * 按城市名或别名查找
+     */
+    public Optional<City> find(String name) {
+        if (name == null || name.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(index.get(normalize(name)));
+    }
+
+    /**
+     * 全部城市，按表中顺序
+     */
+    public List<City> getCities() {
+        return cities;
+    }
+
+    private static String normalize(String name) {
+        String key = name.trim().toLowerCase(Locale.ROOT);
+        return key.length() > 1 && key.endsWith("市") ? key.substring(0, key.length() - 1) : key;
+    }
+}
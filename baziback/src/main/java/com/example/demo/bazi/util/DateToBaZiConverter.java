@@ -1,6 +1,6 @@
 package com.example.demo.bazi.util;
 
-import com.nlf.calendar.Lunar;
+import com.example.demo.bazi.constants.GanZhi;
 import com.nlf.calendar.Solar;
 
 import java.math.BigDecimal;
@@ -15,13 +15,14 @@ import java.util.Map;
  *
  * 规则：
  * 1 年柱：以立春为界（库内实现）
- * 2 月柱：以节气为界（精确到分钟，库内实现）
- * 3 日柱：库内按历法计算
+ * 2 月柱：以节气为界（精确到秒，1900-2100 年查 {@link SolarTermTable}，其余年份由库计算）
+ * 3 日柱：按历法计算（节气表范围内由 {@link BulkBaZiConverter} 直接算出，不建 Lunar 对象）
  * 4 时柱：子时 23:00-00:59（库内实现）
  * 5 夜子时规则：23:00-23:59 日柱按次日（本实现叠加）
- * 6 真太阳时换算（可选）：按经度修正时间： (longitude - 120) * 4 分钟
- *   - 120°E 为东八区中央经线
- *   - 经度东偏(>120) 真太阳时更早，经度西偏(<120) 真太阳时更晚
+ * 6 真太阳时换算（可选）：经度时差 (longitude - 中央经线) * 4 分钟，再加当日均时差，见 {@link TrueSolarTime}
+ *   - 按经度换算时输入视为东八区时间，中央经线 120°E
+ *   - 按城市换算时输入视为该城市当地钟表时间，中央经线取出生时刻所用的时区偏移（含夏令时）；
+ *     节气时刻按东八区记，年柱、月柱改用同一时刻的北京时间比较节气，日柱、时柱仍按当地真太阳时
  */
 public class DateToBaZiConverter {
 
@@ -32,7 +33,7 @@ public class DateToBaZiConverter {
      * 默认：不做真太阳时换算
      */
     public static String convert(String dateTimeStr) {
-        return convert(dateTimeStr, null);
+        return convert(dateTimeStr, (Double) null);
     }
 
     /**
@@ -44,50 +45,60 @@ public class DateToBaZiConverter {
     }
 
     public static String convert(LocalDateTime dateTime) {
-        return convert(dateTime, null);
+        return convert(dateTime, (Double) null);
     }
 
     public static String convert(LocalDateTime dateTime, Double longitude) {
-        // 第一步：应用真太阳时换算
-        LocalDateTime solarTime = applyTrueSolarTime(dateTime, longitude);
-        
-        // 第二步：计算月柱（基于真太阳时，不受夜子时影响）
-        Solar solarForMonth = Solar.fromYmdHms(
-                solarTime.getYear(),
-                solarTime.getMonthValue(),
-                solarTime.getDayOfMonth(),
-                solarTime.getHour(),
-                solarTime.getMinute(),
-                solarTime.getSecond()
-        );
-        Lunar lunarForMonth = solarForMonth.getLunar();
-        String monthPillar = lunarForMonth.getEightChar().getMonth();
-        
-        // 第三步：处理夜子时（只影响日柱和时柱）
-        LocalDateTime adjusted = adjustForNightZiHour(solarTime);
-        
-        // 第四步：计算其他三柱
-        Solar solar = Solar.fromYmdHms(
-                adjusted.getYear(),
-                adjusted.getMonthValue(),
-                adjusted.getDayOfMonth(),
-                adjusted.getHour(),
-                adjusted.getMinute(),
-                adjusted.getSecond()
-        );
-        Lunar lunar = solar.getLunar();
-        var eightChar = lunar.getEightChar();
+        return BulkBaZiConverter.format(BulkBaZiConverter.getInstance().convert(dateTime, longitude));
+    }
+
+    /**
+     * @param dateTimeStr 城市当地钟表时间
+     */
+    public static String convert(String dateTimeStr, CityLongitudeIndex.City city) {
+        return convert(LocalDateTime.parse(dateTimeStr, INPUT_FMT), city);
+    }
+
+    /**
+     * @param dateTime 城市当地钟表时间
+     */
+    public static String convert(LocalDateTime dateTime, CityLongitudeIndex.City city) {
+        LocalDateTime solarTime = TrueSolarTime.apply(dateTime, city.longitude(), city.standardMeridian(dateTime));
+        return BulkBaZiConverter.format(
+                BulkBaZiConverter.getInstance().convertSolarTime(solarTime, city.toBeijingTime(dateTime)));
+    }
+
+    /**
+     * 完全由节气库计算四柱，{@link BulkBaZiConverter} 在节气表范围外退回此处，也作为其校验基准
+     * @param solarTime 已换算的真太阳时
+     */
+    static String convertWithLibrary(LocalDateTime solarTime) {
+        return convertWithLibrary(solarTime, solarTime);
+    }
+
+    /**
+     * @param solarTime 当地真太阳时，定日柱、时柱
+     * @param beijingTime 与节气比较的北京时间，定年柱、月柱
+     */
+    static String convertWithLibrary(LocalDateTime solarTime, LocalDateTime beijingTime) {
+        // 月柱以节气为界，不受夜子时影响
+        String monthPillar = toSolar(beijingTime).getLunar().getEightChar().getMonth();
+
+        // 夜子时（按当地真太阳时判断）只影响年、日、时三柱
+        boolean nightZi = solarTime.getHour() == 23;
+        String yearPillar = toSolar(nightZi ? beijingTime.plusDays(1) : beijingTime).getLunar().getEightChar().getYear();
+        var eightChar = toSolar(adjustForNightZiHour(solarTime)).getLunar().getEightChar();
 
         return String.join(" ",
-                eightChar.getYear(),
-                monthPillar,  // 使用基于真太阳时的月柱
+                yearPillar,
+                monthPillar,
                 eightChar.getDay(),
                 eightChar.getTime()
         );
     }
 
     public static Map<String, Object> convertDetailed(String dateTimeStr, boolean isMale) {
-        return convertDetailed(dateTimeStr, isMale, null);
+        return convertDetailed(dateTimeStr, isMale, (Double) null);
     }
 
     public static Map<String, Object> convertDetailed(String dateTimeStr, boolean isMale, Double longitude) {
@@ -96,45 +107,49 @@ public class DateToBaZiConverter {
     }
 
     public static Map<String, Object> convertDetailed(LocalDateTime dateTime, boolean isMale) {
-        return convertDetailed(dateTime, isMale, null);
+        return convertDetailed(dateTime, isMale, (Double) null);
     }
 
     public static Map<String, Object> convertDetailed(LocalDateTime dateTime, boolean isMale, Double longitude) {
+        return convertDetailed(dateTime, isMale, longitude, TrueSolarTime.BEIJING_MERIDIAN, null);
+    }
+
+    public static Map<String, Object> convertDetailed(String dateTimeStr, boolean isMale, CityLongitudeIndex.City city) {
+        return convertDetailed(LocalDateTime.parse(dateTimeStr, INPUT_FMT), isMale, city);
+    }
+
+    /**
+     * @param dateTime 城市当地钟表时间
+     */
+    public static Map<String, Object> convertDetailed(LocalDateTime dateTime, boolean isMale, CityLongitudeIndex.City city) {
+        Map<String, Object> result = convertDetailed(dateTime, isMale, city.longitude(), city.standardMeridian(dateTime),
+                city.toBeijingTime(dateTime));
+        Map<String, Object> withCity = new LinkedHashMap<>();
+        withCity.put("出生时间", result.remove("出生时间"));
+        withCity.put("城市", city.name());
+        withCity.put("时区", city.zone().getId());
+        withCity.put("时区偏移分钟", city.offsetAt(dateTime).getTotalSeconds() / 60);
+        withCity.putAll(result);
+        return withCity;
+    }
+
+    /**
+     * @param beijingTime 按城市换算时与节气比较的北京时间；为空时年柱、月柱也按真太阳时
+     */
+    private static Map<String, Object> convertDetailed(LocalDateTime dateTime, boolean isMale,
+                                                       Double longitude, double standardMeridian,
+                                                       LocalDateTime beijingTime) {
         // 第一步：应用真太阳时换算（如果提供经度）
-        LocalDateTime solarTime = applyTrueSolarTime(dateTime, longitude);
-        
-        // 第二步：计算月柱（必须在夜子时调整之前，因为月柱以节气为界，不受夜子时影响）
-        // 月柱的计算应该基于真太阳时，而不是调整后的时间
-        Solar solarForMonth = Solar.fromYmdHms(
-                solarTime.getYear(),
-                solarTime.getMonthValue(),
-                solarTime.getDayOfMonth(),
-                solarTime.getHour(),
-                solarTime.getMinute(),
-                solarTime.getSecond()
-        );
-        Lunar lunarForMonth = solarForMonth.getLunar();
-        String monthPillar = lunarForMonth.getEightChar().getMonth();
+        LocalDateTime solarTime = TrueSolarTime.apply(dateTime, longitude, standardMeridian);
+        LocalDateTime termTime = beijingTime != null ? beijingTime : solarTime;
         
-        // 第三步：处理夜子时（只影响日柱和时柱，不影响月柱）
+        // 第二步：四柱（月柱以节气为界，年、日、时三柱按夜子时调整后的时间）
         LocalDateTime adjusted = adjustForNightZiHour(solarTime);
-        
-        // 第四步：计算其他三柱（年柱、日柱、时柱）
-        Solar solar = Solar.fromYmdHms(
-                adjusted.getYear(),
-                adjusted.getMonthValue(),
-                adjusted.getDayOfMonth(),
-                adjusted.getHour(),
-                adjusted.getMinute(),
-                adjusted.getSecond()
-        );
-        Lunar lunar = solar.getLunar();
-        var eightChar = lunar.getEightChar();
-
-        String yearPillar = eightChar.getYear();
-        // 月柱使用基于真太阳时的计算结果，确保节气边界准确
-        String dayPillar = eightChar.getDay();
-        String hourPillar = eightChar.getTime();
+        int code = BulkBaZiConverter.getInstance().convertSolarTime(solarTime, termTime);
+        String yearPillar = GanZhi.jiaZiName(code / 216000);
+        String monthPillar = GanZhi.jiaZiName(code / 3600 % 60);
+        String dayPillar = GanZhi.jiaZiName(code / 60 % 60);
+        String hourPillar = GanZhi.jiaZiName(code % 60);
         String baZi = String.join(" ", yearPillar, monthPillar, dayPillar, hourPillar);
 
         Map<String, Object> result = new LinkedHashMap<>();
@@ -143,7 +158,9 @@ public class DateToBaZiConverter {
         if (longitude != null) {
             result.put("经度", round(longitude));
             result.put("真太阳时", solarTime.format(DISPLAY_FMT));
-            result.put("真太阳时偏移分钟", calcTrueSolarOffsetMinutes(longitude));
+            int offsetSeconds = TrueSolarTime.offsetSeconds(dateTime.toLocalDate(), longitude, standardMeridian);
+            result.put("真太阳时偏移分钟", Math.round(offsetSeconds / 60f));
+            result.put("均时差分钟", round(TrueSolarTime.equationOfTimeSeconds(dateTime.toLocalDate()) / 60d));
         }
 
         result.put("计算用时间", adjusted.format(DISPLAY_FMT));
@@ -171,28 +188,38 @@ public class DateToBaZiConverter {
         pillarsDetail.put("时", pillarDetail(hourPillar));
         result.put("四柱详情", pillarsDetail);
 
-        // 当前节气（用于解释月柱边界）- 使用真太阳时对应的节气
-        result.put("节气", lunarForMonth.getJieQi());
-        result.put("月柱计算说明", "月柱严格按照节气边界计算，基于真太阳时，不受夜子时调整影响");
+        // 当前节气（用于解释月柱边界）- 使用与节气比较的时刻
+        result.put("节气", jieQiOn(termTime));
+        if (beijingTime != null) {
+            result.put("北京时间", beijingTime.format(DISPLAY_FMT));
+            result.put("月柱计算说明", "年柱、月柱按同一时刻的北京时间比较节气，日柱、时柱按当地真太阳时，月柱不受夜子时调整影响");
+        } else {
+            result.put("月柱计算说明", "月柱严格按照节气边界计算，基于真太阳时，不受夜子时调整影响");
+        }
 
         return result;
     }
 
     /**
-     * 真太阳时换算
-     * offsetMinutes = (longitude - 120) * 4
+     * 当天的节气名（非交节日为空串）
      */
-    private static LocalDateTime applyTrueSolarTime(LocalDateTime dateTime, Double longitude) {
-        if (longitude == null) {
-            return dateTime;
+    private static String jieQiOn(LocalDateTime solarTime) {
+        SolarTermTable table = SolarTermTable.getInstance();
+        if (table.covers(solarTime)) {
+            return table.termNameOn(solarTime.toLocalDate());
         }
-        int offsetMinutes = calcTrueSolarOffsetMinutes(longitude);
-        return dateTime.plusMinutes(offsetMinutes);
+        return toSolar(solarTime).getLunar().getJieQi();
     }
 
-    private static int calcTrueSolarOffsetMinutes(Double longitude) {
-        // 四舍五入到分钟
-        return (int) Math.round((longitude - 120d) * 4d);
+    private static Solar toSolar(LocalDateTime dateTime) {
+        return Solar.fromYmdHms(
+                dateTime.getYear(),
+                dateTime.getMonthValue(),
+                dateTime.getDayOfMonth(),
+                dateTime.getHour(),
+                dateTime.getMinute(),
+                dateTime.getSecond()
+        );
     }
 
     private static LocalDateTime adjustForNightZiHour(LocalDateTime dateTime) {
@@ -0,0 +1,203 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.nlf.calendar.Solar;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 节气时刻表（1900-2100）
+ *
+ * 首次使用时按年向节气库取一次当年 24 节气的精确时刻（北京时间，精确到秒），
+ * 存为按时间递增的 long 数组，约 40KB。此后定月柱、定年柱、查某天的节气
+ * 都只是一次二分查找，不再做完整的农历换算。覆盖范围外的时刻由调用方自行计算。
+ */
+@Slf4j
+public final class SolarTermTable {
+
+    public static final int FIRST_YEAR = 1900;
+    public static final int LAST_YEAR = 2100;
+    public static final int TERMS_PER_YEAR = 24;
+
+    // 每年按时间顺序，小寒起；偶数下标为"节"（定月），奇数下标为"气"
+    public static final String[] TERM_NAMES = {
+        "小寒", "大寒", "立春", "雨水", "惊蛰", "春分", "清明", "谷雨",
+        "立夏", "小满", "芒种", "夏至", "小暑", "大暑", "立秋", "处暑",
+        "白露", "秋分", "寒露", "霜降", "立冬", "小雪", "大雪", "冬至"
+    };
+
+    private final int firstYear;
+    // 北京时间按 UTC 换算的 epoch 秒，仅作比较用
+    private final long[] instants;
+    // 末年次年元旦零点，覆盖范围的上界（不含）
+    private final long endSecond;
+
+    SolarTermTable(int firstYear, long[] instants) {
+        if (instants.length % TERMS_PER_YEAR != 0) {
+            throw new IllegalArgumentException("节气表长度应为24的整数倍: " + instants.length);
+        }
+        this.firstYear = firstYear;
+        this.instants = instants;
+        this.endSecond = LocalDate.of(getLastYear() + 1, 1, 1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static SolarTermTable getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        static final SolarTermTable INSTANCE = loadOrEmpty();
+    }
+
+    private static SolarTermTable loadOrEmpty() {
+        try {
+            return load(FIRST_YEAR, LAST_YEAR);
+        } catch (RuntimeException e) {
+            // 节气库数据不全时不启用节气表，调用方退回逐次计算
+            log.warn("节气表加载失败，退回节气库逐次计算: {}", e.getMessage());
+            return new SolarTermTable(FIRST_YEAR, new long[0]);
+        }
+    }
+
+    /**
+     * 从节气库加载指定年份范围
+     */
+    static SolarTermTable load(int firstYear, int lastYear) {
+        long[] instants = new long[(lastYear - firstYear + 1) * TERMS_PER_YEAR];
+        for (int year = firstYear; year <= lastYear; year++) {
+            // 年中的农历年节气表含当年小寒至大雪；当年冬至以拼音键给出，中文"冬至"是上一年的
+            Map<String, Solar> table = Solar.fromYmd(year, 6, 1).getLunar().getJieQiTable();
+            for (int i = 0; i < TERMS_PER_YEAR; i++) {
+                String key = i == TERMS_PER_YEAR - 1 ? "DONG_ZHI" : TERM_NAMES[i];
+                Solar solar = table.get(key);
+                if (solar == null || solar.getYear() != year) {
+                    throw new IllegalStateException("节气库缺少 " + year + " 年" + TERM_NAMES[i]);
+                }
+                instants[(year - firstYear) * TERMS_PER_YEAR + i] = LocalDateTime.of(
+                        solar.getYear(), solar.getMonth(), solar.getDay(),
+                        solar.getHour(), solar.getMinute(), solar.getSecond()).toEpochSecond(ZoneOffset.UTC);
+            }
+        }
+        return new SolarTermTable(firstYear, instants);
+    }
+
+    public int getFirstYear() { return firstYear; }
+
+    public int getLastYear() { return firstYear + instants.length / TERMS_PER_YEAR - 1; }
+
+    /**
+     * 时刻是否在表的覆盖范围内（首年小寒至末年年底）
+     */
+    public boolean covers(LocalDateTime time) {
+        return covers(time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * @param localSecond 北京时间按 UTC 换算的 epoch 秒
+     */
+    public boolean covers(long localSecond) {
+        return localSecond < endSecond && indexOf(localSecond) >= 0;
+    }
+
+    /**
+     * 节气时刻
+     * @param term 当年节气序号，见 {@link #TERM_NAMES}
+     */
+    public LocalDateTime instant(int year, int term) {
+        return LocalDateTime.ofEpochSecond(instants[(year - firstYear) * TERMS_PER_YEAR + term], 0, ZoneOffset.UTC);
+    }
+
+    public boolean hasYear(int year) {
+        return year >= firstYear && year <= getLastYear();
+    }
+
+    /**
+     * 月柱甲子编码：以"节"为界，年干以立春为界（五虎遁）
+     */
+    public int monthJiaZi(LocalDateTime time) {
+        return monthJiaZi(time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * @param localSecond 北京时间按 UTC 换算的 epoch 秒
+     */
+    public int monthJiaZi(long localSecond) {
+        int jie = jieIndex(localSecond);
+        // 小寒至立春前为上一干支年的丑月
+        int year = firstYear + jie / 12;
+        int month = jie % 12;
+        if (month == 0) {
+            return GanZhi.monthJiaZi(GanZhi.stemOf(GanZhi.yearJiaZi(year - 1)), 12);
+        }
+        return GanZhi.monthJiaZi(GanZhi.stemOf(GanZhi.yearJiaZi(year)), month);
+    }
+
+    /**
+     * 年柱甲子编码：以立春为界
+     */
+    public int yearJiaZi(LocalDateTime time) {
+        return yearJiaZi(time.toEpochSecond(ZoneOffset.UTC));
+    }
+
+    /**
+     * @param localSecond 北京时间按 UTC 换算的 epoch 秒
+     */
+    public int yearJiaZi(long localSecond) {
+        int jie = jieIndex(localSecond);
+        int year = firstYear + jie / 12;
+        return GanZhi.yearJiaZi(jie % 12 == 0 ? year - 1 : year);
+    }
+
+    /**
+     * 全表"节"的个数（每年 12 个）
+     */
+    int jieCount() {
+        return instants.length / 2;
+    }
+
+    /**
+     * 第 jie 个"节"的时刻（北京时间按 UTC 换算的 epoch 秒），序号同 {@link #jieIndex(long)}
+     */
+    long jieSecond(int jie) {
+        return instants[jie * 2];
+    }
+
+    /**
+     * 当天交节气时返回节气名，否则返回空串
+     */
+    public String termNameOn(LocalDate date) {
+        long start = date.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        int index = Arrays.binarySearch(instants, start);
+        // 当天零点及之后的第一个节气
+        int next = index >= 0 ? index : -index - 1;
+        if (next < instants.length && instants[next] < start + 86_400) {
+            return TERM_NAMES[next % TERMS_PER_YEAR];
+        }
+        return "";
+    }
+
+    /**
+     * 不晚于该时刻的最近一个"节"在全表中的序号（每年 12 个，小寒为 0）
+     */
+    private int jieIndex(long second) {
+        int index = indexOf(second);
+        if (index < 0 || second >= endSecond) {
+            throw new IllegalArgumentException("超出节气表范围: "
+                    + LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC));
+        }
+        return index / 2;
+    }
+
+    /**
+     * 不晚于该时刻的最近一个节气在数组中的下标，早于表头返回 -1
+     */
+    private int indexOf(long second) {
+        int index = Arrays.binarySearch(instants, second);
+        return index >= 0 ? index : -index - 2;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.bazi.util;
+
+/**
+ * 常用五行力量权重取法
+ */
+public enum StandardWuXingWeighting implements WuXingWeighting {
+
+    /**
+     * 通用：天干 1，藏干本气 1、中气 0.5、余气 0.3，月令加倍，旺相休囚死逐级递减
+     */
+    COMMON("通用", 1.0, new double[]{1.0, 0.5, 0.3}, 2.0, new double[]{1.2, 1.1, 1.0, 0.9, 0.8}),
+
+    /**
+     * 子平：以月令为纲，月支三倍，当令与失令相差更大
+     */
+    ZI_PING("子平", 1.0, new double[]{1.0, 0.6, 0.3}, 3.0, new double[]{1.5, 1.2, 1.0, 0.8, 0.6}),
+
+    /**
+     * 八字各计一：天干与地支本气各 1，不计中气、余气与月令，与五行个数统计一致
+     */
+    FLAT("不分轻重", 1.0, new double[]{1.0, 0, 0}, 1.0, new double[]{1, 1, 1, 1, 1});
+
+    private final String name;
+    private final double stemWeight;
+    private final double[] cangGanWeights;
+    private final double monthCommand;
+    private final double[] seasonFactors;
+
+    StandardWuXingWeighting(String name, double stemWeight, double[] cangGanWeights,
+                            double monthCommand, double[] seasonFactors) {
+        this.name = name;
+        this.stemWeight = stemWeight;
+        this.cangGanWeights = cangGanWeights;
+        this.monthCommand = monthCommand;
+        this.seasonFactors = seasonFactors;
+    }
+
+    public String getName() { return name; }
+
+    @Override
+    public double stem(int pillar) { return stemWeight; }
+
+    @Override
+    public double cangGan(int pillar, int rank) { return cangGanWeights[rank]; }
+
+    @Override
+    public double monthCommand() { return monthCommand; }
+
+    @Override
+    public double season(int state) { return seasonFactors[state]; }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.bazi.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 真太阳时换算
+ *
+ * 真太阳时 = 钟表时间 + 经度时差 + 均时差
+ * 1 经度时差：(经度 - 时区中央经线) * 4 分钟，东八区中央经线为 120°E
+ * 2 均时差：地球轨道偏心与黄赤交角造成的视太阳时与平太阳时之差，全年约 -14 至 +16 分钟，
+ *   按 NOAA 近似公式逐日预先算好（平年、闰年各一张），换算时只查表
+ */
+public final class TrueSolarTime {
+
+    public static final double BEIJING_MERIDIAN = 120d;
+
+    // 下标为当年第几天减一，单位秒
+    private static final int[] EQUATION_OF_TIME_COMMON = buildTable(365);
+    private static final int[] EQUATION_OF_TIME_LEAP = buildTable(366);
+
+    private TrueSolarTime() {
+    }
+
+    private static int[] buildTable(int daysInYear) {
+        int[] table = new int[daysInYear];
+        for (int day = 0; day < daysInYear; day++) {
+            // 取当日正午的年角
+            double gamma = 2 * Math.PI / daysInYear * day;
+            double minutes = 229.18 * (0.000075 + 0.001868 * Math.cos(gamma) - 0.032077 * Math.sin(gamma)
+                    - 0.014615 * Math.cos(2 * gamma) - 0.040849 * Math.sin(2 * gamma));
+            table[day] = (int) Math.round(minutes * 60);
+        }
+        return table;
+    }
+
+    /**
+     * 当日均时差（秒），真太阳快于平太阳为正
+     */
+    public static int equationOfTimeSeconds(LocalDate date) {
+        int[] table = date.isLeapYear() ? EQUATION_OF_TIME_LEAP : EQUATION_OF_TIME_COMMON;
+        return table[date.getDayOfYear() - 1];
+    }
+
+    /**
+     * 经度时差（秒）
+     * @param standardMeridian 时区中央经线，时区偏移小时数 * 15
+     */
+    public static int longitudeOffsetSeconds(double longitude, double standardMeridian) {
+        return (int) Math.round((longitude - standardMeridian) * 240d);
+    }
+
+    /**
+     * 钟表时间换算为真太阳时的总偏移（秒）
+     */
+    public static int offsetSeconds(LocalDate date, double longitude, double standardMeridian) {
+        return longitudeOffsetSeconds(longitude, standardMeridian) + equationOfTimeSeconds(date);
+    }
+
+    /**
+     * 按东八区钟表时间换算
+     * @param longitude 经度（东经为正），为空时原样返回
+     */
+    public static LocalDateTime apply(LocalDateTime clockTime, Double longitude) {
+        return apply(clockTime, longitude, BEIJING_MERIDIAN);
+    }
+
+    public static LocalDateTime apply(LocalDateTime clockTime, Double longitude, double standardMeridian) {
+        if (longitude == null) {
+            return clockTime;
+        }
+        return clockTime.plusSeconds(offsetSeconds(clockTime.toLocalDate(), longitude, standardMeridian));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.PackedBaZiChart;
+
+/**
+ * 五行力量计算
+ *
+ * 按 {@link WuXingWeighting} 把四柱天干、地支藏干折算为五行分值，结果写入调用方提供的 double[5]
+ * （下标为五行编码：木火土金水）。构造时按权重模型展开两张表：
+ * 1 [柱位][六十甲子][五行]：该柱天干与藏干（月柱含月令倍数）的分值
+ * 2 [月支][五行]：旺相休囚死倍数
+ * 计算时只做 4 次表行累加与 5 次乘法，不分配对象，可在批量换算、相似检索等循环中直接调用。
+ * 实例只读，可多线程共享。
+ */
+public final class WuXingStrength {
+
+    public static final int ELEMENT_COUNT = 5;
+
+    /**
+     * 身强的同党占比下限：同党（比劫与印星）力量不少于异党即为身强
+     */
+    public static final double STRONG_SAME_SIDE_RATIO = 0.5;
+
+    private static final WuXingStrength DEFAULT = new WuXingStrength(StandardWuXingWeighting.COMMON);
+
+    private final WuXingWeighting weighting;
+    private final double[] pillarScores = new double[PackedBaZiChart.PILLAR_COUNT * GanZhi.JIA_ZI_COUNT * ELEMENT_COUNT];
+    private final double[] seasonFactors = new double[GanZhi.BRANCH_COUNT * ELEMENT_COUNT];
+
+    public WuXingStrength(WuXingWeighting weighting) {
+        this.weighting = weighting;
+        for (int p = 0; p < PackedBaZiChart.PILLAR_COUNT; p++) {
+            double monthCommand = p == PackedBaZiChart.YUE ? weighting.monthCommand() : 1;
+            for (int jiaZi = 0; jiaZi < GanZhi.JIA_ZI_COUNT; jiaZi++) {
+                int row = (p * GanZhi.JIA_ZI_COUNT + jiaZi) * ELEMENT_COUNT;
+                pillarScores[row + GanZhi.stemWuXing(GanZhi.stemOf(jiaZi))] += weighting.stem(p);
+                int branch = GanZhi.branchOf(jiaZi);
+                for (int i = 0, n = GanZhi.cangGanCount(branch); i < n; i++) {
+                    pillarScores[row + GanZhi.stemWuXing(GanZhi.cangGan(branch, i))]
+                            += weighting.cangGan(p, i) * monthCommand;
+                }
+            }
+        }
+        for (int branch = 0; branch < GanZhi.BRANCH_COUNT; branch++) {
+            int monthWuXing = GanZhi.branchWuXing(branch);
+            for (int e = 0; e < ELEMENT_COUNT; e++) {
+                seasonFactors[branch * ELEMENT_COUNT + e] = weighting.season(seasonState(monthWuXing, e));
+            }
+        }
+    }
+
+    /**
+     * 通用权重模型的共享实例
+     */
+    public static WuXingStrength getDefault() {
+        return DEFAULT;
+    }
+
+    public WuXingWeighting getWeighting() {
+        return weighting;
+    }
+
+    /**
+     * @param out 长度不小于 5，按五行编码写入分值
+     */
+    public void compute(PackedBaZiChart chart, double[] out) {
+        accumulate(chart.jiaZi(PackedBaZiChart.NIAN), chart.jiaZi(PackedBaZiChart.YUE),
+                chart.jiaZi(PackedBaZiChart.RI), chart.jiaZi(PackedBaZiChart.SHI), out);
+    }
+
+    /**
+     * 按 {@link PackedBaZiChart#code()} 编码计算，免去解码成对象
+     */
+    public void compute(int code, double[] out) {
+        accumulate(code / 216000, code / 3600 % 60, code / 60 % 60, code % 60, out);
+    }
+
+    private void accumulate(int nian, int yue, int ri, int shi, double[] out) {
+        int r0 = nian * ELEMENT_COUNT;
+        int r1 = (GanZhi.JIA_ZI_COUNT + yue) * ELEMENT_COUNT;
+        int r2 = (2 * GanZhi.JIA_ZI_COUNT + ri) * ELEMENT_COUNT;
+        int r3 = (3 * GanZhi.JIA_ZI_COUNT + shi) * ELEMENT_COUNT;
+        int season = GanZhi.branchOf(yue) * ELEMENT_COUNT;
+        for (int e = 0; e < ELEMENT_COUNT; e++) {
+            out[e] = (pillarScores[r0 + e] + pillarScores[r1 + e] + pillarScores[r2 + e] + pillarScores[r3 + e])
+                    * seasonFactors[season + e];
+        }
+    }
+
+    /**
+     * 同党（比劫与印星）分值占全部分值的比例
+     * @param riWuXing 日干五行编码
+     */
+    public static double sameSideRatio(double[] scores, int riWuXing) {
+        double total = 0;
+        for (int e = 0; e < ELEMENT_COUNT; e++) {
+            total += scores[e];
+        }
+        double same = scores[riWuXing] + scores[(riWuXing + 4) % ELEMENT_COUNT];
+        return total > 0 ? same / total : 0;
+    }
+
+    /**
+     * 日主是否身强：同党占比不低于 {@link #STRONG_SAME_SIDE_RATIO}
+     * @param riWuXing 日干五行编码
+     */
+    public static boolean isStrong(double[] scores, int riWuXing) {
+        return sameSideRatio(scores, riWuXing) >= STRONG_SAME_SIDE_RATIO;
+    }
+
+    /**
+     * 五行在月令中的状态：0 旺（同月令），1 相（月令生之），2 休（生月令），3 囚（克月令），4 死（月令克之）
+     */
+    static int seasonState(int monthWuXing, int wuXing) {
+        // 五行编码按相生顺序排列，差值即生克关系
+        return switch (Math.floorMod(wuXing - monthWuXing, ELEMENT_COUNT)) {
+            case 0 -> 0;
+            case 1 -> 1;
+            case 4 -> 2;
+            case 3 -> 3;
+            default -> 4;
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.bazi.util;
+
+/**
+ * 五行力量权重模型
+ *
+ * 各流派对天干、藏干、月令、旺相休囚死的轻重取法不一，实现此接口即可替换，
+ * 常用取法见 {@link StandardWuXingWeighting}。
+ */
+public interface WuXingWeighting {
+
+    /**
+     * 天干权重
+     * @param pillar 柱位，见 PackedBaZiChart.NIAN 等
+     */
+    double stem(int pillar);
+
+    /**
+     * 地支藏干权重
+     * @param rank 0 本气，1 中气，2 余气
+     */
+    double cangGan(int pillar, int rank);
+
+    /**
+     * 月令倍数：月支藏干在 {@link #cangGan} 之外再乘的倍数
+     */
+    double monthCommand();
+
+    /**
+     * 当令倍数
+     * @param state 五行在月令中的状态：0 旺，1 相，2 休，3 囚，4 死
+     */
+    double season(int state);
+}
@@ -43,4 +43,26 @@ public class AsyncConfig {
                 executor.getCorePoolSize(), executor.getMaxPoolSize());
         return executor;
     }
+
+    /**
+     * 八字分析器并发执行器
+     * 分析器为纯 CPU 计算，线程数与 CPU 核数一致
+     */
+    @Bean(name = "baziAnalyzerExecutor")
+    public Executor baziAnalyzerExecutor() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(processors);
+        executor.setMaxPoolSize(processors);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("bazi-analyzer-");
+        // 队列满时直接拒绝，由 GlobalExceptionHandler 转成 503；
+        // 不让调用线程代跑，避免分析落到 Web 容器的 I/O 线程上
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        log.info("八字分析器执行器初始化完成: poolSize={}", processors);
+        return executor;
+    }
 }
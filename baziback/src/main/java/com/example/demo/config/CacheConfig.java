@@ -1,6 +1,8 @@
 package com.example.demo.config;
 
+import com.example.demo.bazi.service.BaZiAnalysisCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -23,4 +25,13 @@ public class CacheConfig {
         cacheManager.setCaffeine(caffeine);
         return cacheManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * 八字分析段缓存，容量按结构节点数计，单个命盘全部分析段约 400 个节点
+     */
+    @Bean
+    public BaZiAnalysisCache baZiAnalysisCache(
+            @Value("${bazi.analysis-cache.max-weight:" + BaZiAnalysisCache.DEFAULT_MAX_WEIGHT + "}") long maxWeight) {
+        return new BaZiAnalysisCache(maxWeight);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.Result;
+import com.example.demo.service.BaziInterpretationService;
+import com.example.demo.util.AuthUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * 八字解读表重新加载
+ *
+ * 运维接口，默认不注册；需要时设置 bazi.interpretation.reload-enabled=true，
+ * 解读内容在库中修改后调用以重新载入内存表。
+ */
+@RestController
+@RequestMapping("/api/bazi/interpretation")
+@ConditionalOnProperty(name = "bazi.interpretation.reload-enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class BaziInterpretationReloadController {
+
+    private final BaziInterpretationService baziInterpretationService;
+    private final AuthUtil authUtil;
+
+    @PostMapping("/reload")
+    public Result<Map<String, Object>> reload(
+            @RequestHeader(value = "Authorization", required = false) String token) {
+        Long userId = authUtil.requireUserId(token);
+        int size = baziInterpretationService.reload();
+        log.info("八字解读表已重新加载: userId={}, size={}", userId, size);
+        return Result.success(Map.of("size", size));
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.request.yijing.YijingDistributionRequest;
 import com.example.demo.dto.request.yijing.YijingGenerateHexagramRequest;
 import com.example.demo.dto.request.yijing.YijingInterpretRequest;
 import com.example.demo.dto.request.yijing.YijingSceneImageRequest;
 import com.example.demo.dto.response.yijing.YijingSceneImageResponse;
 import com.example.demo.exception.BusinessException;
 import com.example.demo.service.GeminiService;
+import com.example.demo.util.AuthUtil;
+import com.example.demo.yijing.service.HexagramDistributionService;
 import com.example.demo.yijing.service.StandaloneYijingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,10 +16,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @Slf4j
@@ -27,6 +32,8 @@ public class StandaloneYijingController {
 
     private final StandaloneYijingService standaloneYijingService;
     private final GeminiService geminiService;
+    private final HexagramDistributionService hexagramDistributionService;
+    private final AuthUtil authUtil;
 
     @PostMapping("/hexagram/generate")
     public ResponseEntity<Map<String, Object>> generateHexagram(
@@ -113,6 +120,30 @@ public class StandaloneYijingController {
         return ResponseEntity.ok(toResponse(true, "获取成功", Map.of("methods", methods)));
     }
 
+    /**
+     * 起卦结果分布：各起卦方式的本卦频率、动爻数与用神旺衰分布，需登录。
+     * 统计在专用线程池上执行，池满或超出时间上限时返回 503
+     */
+    @PostMapping("/distribution")
+    public Mono<ResponseEntity<Map<String, Object>>> distribution(
+            @RequestHeader(value = "Authorization", required = false) String token,
+            @Validated @RequestBody YijingDistributionRequest request) {
+        authUtil.requireUserId(token);
+        log.info("起卦分布统计 - 方法: {}, 模式: {}, 抽样: {}", request.getMethod(), request.getMode(), request.getSamples());
+
+        return hexagramDistributionService.analyzeAsync(request)
+                .map(result -> ResponseEntity.ok(toResponse(true, "统计成功", result)))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity
+                        .status(HttpStatus.BAD_REQUEST)
+                        .body(toResponse(false, e.getMessage(), null))))
+                // 池满的 RejectedExecutionException 与超时的 BusinessException 交给 GlobalExceptionHandler 转成 503
+                .onErrorResume(e -> !(e instanceof RejectedExecutionException || e instanceof BusinessException), e -> {
+                    log.error("起卦分布统计失败", e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .body(toResponse(false, "统计失败: " + e.getMessage(), null)));
+                });
+    }
+
     @PostMapping("/quick-divination")
     public ResponseEntity<Map<String, Object>> quickDivination(
             @RequestHeader(value = "Authorization", required = false) String token,
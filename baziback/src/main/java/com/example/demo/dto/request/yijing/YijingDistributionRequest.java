@@ -0,0 +1,71 @@
+package com.example.demo.dto.request.yijing;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class YijingDistributionRequest {
+
+    /**
+     * 起卦方式：time、random、number、coin、plum_blossom，或 liuyao（六爻摇卦）
+     */
+    @NotBlank(message = "method 不能为空")
+    private String method;
+
+    /**
+     * exact：穷举全部输入；simulate：随机抽样。默认 exact
+     */
+    private String mode;
+
+    /**
+     * 抽样次数，simulate 时有效，默认一百万；单次统计另有时间上限
+     */
+    @Min(value = 1, message = "samples 至少为 1")
+    @Max(value = 1_000_000_000L, message = "samples 不能超过 10 亿")
+    private Long samples;
+
+    /**
+     * 抽样随机种子，相同种子结果相同；不填则每次不同
+     */
+    private Long randomSeed;
+
+    /**
+     * time、plum_blossom 的日期范围（含两端），默认今年全年；穷举时不超过 3660 天
+     */
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    /**
+     * number 的种子范围（含两端），默认 0-9999；穷举时不超过 1000 万个
+     */
+    private Integer seedFrom;
+
+    private Integer seedTo;
+
+    /**
+     * plum_blossom 的外应数，默认 0
+     */
+    private Integer offset;
+
+    /**
+     * 用神旺衰：预测类别、性别与占卜日期，默认 自身、今天
+     */
+    private String category;
+
+    private Boolean isMale;
+
+    private LocalDate divinationDate;
+}
@@ -1,5 +1,9 @@
 package com.example.demo.dto.response.bazi;
 
+import com.example.demo.bazi.model.RiZhuInfo;
+import com.example.demo.bazi.model.TiaoHouResult;
+import com.example.demo.bazi.model.XiYongShenResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -43,18 +47,15 @@ public class BaziAnalysisResponse {
     private Map<String, String> kongWang = new LinkedHashMap<>();
     @Builder.Default
     private Map<String, String> naYin = new LinkedHashMap<>();
-    @Builder.Default
-    private Map<String, List<String>> shenSha = new LinkedHashMap<>();
+    private BaziShenShaResponse shenSha;
     private BaziQiYunResponse qiYun;
     private BaziDaYunResponse daYun;
     @Builder.Default
     private List<BaziLiuNianResponse> liuNian = new ArrayList<>();
     @Builder.Default
     private List<BaziLiuYueResponse> liuYue = new ArrayList<>();
-    @Builder.Default
-    private Map<String, Object> riZhuInfo = new LinkedHashMap<>();
-    @Builder.Default
-    private Map<String, Object> xiYongShen = new LinkedHashMap<>();
+    private RiZhuInfo riZhuInfo;
+    private XiYongShenResult xiYongShen;
     @Builder.Default
     private Map<String, Object> xingChongHeHui = new LinkedHashMap<>();
     @Builder.Default
@@ -67,6 +68,8 @@ public class BaziAnalysisResponse {
     private Map<String, Object> fuMu = new LinkedHashMap<>();
     @Builder.Default
     private Map<String, Object> ziNv = new LinkedHashMap<>();
-    @Builder.Default
-    private Map<String, Object> tiaoHou = new LinkedHashMap<>();
+    private TiaoHouResult tiaoHou;
+    // 十神解读，仅在请求 withInterpretations 时返回
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<BaziInterpretationResponse> interpretations;
 }
@@ -1,18 +1,35 @@
 package com.example.demo.dto.response.bazi;
 
+import com.example.demo.bazi.model.CangGanInfo;
+import com.example.demo.bazi.model.DaYunResult;
+import com.example.demo.bazi.model.DaYunStep;
+import com.example.demo.bazi.model.LiuNianEntry;
+import com.example.demo.bazi.model.LiuYueEntry;
+import com.example.demo.bazi.model.PillarDetail;
+import com.example.demo.bazi.model.QiYunInfo;
+import com.example.demo.bazi.model.RiZhuInfo;
+import com.example.demo.bazi.model.ShenShaResult;
+import com.example.demo.bazi.model.TiaoHouResult;
+import com.example.demo.bazi.model.XiYongShenResult;
+
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 public final class BaziResponseMapper {
 
     private static final List<String> PILLAR_KEYS = Arrays.asList("年", "月", "日", "时");
     private static final Map<String, String> PILLAR_LABELS;
     private static final Map<String, String> WU_XING_KEY_MAP;
+    // 响应字段 -> 分析结果中的分析段
+    private static final Map<String, List<String>> FIELD_SECTIONS;
 
     static {
         Map<String, String> labels = new LinkedHashMap<>();
@@ -29,11 +46,65 @@ public final class BaziResponseMapper {
         wuxing.put("金", "metal");
         wuxing.put("水", "water");
         WU_XING_KEY_MAP = Collections.unmodifiableMap(wuxing);
+
+        Map<String, List<String>> fields = new LinkedHashMap<>();
+        fields.put("id", List.of("_id"));
+        fields.put("baZi", List.of("八字"));
+        fields.put("season", List.of("季节"));
+        fields.put("zodiac", List.of("生肖"));
+        fields.put("dayMaster", List.of("详细各柱信息"));
+        fields.put("dayMasterElement", List.of("详细各柱信息"));
+        fields.put("bodyStrength", List.of("喜用神分析"));
+        fields.put("geJu", List.of("参考格局信息"));
+        fields.put("renYuanSiLing", List.of("人元司令"));
+        fields.put("fiveElements", List.of("详细各柱信息"));
+        fields.put("palaces", List.of("胎命身"));
+        fields.put("pillars", List.of("详细各柱信息"));
+        fields.put("xingYun", List.of("星运"));
+        fields.put("ziZuo", List.of("自坐"));
+        fields.put("kongWang", List.of("空亡"));
+        fields.put("naYin", List.of("纳音"));
+        fields.put("shenSha", List.of("神煞"));
+        fields.put("qiYun", List.of("起运信息"));
+        fields.put("daYun", List.of("大运数据"));
+        fields.put("liuNian", List.of("流年数据"));
+        fields.put("liuYue", List.of("流月数据"));
+        fields.put("riZhuInfo", List.of("日柱等级信息"));
+        fields.put("xiYongShen", List.of("喜用神分析"));
+        fields.put("xingChongHeHui", List.of("刑冲合会"));
+        fields.put("yinYangAnalysis", List.of("阴阳情况分析"));
+        fields.put("caiXing", List.of("财星信息"));
+        fields.put("fuQi", List.of("夫妻星信息"));
+        fields.put("fuMu", List.of("父母星信息"));
+        fields.put("ziNv", List.of("子女星信息"));
+        fields.put("tiaoHou", List.of("调候信息"));
+        // 十神解读由各柱十神查表得到
+        fields.put("interpretations", List.of("详细各柱信息"));
+        FIELD_SECTIONS = Collections.unmodifiableMap(fields);
     }
 
     private BaziResponseMapper() {
     }
 
+    /**
+     * 把请求的字段名解析为需要计算的分析段；既接受响应字段名（如 shenSha、pillars），
+     * 也接受分析段原名（如 神煞），未知名称原样保留
+     */
+    public static Set<String> resolveSections(Collection<String> names) {
+        Set<String> sections = new LinkedHashSet<>();
+        // 基础标识总是返回
+        sections.add("_id");
+        sections.add("八字");
+        for (String name : names) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            sections.addAll(FIELD_SECTIONS.getOrDefault(trimmed, List.of(trimmed)));
+        }
+        return sections;
+    }
+
     public static BaziAnalysisResponse fromAnalysisMap(Map<String, Object> source) {
         if (source == null) {
             return null;
@@ -44,9 +115,7 @@ public final class BaziResponseMapper {
         Map<String, String> ziZuo = normalizeStringMap(source.get("自坐"));
         Map<String, String> kongWang = normalizeStringMap(source.get("空亡"));
         Map<String, String> naYin = normalizeStringMap(source.get("纳音"));
-        Map<String, List<String>> shenSha = normalizeListMap(source.get("神煞"));
-        Map<String, Object> riZhuInfo = asMap(source.get("日柱等级信息"));
-        Map<String, Object> xiYongShen = asMap(source.get("喜用神分析"));
+        XiYongShenResult xiYongShen = source.get("喜用神分析") instanceof XiYongShenResult result ? result : null;
 
         return BaziAnalysisResponse.builder()
                 .id(asString(source.get("_id")))
@@ -71,12 +140,12 @@ public final class BaziResponseMapper {
                 .ziZuo(ziZuo)
                 .kongWang(kongWang)
                 .naYin(naYin)
-                .shenSha(shenSha)
+                .shenSha(buildShenSha(source.get("神煞")))
                 .qiYun(buildQiYun(source.get("起运信息")))
                 .daYun(buildDaYun(source.get("大运数据")))
                 .liuNian(buildLiuNianList(source.get("流年数据")))
                 .liuYue(buildLiuYueList(source.get("流月数据")))
-                .riZhuInfo(riZhuInfo)
+                .riZhuInfo(source.get("日柱等级信息") instanceof RiZhuInfo info ? info : null)
                 .xiYongShen(xiYongShen)
                 .xingChongHeHui(asMap(source.get("刑冲合会")))
                 .yinYangAnalysis(asMap(source.get("阴阳情况分析")))
@@ -84,7 +153,7 @@ public final class BaziResponseMapper {
                 .fuQi(asMap(source.get("夫妻星信息")))
                 .fuMu(asMap(source.get("父母星信息")))
                 .ziNv(asMap(source.get("子女星信息")))
-                .tiaoHou(asMap(source.get("调候信息")))
+                .tiaoHou(source.get("调候信息") instanceof TiaoHouResult result ? result : null)
                 .build();
     }
 
@@ -136,7 +205,12 @@ public final class BaziResponseMapper {
 
         Map<String, BaziPillarResponse> result = new LinkedHashMap<>();
         for (String pillarKey : PILLAR_KEYS) {
-            Map<String, Object> pillar = asMap(detailed.get(pillarKey));
+            Object raw = detailed.get(pillarKey);
+            if (raw instanceof PillarDetail detail) {
+                result.put(PILLAR_LABELS.get(pillarKey), buildPillar(PILLAR_LABELS.get(pillarKey), detail));
+                continue;
+            }
+            Map<String, Object> pillar = asMap(raw);
             if (pillar.isEmpty()) {
                 continue;
             }
@@ -161,6 +235,38 @@ public final class BaziResponseMapper {
         return result;
     }
 
+    private static BaziPillarResponse buildPillar(String name, PillarDetail pillar) {
+        return BaziPillarResponse.builder()
+                .name(name)
+                .tianGan(pillar.tianGan())
+                .diZhi(pillar.diZhi())
+                .ganZhi(pillar.tianGan() + pillar.diZhi())
+                .tianGanShiShen(pillar.tianGanShiShen())
+                .diZhiCangGan(new ArrayList<>(pillar.diZhiCangGan()))
+                .diZhiShiShen(new ArrayList<>(pillar.diZhiShiShen()))
+                .tianGanWuXing(pillar.tianGanWuXing())
+                .diZhiWuXing(pillar.diZhiWuXing())
+                .naYin(pillar.naYin())
+                .xingYun(pillar.xingYun())
+                .ziZuo(pillar.ziZuo())
+                .kongWang(pillar.kongWang())
+                .xunShou(pillar.xunShou())
+                .shenSha(new ArrayList<>(pillar.shenSha()))
+                .build();
+    }
+
+    private static BaziShenShaResponse buildShenSha(Object source) {
+        if (!(source instanceof ShenShaResult shenSha)) {
+            return null;
+        }
+        return BaziShenShaResponse.builder()
+                .year(new ArrayList<>(shenSha.nian()))
+                .month(new ArrayList<>(shenSha.yue()))
+                .day(new ArrayList<>(shenSha.ri()))
+                .hour(new ArrayList<>(shenSha.shi()))
+                .build();
+    }
+
     private static BaziPalaceResponse buildPalaces(Map<String, Object> source) {
         Map<String, Object> palaceMap = asMap(source.get("胎命身"));
         if (palaceMap.isEmpty()) {
@@ -174,6 +280,13 @@ public final class BaziResponseMapper {
     }
 
     private static BaziQiYunResponse buildQiYun(Object source) {
+        if (source instanceof QiYunInfo info) {
+            return BaziQiYunResponse.builder()
+                    .qiYunAge(extractLeadingInteger(info.age()))
+                    .qiYunYear(info.year())
+                    .description(info.description())
+                    .build();
+        }
         Map<String, Object> qiYun = asMap(source);
         if (qiYun.isEmpty()) {
             return null;
@@ -186,6 +299,30 @@ public final class BaziResponseMapper {
     }
 
     private static BaziDaYunResponse buildDaYun(Object source) {
+        if (source instanceof DaYunResult result) {
+            List<BaziDaYunItemResponse> items = new ArrayList<>(result.steps().size());
+            for (DaYunStep step : result.steps()) {
+                items.add(BaziDaYunItemResponse.builder()
+                        .ganZhi(step.ganZhi())
+                        .startYear(step.startYear())
+                        .endYear(step.endYear())
+                        .tianGan(step.tianGan())
+                        .diZhi(step.diZhi())
+                        .tianGanShiShen(step.tianGanShiShen())
+                        .diZhiShiShen(String.valueOf(step.diZhiShiShen()))
+                        .tianGanWuXing(step.tianGanWuXing())
+                        .diZhiWuXing(step.diZhiWuXing())
+                        .diZhiCangGan(new ArrayList<>(step.diZhiCangGan()))
+                        .benQi(cangGanMap(step.benQi()))
+                        .zhongQi(cangGanMap(step.zhongQi()))
+                        .yuQi(cangGanMap(step.yuQi()))
+                        .build());
+            }
+            return BaziDaYunResponse.builder()
+                    .startYear(result.startYear())
+                    .cycles(items)
+                    .build();
+        }
         Map<String, Object> daYun = asMap(source);
         List<Map<String, Object>> cycles = asMapList(daYun.get("大运"));
         if (daYun.isEmpty() && cycles.isEmpty()) {
@@ -217,8 +354,31 @@ public final class BaziResponseMapper {
                 .build();
     }
 
+    private static Map<String, Object> cangGanMap(CangGanInfo info) {
+        return info == null ? new LinkedHashMap<>() : info.toMap();
+    }
+
     private static List<BaziLiuNianResponse> buildLiuNianList(Object source) {
         List<BaziLiuNianResponse> result = new ArrayList<>();
+        if (source instanceof List<?> entries && !entries.isEmpty() && entries.get(0) instanceof LiuNianEntry) {
+            for (Object entry : entries) {
+                LiuNianEntry item = (LiuNianEntry) entry;
+                result.add(BaziLiuNianResponse.builder()
+                        .year(item.year())
+                        .age(item.age())
+                        .ganZhi(item.ganZhi())
+                        .tianGan(item.tianGan())
+                        .diZhi(item.diZhi())
+                        .tianGanShiShen(item.tianGanShiShen())
+                        .diZhiShiShen(String.valueOf(item.diZhiShiShen()))
+                        .tianGanWuXing(item.tianGanWuXing())
+                        .diZhiWuXing(item.diZhiWuXing())
+                        .naYin(item.naYin())
+                        .diZhiCangGan(new ArrayList<>(item.diZhiCangGan()))
+                        .build());
+            }
+            return result;
+        }
         for (Map<String, Object> item : asMapList(source)) {
             result.add(BaziLiuNianResponse.builder()
                     .year(asInteger(item.get("年份")))
@@ -239,6 +399,25 @@ public final class BaziResponseMapper {
 
     private static List<BaziLiuYueResponse> buildLiuYueList(Object source) {
         List<BaziLiuYueResponse> result = new ArrayList<>();
+        if (source instanceof List<?> entries && !entries.isEmpty() && entries.get(0) instanceof LiuYueEntry) {
+            for (Object entry : entries) {
+                LiuYueEntry item = (LiuYueEntry) entry;
+                result.add(BaziLiuYueResponse.builder()
+                        .month(item.month())
+                        .solarTerm(item.solarTerm())
+                        .solarTermDate(item.solarTermDate())
+                        .ganZhi(item.ganZhi())
+                        .tianGan(item.tianGan())
+                        .diZhi(item.diZhi())
+                        .tianGanShiShen(item.tianGanShiShen())
+                        .diZhiShiShen(String.valueOf(item.diZhiShiShen()))
+                        .tianGanWuXing(item.tianGanWuXing())
+                        .diZhiWuXing(item.diZhiWuXing())
+                        .diZhiCangGan(new ArrayList<>(item.diZhiCangGan()))
+                        .build());
+            }
+            return result;
+        }
         for (Map<String, Object> item : asMapList(source)) {
             result.add(BaziLiuYueResponse.builder()
                     .month(asInteger(item.get("月份")))
@@ -287,22 +466,8 @@ public final class BaziResponseMapper {
         return asString(source.get("日主五行"));
     }
 
-    private static String inferBodyStrength(Map<String, Object> xiYongShen) {
-        Object 综合推荐 = xiYongShen.get("综合推荐");
-        if (综合推荐 instanceof Map<?, ?> map) {
-            Object 判断 = map.get("判断");
-            if (判断 != null) {
-                return 判断.toString();
-            }
-        }
-        Object 日主强弱推荐 = xiYongShen.get("日主强弱推荐");
-        if (日主强弱推荐 instanceof Map<?, ?> map) {
-            Object 判断 = map.get("判断");
-            if (判断 != null) {
-                return 判断.toString();
-            }
-        }
-        return asString(xiYongShen.get("日主强弱"));
+    private static String inferBodyStrength(XiYongShenResult xiYongShen) {
+        return xiYongShen == null ? null : xiYongShen.riZhuStrength().panDuan();
     }
 
     private static Integer extractLeadingInteger(String value) {
@@ -335,15 +500,6 @@ public final class BaziResponseMapper {
         return result;
     }
 
-    private static Map<String, List<String>> normalizeListMap(Object source) {
-        Map<String, List<String>> result = new LinkedHashMap<>();
-        Map<String, Object> raw = asMap(source);
-        for (String pillarKey : PILLAR_KEYS) {
-            result.put(PILLAR_LABELS.get(pillarKey), asStringList(raw.get(pillarKey)));
-        }
-        return result;
-    }
-
     @SuppressWarnings("unchecked")
     private static Map<String, Object> asMap(Object value) {
         if (value instanceof Map<?, ?> map) {
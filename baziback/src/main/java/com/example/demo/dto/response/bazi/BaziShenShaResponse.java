@@ -0,0 +1,24 @@
+package com.example.demo.dto.response.bazi;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BaziShenShaResponse {
+    @Builder.Default
+    private List<String> year = new ArrayList<>();
+    @Builder.Default
+    private List<String> month = new ArrayList<>();
+    @Builder.Default
+    private List<String> day = new ArrayList<>();
+    @Builder.Default
+    private List<String> hour = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package com.example.demo.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 卦爻辞表实体类
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BaseHexagramText {
+    private Integer id;
+    private Integer hexagramId;
+    private String textType;      // 卦辞、彖传、大象、小象、爻辞
+    private Integer yaoPosition;  // 卦级文本为空
+    private String content;
+    private String explanation;   // 白话解释
+}
@@ -10,7 +10,7 @@ import lombok.NoArgsConstructor;
  * 卦象表实体类
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -13,6 +13,7 @@ import org.springframework.web.server.PayloadTooLargeException;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 @Slf4j
@@ -58,6 +59,13 @@ public class GlobalExceptionHandler {
                 .body(Result.error(413, I18nHelper.message("error.payload_too_large", "请求体过大，请压缩图片后重试。")));
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Result<Void>> handleRejectedExecution(RejectedExecutionException ex) {
+        log.warn("Executor saturated: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Result.error(503, I18nHelper.message("error.busy", "服务繁忙，请稍后重试。")));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Result<String>> handleGenericException(Exception ex) {
         log.error("Server error", ex);
@@ -0,0 +1,40 @@
+package com.example.demo.mapper;
+
+import com.example.demo.entity.BaziCompatibility;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+@Mapper
+public interface BaziCompatibilityMapper {
+
+    String BASE_COLUMNS =
+            "id, user_id, partner_type, partner_name, user_bazi, partner_bazi, compatibility_score, " +
+            "compatibility_data, visualization_data, ai_analysis, suggestion, is_shared, share_url, " +
+            "created_at, updated_at";
+
+    @Insert("INSERT INTO tb_bazi_compatibility " +
+            "(user_id, partner_type, partner_name, user_bazi, partner_bazi, compatibility_score, " +
+            "compatibility_data, suggestion, is_shared, created_at, updated_at) " +
+            "VALUES (#{userId}, #{partnerType}, #{partnerName}, #{userBazi}, #{partnerBazi}, #{compatibilityScore}, " +
+            "#{compatibilityData}, #{suggestion}, #{isShared}, NOW(), NOW())")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insert(BaziCompatibility compatibility);
+
+    @Select("SELECT " + BASE_COLUMNS + " FROM tb_bazi_compatibility WHERE id = #{id} AND user_id = #{userId}")
+    BaziCompatibility selectByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Select("SELECT " + BASE_COLUMNS + " FROM tb_bazi_compatibility WHERE user_id = #{userId} " +
+            "ORDER BY created_at DESC LIMIT #{offset}, #{limit}")
+    List<BaziCompatibility> selectByUserIdPaged(@Param("userId") Long userId,
+                                                @Param("offset") int offset,
+                                                @Param("limit") int limit);
+
+    @Delete("DELETE FROM tb_bazi_compatibility WHERE id = #{id} AND user_id = #{userId}")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+}
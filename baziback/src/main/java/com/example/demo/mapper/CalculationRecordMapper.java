@@ -59,6 +59,12 @@ public interface CalculationRecordMapper {
                                                          @Param("offset") int offset,
                                                          @Param("limit") int limit);
 
+    @Select("SELECT id, user_id AS userId, summary, result_data AS data FROM tb_calculation_record " +
+            "WHERE record_type = #{recordType} AND id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<TbCalculationRecord> selectByTypeAfterId(@Param("recordType") String recordType,
+                                                  @Param("afterId") long afterId,
+                                                  @Param("limit") int limit);
+
     @Update("UPDATE tb_calculation_record " +
             "SET record_title = #{recordTitle}, question = #{question}, summary = #{summary}, input_data = #{inputData}, result_data = #{data}, updated_at = NOW() " +
             "WHERE id = #{id} AND user_id = #{userId}")
@@ -1,5 +1,6 @@
 package com.example.demo.mapper;
 
+import com.example.demo.entity.BaseHexagramText;
 import com.example.demo.entity.TbHexagram;
 import com.example.demo.entity.TbHexagramYao;
 import org.apache.ibatis.annotations.*;
@@ -43,6 +44,12 @@ public interface HexagramMapper {
     @Select("SELECT * FROM tb_hexagram_yao WHERE hexagram_id = #{hexagramId} ORDER BY yao_position")
     List<TbHexagramYao> findYaosByHexagramId(Integer hexagramId);
     
+    /**
+     * 查询全部卦的爻（启动时整表载入）
+     */
+    @Select("SELECT * FROM tb_hexagram_yao ORDER BY hexagram_id, yao_position")
+    List<TbHexagramYao> findAllYaos();
+
     /**
      * 根据卦ID和爻位查询爻
      */
@@ -72,4 +79,11 @@ public interface HexagramMapper {
      */
     @Select("SELECT content, explanation FROM base_hexagram_text WHERE hexagram_id = #{hexagramId} AND text_type = #{textType} AND yao_position = #{yaoPosition} LIMIT 1")
     Map<String, Object> findTextDetailByHexagramIdAndYaoPosition(@Param("hexagramId") Integer hexagramId, @Param("textType") String textType, @Param("yaoPosition") Integer yaoPosition);
+
+    /**
+     * 查询全部卦辞、大象、爻辞（启动时整表载入）
+     */
+    @Select("SELECT id, hexagram_id, text_type, yao_position, content, explanation FROM base_hexagram_text " +
+            "WHERE text_type IN ('卦辞', '大象', '爻辞') ORDER BY id")
+    List<BaseHexagramText> findAllTexts();
 }
@@ -1,9 +1,12 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.response.bazi.BaziPillarResponse;
 import com.example.demo.entity.BaziInterpretation;
 import com.example.demo.mapper.BaziInterpretationMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -13,6 +16,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+/**
+ * 八字十神解读服务
+ *
+ * 解读表小且基本不变，启动后整表载入 {@link BaziInterpretationTable}，查询不再访问数据库；
+ * 后台修改解读内容后调用 {@link #reload()} 整表替换。载入前或载入失败时按条查库。
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -20,8 +29,33 @@ public class BaziInterpretationService {
 
     private final BaziInterpretationMapper baziInterpretationMapper;
 
+    private volatile BaziInterpretationTable table;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("八字解读表加载失败，查询将逐条访问数据库", e);
+        }
+    }
+
+    /**
+     * 重新载入全部解读并整表替换，返回载入条数
+     */
+    public int reload() {
+        BaziInterpretationTable loaded = new BaziInterpretationTable(baziInterpretationMapper.findAll());
+        table = loaded;
+        log.info("八字解读表加载完成: {} 条", loaded.size());
+        return loaded.size();
+    }
+
     public BaziInterpretation getInterpretation(String godType, String ganzhiPosition) {
-        return baziInterpretationMapper.findByGodTypeAndPosition(godType, ganzhiPosition);
+        BaziInterpretationTable current = table;
+        if (current == null) {
+            return baziInterpretationMapper.findByGodTypeAndPosition(godType, ganzhiPosition);
+        }
+        return current.get(godType, ganzhiPosition);
     }
 
     public List<BaziInterpretation> getInterpretations(List<Map<String, String>> requests) {
@@ -40,12 +74,34 @@ public class BaziInterpretationService {
     }
 
     public List<Map<String, Object>> getInterpretationsFromBaziData(Map<String, Object> baziData) {
-        List<Map<String, Object>> results = new ArrayList<>();
         if (baziData == null || baziData.isEmpty()) {
-            return results;
+            return new ArrayList<>();
+        }
+
+        return interpret(resolveDetailedPillars(baziData));
+    }
+
+    /**
+     * 按分析响应中的各柱十神查解读，供 /api/bazi/analyze 直接附带
+     * @param pillars 键为 year、month、day、hour
+     */
+    public List<Map<String, Object>> getInterpretationsFromPillars(Map<String, BaziPillarResponse> pillars) {
+        Map<String, Object> detailedPillars = new LinkedHashMap<>();
+        if (pillars != null) {
+            pillars.forEach((key, pillar) -> {
+                if (pillar != null) {
+                    Map<String, Object> shiShen = new HashMap<>();
+                    shiShen.put("tianGanShiShen", pillar.getTianGanShiShen());
+                    shiShen.put("diZhiShiShen", pillar.getDiZhiShiShen());
+                    detailedPillars.put(key, shiShen);
+                }
+            });
         }
+        return interpret(detailedPillars);
+    }
 
-        Map<String, Object> detailedPillars = resolveDetailedPillars(baziData);
+    private List<Map<String, Object>> interpret(Map<String, Object> detailedPillars) {
+        List<Map<String, Object>> results = new ArrayList<>();
         if (detailedPillars.isEmpty()) {
             return results;
         }
@@ -0,0 +1,80 @@
+package com.example.demo.service;
+
+import com.example.demo.bazi.constants.ShiShen;
+import com.example.demo.entity.BaziInterpretation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 八字十神解读内存表
+ *
+ * 库表中 十神 × 干支位置 唯一（idx_god_position），按 十神序号 * 位置数 + 位置序号 存入数组，
+ * 查询不需要拼接字符串键；十神或位置名称不在枚举内的记录放入兜底 Map。
+ * 构建后只读，重新加载时整表替换。
+ */
+final class BaziInterpretationTable {
+
+    static final List<String> POSITIONS = List.of("年干", "年支", "月干", "月支", "日干", "日支", "时干", "时支");
+
+    private static final Map<String, Integer> GOD_TYPE_ORDINAL = new HashMap<>();
+    private static final Map<String, Integer> POSITION_ORDINAL = new HashMap<>();
+
+    static {
+        for (ShiShen shiShen : ShiShen.values()) {
+            GOD_TYPE_ORDINAL.put(shiShen.getName(), shiShen.ordinal());
+        }
+        for (int i = 0; i < POSITIONS.size(); i++) {
+            POSITION_ORDINAL.put(POSITIONS.get(i), i);
+        }
+    }
+
+    private final BaziInterpretation[] slots = new BaziInterpretation[ShiShen.values().length * POSITIONS.size()];
+    private final Map<String, BaziInterpretation> others = new HashMap<>();
+    private final int size;
+
+    /**
+     * @param rows 全部解读记录，同一组合重复时保留先出现的一条
+     */
+    BaziInterpretationTable(List<BaziInterpretation> rows) {
+        int count = 0;
+        for (BaziInterpretation row : rows) {
+            if (row.getGodType() == null || row.getGanzhiPosition() == null) {
+                continue;
+            }
+            int slot = slot(row.getGodType(), row.getGanzhiPosition());
+            if (slot >= 0) {
+                if (slots[slot] == null) {
+                    slots[slot] = row;
+                    count++;
+                }
+            } else if (others.putIfAbsent(otherKey(row.getGodType(), row.getGanzhiPosition()), row) == null) {
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    /**
+     * 查询解读，无记录返回 null
+     */
+    BaziInterpretation get(String godType, String ganzhiPosition) {
+        int slot = slot(godType, ganzhiPosition);
+        return slot >= 0 ? slots[slot] : others.get(otherKey(godType, ganzhiPosition));
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static int slot(String godType, String ganzhiPosition) {
+        Integer god = GOD_TYPE_ORDINAL.get(godType);
+        Integer position = POSITION_ORDINAL.get(ganzhiPosition);
+        return god == null || position == null ? -1 : god * POSITIONS.size() + position;
+    }
+
+    private static String otherKey(String godType, String ganzhiPosition) {
+        return godType + "|" + ganzhiPosition;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.service;
 
+import com.example.demo.bazi.service.BaZiSimilarityService;
 import com.example.demo.entity.TbCalculationRecord;
 import com.example.demo.exception.BusinessException;
 import com.example.demo.mapper.CalculationRecordMapper;
@@ -8,6 +9,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
 
@@ -21,6 +24,7 @@ public class CalculationRecordService {
     private final CalculationRecordMapper calculationRecordMapper;
     private final AchievementService achievementService;
     private final ReferralService referralService;
+    private final BaZiSimilarityService baZiSimilarityService;
 
     @Transactional
     public TbCalculationRecord saveRecord(TbCalculationRecord record) {
@@ -30,6 +34,7 @@ public class CalculationRecordService {
                 record.getUserId(), record.getRecordType(), record.getRecordTitle());
 
         calculationRecordMapper.insert(record);
+        updateSimilarityIndex(record);
 
         if (record.getUserId() != null) {
             try {
@@ -100,7 +105,9 @@ public class CalculationRecordService {
         if (updated <= 0) {
             throw new BusinessException("更新记录失败");
         }
-        return getUserRecord(userId, id);
+        TbCalculationRecord saved = getUserRecord(userId, id);
+        updateSimilarityIndex(saved);
+        return saved;
     }
 
     @Transactional
@@ -109,11 +116,13 @@ public class CalculationRecordService {
         if (deleted <= 0) {
             throw new BusinessException("记录不存在", HttpStatus.NOT_FOUND);
         }
+        afterCommit(() -> baZiSimilarityService.onDeleted(id), id);
     }
 
     @Transactional
     public void deleteUserRecords(Long userId) {
         calculationRecordMapper.deleteByUserId(userId);
+        afterCommit(() -> baZiSimilarityService.onUserDeleted(userId), null);
     }
 
     public int getUserRecordCount(Long userId) {
@@ -124,6 +133,33 @@ public class CalculationRecordService {
         return calculationRecordMapper.countByUserIdAndType(userId, normalizeRecordType(recordType));
     }
 
+    private void updateSimilarityIndex(TbCalculationRecord record) {
+        afterCommit(() -> baZiSimilarityService.onSaved(record), record.getId());
+    }
+
+    /**
+     * 相似八字索引在事务提交后再更新，回滚的写入不会进索引；没有事务时立即更新
+     */
+    private void afterCommit(Runnable indexUpdate, Long recordId) {
+        Runnable guarded = () -> {
+            try {
+                indexUpdate.run();
+            } catch (Exception e) {
+                log.error("Failed to update bazi similarity index, recordId={}", recordId, e);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guarded.run();
+            }
+        });
+    }
+
     private void normalizeRecord(TbCalculationRecord record) {
         if (record == null) {
             throw new BusinessException("记录内容不能为空");
@@ -0,0 +1,127 @@
+package com.example.demo.yijing.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * 起卦规则
+ *
+ * 各起卦方式的结果只取决于输入（时间、数字、随机源），这里不查库、不打日志，
+ * 在线起卦与分布统计共用。一次起卦的结果打包成一个 int：
+ * 低 6 位为本卦 {@link HexagramCode} 取值，其上 6 位为动爻掩码。
+ */
+public final class HexagramCast {
+
+    /**
+     * 打包值的取值个数：64 卦 × 64 种动爻组合
+     */
+    public static final int CAST_COUNT = 1 << (2 * HexagramCode.LINE_COUNT);
+
+    /**
+     * 金钱卦一次摇卦的硬币位数：每爻三枚，初爻在最低三位
+     */
+    public static final int COIN_BITS = 3 * HexagramCode.LINE_COUNT;
+
+    private HexagramCast() {
+    }
+
+    public static int pack(int bits, int movingMask) {
+        return movingMask << HexagramCode.LINE_COUNT | bits;
+    }
+
+    public static int bits(int cast) {
+        return cast & HexagramCode.ALL_LINES;
+    }
+
+    public static int movingMask(int cast) {
+        return cast >>> HexagramCode.LINE_COUNT;
+    }
+
+    public static HexagramCode code(int cast) {
+        return HexagramCode.of(bits(cast));
+    }
+
+    /**
+     * 动爻位置（1-6）升序
+     */
+    public static List<Integer> movingLines(int cast) {
+        int mask = movingMask(cast);
+        List<Integer> lines = new ArrayList<>(Integer.bitCount(mask));
+        for (int position = 1; position <= HexagramCode.LINE_COUNT; position++) {
+            if ((mask & HexagramCode.lineMask(position)) != 0) {
+                lines.add(position);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * 先天数起卦：上卦、下卦之数除 8 取余（余 0 作 8），动爻之数除 6 取余（余 0 作 6），
+     * 负数按数学取余
+     */
+    public static int byNumbers(int upperSum, int lowerSum, int lineSum) {
+        int upper = HexagramCode.xianTianTrigram(Math.floorMod(upperSum - 1, 8) + 1);
+        int lower = HexagramCode.xianTianTrigram(Math.floorMod(lowerSum - 1, 8) + 1);
+        int line = Math.floorMod(lineSum - 1, HexagramCode.LINE_COUNT) + 1;
+        return pack(upper << 3 | lower, HexagramCode.lineMask(line));
+    }
+
+    /**
+     * 时间起卦：年月日为上卦，加时为下卦，再加分为动爻
+     */
+    public static int time(int year, int month, int day, int hour, int minute) {
+        int date = year + month + day;
+        return byNumbers(date, date + hour, date + hour + minute);
+    }
+
+    /**
+     * 数字起卦：十位以上为上卦，整数为下卦与动爻
+     */
+    public static int number(int seed) {
+        return byNumbers(seed / 10, seed, seed);
+    }
+
+    /**
+     * 梅花易数时间起卦：年月日（加外应数）为上卦，再加时为下卦与动爻
+     */
+    public static int plumBlossom(int year, int month, int day, int hour, int offset) {
+        int base = year + month + day + offset;
+        return byNumbers(base, base + hour, base + hour);
+    }
+
+    /**
+     * 随机起卦：上卦、下卦数 1-8，动爻 1-6
+     */
+    public static int random(RandomGenerator random) {
+        int upperNum = random.nextInt(1, 9);
+        int lowerNum = random.nextInt(1, 9);
+        int changingLinePos = random.nextInt(1, 7);
+        return byNumbers(upperNum, lowerNum, changingLinePos);
+    }
+
+    /**
+     * 金钱卦：三枚硬币摇六次，18 枚硬币各占一位，一次取齐
+     */
+    public static int coin(RandomGenerator random) {
+        return fromCoins(random.nextInt(1 << COIN_BITS));
+    }
+
+    /**
+     * 由 18 位硬币结果（1 为背）成卦：二背三背为阳，三背老阳、三字老阴为动爻
+     */
+    public static int fromCoins(int coins) {
+        int bits = 0;
+        int moving = 0;
+        for (int i = 0; i < HexagramCode.LINE_COUNT; i++) {
+            int heads = Integer.bitCount(coins >>> (3 * i) & 7);
+            if (heads >= 2) {
+                bits |= 1 << i;
+            }
+            if (heads == 0 || heads == 3) {
+                moving |= 1 << i;
+            }
+        }
+        return pack(bits, moving);
+    }
+}
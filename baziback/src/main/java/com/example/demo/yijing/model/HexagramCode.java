@@ -0,0 +1,240 @@
+package com.example.demo.yijing.model;
+
+import java.util.Collection;
+
+/**
+ * 六爻位编码的卦
+ *
+ * 一个字节存六爻：初爻为第 0 位 … 上爻为第 5 位，阳爻为 1。
+ * 下卦 = 低三位，上卦 = 高三位；单卦同样以初爻为最低位：
+ * 坤0 震1 坎2 兑3 艮4 离5 巽6 乾7。
+ * 变卦、互卦、错卦、综卦都是位运算。64 个实例预先建好，可在线程间共享。
+ */
+public final class HexagramCode {
+
+    public static final int LINE_COUNT = 6;
+    public static final int ALL_LINES = (1 << LINE_COUNT) - 1;
+
+    /**
+     * 单卦名称，按三爻取值下标
+     */
+    private static final String[] TRIGRAM_NAMES = {"坤", "震", "坎", "兑", "艮", "离", "巽", "乾"};
+    private static final String[] TRIGRAM_SYMBOLS = {"☷", "☳", "☵", "☱", "☶", "☲", "☴", "☰"};
+
+    /**
+     * 先天八卦数 1-8（乾1 兑2 离3 震4 巽5 坎6 艮7 坤8）对应的三爻取值，下标 0 不用
+     */
+    private static final byte[] XIAN_TIAN_TRIGRAMS = {-1, 7, 3, 5, 1, 6, 2, 4, 0};
+
+    private static final HexagramCode[] VALUES = new HexagramCode[1 << LINE_COUNT];
+
+    static {
+        for (int bits = 0; bits < VALUES.length; bits++) {
+            VALUES[bits] = new HexagramCode((byte) bits);
+        }
+    }
+
+    private final byte bits;
+
+    private HexagramCode(byte bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * 由六爻取值（0-63）取卦
+     */
+    public static HexagramCode of(int bits) {
+        if (bits < 0 || bits > ALL_LINES) {
+            throw new IllegalArgumentException("无效卦编码: " + bits);
+        }
+        return VALUES[bits];
+    }
+
+    /**
+     * 由下卦、上卦三爻取值（0-7）取卦
+     */
+    public static HexagramCode of(int lower, int upper) {
+        if (lower < 0 || lower > 7 || upper < 0 || upper > 7) {
+            throw new IllegalArgumentException("无效单卦编码: " + lower + ", " + upper);
+        }
+        return VALUES[upper << 3 | lower];
+    }
+
+    /**
+     * 由上下卦名称取卦，名称不识别返回 null
+     */
+    public static HexagramCode ofTrigrams(String upperName, String lowerName) {
+        int upper = trigramIndex(upperName);
+        int lower = trigramIndex(lowerName);
+        return upper < 0 || lower < 0 ? null : VALUES[upper << 3 | lower];
+    }
+
+    /**
+     * 解析六爻二进制串（初爻在前，如 "010110"）
+     */
+    public static HexagramCode parse(String binary) {
+        int bits = parseBits(binary);
+        if (bits < 0) {
+            throw new IllegalArgumentException("二进制字符串无效: " + binary);
+        }
+        return VALUES[bits];
+    }
+
+    /**
+     * 六爻二进制串（初爻在前）转为 0-63，格式不对返回 -1
+     */
+    public static int parseBits(String binary) {
+        if (binary == null || binary.length() != LINE_COUNT) {
+            return -1;
+        }
+        int bits = 0;
+        for (int i = 0; i < LINE_COUNT; i++) {
+            char c = binary.charAt(i);
+            if (c == '1') {
+                bits |= 1 << i;
+            } else if (c != '0') {
+                return -1;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * 爻位（1-6）对应的位
+     */
+    public static int lineMask(int position) {
+        if (position < 1 || position > LINE_COUNT) {
+            throw new IllegalArgumentException("无效爻位: " + position);
+        }
+        return 1 << (position - 1);
+    }
+
+    /**
+     * 多个爻位合成掩码，常用于动爻
+     */
+    public static int lineMask(Collection<Integer> positions) {
+        int mask = 0;
+        if (positions != null) {
+            for (Integer position : positions) {
+                mask |= lineMask(position);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 单卦名称对应的三爻取值，不识别返回 -1
+     */
+    public static int trigramIndex(String name) {
+        if (name != null) {
+            for (int i = 0; i < TRIGRAM_NAMES.length; i++) {
+                if (TRIGRAM_NAMES[i].equals(name)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public static String trigramName(int trigram) {
+        return TRIGRAM_NAMES[trigram];
+    }
+
+    /**
+     * 先天八卦数（1-8）对应的三爻取值
+     */
+    public static int xianTianTrigram(int number) {
+        if (number < 1 || number > 8) {
+            throw new IllegalArgumentException("先天八卦数应为 1-8: " + number);
+        }
+        return XIAN_TIAN_TRIGRAMS[number];
+    }
+
+    public int bits() {
+        return bits;
+    }
+
+    public int lower() {
+        return bits & 7;
+    }
+
+    public int upper() {
+        return bits >>> 3;
+    }
+
+    public String lowerName() {
+        return TRIGRAM_NAMES[lower()];
+    }
+
+    public String upperName() {
+        return TRIGRAM_NAMES[upper()];
+    }
+
+    /**
+     * 卦符，上卦在前
+     */
+    public String symbol() {
+        return TRIGRAM_SYMBOLS[upper()] + TRIGRAM_SYMBOLS[lower()];
+    }
+
+    /**
+     * 第 position 爻（1-6）是否阳爻
+     */
+    public boolean isYang(int position) {
+        return (bits & lineMask(position)) != 0;
+    }
+
+    /**
+     * 变卦：动爻掩码内的爻阴阳互换
+     */
+    public HexagramCode change(int mask) {
+        return VALUES[(bits ^ mask) & ALL_LINES];
+    }
+
+    /**
+     * 互卦：二三四爻为下卦，三四五爻为上卦
+     */
+    public HexagramCode hu() {
+        return VALUES[(bits >>> 2 & 7) << 3 | bits >>> 1 & 7];
+    }
+
+    /**
+     * 错卦：六爻阴阳全反
+     */
+    public HexagramCode cuo() {
+        return VALUES[bits ^ ALL_LINES];
+    }
+
+    /**
+     * 综卦：六爻上下颠倒
+     */
+    public HexagramCode zong() {
+        return VALUES[Integer.reverse(bits) >>> (Integer.SIZE - LINE_COUNT)];
+    }
+
+    /**
+     * 六爻二进制串，初爻在前
+     */
+    public String binary() {
+        char[] chars = new char[LINE_COUNT];
+        for (int i = 0; i < LINE_COUNT; i++) {
+            chars[i] = (bits >>> i & 1) != 0 ? '1' : '0';
+        }
+        return new String(chars);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof HexagramCode other && other.bits == bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return bits;
+    }
+
+    @Override
+    public String toString() {
+        return binary();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.yijing.model;
 
 import com.example.demo.dto.response.yijing.YijingLiuYaoAnalysisResponse;
 import com.example.demo.entity.TbHexagramYao;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,10 +19,20 @@ public class HexagramResult {
     private String timestamp;
     private String method;
     private String question;
+
+    // 起卦所得六爻（本卦取不到时 original 退回乾卦，此处仍是实际卦码）
+    @JsonIgnore
+    private HexagramCode code;
+
     private Hexagram original;
     private List<Integer> changingLines;
     private Hexagram changed;
     private String interpretationHint;
+
+    // 互卦、错卦、综卦
+    private Hexagram hu;
+    private Hexagram cuo;
+    private Hexagram zong;
     
     // 本卦的爻详细信息（纳甲、六亲、世应等）
     private List<TbHexagramYao> originalYaos;
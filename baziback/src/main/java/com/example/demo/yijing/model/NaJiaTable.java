@@ -0,0 +1,137 @@
+package com.example.demo.yijing.model;
+
+import com.example.demo.bazi.constants.GanZhi;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 京房八宫纳甲表
+ *
+ * 六十四卦的宫位、世应、每爻纳干纳支与六亲都与日期无关，类加载时按八宫卦变规则
+ * 一次性排出 64 × 6 爻，装卦时只需叠加六神、空亡等随日期变化的部分。
+ * 编码沿用 bazi 的干支编码（甲=0、子=0）与五行编码（木0 火1 土2 金3 水4）。
+ */
+public final class NaJiaTable {
+
+    public static final String[] LIU_QIN_NAMES = {"兄弟", "子孙", "妻财", "官鬼", "父母"};
+    public static final String[] GENERATION_NAMES = {"首卦", "一世卦", "二世卦", "三世卦", "四世卦", "五世卦", "游魂卦", "归魂卦"};
+
+    // 按单卦三爻取值（坤0 震1 坎2 兑3 艮4 离5 巽6 乾7）下标
+    private static final byte[] TRIGRAM_WU_XING = {2, 0, 4, 3, 2, 1, 0, 3};
+    private static final byte[] INNER_STEMS = {1, 6, 4, 3, 2, 5, 7, 0};
+    private static final byte[] OUTER_STEMS = {9, 6, 4, 3, 2, 5, 7, 8};
+    private static final byte[][] INNER_BRANCHES = {
+            {7, 5, 3}, {0, 2, 4}, {2, 4, 6}, {5, 3, 1}, {4, 6, 8}, {3, 1, 11}, {1, 11, 9}, {0, 2, 4}};
+    private static final byte[][] OUTER_BRANCHES = {
+            {1, 11, 9}, {6, 8, 10}, {8, 10, 0}, {11, 9, 7}, {10, 0, 2}, {9, 7, 5}, {7, 5, 3}, {6, 8, 10}};
+
+    // 按卦变序号（首卦、一世 … 五世、游魂、归魂）下标
+    private static final byte[] SHI_POSITIONS = {6, 1, 2, 3, 4, 5, 4, 3};
+
+    private static final Gua[] TABLE = new Gua[HexagramCode.ALL_LINES + 1];
+
+    static {
+        for (int palace = 0; palace < 8; palace++) {
+            int pure = palace << 3 | palace;
+            int[] codes = new int[8];
+            codes[0] = pure;
+            for (int generation = 1; generation <= 5; generation++) {
+                codes[generation] = pure ^ ((1 << generation) - 1);
+            }
+            // 游魂：五世卦四爻复变；归魂：游魂卦下卦复归本宫
+            codes[6] = codes[5] ^ HexagramCode.lineMask(4);
+            codes[7] = codes[6] ^ 0b111;
+            for (int generation = 0; generation < 8; generation++) {
+                TABLE[codes[generation]] = build(HexagramCode.of(codes[generation]), palace, generation);
+            }
+        }
+    }
+
+    private NaJiaTable() {
+    }
+
+    /**
+     * 取一卦的纳甲排盘
+     */
+    public static Gua of(HexagramCode code) {
+        return TABLE[code.bits()];
+    }
+
+    /**
+     * 五行生克下的六亲序号：同我兄弟，我生子孙，我克妻财，克我官鬼，生我父母
+     */
+    public static int liuQin(int palaceWuXing, int wuXing) {
+        return (wuXing - palaceWuXing + 5) % 5;
+    }
+
+    private static Gua build(HexagramCode code, int palace, int generation) {
+        int shi = SHI_POSITIONS[generation];
+        int ying = (shi + 2) % 6 + 1;
+        int palaceWuXing = TRIGRAM_WU_XING[palace];
+        List<Yao> yaos = new ArrayList<>(HexagramCode.LINE_COUNT);
+        for (int position = 1; position <= HexagramCode.LINE_COUNT; position++) {
+            boolean inner = position <= 3;
+            int trigram = inner ? code.lower() : code.upper();
+            int stem = inner ? INNER_STEMS[trigram] : OUTER_STEMS[trigram];
+            int branch = inner ? INNER_BRANCHES[trigram][position - 1] : OUTER_BRANCHES[trigram][position - 4];
+            yaos.add(new Yao(position, code.isYang(position), stem, branch,
+                    liuQin(palaceWuXing, GanZhi.branchWuXing(branch)), position == shi, position == ying));
+        }
+        return new Gua(code, palace, generation, shi, ying, List.copyOf(yaos));
+    }
+
+    /**
+     * 一卦的纳甲排盘
+     *
+     * @param palace     宫位，单卦三爻取值
+     * @param generation 卦变序号，见 {@link #GENERATION_NAMES}
+     */
+    public record Gua(HexagramCode code, int palace, int generation, int shi, int ying, List<Yao> yaos) {
+
+        public int palaceWuXing() {
+            return TRIGRAM_WU_XING[palace];
+        }
+
+        public String palaceName() {
+            return HexagramCode.trigramName(palace) + "宫";
+        }
+
+        public String palaceWuXingName() {
+            return GanZhi.wuXing(palaceWuXing()).getName();
+        }
+
+        /**
+         * 如：乾宫一世卦
+         */
+        public String description() {
+            return palaceName() + GENERATION_NAMES[generation];
+        }
+
+        public Yao yao(int position) {
+            return yaos.get(position - 1);
+        }
+    }
+
+    /**
+     * 一爻的纳甲：干支编码与六亲序号，位置 1-6
+     */
+    public record Yao(int position, boolean yang, int stem, int branch, int liuQin, boolean shi, boolean ying) {
+
+        public String yaoType() {
+            return yang ? "阳" : "阴";
+        }
+
+        public String stemName() {
+            return GanZhi.stemName(stem);
+        }
+
+        public String branchName() {
+            return GanZhi.branchName(branch);
+        }
+
+        public String liuQinName() {
+            return LIU_QIN_NAMES[liuQin];
+        }
+    }
+}
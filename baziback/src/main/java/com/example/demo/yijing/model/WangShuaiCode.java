@@ -0,0 +1,181 @@
+package com.example.demo.yijing.model;
+
+import com.example.demo.bazi.constants.GanZhi;
+
+/**
+ * 六爻旺衰的数值判定
+ *
+ * 输入全是编码：地支 0-11、六亲序号（见 {@link NaJiaTable#LIU_QIN_NAMES}）、月建日辰地支、动爻掩码；
+ * 结果打包成一个 int，文字另由 LiuYaoWangShuaiService 渲染：
+ * 位 0-1 综合旺衰，2-3 月建关系，4-5 日辰关系，6-11 动爻掩码，
+ * 12-23 每爻两位的动爻作用（初爻在低位，非动爻为 0），24-27 用神地支，28-30 用神六亲。
+ * 旺衰与关系都按强弱排序，可直接比较大小。
+ */
+public final class WangShuaiCode {
+
+    // 综合旺衰
+    public static final int SHUAI = 0;
+    public static final int PING = 1;
+    public static final int WANG = 2;
+    public static final int JI_WANG = 3;
+
+    // 月建、日辰与用神的关系
+    public static final int KE = 0;
+    public static final int NEUTRAL = 1;
+    public static final int SHENG = 2;
+    public static final int LIN = 3;
+
+    // 动爻对用神的作用
+    public static final int EFFECT_NONE = 0;
+    public static final int EFFECT_BI_HE = 1;
+    public static final int EFFECT_SHENG = 2;
+    public static final int EFFECT_KE = 3;
+
+    private static final int MONTH_SHIFT = 2;
+    private static final int DAY_SHIFT = 4;
+    private static final int MOVING_SHIFT = 6;
+    private static final int EFFECT_SHIFT = 12;
+    private static final int BRANCH_SHIFT = 24;
+    private static final int LIU_QIN_SHIFT = 28;
+
+    /**
+     * 月建或日辰地支（行）对用神地支（列）的关系
+     */
+    private static final byte[][] RELATIONS = new byte[GanZhi.BRANCH_COUNT][GanZhi.BRANCH_COUNT];
+
+    /**
+     * 动爻六亲（行）对用神六亲（列）的作用，沿用原简化规则：
+     * 同类比和；父母生官鬼、子孙生妻财；子孙克官鬼、兄弟克妻财
+     */
+    private static final byte[][] EFFECTS = new byte[5][5];
+
+    static {
+        for (int reference = 0; reference < GanZhi.BRANCH_COUNT; reference++) {
+            int from = GanZhi.branchWuXing(reference);
+            for (int branch = 0; branch < GanZhi.BRANCH_COUNT; branch++) {
+                int to = GanZhi.branchWuXing(branch);
+                int relation = NEUTRAL;
+                if (reference == branch) {
+                    relation = LIN;
+                } else if ((from + 1) % 5 == to) {
+                    relation = SHENG;
+                } else if ((from + 2) % 5 == to) {
+                    relation = KE;
+                }
+                RELATIONS[reference][branch] = (byte) relation;
+            }
+        }
+        for (int liuQin = 0; liuQin < 5; liuQin++) {
+            EFFECTS[liuQin][liuQin] = EFFECT_BI_HE;
+        }
+        EFFECTS[4][3] = EFFECT_SHENG;
+        EFFECTS[1][2] = EFFECT_SHENG;
+        EFFECTS[1][3] = EFFECT_KE;
+        EFFECTS[0][2] = EFFECT_KE;
+    }
+
+    private WangShuaiCode() {
+    }
+
+    /**
+     * 判定用神旺衰
+     *
+     * @param branch      用神地支
+     * @param liuQin      用神六亲
+     * @param yueJian     月建地支
+     * @param riChen      日辰地支
+     * @param movingMask  动爻掩码
+     * @param lineLiuQins 六爻六亲，每爻三位，初爻在低位
+     */
+    public static int evaluate(int branch, int liuQin, int yueJian, int riChen, int movingMask, int lineLiuQins) {
+        int month = RELATIONS[yueJian][branch];
+        int day = RELATIONS[riChen][branch];
+        int effects = 0;
+        for (int i = 0; i < HexagramCode.LINE_COUNT; i++) {
+            if ((movingMask >>> i & 1) != 0) {
+                effects |= EFFECTS[lineLiuQins >>> (3 * i) & 7][liuQin] << (2 * i);
+            }
+        }
+        return overall(month, day)
+                | month << MONTH_SHIFT
+                | day << DAY_SHIFT
+                | (movingMask & HexagramCode.ALL_LINES) << MOVING_SHIFT
+                | effects << EFFECT_SHIFT
+                | branch << BRANCH_SHIFT
+                | liuQin << LIU_QIN_SHIFT;
+    }
+
+    /**
+     * 以一卦第 position 爻为用神判定
+     */
+    public static int evaluate(NaJiaTable.Gua gua, int position, int yueJian, int riChen, int movingMask) {
+        NaJiaTable.Yao yao = gua.yao(position);
+        return evaluate(yao.branch(), yao.liuQin(), yueJian, riChen, movingMask, lineLiuQins(gua));
+    }
+
+    /**
+     * 六爻逐一作为用神判定，结果按爻位写入 codes[0..5]
+     */
+    public static void evaluateLines(NaJiaTable.Gua gua, int yueJian, int riChen, int movingMask, int[] codes) {
+        int lineLiuQins = lineLiuQins(gua);
+        for (int i = 0; i < HexagramCode.LINE_COUNT; i++) {
+            NaJiaTable.Yao yao = gua.yaos().get(i);
+            codes[i] = evaluate(yao.branch(), yao.liuQin(), yueJian, riChen, movingMask, lineLiuQins);
+        }
+    }
+
+    /**
+     * 六爻六亲打包，每爻三位
+     */
+    public static int lineLiuQins(NaJiaTable.Gua gua) {
+        int packed = 0;
+        for (int i = 0; i < HexagramCode.LINE_COUNT; i++) {
+            packed |= gua.yaos().get(i).liuQin() << (3 * i);
+        }
+        return packed;
+    }
+
+    /**
+     * 综合旺衰：临月建或日辰为极旺；月日都生为旺；月日有一克为衰；其余为平
+     */
+    private static int overall(int month, int day) {
+        if (month == LIN || day == LIN) {
+            return JI_WANG;
+        }
+        if (month == SHENG && day == SHENG) {
+            return WANG;
+        }
+        return month == KE || day == KE ? SHUAI : PING;
+    }
+
+    public static int overall(int code) {
+        return code & 3;
+    }
+
+    public static int month(int code) {
+        return code >>> MONTH_SHIFT & 3;
+    }
+
+    public static int day(int code) {
+        return code >>> DAY_SHIFT & 3;
+    }
+
+    public static int movingMask(int code) {
+        return code >>> MOVING_SHIFT & HexagramCode.ALL_LINES;
+    }
+
+    /**
+     * 第 position 爻（1-6）动时对用神的作用
+     */
+    public static int effect(int code, int position) {
+        return code >>> (EFFECT_SHIFT + 2 * (position - 1)) & 3;
+    }
+
+    public static int branch(int code) {
+        return code >>> BRANCH_SHIFT & 15;
+    }
+
+    public static int liuQin(int code) {
+        return code >>> LIU_QIN_SHIFT & 7;
+    }
+}
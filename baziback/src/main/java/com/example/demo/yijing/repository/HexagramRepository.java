@@ -1,36 +1,63 @@
 package com.example.demo.yijing.repository;
 
+import com.example.demo.entity.BaseHexagramText;
 import com.example.demo.entity.TbHexagram;
 import com.example.demo.entity.TbHexagramYao;
 import com.example.demo.mapper.HexagramMapper;
 import com.example.demo.yijing.model.Hexagram;
+import com.example.demo.yijing.model.HexagramCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
+/**
+ * 六十四卦数据
+ *
+ * 卦、爻、卦爻辞只有几百行且基本不变，启动后整表载入 {@link HexagramTable}：
+ * 按卦码、ID 查卦是数组下标，按名称查卦是一次哈希，一次起卦不再有几十次数据库往返。
+ * 修改库表后调用 {@link #reload()} 整表替换；载入前或载入失败时按原方式逐条查库。
+ * 返回的卦象、卦表记录与爻都是副本，调用方修改不影响内存表。
+ */
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class HexagramRepository {
 
     private final HexagramMapper hexagramMapper;
+
+    private volatile HexagramTable table;
     
-    // 单卦到二进制的映射
-    private static final Map<String, String> TRIGRAM_BINARY_MAP = Map.of(
-            "乾", "111",
-            "坤", "000",
-            "震", "001",
-            "巽", "110",
-            "坎", "010",
-            "离", "101",
-            "艮", "100",
-            "兑", "011"
-    );
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("卦象表加载失败，查询将逐条访问数据库", e);
+        }
+    }
+
+    /**
+     * 重新载入全部卦、爻、卦爻辞并整表替换，返回载入卦数
+     */
+    public int reload() {
+        HexagramTable loaded = new HexagramTable(hexagramMapper.findAll(), hexagramMapper.findAllYaos(),
+                hexagramMapper.findAllTexts());
+        table = loaded;
+        log.info("卦象表加载完成: {} 卦", loaded.size());
+        return loaded.size();
+    }
 
     public List<Hexagram> findAll() {
+        HexagramTable current = table;
+        if (current != null) {
+            return current.all();
+        }
         List<TbHexagram> tbHexagrams = hexagramMapper.findAll();
         return tbHexagrams.stream()
                 .map(this::convertToHexagram)
@@ -38,6 +65,10 @@ public class HexagramRepository {
     }
 
     public Optional<Hexagram> findById(Integer id) {
+        HexagramTable current = table;
+        if (current != null) {
+            return Optional.ofNullable(current.byId(id));
+        }
         TbHexagram tbHexagram = hexagramMapper.findById(id);
         if (tbHexagram == null) {
             return Optional.empty();
@@ -45,38 +76,58 @@ public class HexagramRepository {
         return Optional.of(convertToHexagram(tbHexagram));
     }
 
+    /**
+     * 按ID取卦表原始记录（全名、宫位等）
+     */
+    public Optional<TbHexagram> findEntityById(Integer id) {
+        HexagramTable current = table;
+        if (current != null) {
+            return Optional.ofNullable(current.row(id));
+        }
+        return Optional.ofNullable(hexagramMapper.findById(id));
+    }
+
+    /**
+     * 按六爻二进制串查卦，初爻在前
+     */
     public Optional<Hexagram> findByBinary(String binary) {
-        // 从二进制字符串解析上下卦
-        // 注意：二进制格式为 下卦(1-3爻) + 上卦(4-6爻)，即前3位是下卦，后3位是上卦
-        if (binary == null || binary.length() != 6) {
+        int bits = HexagramCode.parseBits(binary);
+        if (bits < 0) {
             log.warn("二进制字符串无效: {}", binary);
             return Optional.empty();
         }
-        
-        // 前3位是下卦（初爻到三爻），后3位是上卦（四爻到六爻）
-        String lowerBinary = binary.substring(0, 3);
-        String upperBinary = binary.substring(3, 6);
-        
-        String lowerGua = getTrigramFromBinary(lowerBinary);
-        String upperGua = getTrigramFromBinary(upperBinary);
-        
-        if (upperGua == null || lowerGua == null) {
-            log.warn("无法从二进制解析单卦: 上卦二进制={}, 下卦二进制={}", upperBinary, lowerBinary);
-            return Optional.empty();
+        return findByCode(HexagramCode.of(bits));
+    }
+
+    /**
+     * 按卦码查卦
+     */
+    public Optional<Hexagram> findByCode(HexagramCode code) {
+        HexagramTable current = table;
+        if (current != null) {
+            Hexagram hexagram = current.byCode(code);
+            if (hexagram == null) {
+                log.warn("卦象表中未找到卦象: 二进制={}", code);
+            }
+            return Optional.ofNullable(hexagram);
         }
-        
-        TbHexagram tbHexagram = hexagramMapper.findByUpperAndLower(upperGua, lowerGua);
+
+        TbHexagram tbHexagram = hexagramMapper.findByUpperAndLower(code.upperName(), code.lowerName());
         if (tbHexagram == null) {
-            log.warn("数据库中未找到卦象: 上卦={}, 下卦={}, 二进制={}", upperGua, lowerGua, binary);
+            log.warn("数据库中未找到卦象: 上卦={}, 下卦={}, 二进制={}", code.upperName(), code.lowerName(), code);
             return Optional.empty();
         }
         
         log.debug("成功找到卦象: ID={}, 上卦={}, 下卦={}, 二进制={}", 
-                tbHexagram.getId(), upperGua, lowerGua, binary);
+                tbHexagram.getId(), code.upperName(), code.lowerName(), code);
         return Optional.of(convertToHexagram(tbHexagram));
     }
 
     public Optional<Hexagram> findByName(String name) {
+        HexagramTable current = table;
+        if (current != null) {
+            return Optional.ofNullable(current.byName(name));
+        }
         TbHexagram tbHexagram = hexagramMapper.findByName(name);
         if (tbHexagram == null) {
             return Optional.empty();
@@ -88,6 +139,10 @@ public class HexagramRepository {
      * 根据上下卦名称查找卦象
      */
     public Optional<Hexagram> findByUpperAndLower(String upperGua, String lowerGua) {
+        HexagramTable current = table;
+        if (current != null) {
+            return Optional.ofNullable(current.byCode(HexagramCode.ofTrigrams(upperGua, lowerGua)));
+        }
         TbHexagram tbHexagram = hexagramMapper.findByUpperAndLower(upperGua, lowerGua);
         if (tbHexagram == null) {
             return Optional.empty();
@@ -96,23 +151,44 @@ public class HexagramRepository {
     }
 
     /**
-     * 将数据库实体转换为Hexagram模型
+     * 将数据库实体转换为Hexagram模型（逐条查库）
      */
     private Hexagram convertToHexagram(TbHexagram tbHexagram) {
         // 获取该卦的所有爻
         List<TbHexagramYao> yaos = hexagramMapper.findYaosByHexagramId(tbHexagram.getId());
         
+        // 从数据库查询卦辞和象辞（按SQL：简体枚举）
+        BaseHexagramText judgment = toText(hexagramMapper.findTextDetailByHexagramIdAndType(tbHexagram.getId(), "卦辞"));
+        BaseHexagramText image = toText(hexagramMapper.findTextDetailByHexagramIdAndType(tbHexagram.getId(), "大象"));
+
+        return toHexagram(tbHexagram, yaos, judgment, image, position -> toText(
+                hexagramMapper.findTextDetailByHexagramIdAndYaoPosition(tbHexagram.getId(), "爻辞", position)));
+    }
+
+    private static BaseHexagramText toText(Map<String, Object> row) {
+        if (row == null) {
+            return null;
+        }
+        return BaseHexagramText.builder()
+                .content((String) row.get("content"))
+                .explanation((String) row.get("explanation"))
+                .build();
+    }
+
+    /**
+     * 由卦、爻、卦爻辞组装Hexagram模型，逐条查库与整表载入共用
+     *
+     * @param yaoText 按爻位取爻辞，无记录返回 null
+     */
+    static Hexagram toHexagram(TbHexagram tbHexagram, List<TbHexagramYao> yaos, BaseHexagramText judgmentRow,
+                               BaseHexagramText imageRow, IntFunction<BaseHexagramText> yaoText) {
         // 生成二进制字符串
         String binary = generateBinary(yaos);
-        
-        // 从数据库查询卦辞和象辞（按SQL：简体枚举）
-        Map<String, Object> judgmentRow = hexagramMapper.findTextDetailByHexagramIdAndType(tbHexagram.getId(), "卦辞");
-        Map<String, Object> imageRow = hexagramMapper.findTextDetailByHexagramIdAndType(tbHexagram.getId(), "大象");
 
-        String judgment = judgmentRow == null ? null : (String) judgmentRow.get("content");
-        String judgmentExplanation = judgmentRow == null ? null : (String) judgmentRow.get("explanation");
-        String image = imageRow == null ? null : (String) imageRow.get("content");
-        String imageExplanation = imageRow == null ? null : (String) imageRow.get("explanation");
+        String judgment = judgmentRow == null ? null : judgmentRow.getContent();
+        String judgmentExplanation = judgmentRow == null ? null : judgmentRow.getExplanation();
+        String image = imageRow == null ? null : imageRow.getContent();
+        String imageExplanation = imageRow == null ? null : imageRow.getExplanation();
         
         // 转换为Hexagram模型
         return Hexagram.builder()
@@ -134,26 +210,24 @@ public class HexagramRepository {
                 .season("")
                 .direction("")
                 .applications(Collections.emptyMap())
-                .lines(convertYaosToLines(yaos))
+                .lines(convertYaosToLines(yaos, yaoText))
                 .build();
     }
 
     /**
      * 根据爻列表生成二进制字符串（从下往上，1-6爻）
      */
-    private String generateBinary(List<TbHexagramYao> yaos) {
+    private static String generateBinary(List<TbHexagramYao> yaos) {
         if (yaos == null || yaos.isEmpty()) {
             return "000000";
         }
         
         StringBuilder binary = new StringBuilder();
-        // 按爻位排序（1-6）
-        yaos.sort(Comparator.comparing(TbHexagramYao::getYaoPosition));
-        
-        for (TbHexagramYao yao : yaos) {
-            // 阳爻为1，阴爻为0
-            binary.append("阳".equals(yao.getYaoType()) ? "1" : "0");
-        }
+        // 按爻位排序（1-6），爻列表可能是只读的，不在原列表上排序
+        yaos.stream()
+                .sorted(Comparator.comparing(TbHexagramYao::getYaoPosition))
+                // 阳爻为1，阴爻为0
+                .forEach(yao -> binary.append("阳".equals(yao.getYaoType()) ? "1" : "0"));
         
         return binary.toString();
     }
@@ -161,7 +235,7 @@ public class HexagramRepository {
     /**
      * 生成卦象符号
      */
-    private String generateSymbol(String upperGua, String lowerGua) {
+    private static String generateSymbol(String upperGua, String lowerGua) {
         Map<String, String> symbolMap = Map.of(
                 "乾", "☰", "坤", "☷", "震", "☳", "巽", "☴",
                 "坎", "☵", "离", "☲", "艮", "☶", "兑", "☱"
@@ -172,28 +246,24 @@ public class HexagramRepository {
     /**
      * 将数据库爻转换为Hexagram.Line
      */
-    private List<Hexagram.Line> convertYaosToLines(List<TbHexagramYao> yaos) {
+    private static List<Hexagram.Line> convertYaosToLines(List<TbHexagramYao> yaos,
+                                                          IntFunction<BaseHexagramText> yaoText) {
         if (yaos == null || yaos.isEmpty()) {
             return Collections.emptyList();
         }
         
-        // 获取第一个爻的卦ID（所有爻都属于同一个卦）
-        Integer hexagramId = yaos.get(0).getHexagramId();
-        
         return yaos.stream()
                 .sorted(Comparator.comparing(TbHexagramYao::getYaoPosition))
                 .map((TbHexagramYao yao) -> {
-                    // 查询爻辞（按SQL：简体枚举）
-                    Map<String, Object> yaoTextRow = hexagramMapper.findTextDetailByHexagramIdAndYaoPosition(
-                            hexagramId, "爻辞", yao.getYaoPosition());
-                    String yaoText = yaoTextRow == null ? null : (String) yaoTextRow.get("content");
-                    String yaoTextExplanation = yaoTextRow == null ? null : (String) yaoTextRow.get("explanation");
+                    BaseHexagramText yaoTextRow = yaoText.apply(yao.getYaoPosition());
+                    String text = yaoTextRow == null ? null : yaoTextRow.getContent();
+                    String textExplanation = yaoTextRow == null ? null : yaoTextRow.getExplanation();
                     
                     return Hexagram.Line.builder()
                             .position(yao.getYaoPosition())
                             .type("阳".equals(yao.getYaoType()) ? "yang" : "yin")
-                            .text(yaoText != null ? yaoText : "")
-                            .textExplanation(yaoTextExplanation != null ? yaoTextExplanation : "")
+                            .text(text != null ? text : "")
+                            .textExplanation(textExplanation != null ? textExplanation : "")
                             .meaning("")
                             .stem(yao.getStem())
                             .branch(yao.getBranch())
@@ -205,21 +275,14 @@ public class HexagramRepository {
                 .collect(Collectors.toList());
     }
 
-    /**
-     * 从二进制字符串获取单卦名称
-     */
-    private String getTrigramFromBinary(String binary) {
-        return TRIGRAM_BINARY_MAP.entrySet().stream()
-                .filter(entry -> entry.getValue().equals(binary))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
-    }
-
     /**
      * 获取卦的所有爻信息
      */
     public List<TbHexagramYao> getHexagramYaos(Integer hexagramId) {
+        HexagramTable current = table;
+        if (current != null) {
+            return current.yaos(hexagramId);
+        }
         return hexagramMapper.findYaosByHexagramId(hexagramId);
     }
 }
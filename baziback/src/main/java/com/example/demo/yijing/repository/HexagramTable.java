@@ -0,0 +1,164 @@
+package com.example.demo.yijing.repository;
+
+import com.example.demo.entity.BaseHexagramText;
+import com.example.demo.entity.TbHexagram;
+import com.example.demo.entity.TbHexagramYao;
+import com.example.demo.yijing.model.Hexagram;
+import com.example.demo.yijing.model.HexagramCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 六十四卦内存表
+ *
+ * 卦、爻、卦爻辞三张表整表载入后展开成数组：
+ * 1 byCode：按 {@link HexagramCode} 六爻取值下标，共 64 格；取值由 upper_gua、lower_gua 两列算出，
+ *   与未载入时按上下卦查库的条件一致，名称不识别的行不登记
+ * 2 byId / rowsById / yaosById：按卦 ID 下标
+ * 3 byName：全名与简称都登记，同名时保留 ID 小的一条（与 LIMIT 1 一致）
+ * 构建后只读，重新加载时整表替换。表中的卦象、卦表记录与爻都是可变的 Lombok 对象，
+ * 对外一律返回副本，调用方修改不会影响表和其他请求。
+ */
+final class HexagramTable {
+
+    // 每卦文本槽位：卦辞、大象、初爻至上爻爻辞
+    private static final int JUDGMENT = 0;
+    private static final int IMAGE = 1;
+    private static final int YAO_TEXT = 2;
+    private static final int TEXT_SLOTS = YAO_TEXT + 6;
+
+    private final Hexagram[] byCode = new Hexagram[HexagramCode.ALL_LINES + 1];
+    private final Hexagram[] byId;
+    private final TbHexagram[] rowsById;
+    private final List<List<TbHexagramYao>> yaosById;
+    private final Map<String, Hexagram> byName;
+    private final List<Hexagram> all;
+
+    /**
+     * @param rows  卦表，按 ID 升序
+     * @param yaos  爻表，按卦 ID、爻位升序
+     * @param texts 卦辞、大象、爻辞，同一组合重复时保留先出现的一条
+     */
+    HexagramTable(List<TbHexagram> rows, List<TbHexagramYao> yaos, List<BaseHexagramText> texts) {
+        int maxId = 0;
+        for (TbHexagram row : rows) {
+            maxId = Math.max(maxId, row.getId());
+        }
+        byId = new Hexagram[maxId + 1];
+        rowsById = new TbHexagram[maxId + 1];
+        yaosById = new ArrayList<>(Collections.nCopies(maxId + 1, List.of()));
+
+        Map<Integer, List<TbHexagramYao>> yaoGroups = new HashMap<>();
+        for (TbHexagramYao yao : yaos) {
+            yaoGroups.computeIfAbsent(yao.getHexagramId(), id -> new ArrayList<>()).add(yao);
+        }
+        Map<Integer, BaseHexagramText[]> textGroups = new HashMap<>();
+        for (BaseHexagramText text : texts) {
+            int slot = textSlot(text);
+            if (slot >= 0 && text.getHexagramId() != null) {
+                BaseHexagramText[] group = textGroups.computeIfAbsent(text.getHexagramId(),
+                        id -> new BaseHexagramText[TEXT_SLOTS]);
+                if (group[slot] == null) {
+                    group[slot] = text;
+                }
+            }
+        }
+
+        Map<String, Hexagram> names = new HashMap<>();
+        List<Hexagram> hexagrams = new ArrayList<>(rows.size());
+        for (TbHexagram row : rows) {
+            int id = row.getId();
+            List<TbHexagramYao> rowYaos = List.copyOf(yaoGroups.getOrDefault(id, Collections.emptyList()));
+            BaseHexagramText[] group = textGroups.getOrDefault(id, new BaseHexagramText[TEXT_SLOTS]);
+            Hexagram hexagram = HexagramRepository.toHexagram(row, rowYaos, group[JUDGMENT], group[IMAGE],
+                    position -> position >= 1 && position <= 6 ? group[YAO_TEXT + position - 1] : null);
+
+            byId[id] = hexagram;
+            rowsById[id] = row;
+            yaosById.set(id, rowYaos);
+            hexagrams.add(hexagram);
+            if (row.getName() != null) {
+                names.putIfAbsent(row.getName(), hexagram);
+            }
+            if (row.getNameShort() != null) {
+                names.putIfAbsent(row.getNameShort(), hexagram);
+            }
+            HexagramCode code = HexagramCode.ofTrigrams(row.getUpperGua(), row.getLowerGua());
+            if (code != null && byCode[code.bits()] == null) {
+                byCode[code.bits()] = hexagram;
+            }
+        }
+        byName = Map.copyOf(names);
+        all = List.copyOf(hexagrams);
+    }
+
+    private static int textSlot(BaseHexagramText text) {
+        Integer position = text.getYaoPosition();
+        if (position == null) {
+            if ("卦辞".equals(text.getTextType())) {
+                return JUDGMENT;
+            }
+            return "大象".equals(text.getTextType()) ? IMAGE : -1;
+        }
+        return "爻辞".equals(text.getTextType()) && position >= 1 && position <= 6 ? YAO_TEXT + position - 1 : -1;
+    }
+
+    Hexagram byCode(HexagramCode code) {
+        return code != null ? copy(byCode[code.bits()]) : null;
+    }
+
+    Hexagram byId(Integer id) {
+        return id != null && id >= 0 && id < byId.length ? copy(byId[id]) : null;
+    }
+
+    TbHexagram row(Integer id) {
+        TbHexagram row = id != null && id >= 0 && id < rowsById.length ? rowsById[id] : null;
+        return row != null ? row.toBuilder().build() : null;
+    }
+
+    List<TbHexagramYao> yaos(Integer id) {
+        if (id == null || id < 0 || id >= yaosById.size()) {
+            return Collections.emptyList();
+        }
+        List<TbHexagramYao> yaos = yaosById.get(id);
+        List<TbHexagramYao> copies = new ArrayList<>(yaos.size());
+        for (TbHexagramYao yao : yaos) {
+            copies.add(yao.toBuilder().build());
+        }
+        return copies;
+    }
+
+    Hexagram byName(String name) {
+        return name != null ? copy(byName.get(name)) : null;
+    }
+
+    List<Hexagram> all() {
+        List<Hexagram> copies = new ArrayList<>(all.size());
+        for (Hexagram hexagram : all) {
+            copies.add(copy(hexagram));
+        }
+        return copies;
+    }
+
+    int size() {
+        return all.size();
+    }
+
+    /**
+     * 卦象连同爻逐个复制；关键词、应用等字段本就是不可变集合，直接沿用
+     */
+    private static Hexagram copy(Hexagram hexagram) {
+        if (hexagram == null) {
+            return null;
+        }
+        List<Hexagram.Line> lines = new ArrayList<>(hexagram.getLines().size());
+        for (Hexagram.Line line : hexagram.getLines()) {
+            lines.add(line.toBuilder().build());
+        }
+        return hexagram.toBuilder().lines(lines).build();
+    }
+}
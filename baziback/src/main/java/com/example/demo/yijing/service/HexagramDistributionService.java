@@ -0,0 +1,517 @@
+package com.example.demo.yijing.service;
+
+import com.example.demo.dto.request.yijing.YijingDistributionRequest;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.yijing.model.Hexagram;
+import com.example.demo.yijing.model.HexagramCast;
+import com.example.demo.yijing.model.HexagramCode;
+import com.example.demo.yijing.model.NaJiaTable;
+import com.example.demo.yijing.model.WangShuaiCode;
+import com.example.demo.yijing.repository.HexagramRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 起卦结果分布统计
+ *
+ * 统计各起卦方式的本卦、动爻分布：
+ * 1 exact：穷举全部输入——日期范围内每一分钟（时）或每个时辰（梅花），种子范围内每个数，
+ *   随机起卦的 8 × 8 × 6 种组合，金钱卦的 2^18 种硬币结果
+ * 2 simulate：用 SplittableRandom 抽样
+ * 计数在本服务专用的 ForkJoin 池中分段累加到 64 × 64 格（本卦 × 动爻掩码）的直方图，
+ * 每次拆分各拆出一个随机源，给定种子时结果可复现。
+ * 用神旺衰对出现过的格子按 {@link WangShuaiCode} 把六爻都作为用神候选判定一次，再按次数加权。
+ *
+ * 抽样最多十亿次起卦，每次统计限时 yijing.distribution.time-budget（默认 60 秒），各分段开始前检查，
+ * 超时或请求取消后不再计数，超时以 503 结束。{@link #analyzeAsync} 在专用线程上执行，
+ * 同时统计的请求数与排队数有上限，超出时直接拒绝（由 GlobalExceptionHandler 转成 503），
+ * 不占用 Web 容器线程与公共池。
+ */
+@Slf4j
+@Service
+public class HexagramDistributionService {
+
+    static final long DEFAULT_SAMPLES = 1_000_000L;
+    static final long MAX_SAMPLES = 1_000_000_000L;
+    static final long MAX_EXACT_DAYS = 366L * 10;
+    static final long MAX_EXACT_SEEDS = 10_000_000L;
+    static final int DEFAULT_SEED_TO = 9999;
+
+    // 同时统计的请求数与排队数
+    private static final int MAX_RUNNING = 2;
+    private static final int MAX_QUEUED = 8;
+
+    private static final int HOURS_PER_DAY = 24;
+    private static final int MINUTES_PER_HOUR = 60;
+    private static final int RANDOM_COMBINATIONS = 8 * 8 * HexagramCode.LINE_COUNT;
+
+    // 每段约一百万次起卦
+    private static final long CASTS_PER_LEAF = 1L << 20;
+
+    private final HexagramRepository hexagramRepository;
+    private final LiuYaoZhuangGuaService zhuangGuaService;
+    private final LiuYaoYongShenService yongShenService;
+    private final ForkJoinPool pool;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final Duration timeBudget;
+
+    /**
+     * @param parallelism 计数池的线程数，0 取 CPU 核数的一半
+     * @param timeBudget  单次统计的时间上限，含排队时间
+     */
+    public HexagramDistributionService(HexagramRepository hexagramRepository,
+                                       LiuYaoZhuangGuaService zhuangGuaService,
+                                       LiuYaoYongShenService yongShenService,
+                                       @Value("${yijing.distribution.parallelism:0}") int parallelism,
+                                       @Value("${yijing.distribution.time-budget:60s}") Duration timeBudget) {
+        this.hexagramRepository = hexagramRepository;
+        this.zhuangGuaService = zhuangGuaService;
+        this.yongShenService = yongShenService;
+        this.timeBudget = timeBudget;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("yijing-distribution-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(MAX_RUNNING, MAX_RUNNING, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "yijing-distribution");
+    }
+
+    /**
+     * 在专用线程上执行 {@link #analyze}；已满时以 RejectedExecutionException 结束，
+     * 订阅取消（如客户端断开）后计数随即停止
+     */
+    public Mono<Map<String, Object>> analyzeAsync(YijingDistributionRequest request) {
+        return Mono.defer(() -> {
+            CountBudget budget = new CountBudget(timeBudget);
+            return Mono.fromCallable(() -> analyze(request, budget))
+                    .subscribeOn(scheduler)
+                    .doOnCancel(budget::cancel);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+        executor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * 统计分布并汇总为本卦频率、动爻数与动爻位置分布、用神旺衰分布
+     */
+    public Map<String, Object> analyze(YijingDistributionRequest request) {
+        return analyze(request, new CountBudget(timeBudget));
+    }
+
+    private Map<String, Object> analyze(YijingDistributionRequest request, CountBudget budget) {
+        long start = System.nanoTime();
+        long[] counts = count(request, budget);
+
+        long total = 0;
+        int distinct = 0;
+        long[] hexagramCounts = new long[HexagramCode.ALL_LINES + 1];
+        long[] lineCounts = new long[HexagramCode.LINE_COUNT + 1];
+        long[] positionCounts = new long[HexagramCode.LINE_COUNT];
+        for (int cast = 0; cast < counts.length; cast++) {
+            long times = counts[cast];
+            if (times == 0) {
+                continue;
+            }
+            total += times;
+            distinct++;
+            hexagramCounts[HexagramCast.bits(cast)] += times;
+            int mask = HexagramCast.movingMask(cast);
+            lineCounts[Integer.bitCount(mask)] += times;
+            for (int i = 0; i < HexagramCode.LINE_COUNT; i++) {
+                if ((mask >>> i & 1) != 0) {
+                    positionCounts[i] += times;
+                }
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("method", request.getMethod().toLowerCase());
+        result.put("mode", isExact(request) ? "exact" : "simulate");
+        result.put("total", total);
+        result.put("distinct_casts", distinct);
+        result.put("hexagrams", hexagramFrequencies(hexagramCounts, total));
+
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (int n = 0; n < lineCounts.length; n++) {
+            lines.add(frequency("changing_lines", n, lineCounts[n], total));
+        }
+        result.put("changing_line_counts", lines);
+
+        List<Map<String, Object>> positions = new ArrayList<>();
+        for (int i = 0; i < positionCounts.length; i++) {
+            positions.add(frequency("position", i + 1, positionCounts[i], total));
+        }
+        result.put("changing_line_positions", positions);
+        result.put("wang_shuai", wangShuaiDistribution(request, counts, total));
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        result.put("elapsed_ms", elapsedMillis);
+        log.info("起卦分布统计 - 方法: {}, 模式: {}, 次数: {}, 耗时: {}ms",
+                result.get("method"), result.get("mode"), total, elapsedMillis);
+        return result;
+    }
+
+    /**
+     * 按请求的方式与模式起卦计数，下标为 {@link HexagramCast} 打包值
+     */
+    long[] count(YijingDistributionRequest request) {
+        return count(request, new CountBudget(timeBudget));
+    }
+
+    long[] count(YijingDistributionRequest request, CountBudget budget) {
+        CastSource source = source(request);
+        long unitsPerLeaf = Math.max(1, CASTS_PER_LEAF / source.castsPerUnit());
+        SplittableRandom random = request.getRandomSeed() != null
+                ? new SplittableRandom(request.getRandomSeed()) : new SplittableRandom();
+        long[] counts = pool.invoke(new CountTask(source, 0, source.units(), unitsPerLeaf, random, budget));
+        budget.check();
+        return counts;
+    }
+
+    private static boolean isExact(YijingDistributionRequest request) {
+        String mode = request.getMode();
+        if (mode == null || mode.isBlank() || "exact".equalsIgnoreCase(mode)) {
+            return true;
+        }
+        if ("simulate".equalsIgnoreCase(mode)) {
+            return false;
+        }
+        throw new IllegalArgumentException("不支持的统计模式: " + mode);
+    }
+
+    private static CastSource source(YijingDistributionRequest request) {
+        boolean exact = isExact(request);
+        long samples = exact ? 0 : samples(request);
+        String method = request.getMethod().toLowerCase();
+        switch (method) {
+            case "time": {
+                LocalDate first = startDate(request);
+                long days = days(first, request, exact);
+                if (exact) {
+                    return new CastSource(days, HOURS_PER_DAY * MINUTES_PER_HOUR, (unit, random, counts) -> {
+                        LocalDate date = first.plusDays(unit);
+                        for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                            for (int minute = 0; minute < MINUTES_PER_HOUR; minute++) {
+                                counts[HexagramCast.time(date.getYear(), date.getMonthValue(),
+                                        date.getDayOfMonth(), hour, minute)]++;
+                            }
+                        }
+                    });
+                }
+                return new CastSource(samples, 1, (unit, random, counts) -> {
+                    LocalDate date = first.plusDays(random.nextLong(days));
+                    counts[HexagramCast.time(date.getYear(), date.getMonthValue(), date.getDayOfMonth(),
+                            random.nextInt(HOURS_PER_DAY), random.nextInt(MINUTES_PER_HOUR))]++;
+                });
+            }
+            case "plum_blossom": {
+                LocalDate first = startDate(request);
+                long days = days(first, request, exact);
+                int offset = request.getOffset() != null ? request.getOffset() : 0;
+                if (exact) {
+                    return new CastSource(days, HOURS_PER_DAY, (unit, random, counts) -> {
+                        LocalDate date = first.plusDays(unit);
+                        for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                            counts[HexagramCast.plumBlossom(date.getYear(), date.getMonthValue(),
+                                    date.getDayOfMonth(), hour, offset)]++;
+                        }
+                    });
+                }
+                return new CastSource(samples, 1, (unit, random, counts) -> {
+                    LocalDate date = first.plusDays(random.nextLong(days));
+                    counts[HexagramCast.plumBlossom(date.getYear(), date.getMonthValue(), date.getDayOfMonth(),
+                            random.nextInt(HOURS_PER_DAY), offset)]++;
+                });
+            }
+            case "number": {
+                long seedFrom = request.getSeedFrom() != null ? request.getSeedFrom() : 0;
+                long seedTo = request.getSeedTo() != null ? request.getSeedTo() : DEFAULT_SEED_TO;
+                long seeds = seedTo - seedFrom + 1;
+                if (seeds < 1) {
+                    throw new IllegalArgumentException("种子范围无效: " + seedFrom + " - " + seedTo);
+                }
+                if (exact) {
+                    if (seeds > MAX_EXACT_SEEDS) {
+                        throw new IllegalArgumentException("穷举种子数不能超过 " + MAX_EXACT_SEEDS);
+                    }
+                    return new CastSource(seeds, 1,
+                            (unit, random, counts) -> counts[HexagramCast.number((int) (seedFrom + unit))]++);
+                }
+                return new CastSource(samples, 1,
+                        (unit, random, counts) -> counts[HexagramCast.number((int) (seedFrom + random.nextLong(seeds)))]++);
+            }
+            case "random": {
+                if (exact) {
+                    return new CastSource(RANDOM_COMBINATIONS, 1, (unit, random, counts) -> {
+                        int combination = (int) unit;
+                        counts[HexagramCast.byNumbers(combination / 48 + 1, combination / 6 % 8 + 1,
+                                combination % 6 + 1)]++;
+                    });
+                }
+                return new CastSource(samples, 1, (unit, random, counts) -> counts[HexagramCast.random(random)]++);
+            }
+            case "coin":
+            case "liuyao": {
+                // 六爻摇卦与金钱卦同一规则
+                if (exact) {
+                    return new CastSource(1L << HexagramCast.COIN_BITS, 1,
+                            (unit, random, counts) -> counts[HexagramCast.fromCoins((int) unit)]++);
+                }
+                return new CastSource(samples, 1, (unit, random, counts) -> counts[HexagramCast.coin(random)]++);
+            }
+            default:
+                throw new IllegalArgumentException("不支持的起卦方式: " + method);
+        }
+    }
+
+    private static long samples(YijingDistributionRequest request) {
+        long samples = request.getSamples() != null ? request.getSamples() : DEFAULT_SAMPLES;
+        if (samples < 1 || samples > MAX_SAMPLES) {
+            throw new IllegalArgumentException("抽样次数应为 1 - " + MAX_SAMPLES);
+        }
+        return samples;
+    }
+
+    private static LocalDate startDate(YijingDistributionRequest request) {
+        return request.getStartDate() != null ? request.getStartDate() : LocalDate.now().withDayOfYear(1);
+    }
+
+    private static long days(LocalDate first, YijingDistributionRequest request, boolean exact) {
+        LocalDate last = request.getEndDate() != null ? request.getEndDate()
+                : first.withDayOfYear(first.lengthOfYear());
+        long days = ChronoUnit.DAYS.between(first, last) + 1;
+        if (days < 1) {
+            throw new IllegalArgumentException("日期范围无效: " + first + " - " + last);
+        }
+        if (exact && days > MAX_EXACT_DAYS) {
+            throw new IllegalArgumentException("穷举日期范围不能超过 " + MAX_EXACT_DAYS + " 天");
+        }
+        return days;
+    }
+
+    private List<Map<String, Object>> hexagramFrequencies(long[] hexagramCounts, long total) {
+        List<Map<String, Object>> hexagrams = new ArrayList<>();
+        for (int bits = 0; bits < hexagramCounts.length; bits++) {
+            if (hexagramCounts[bits] == 0) {
+                continue;
+            }
+            HexagramCode code = HexagramCode.of(bits);
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("binary", code.binary());
+            map.put("symbol", code.symbol());
+            Optional<Hexagram> hexagram = hexagramRepository.findByCode(code);
+            hexagram.ifPresent(h -> {
+                map.put("id", h.getId());
+                map.put("name", h.getName());
+                map.put("chinese", h.getChinese());
+            });
+            map.put("count", hexagramCounts[bits]);
+            map.put("probability", (double) hexagramCounts[bits] / total);
+            hexagrams.add(map);
+        }
+        hexagrams.sort(Comparator.comparingLong((Map<String, Object> map) -> (Long) map.get("count")).reversed());
+        return hexagrams;
+    }
+
+    private Map<String, Object> wangShuaiDistribution(YijingDistributionRequest request, long[] counts, long total) {
+        String category = request.getCategory() != null ? request.getCategory() : "自身";
+        LocalDate date = request.getDivinationDate() != null ? request.getDivinationDate() : LocalDate.now();
+        String yongShen = yongShenService.getYongShen(category, request.getIsMale()).getPrimaryYongShen();
+        int yueJian = LiuYaoZhuangGuaService.monthBranch(date);
+        int riChen = LiuYaoZhuangGuaService.dayBranch(date);
+
+        // 用神爻只随本卦变化，按卦缓存爻位；0 表示尚未取
+        int[] yongShenPositions = new int[HexagramCode.ALL_LINES + 1];
+        long[] outcomes = new long[WangShuaiCode.JI_WANG + 1];
+        long[][] lineOutcomes = new long[HexagramCode.LINE_COUNT][WangShuaiCode.JI_WANG + 1];
+        int[] lineCodes = new int[HexagramCode.LINE_COUNT];
+        for (int cast = 0; cast < counts.length; cast++) {
+            long times = counts[cast];
+            if (times == 0) {
+                continue;
+            }
+            int bits = HexagramCast.bits(cast);
+            NaJiaTable.Gua gua = NaJiaTable.of(HexagramCode.of(bits));
+            if (yongShenPositions[bits] == 0) {
+                yongShenPositions[bits] = LiuYaoDivinationService.findYongShenYaoInfo(
+                        zhuangGuaService.calculateZhuangGua(gua.code(), date).getYaos(), yongShen).getYaoPosition();
+            }
+            int mask = HexagramCast.movingMask(cast);
+            WangShuaiCode.evaluateLines(gua, yueJian, riChen, mask, lineCodes);
+            outcomes[WangShuaiCode.overall(lineCodes[yongShenPositions[bits] - 1])] += times;
+            for (int i = 0; i < lineCodes.length; i++) {
+                lineOutcomes[i][WangShuaiCode.overall(lineCodes[i])] += times;
+            }
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("category", category);
+        map.put("yong_shen", yongShen);
+        map.put("divination_date", date.toString());
+        map.put("outcomes", levelFrequencies(outcomes, total));
+        // 六爻逐一作为用神时的旺衰分布
+        List<Map<String, Object>> lines = new ArrayList<>();
+        for (int i = 0; i < lineOutcomes.length; i++) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("position", i + 1);
+            line.put("outcomes", levelFrequencies(lineOutcomes[i], total));
+            lines.add(line);
+        }
+        map.put("lines", lines);
+        return map;
+    }
+
+    /**
+     * 旺衰分布，由极旺到衰
+     */
+    private static List<Map<String, Object>> levelFrequencies(long[] levelCounts, long total) {
+        List<Map<String, Object>> levels = new ArrayList<>();
+        for (int level = levelCounts.length - 1; level >= 0; level--) {
+            levels.add(frequency("status", LiuYaoWangShuaiService.overallText(level), levelCounts[level], total));
+        }
+        return levels;
+    }
+
+    private static Map<String, Object> frequency(String key, Object value, long count, long total) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(key, value);
+        map.put("count", count);
+        map.put("probability", total > 0 ? (double) count / total : 0.0);
+        return map;
+    }
+
+    /**
+     * 一个输入单元的起卦计数：穷举时为一天、一个种子或一种组合，抽样时为一次抽样
+     */
+    @FunctionalInterface
+    private interface UnitCounter {
+        void count(long unit, SplittableRandom random, long[] counts);
+    }
+
+    /**
+     * @param units        输入单元数
+     * @param castsPerUnit 每个单元的起卦次数，用于定分段大小
+     */
+    private record CastSource(long units, int castsPerUnit, UnitCounter counter) {
+    }
+
+    /**
+     * 一次统计的时间上限与取消标记
+     *
+     * 叶子段开始前检查，超时或已取消时跳过计数并记下结果不完整；全部分段返回后由 {@link #check} 报告。
+     */
+    static final class CountBudget {
+
+        private final Duration budget;
+        private final long deadline;
+        private volatile boolean cancelled;
+        private volatile boolean incomplete;
+
+        CountBudget(Duration budget) {
+            this.budget = budget;
+            this.deadline = System.nanoTime() + budget.toNanos();
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * 是否继续计数下一段
+         */
+        boolean proceed() {
+            if (cancelled || System.nanoTime() - deadline > 0) {
+                incomplete = true;
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 有分段被跳过时抛出：取消为 CancellationException，超时为 503
+         */
+        void check() {
+            if (!incomplete) {
+                return;
+            }
+            if (cancelled) {
+                throw new CancellationException("起卦分布统计已取消");
+            }
+            throw new BusinessException("起卦分布统计超出时间上限（" + budget.toMillis() + " ms），请减少抽样次数或缩小范围",
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * 按单元区间二分，叶子段各自计数后逐格相加
+     */
+    private static final class CountTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CastSource source;
+        private final long from;
+        private final long to;
+        private final long unitsPerLeaf;
+        private final SplittableRandom random;
+        private final CountBudget budget;
+
+        CountTask(CastSource source, long from, long to, long unitsPerLeaf, SplittableRandom random,
+                  CountBudget budget) {
+            this.source = source;
+            this.from = from;
+            this.to = to;
+            this.unitsPerLeaf = unitsPerLeaf;
+            this.random = random;
+            this.budget = budget;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= unitsPerLeaf) {
+                long[] counts = new long[HexagramCast.CAST_COUNT];
+                if (!budget.proceed()) {
+                    return counts;
+                }
+                for (long unit = from; unit < to; unit++) {
+                    source.counter().count(unit, random, counts);
+                }
+                return counts;
+            }
+            long mid = (from + to) >>> 1;
+            CountTask right = new CountTask(source, mid, to, unitsPerLeaf, random.split(), budget);
+            right.fork();
+            long[] counts = new CountTask(source, from, mid, unitsPerLeaf, random, budget).compute();
+            long[] rightCounts = right.join();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += rightCounts[i];
+            }
+            return counts;
+        }
+    }
+}
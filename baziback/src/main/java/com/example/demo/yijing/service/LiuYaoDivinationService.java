@@ -2,6 +2,8 @@ package com.example.demo.yijing.service;
 
 import com.example.demo.exception.BusinessException;
 import com.example.demo.yijing.model.Hexagram;
+import com.example.demo.yijing.model.HexagramCode;
+import com.example.demo.yijing.model.NaJiaTable;
 import com.example.demo.yijing.repository.HexagramRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -40,21 +42,21 @@ public class LiuYaoDivinationService {
         log.info("开始六爻占卜 - 问题: {}, 类别: {}", question, category);
 
         // 1. 根据摇卦结果确定本卦
-        String binary = buildBinaryFromCoins(coinResults);
+        HexagramCode code = buildCodeFromCoins(coinResults);
         List<Integer> changingLines = findChangingLines(coinResults);
         
-        Hexagram original = hexagramRepository.findByBinary(binary)
-                .orElse(hexagramRepository.findById(1).orElse(null));
+        Hexagram original = hexagramRepository.findByCode(code)
+                .or(() -> hexagramRepository.findById(1))
+                .orElse(null);
         
         if (original == null) {
             throw new BusinessException("无法确定卦象");
         }
 
-        // 2. 计算变卦
+        // 2. 计算变卦：动爻掩码异或
         Hexagram changed = null;
         if (!changingLines.isEmpty()) {
-            String changedBinary = buildChangedBinary(binary, changingLines);
-            changed = hexagramRepository.findByBinary(changedBinary).orElse(null);
+            changed = hexagramRepository.findByCode(code.change(HexagramCode.lineMask(changingLines))).orElse(null);
         }
 
         // 3. 装卦计算
@@ -69,18 +71,8 @@ public class LiuYaoDivinationService {
                 zhuangGuaResult.getYaos(), yongShenInfo.getPrimaryYongShen());
 
         // 5. 旺衰分析
-        List<LiuYaoWangShuaiService.YaoInfo> yaoInfos = convertToYaoInfos(zhuangGuaResult.getYaos(), changingLines);
-        LiuYaoWangShuaiService.WangShuaiResult wangShuaiResult = null;
-        if (yongShenYaoInfo != null) {
-            wangShuaiResult = wangShuaiService.analyzeYongShen(
-                    yongShenYaoInfo.getBranch(),
-                    zhuangGuaResult.getYueJian(),
-                    zhuangGuaResult.getRiChen(),
-                    changingLines,
-                    yongShenYaoInfo.getLiuQin(),
-                    yaoInfos
-            );
-        }
+        LiuYaoWangShuaiService.WangShuaiResult wangShuaiResult = analyzeWangShuai(
+                code, yongShenYaoInfo, HexagramCode.lineMask(changingLines), divinationDate);
 
         // 6. 动变分析
         Map<String, Object> dongBianAnalysis = dongBianService.analyzeDongBian(
@@ -102,18 +94,18 @@ public class LiuYaoDivinationService {
         originalMap.put("name", original.getName());
         originalMap.put("chinese", original.getChinese());
         originalMap.put("symbol", original.getSymbol());
-        originalMap.put("binary", binary);
+        originalMap.put("binary", code.binary());
         result.put("original", originalMap);
         
         // 变卦信息
         if (changed != null) {
-            Map<String, Object> changedMap = new HashMap<>();
-            changedMap.put("id", changed.getId());
-            changedMap.put("name", changed.getName());
-            changedMap.put("chinese", changed.getChinese());
-            changedMap.put("symbol", changed.getSymbol());
-            result.put("changed", changedMap);
+            result.put("changed", convertHexagramToMap(changed));
         }
+
+        // 互卦、错卦、综卦
+        hexagramRepository.findByCode(code.hu()).ifPresent(hu -> result.put("hu", convertHexagramToMap(hu)));
+        hexagramRepository.findByCode(code.cuo()).ifPresent(cuo -> result.put("cuo", convertHexagramToMap(cuo)));
+        hexagramRepository.findByCode(code.zong()).ifPresent(zong -> result.put("zong", convertHexagramToMap(zong)));
         
         result.put("changing_lines", changingLines);
         result.put("zhuang_gua", convertZhuangGuaToMap(zhuangGuaResult));
@@ -130,14 +122,19 @@ public class LiuYaoDivinationService {
     }
 
     /**
-     * 根据摇卦结果构建二进制字符串
+     * 根据摇卦结果构建卦码，第 i 次摇卦为第 i 爻
      */
-    private String buildBinaryFromCoins(List<CoinResult> coinResults) {
-        StringBuilder binary = new StringBuilder();
-        for (CoinResult result : coinResults) {
-            binary.append(result.getBinary());
+    private HexagramCode buildCodeFromCoins(List<CoinResult> coinResults) {
+        if (coinResults == null || coinResults.size() != HexagramCode.LINE_COUNT) {
+            throw new BusinessException("摇卦结果应为6次");
+        }
+        int bits = 0;
+        for (int i = 0; i < coinResults.size(); i++) {
+            if (coinResults.get(i).getBinary() == 1) {
+                bits |= HexagramCode.lineMask(i + 1);
+            }
         }
-        return binary.toString();
+        return HexagramCode.of(bits);
     }
 
     /**
@@ -154,21 +151,39 @@ public class LiuYaoDivinationService {
     }
 
     /**
-     * 构建变卦二进制
+     * 变卦、互卦等的简要信息
+     */
+    private Map<String, Object> convertHexagramToMap(Hexagram hexagram) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", hexagram.getId());
+        map.put("name", hexagram.getName());
+        map.put("chinese", hexagram.getChinese());
+        map.put("symbol", hexagram.getSymbol());
+        return map;
+    }
+
+    /**
+     * 用神旺衰：按纳甲排盘与日月、动爻掩码判定用神爻，用神爻为空时返回 null
      */
-    private String buildChangedBinary(String originalBinary, List<Integer> changingLines) {
-        char[] binary = originalBinary.toCharArray();
-        for (Integer pos : changingLines) {
-            int index = pos - 1;
-            binary[index] = (binary[index] == '0') ? '1' : '0';
+    LiuYaoWangShuaiService.WangShuaiResult analyzeWangShuai(HexagramCode code,
+                                                            LiuYaoZhuangGuaService.YaoZhuangGuaInfo yongShenYaoInfo,
+                                                            int movingMask, LocalDate divinationDate) {
+        if (yongShenYaoInfo == null) {
+            return null;
         }
-        return new String(binary);
+        return wangShuaiService.analyzeYongShen(
+                NaJiaTable.of(code),
+                yongShenYaoInfo.getYaoPosition(),
+                LiuYaoZhuangGuaService.monthBranch(divinationDate),
+                LiuYaoZhuangGuaService.dayBranch(divinationDate),
+                movingMask
+        );
     }
 
     /**
      * 找到用神爻信息
      */
-    private LiuYaoZhuangGuaService.YaoZhuangGuaInfo findYongShenYaoInfo(
+    static LiuYaoZhuangGuaService.YaoZhuangGuaInfo findYongShenYaoInfo(
             List<LiuYaoZhuangGuaService.YaoZhuangGuaInfo> yaos, String yongShenLiuQin) {
         // 从用神名称中提取六亲（如"妻财爻" -> "妻财"）
         String liuQin = yongShenLiuQin.replace("爻", "").replace("用神", "");
@@ -182,21 +197,6 @@ public class LiuYaoDivinationService {
         return yaos.stream().filter(y -> y.getIsShi()).findFirst().orElse(yaos.get(0));
     }
 
-    /**
-     * 转换为YaoInfo列表
-     */
-    private List<LiuYaoWangShuaiService.YaoInfo> convertToYaoInfos(
-            List<LiuYaoZhuangGuaService.YaoZhuangGuaInfo> yaos, List<Integer> changingLines) {
-        return yaos.stream()
-                .map(yao -> new LiuYaoWangShuaiService.YaoInfo(
-                        yao.getYaoPosition(),
-                        yao.getBranch(),
-                        yao.getLiuQin(),
-                        changingLines.contains(yao.getYaoPosition())
-                ))
-                .collect(Collectors.toList());
-    }
-
     /**
      * 转换装卦结果为Map
      */
@@ -1,9 +1,13 @@
 package com.example.demo.yijing.service;
 
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.util.BulkBaZiConverter;
 import com.example.demo.entity.TbHexagram;
-import com.example.demo.entity.TbHexagramYao;
 import com.example.demo.exception.BusinessException;
-import com.example.demo.mapper.HexagramMapper;
+import com.example.demo.yijing.model.Hexagram;
+import com.example.demo.yijing.model.HexagramCode;
+import com.example.demo.yijing.model.NaJiaTable;
+import com.example.demo.yijing.repository.HexagramRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,19 +18,24 @@ import java.util.*;
 /**
  * 六爻装卦计算服务
  * 负责纳甲、六亲、世应、六神、空亡等装卦计算
+ *
+ * 纳甲、六亲、世应、宫位与日期无关，取自 {@link NaJiaTable} 预排好的 64 卦；
+ * 每次装卦只按日辰叠加六神、空亡、旺衰。卦名取自启动时载入的卦象表，不访问数据库。
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class LiuYaoZhuangGuaService {
 
-    private final HexagramMapper hexagramMapper;
+    private final HexagramRepository hexagramRepository;
 
-    // 天干列表
-    private static final List<String> TIAN_GAN = Arrays.asList("甲", "乙", "丙", "丁", "戊", "己", "庚", "辛", "壬", "癸");
-    // 地支列表
-    private static final List<String> DI_ZHI = Arrays.asList("子", "丑", "寅", "卯", "辰", "巳", "午", "未", "申", "酉", "戌", "亥");
-    
+    private static final String[] LIU_SHEN = {"青龙", "朱雀", "勾陈", "腾蛇", "白虎", "玄武"};
+
+    // 日干起六神：甲乙起青龙，丙丁起朱雀，戊日起勾陈，己日起腾蛇，庚辛起白虎，壬癸起玄武
+    private static final int[] LIU_SHEN_START = {0, 0, 1, 1, 2, 3, 4, 4, 5, 5};
+
+    // 1-12月对应地支编码：正月建寅，二月建卯...
+    private static final int[] MONTH_BRANCHES = {2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 0, 1};
 
     /**
      * 完整装卦计算
@@ -36,167 +45,104 @@ public class LiuYaoZhuangGuaService {
      */
     public ZhuangGuaResult calculateZhuangGua(Integer hexagramId, LocalDate divinationDate) {
         // 获取卦信息
-        TbHexagram hexagram = hexagramMapper.findById(hexagramId);
-        if (hexagram == null) {
-            throw new BusinessException("卦象不存在: " + hexagramId);
-        }
-
-        // 获取所有爻
-        List<TbHexagramYao> yaos = hexagramMapper.findYaosByHexagramId(hexagramId);
-        if (yaos == null || yaos.size() != 6) {
+        TbHexagram hexagram = hexagramRepository.findEntityById(hexagramId)
+                .orElseThrow(() -> new BusinessException("卦象不存在: " + hexagramId));
+
+        // 六爻阴阳以爻表为准
+        int bits = hexagramRepository.findById(hexagramId)
+                .map(Hexagram::getBinary)
+                .map(HexagramCode::parseBits)
+                .orElse(-1);
+        if (bits < 0 || hexagramRepository.getHexagramYaos(hexagramId).size() != HexagramCode.LINE_COUNT) {
             throw new BusinessException("卦爻数据不完整");
         }
 
-        // 按爻位排序（1-6）
-        yaos.sort(Comparator.comparing(TbHexagramYao::getYaoPosition));
+        ZhuangGuaResult result = calculateZhuangGua(HexagramCode.of(bits), divinationDate);
+        result.setHexagramId(hexagramId);
+        result.setHexagramName(hexagram.getName());
+        result.setHexagramNameShort(hexagram.getNameShort());
+        return result;
+    }
+
+    /**
+     * 按卦码装卦，不含卦名
+     */
+    public ZhuangGuaResult calculateZhuangGua(HexagramCode code, LocalDate divinationDate) {
+        NaJiaTable.Gua gua = NaJiaTable.of(code);
 
         // 计算日期干支
-        GanZhi dateGanZhi = calculateDateGanZhi(divinationDate);
-        
+        int days = dayJiaZi(divinationDate);
+        int dayStem = days % GanZhi.STEM_COUNT;
+        int dayBranch = days % GanZhi.BRANCH_COUNT;
+
         // 计算月建和日辰
-        String yueJian = getMonthBranch(divinationDate.getMonthValue());
-        String riChen = dateGanZhi.getDiZhi();
-        
-        // 计算空亡
-        Set<String> kongWang = calculateKongWang(dateGanZhi);
-        
-        // 计算六神
-        List<String> liuShen = calculateLiuShen(dateGanZhi.getTianGan());
-        
+        int yueJian = monthBranch(divinationDate);
+
+        // 计算空亡：旬首地支前两位
+        int kongWang1 = kongWang(dayStem, dayBranch);
+        int kongWang2 = (kongWang1 + 1) % GanZhi.BRANCH_COUNT;
+
+        // 六神从初爻起排
+        int liuShenStart = LIU_SHEN_START[dayStem];
+
         // 构建装卦结果
-        List<YaoZhuangGuaInfo> yaoInfos = new ArrayList<>();
-        for (int i = 0; i < yaos.size(); i++) {
-            TbHexagramYao yao = yaos.get(i);
+        List<YaoZhuangGuaInfo> yaoInfos = new ArrayList<>(HexagramCode.LINE_COUNT);
+        for (NaJiaTable.Yao yao : gua.yaos()) {
             YaoZhuangGuaInfo info = new YaoZhuangGuaInfo();
-            info.setYaoPosition(yao.getYaoPosition());
-            info.setYaoType(yao.getYaoType());
-            info.setStem(yao.getStem());
-            info.setBranch(yao.getBranch());
-            info.setLiuQin(yao.getLiuQin());
-            info.setIsShi(yao.getIsShi() == 1);
-            info.setIsYing(yao.getIsYing() == 1);
-            info.setLiuShen(liuShen.get(i));
-            info.setIsKongWang(kongWang.contains(yao.getBranch()));
+            info.setYaoPosition(yao.position());
+            info.setYaoType(yao.yaoType());
+            info.setStem(yao.stemName());
+            info.setBranch(yao.branchName());
+            info.setLiuQin(yao.liuQinName());
+            info.setIsShi(yao.shi());
+            info.setIsYing(yao.ying());
+            info.setLiuShen(LIU_SHEN[(liuShenStart + yao.position() - 1) % LIU_SHEN.length]);
+            info.setIsKongWang(yao.branch() == kongWang1 || yao.branch() == kongWang2);
             
-            // 计算旺衰（简化版：根据月建和日辰）
-            info.setWangShuai(calculateWangShuai(yao.getBranch(), yueJian, riChen, yao.getLiuQin()));
+            // 计算旺衰（简化版：得月建或日辰为旺）
+            info.setWangShuai(yao.branch() == yueJian || yao.branch() == dayBranch ? "旺" : "平");
             
             yaoInfos.add(info);
         }
 
         ZhuangGuaResult result = new ZhuangGuaResult();
-        result.setHexagramId(hexagramId);
-        result.setHexagramName(hexagram.getName());
-        result.setHexagramNameShort(hexagram.getNameShort());
-        result.setPalaceNature(hexagram.getPalaceNature());
-        result.setDescription(hexagram.getDescription());
+        result.setPalaceNature(gua.palaceWuXingName());
+        result.setDescription(gua.description());
         result.setYaos(yaoInfos);
-        result.setYueJian(yueJian);
-        result.setRiChen(riChen);
-        result.setDateGanZhi(dateGanZhi.toString());
-        result.setKongWang(new ArrayList<>(kongWang));
+        result.setYueJian(GanZhi.branchName(yueJian));
+        result.setRiChen(GanZhi.branchName(dayBranch));
+        result.setDateGanZhi(GanZhi.stemName(dayStem) + GanZhi.branchName(dayBranch));
+        result.setKongWang(new ArrayList<>(List.of(GanZhi.branchName(kongWang1), GanZhi.branchName(kongWang2))));
         
         return result;
     }
 
     /**
-     * 计算日期干支（简化版，使用固定算法）
-     */
-    private GanZhi calculateDateGanZhi(LocalDate date) {
-        // 使用固定算法计算干支（实际应该使用万年历）
-        // 这里使用简化算法：基于1900年1月1日为甲子日
-        long days = date.toEpochDay() - LocalDate.of(1900, 1, 1).toEpochDay();
-        int ganIndex = (int) (days % 10);
-        int zhiIndex = (int) (days % 12);
-        
-        // 调整到1900年1月1日为甲子
-        ganIndex = (ganIndex + 0) % 10;
-        zhiIndex = (zhiIndex + 0) % 12;
-        
-        return new GanZhi(TIAN_GAN.get(ganIndex), DI_ZHI.get(zhiIndex));
-    }
-
-    /**
-     * 获取月份地支
+     * 日干支序号（甲子=0），与八字日柱同一日序：1970-01-01 为辛巳
      */
-    private String getMonthBranch(int month) {
-        // 正月建寅，二月建卯...
-        int[] monthBranches = {2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 0, 1}; // 1-12月对应地支索引
-        return DI_ZHI.get(monthBranches[month - 1]);
+    static int dayJiaZi(LocalDate date) {
+        return (int) Math.floorMod(date.toEpochDay() + BulkBaZiConverter.EPOCH_DAY_JIA_ZI, (long) GanZhi.JIA_ZI_COUNT);
     }
 
     /**
-     * 计算空亡
-     * 根据日柱计算旬空
+     * 日辰地支编码
      */
-    private Set<String> calculateKongWang(GanZhi dateGanZhi) {
-        Set<String> kongWang = new HashSet<>();
-        
-        // 甲子旬空戌亥，甲戌旬空申酉，甲申旬空午未，甲午旬空辰巳，甲辰旬空寅卯，甲寅旬空子丑
-        String tianGan = dateGanZhi.getTianGan();
-        String diZhi = dateGanZhi.getDiZhi();
-        
-        int ganIndex = TIAN_GAN.indexOf(tianGan);
-        int zhiIndex = DI_ZHI.indexOf(diZhi);
-        
-        // 计算旬首（甲子、甲戌、甲申、甲午、甲辰、甲寅）
-        int xunShou = (ganIndex - zhiIndex + 12) % 12;
-        if (xunShou < 0) xunShou += 12;
-        
-        // 根据旬首确定空亡地支
-        int[] kongWangMap = {10, 11, 8, 9, 6, 7, 4, 5, 2, 3, 0, 1}; // 对应旬首的空亡地支索引
-        int kongWangIndex1 = kongWangMap[xunShou];
-        int kongWangIndex2 = (kongWangIndex1 + 1) % 12;
-        
-        kongWang.add(DI_ZHI.get(kongWangIndex1));
-        kongWang.add(DI_ZHI.get(kongWangIndex2));
-        
-        return kongWang;
+    static int dayBranch(LocalDate date) {
+        return dayJiaZi(date) % GanZhi.BRANCH_COUNT;
     }
 
     /**
-     * 计算六神
-     * 甲乙起青龙，丙丁起朱雀，戊日起勾陈，己日起腾蛇，庚辛起白虎，壬癸起玄武
+     * 月建地支编码，按公历月份取
      */
-    private List<String> calculateLiuShen(String tianGan) {
-        List<String> liuShen = Arrays.asList("青龙", "朱雀", "勾陈", "腾蛇", "白虎", "玄武");
-        
-        int ganIndex = TIAN_GAN.indexOf(tianGan);
-        int startIndex = 0;
-        
-        if (ganIndex == 0 || ganIndex == 1) { // 甲乙
-            startIndex = 0; // 青龙
-        } else if (ganIndex == 2 || ganIndex == 3) { // 丙丁
-            startIndex = 1; // 朱雀
-        } else if (ganIndex == 4) { // 戊
-            startIndex = 2; // 勾陈
-        } else if (ganIndex == 5) { // 己
-            startIndex = 3; // 腾蛇
-        } else if (ganIndex == 6 || ganIndex == 7) { // 庚辛
-            startIndex = 4; // 白虎
-        } else if (ganIndex == 8 || ganIndex == 9) { // 壬癸
-            startIndex = 5; // 玄武
-        }
-        
-        // 从初爻开始排布（初爻对应startIndex）
-        List<String> result = new ArrayList<>();
-        for (int i = 0; i < 6; i++) {
-            result.add(liuShen.get((startIndex + i) % 6));
-        }
-        
-        return result;
+    static int monthBranch(LocalDate date) {
+        return MONTH_BRANCHES[date.getMonthValue() - 1];
     }
 
     /**
-     * 计算旺衰（简化版）
+     * 旬空第一支：甲子旬空戌亥，甲戌旬空申酉 … 即 日支 - 日干 + 10
      */
-    private String calculateWangShuai(String branch, String yueJian, String riChen, String liuQin) {
-        // 简化判断：得月建或日辰为旺，被克为衰
-        if (branch.equals(yueJian) || branch.equals(riChen)) {
-            return "旺";
-        }
-        // 可以根据五行生克关系进一步细化
-        return "平";
+    static int kongWang(int dayStem, int dayBranch) {
+        return (dayBranch - dayStem + 10 + GanZhi.BRANCH_COUNT) % GanZhi.BRANCH_COUNT;
     }
 
     /**
@@ -274,25 +220,4 @@ public class LiuYaoZhuangGuaService {
         public String getWangShuai() { return wangShuai; }
         public void setWangShuai(String wangShuai) { this.wangShuai = wangShuai; }
     }
-
-    /**
-     * 干支类
-     */
-    private static class GanZhi {
-        private String tianGan;
-        private String diZhi;
-
-        public GanZhi(String tianGan, String diZhi) {
-            this.tianGan = tianGan;
-            this.diZhi = diZhi;
-        }
-
-        public String getTianGan() { return tianGan; }
-        public String getDiZhi() { return diZhi; }
-        
-        @Override
-        public String toString() {
-            return tianGan + diZhi;
-        }
-    }
 }
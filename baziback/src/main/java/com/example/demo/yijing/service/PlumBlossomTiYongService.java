@@ -1,5 +1,6 @@
 package com.example.demo.yijing.service;
 
+import com.example.demo.yijing.model.HexagramCode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
@@ -13,19 +14,25 @@ import java.util.*;
 public class PlumBlossomTiYongService {
 
     /**
-     * 八卦五行对应表
+     * 八卦五行对应表，按单卦三爻取值（{@link HexagramCode}）下标
      */
-    private static final Map<String, GuaInfo> GUA_WU_XING_MAP = new HashMap<>();
+    private static final GuaInfo[] GUA_WU_XING = new GuaInfo[8];
+
+    private static final GuaInfo UNKNOWN_GUA = new GuaInfo("", "", "");
 
     static {
-        GUA_WU_XING_MAP.put("乾", new GuaInfo("金", "西北", "父亲、权威、金属"));
-        GUA_WU_XING_MAP.put("坤", new GuaInfo("土", "西南", "母亲、土地、包容"));
-        GUA_WU_XING_MAP.put("震", new GuaInfo("木", "东方", "长男、行动、树木"));
-        GUA_WU_XING_MAP.put("巽", new GuaInfo("木", "东南", "长女、思维、风"));
-        GUA_WU_XING_MAP.put("坎", new GuaInfo("水", "北方", "中男、智慧、水"));
-        GUA_WU_XING_MAP.put("离", new GuaInfo("火", "南方", "中女、光明、火"));
-        GUA_WU_XING_MAP.put("艮", new GuaInfo("土", "东北", "少男、静止、山"));
-        GUA_WU_XING_MAP.put("兑", new GuaInfo("金", "西方", "少女、口舌、金属"));
+        put("乾", new GuaInfo("金", "西北", "父亲、权威、金属"));
+        put("坤", new GuaInfo("土", "西南", "母亲、土地、包容"));
+        put("震", new GuaInfo("木", "东方", "长男、行动、树木"));
+        put("巽", new GuaInfo("木", "东南", "长女、思维、风"));
+        put("坎", new GuaInfo("水", "北方", "中男、智慧、水"));
+        put("离", new GuaInfo("火", "南方", "中女、光明、火"));
+        put("艮", new GuaInfo("土", "东北", "少男、静止、山"));
+        put("兑", new GuaInfo("金", "西方", "少女、口舌、金属"));
+    }
+
+    private static void put(String guaName, GuaInfo info) {
+        GUA_WU_XING[HexagramCode.trigramIndex(guaName)] = info;
     }
 
     /**
@@ -55,41 +62,49 @@ public class PlumBlossomTiYongService {
      * @return 体用生克分析结果
      */
     public Map<String, Object> analyzeTiYong(String upperGua, String lowerGua, Integer changingLinePos) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
-        GuaInfo upperInfo = GUA_WU_XING_MAP.getOrDefault(upperGua, new GuaInfo("", "", ""));
-        GuaInfo lowerInfo = GUA_WU_XING_MAP.getOrDefault(lowerGua, new GuaInfo("", "", ""));
-        
-        // 确定体用：静卦为体（自己），动爻所在卦为用（事物）
-        String tiGua, yongGua;
-        String tiWuXing, yongWuXing;
-        
-        if (changingLinePos == null || changingLinePos == 0) {
-            // 无动爻，下卦为体，上卦为用
-            tiGua = lowerGua;
-            yongGua = upperGua;
-            tiWuXing = lowerInfo.getWuXing();
-            yongWuXing = upperInfo.getWuXing();
-        } else if (changingLinePos <= 3) {
-            // 动爻在下卦，下卦为用，上卦为体
-            tiGua = upperGua;
-            yongGua = lowerGua;
-            tiWuXing = upperInfo.getWuXing();
-            yongWuXing = lowerInfo.getWuXing();
-        } else {
-            // 动爻在上卦，上卦为用，下卦为体
-            tiGua = lowerGua;
-            yongGua = upperGua;
-            tiWuXing = lowerInfo.getWuXing();
-            yongWuXing = upperInfo.getWuXing();
+        HexagramCode code = HexagramCode.ofTrigrams(upperGua, lowerGua);
+        if (code != null) {
+            return analyzeTiYong(code, changingLinePos);
+        }
+        if (isYongInLower(changingLinePos)) {
+            return analyzeTiYong(upperGua, getGuaInfo(upperGua), lowerGua, getGuaInfo(lowerGua));
         }
+        return analyzeTiYong(lowerGua, getGuaInfo(lowerGua), upperGua, getGuaInfo(upperGua));
+    }
+
+    /**
+     * 分析体用生克，上下卦直接从卦码取
+     * @param code 本卦
+     * @param changingLinePos 动爻位置（1-6，null表示无动爻）
+     * @return 体用生克分析结果
+     */
+    public Map<String, Object> analyzeTiYong(HexagramCode code, Integer changingLinePos) {
+        // 确定体用：静卦为体（自己），动爻所在卦为用（事物）
+        boolean yongInLower = isYongInLower(changingLinePos);
+        int ti = yongInLower ? code.upper() : code.lower();
+        int yong = yongInLower ? code.lower() : code.upper();
+        return analyzeTiYong(HexagramCode.trigramName(ti), GUA_WU_XING[ti],
+                HexagramCode.trigramName(yong), GUA_WU_XING[yong]);
+    }
+
+    /**
+     * 动爻在下卦时下卦为用、上卦为体；无动爻或动爻在上卦时下卦为体、上卦为用
+     */
+    private static boolean isYongInLower(Integer changingLinePos) {
+        return changingLinePos != null && changingLinePos != 0 && changingLinePos <= 3;
+    }
+
+    private Map<String, Object> analyzeTiYong(String tiGua, GuaInfo tiInfo, String yongGua, GuaInfo yongInfo) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        String tiWuXing = tiInfo.getWuXing();
+        String yongWuXing = yongInfo.getWuXing();
         
         result.put("体卦", tiGua);
         result.put("用卦", yongGua);
         result.put("体卦五行", tiWuXing);
         result.put("用卦五行", yongWuXing);
-        result.put("体卦信息", upperGua.equals(tiGua) ? upperInfo : lowerInfo);
-        result.put("用卦信息", upperGua.equals(yongGua) ? upperInfo : lowerInfo);
+        result.put("体卦信息", tiInfo);
+        result.put("用卦信息", yongInfo);
         
         // 判断生克关系
         String relationship = determineShengKe(tiWuXing, yongWuXing);
@@ -180,7 +195,8 @@ public class PlumBlossomTiYongService {
      * 获取八卦信息
      */
     public GuaInfo getGuaInfo(String guaName) {
-        return GUA_WU_XING_MAP.getOrDefault(guaName, new GuaInfo("", "", ""));
+        int trigram = HexagramCode.trigramIndex(guaName);
+        return trigram >= 0 ? GUA_WU_XING[trigram] : UNKNOWN_GUA;
     }
 
     /**
@@ -62,14 +62,14 @@ public class StandaloneYijingService {
         
         // 梅花易数分析（仅当使用梅花易数方法时）
         if ("plum_blossom".equals(result.getMethod()) && result.getOriginal() != null) {
-            String upperGua = result.getOriginal().getUpper();
-            String lowerGua = result.getOriginal().getLower();
             Integer changingLinePos = (result.getChangingLines() != null && !result.getChangingLines().isEmpty()) 
                 ? result.getChangingLines().get(0) : null;
             
-            Map<String, Object> plumBlossomAnalysis = plumBlossomTiYongService.analyzeTiYong(
-                upperGua, lowerGua, changingLinePos
-            );
+            // 上下卦取起卦所得卦码，不依赖卦表的上下卦字段
+            Map<String, Object> plumBlossomAnalysis = result.getCode() != null
+                ? plumBlossomTiYongService.analyzeTiYong(result.getCode(), changingLinePos)
+                : plumBlossomTiYongService.analyzeTiYong(
+                    result.getOriginal().getUpper(), result.getOriginal().getLower(), changingLinePos);
             result.setPlumBlossomAnalysis(plumBlossomAnalysis);
         }
     }
@@ -151,6 +151,17 @@ public class StandaloneYijingService {
         if (result.getChanged() != null) {
             response.put("changed", convertHexagramToMap(result.getChanged()));
         }
+
+        // 互卦、错卦、综卦
+        if (result.getHu() != null) {
+            response.put("hu", convertHexagramToMap(result.getHu()));
+        }
+        if (result.getCuo() != null) {
+            response.put("cuo", convertHexagramToMap(result.getCuo()));
+        }
+        if (result.getZong() != null) {
+            response.put("zong", convertHexagramToMap(result.getZong()));
+        }
         
         response.put("interpretation_hint", result.getInterpretationHint());
         
@@ -0,0 +1,88 @@
+package com.example.demo.bazi.analyzer;
+
+import com.example.demo.bazi.model.PackedBaZiChart;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompatibilityAnalyzerTest {
+
+    private final CompatibilityAnalyzer analyzer = new CompatibilityAnalyzer();
+
+    @Test
+    void dayPillarCombinationScoresAboveClash() {
+        PackedBaZiChart self = PackedBaZiChart.parse("乙酉 己丑 甲子 戊辰");
+        // 日柱甲己合、子丑合
+        PackedBaZiChart combined = PackedBaZiChart.parse("丙寅 辛卯 己丑 丁卯");
+        // 日柱甲庚相克、子午相冲
+        PackedBaZiChart clashed = PackedBaZiChart.parse("丙寅 辛卯 庚午 丁卯");
+
+        Map<String, Object> good = analyzer.analyze(self, combined);
+        Map<String, Object> bad = analyzer.analyze(self, clashed);
+        assertTrue((Integer) good.get("总分") > (Integer) bad.get("总分"));
+        assertTrue(((List<?>) good.get("天干关系")).contains("日-日 甲己合"));
+        assertTrue(((List<?>) good.get("地支关系")).contains("日-日 子丑六合"));
+        assertTrue(((List<?>) bad.get("天干关系")).contains("日-日 甲庚相克"));
+        assertTrue(((List<?>) bad.get("地支关系")).contains("日-日 子午相冲"));
+    }
+
+    @Test
+    void batchScoresMatchRelationDetailAndAreSymmetric() {
+        SplittableRandom random = new SplittableRandom(15);
+        int[] codes = new int[500];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = randomCode(random);
+        }
+        PackedBaZiChart self = PackedBaZiChart.fromCode(codes[0]);
+        int[] scores = new CompatibilityAnalyzer.Scorer(self).scoreAll(codes);
+        for (int i = 0; i < codes.length; i++) {
+            PackedBaZiChart partner = PackedBaZiChart.fromCode(codes[i]);
+            assertEquals(scores[i], scoreFromDetail(analyzer.analyze(self, partner)));
+            assertEquals(scores[i], new CompatibilityAnalyzer.Scorer(partner).score(codes[0]));
+            assertTrue(scores[i] >= 0 && scores[i] <= 100);
+        }
+    }
+
+    /**
+     * 按明细里逐条列出的关系和互补度重算总分，不经过查表评分
+     */
+    private static int scoreFromDetail(Map<String, Object> detail) {
+        double total = 60;
+        for (Object relation : (List<?>) detail.get("天干关系")) {
+            String text = (String) relation;
+            total += pillarWeight(text) * (text.endsWith("相克") ? -1.5 : 4);
+        }
+        for (Object relation : (List<?>) detail.get("地支关系")) {
+            String text = (String) relation;
+            total += pillarWeight(text) * zhiScore(text.substring(text.length() - 2));
+        }
+        total += 2.5 * (Integer) ((Map<?, ?>) detail.get("五行互补")).get("互补度");
+        return (int) Math.round(Math.max(0, Math.min(100, total)));
+    }
+
+    /** 日柱对日柱 3 倍，一方为日柱 1.5 倍，其余 1 倍 */
+    private static double pillarWeight(String relation) {
+        boolean selfDay = relation.charAt(0) == '日';
+        boolean partnerDay = relation.charAt(2) == '日';
+        return selfDay && partnerDay ? 3 : selfDay || partnerDay ? 1.5 : 1;
+    }
+
+    private static double zhiScore(String kind) {
+        return switch (kind) {
+            case "六合" -> 4;
+            case "半合" -> 2;
+            case "相冲" -> -4;
+            case "相刑", "相害" -> -2;
+            case "相破" -> -1;
+            default -> throw new AssertionError(kind);
+        };
+    }
+
+    private static int randomCode(SplittableRandom random) {
+        return PackedBaZiChart.code(random.nextInt(60), random.nextInt(60), random.nextInt(60), random.nextInt(60));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.bazi.analyzer;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.DaYunResult;
+import com.example.demo.bazi.model.FortuneTimeline;
+import com.example.demo.bazi.model.LiuYue;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineAnalyzerTest {
+
+    private final TimelineAnalyzer analyzer = new TimelineAnalyzer();
+    private final PackedBaZiChart chart = PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+
+    @Test
+    void liuNianAndLiuYueFollowSexagenaryCycle() {
+        FortuneTimeline timeline = analyzer.generate(chart, true, 2005, 4, 1984, 150);
+        assertEquals(150, timeline.size());
+        assertEquals("甲子", GanZhi.jiaZiName(timeline.liuNianJiaZi(0)));
+        assertEquals("辛丑", GanZhi.jiaZiName(timeline.liuNianJiaZi(2021 - 1984)));
+        assertEquals("甲辰", GanZhi.jiaZiName(timeline.liuNianJiaZi(2024 - 1984)));
+        // 甲年正月丙寅，十二月丁丑
+        assertEquals("丙寅", GanZhi.jiaZiName(timeline.liuYueJiaZi(2024 - 1984, 1)));
+        assertEquals("丁丑", GanZhi.jiaZiName(timeline.liuYueJiaZi(2024 - 1984, 12)));
+        // 戊年正月甲寅
+        assertEquals("甲寅", GanZhi.jiaZiName(timeline.liuYueJiaZi(2018 - 1984, 1)));
+        for (int i = 0; i < timeline.size(); i++) {
+            for (int m = 1; m <= 12; m++) {
+                LiuYue legacy = new LiuYue(m, "", "", timeline.year(i), "甲");
+                assertEquals(legacy.getGanZhi(), GanZhi.jiaZiName(timeline.liuYueJiaZi(i, m)));
+            }
+        }
+    }
+
+    @Test
+    void daYunColumnMatchesDaYunAnalyzer() {
+        FortuneTimeline timeline = analyzer.generate(chart, false, 2005, 4, 2005, 120);
+        DaYunResult daYun = new DaYunAnalyzer().calculateFromStartYear(chart, 2009, false, timeline.daYunCount());
+        assertEquals(12, timeline.daYunCount());
+        for (int step = 0; step < timeline.daYunCount(); step++) {
+            assertEquals(daYun.steps().get(step).ganZhi(), GanZhi.jiaZiName(timeline.daYunJiaZi(step)));
+        }
+        assertEquals(-1, timeline.daYunIndex(0));
+        assertEquals(0, timeline.daYunIndex(2009 - 2005));
+        assertEquals(11, timeline.daYunIndex(119));
+    }
+
+    @Test
+    void pagesAndRowsMatchWholeTimeline() {
+        FortuneTimeline timeline = analyzer.generate(chart, true, 2005, 4, 2005, 100);
+        // /timeline 按 fromYear 翻页，每页单独生成
+        FortuneTimeline page = analyzer.generate(chart, true, 2005, 4, 2035, 20);
+        assertEquals(20, page.size());
+        assertEquals(2035, page.getFromYear());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(timeline.row(30 + i), page.row(i));
+        }
+
+        Map<String, Object> row = timeline.row(0);
+        assertEquals(2005, row.get("年份"));
+        assertEquals("乙酉", row.get("流年"));
+        assertNull(row.get("大运"));
+        Map<String, Object> columns = timeline.toColumns();
+        assertEquals(100, ((int[]) columns.get("流年")).length);
+        assertEquals(1200, ((int[]) columns.get("流月")).length);
+    }
+}
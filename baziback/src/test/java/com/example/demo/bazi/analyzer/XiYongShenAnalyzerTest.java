@@ -0,0 +1,45 @@
+package com.example.demo.bazi.analyzer;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.BaZiChart;
+import com.example.demo.bazi.model.RiZhuStrength;
+import com.example.demo.bazi.util.WuXingStrength;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XiYongShenAnalyzerTest {
+
+    private final XiYongShenAnalyzer analyzer = new XiYongShenAnalyzer();
+
+    @Test
+    void riZhuStrengthFollowsSameSideRatio() {
+        // 甲木生丑月，土旺木囚，同党不足一半
+        RiZhuStrength weak = analyzer.analyze(BaZiChart.parse("乙酉 己丑 甲辰 戊辰")).riZhuStrength();
+        assertFalse(weak.strong());
+        assertEquals("身弱", weak.panDuan());
+        assertTrue(weak.sameSideRatio() < WuXingStrength.STRONG_SAME_SIDE_RATIO);
+
+        // 甲木生寅月，比劫满盘
+        RiZhuStrength strong = analyzer.analyze(BaZiChart.parse("甲寅 丙寅 甲寅 甲子")).riZhuStrength();
+        assertTrue(strong.strong());
+        assertEquals("身强", strong.panDuan());
+        assertTrue(strong.sameSideRatio() >= WuXingStrength.STRONG_SAME_SIDE_RATIO);
+    }
+
+    @Test
+    void scoreIsSameSidePercentage() {
+        for (String baZi : new String[]{"乙酉 己丑 甲辰 戊辰", "甲寅 丙寅 甲寅 甲子", "庚申 乙酉 丙午 壬辰"}) {
+            BaZiChart chart = BaZiChart.parse(baZi);
+            double[] scores = new double[WuXingStrength.ELEMENT_COUNT];
+            WuXingStrength.getDefault().compute(chart.getPacked(), scores);
+            int riWuXing = GanZhi.stemWuXing(chart.getPacked().riGan());
+            double ratio = WuXingStrength.sameSideRatio(scores, riWuXing);
+
+            RiZhuStrength strength = analyzer.analyze(chart).riZhuStrength();
+            assertEquals(Math.round(ratio * 100), strength.score());
+            assertEquals(WuXingStrength.isStrong(scores, riWuXing), strength.strong());
+            assertEquals(strength.strong(), strength.score() >= 50);
+        }
+    }
+}
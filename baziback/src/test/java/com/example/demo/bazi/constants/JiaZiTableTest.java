@@ -0,0 +1,49 @@
+package com.example.demo.bazi.constants;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JiaZiTableTest {
+
+    @Test
+    void entriesShouldMatchStringLookups() {
+        for (int j = 0; j < GanZhi.JIA_ZI_COUNT; j++) {
+            JiaZiTable.Entry entry = JiaZiTable.get(j);
+            String ganZhi = GanZhi.jiaZiName(j);
+            String tianGan = ganZhi.substring(0, 1);
+            String diZhi = ganZhi.substring(1);
+
+            assertEquals(ganZhi, entry.getName());
+            assertEquals(TianGan.fromName(tianGan).getWuXing(), entry.getTianGanWuXing());
+            assertEquals(DiZhi.fromName(diZhi).getWuXing(), entry.getDiZhiWuXing());
+            assertEquals(NaYin.getNaYin(ganZhi), entry.getNaYin());
+            assertEquals(XunShou.getXunShou(ganZhi), entry.getXunShou());
+            assertEquals(KongWang.getKongWangStr(ganZhi), entry.getKongWang());
+            assertEquals(ShiErChangSheng.calculate(tianGan, diZhi), entry.getZiZuo());
+            assertEquals(List.of(DiZhi.fromName(diZhi).getCangGan()), entry.getCangGan());
+
+            for (TianGan riGan : TianGan.values()) {
+                int r = riGan.ordinal();
+                assertEquals(ShiShen.calculate(riGan, TianGan.fromName(tianGan)).getName(),
+                        entry.getTianGanShiShen(r));
+                assertEquals(ShiErChangSheng.calculate(riGan.getName(), diZhi), entry.getXingYun(r));
+                List<String> expected = new ArrayList<>();
+                for (String cg : entry.getCangGan()) {
+                    expected.add(ShiShen.calculate(riGan, TianGan.fromName(cg)).getName());
+                }
+                assertEquals(expected, entry.getCangGanShiShen(r));
+            }
+        }
+    }
+
+    @Test
+    void entriesShouldBeImmutable() {
+        JiaZiTable.Entry entry = JiaZiTable.get(0);
+        assertThrows(UnsupportedOperationException.class, () -> entry.getCangGan().add("甲"));
+        assertThrows(UnsupportedOperationException.class, () -> entry.getCangGanShiShen(0).clear());
+    }
+}
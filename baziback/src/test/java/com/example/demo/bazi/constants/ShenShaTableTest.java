@@ -0,0 +1,74 @@
+package com.example.demo.bazi.constants;
+
+import com.example.demo.bazi.analyzer.ShenShaAnalyzer;
+import com.example.demo.bazi.model.BaZiChart;
+import com.example.demo.bazi.model.ShenShaResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShenShaTableTest {
+
+    @Test
+    void pillarMaskShouldMatchRuleByRuleEvaluation() {
+        for (int riGan = 0; riGan < GanZhi.STEM_COUNT; riGan++) {
+            for (int yueZhi = 0; yueZhi < GanZhi.BRANCH_COUNT; yueZhi++) {
+                for (int nianZhi = 0; nianZhi < GanZhi.BRANCH_COUNT; nianZhi++) {
+                    for (int jiaZi = 0; jiaZi < GanZhi.JIA_ZI_COUNT; jiaZi++) {
+                        List<String> expected = evaluate(GanZhi.stemName(riGan), GanZhi.branchName(yueZhi),
+                                GanZhi.branchName(nianZhi), GanZhi.jiaZiName(jiaZi));
+                        assertEquals(expected,
+                                ShenShaTable.names(ShenShaTable.pillarMask(riGan, yueZhi, nianZhi, jiaZi)),
+                                () -> "规则不一致");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void tongZiShaShouldOnlyMarkDayAndHourPillars() {
+        // 寅月（春），日支子
+        ShenShaResult shenSha = new ShenShaAnalyzer().analyze(BaZiChart.parse("甲辰 丙寅 丙子 戊戌"));
+
+        assertFalse(shenSha.nian().contains("童子煞"));
+        assertFalse(shenSha.yue().contains("童子煞"));
+        assertTrue(shenSha.ri().contains("童子煞"));
+        assertTrue(shenSha.shi().contains("童子煞"));
+    }
+
+    /**
+     * 逐条规则求值，顺序与 ShenShaAnalyzer 输出一致
+     */
+    private static List<String> evaluate(String riGan, String yueZhi, String nianZhi, String ganZhi) {
+        String gan = ganZhi.substring(0, 1);
+        String zhi = ganZhi.substring(1);
+        List<String> result = new ArrayList<>();
+        if (ShenSha.getTianYiGuiRen(riGan).contains(zhi)) result.add("天乙贵人");
+        if (zhi.equals(ShenSha.getWenChangGuiRen(riGan))) result.add("文昌贵人");
+        if (zhi.equals(ShenSha.getYiMa(nianZhi))) result.add("驿马");
+        if (zhi.equals(ShenSha.getTaoHua(nianZhi))) result.add("桃花");
+        if (zhi.equals(ShenSha.getHuaGai(nianZhi))) result.add("华盖");
+        if (zhi.equals(ShenSha.getJiangXing(nianZhi))) result.add("将星");
+        if (gan.equals(ShenSha.getTianDeGuiRen(yueZhi))) result.add("天德贵人");
+        if (gan.equals(ShenSha.getYueDeGuiRen(yueZhi))) result.add("月德贵人");
+        if (gan.equals(ShenSha.getTianDeHe(yueZhi))) result.add("天德合");
+        if (gan.equals(ShenSha.getYueDeHe(yueZhi))) result.add("月德合");
+        if (zhi.equals(ShenSha.getYangRen(riGan))) result.add("羊刃");
+        if (zhi.equals(ShenSha.getFeiRen(riGan))) result.add("飞刃");
+        if (zhi.equals(ShenSha.getJinYu(riGan))) result.add("金舆");
+        if (zhi.equals(ShenSha.getFuXingGuiRen(riGan))) result.add("福星贵人");
+        if (zhi.equals(ShenSha.getTianGuanGuiRen(riGan))) result.add("天官贵人");
+        if (ShenSha.isDeXiuGuiRen(yueZhi, gan, zhi)) result.add("德秀贵人");
+        if (ShenSha.isTianLuoDiWang(zhi)) result.add("天罗地网");
+        if (ShenSha.isShiEDaBai(ganZhi)) result.add("十恶大败");
+        if (ShenSha.isShiLing(ganZhi)) result.add("十灵");
+        if (zhi.equals(ShenSha.getLiuXia(riGan))) result.add("流霞");
+        return result;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.bazi.controller;
+
+import com.example.demo.bazi.service.BaZiService;
+import com.example.demo.exception.GlobalExceptionHandler;
+import com.example.demo.util.I18nUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+class BaZiControllerTest {
+
+    // 分析器线程池已满：每个任务都被拒绝
+    private final BaZiService saturated = new BaZiService(task -> {
+        throw new RejectedExecutionException("busy");
+    });
+
+    private final WebTestClient client = WebTestClient
+            .bindToController(new BaZiController(saturated, null, null, null, null,
+                    new I18nUtil(new StaticMessageSource()), null))
+            .controllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void saturatedAnalyzerPoolReturns503() {
+        client.get()
+                .uri(builder -> builder.path("/api/bazi/analyze").queryParam("baZi", "乙酉 己丑 甲辰 戊辰").build())
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        client.post().uri("/api/bazi/analyze")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("baZi", "乙酉 己丑 甲辰 戊辰"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        client.post().uri("/api/bazi/analyze/hours")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("sanZhu", "乙酉 己丑 甲辰"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+
+        client.post().uri("/api/bazi/analyze/simple")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("baZi", "乙酉 己丑 甲辰 戊辰"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void malformedChartIsStillBadRequest() {
+        client.get()
+                .uri(builder -> builder.path("/api/bazi/analyze").queryParam("baZi", "乙酉 己丑").build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        client.post().uri("/api/bazi/analyze/hours")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("sanZhu", "乙酉"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.bazi.model;
+
+import com.example.demo.bazi.analyzer.DaYunAnalyzer;
+import com.example.demo.bazi.analyzer.RiZhuAnalyzer;
+import com.example.demo.bazi.analyzer.ShenShaAnalyzer;
+import com.example.demo.bazi.analyzer.TiaoHouAnalyzer;
+import com.example.demo.bazi.analyzer.XiYongShenAnalyzer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisRecordJsonTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void pillarDetailSerializesLikeMap() throws Exception {
+        BaZiChart chart = BaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+        Pillar pillar = chart.getRiZhu();
+        PillarDetail detail = pillar.toDetail(List.of("华盖"));
+
+        Map<String, Object> legacy = pillar.toMap();
+        legacy.put("神煞", List.of("华盖"));
+        assertEquals(mapper.writeValueAsString(legacy), mapper.writeValueAsString(detail));
+    }
+
+    @Test
+    void daYunStepOmitsMissingQi() throws Exception {
+        DaYunResult result = new DaYunAnalyzer().calculateFromStartYear(
+                PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰"), 2009, true);
+        assertEquals(10, result.steps().size());
+        for (DaYunStep step : result.steps()) {
+            DaYun legacy = new DaYun(step.ganZhi(), step.startYear(), "甲");
+            assertEquals(mapper.writeValueAsString(legacy.toMap()), mapper.writeValueAsString(step));
+        }
+        assertThrows(UnsupportedOperationException.class, () -> result.steps().add(null));
+    }
+
+    @Test
+    void liuNianAndLiuYueEntriesMatchMaps() throws Exception {
+        LiuNian liuNian = new LiuNian(2024, 20, "甲");
+        assertEquals(mapper.writeValueAsString(liuNian.toMap()), mapper.writeValueAsString(liuNian.toEntry()));
+        LiuYue liuYue = new LiuYue(3, "清明", "4/4", 2024, "甲");
+        assertEquals(mapper.writeValueAsString(liuYue.toMap()), mapper.writeValueAsString(liuYue.toEntry()));
+    }
+
+    @Test
+    void yongShenTuiJianOmitsAbsentItems() throws Exception {
+        assertEquals("{}", mapper.writeValueAsString(YongShenTuiJian.NONE));
+        YongShenTuiJian geJu = new YongShenTuiJian("正官格", null, null, List.of("水"), List.of("正印"),
+                List.of("火"), List.of("伤官"));
+        assertEquals("{\"格局\":\"正官格\",\"喜用五行\":[\"水\"],\"喜用十神\":[\"正印\"],"
+                + "\"忌用五行\":[\"火\"],\"忌用十神\":[\"伤官\"]}", mapper.writeValueAsString(geJu));
+    }
+
+    @Test
+    void xiYongShenResultKeepsSectionOrder() throws Exception {
+        XiYongShenResult result = new XiYongShenAnalyzer().analyze(BaZiChart.parse("乙酉 己丑 甲辰 戊辰"));
+
+        assertEquals(List.of("日主强弱", "日主强弱推荐", "调候推荐", "格局推荐", "综合推荐"),
+                List.copyOf(mapper.readValue(mapper.writeValueAsString(result),
+                        new TypeReference<LinkedHashMap<String, Object>>() { }).keySet()));
+        assertEquals(List.of("木", "火", "土", "金", "水"), List.copyOf(result.riZhuStrength().wuXingLiLiang().keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> result.zongHe().xiYongWuXing().add("木"));
+    }
+
+    @Test
+    void tiaoHouResultHidesHelperProperties() throws Exception {
+        TiaoHouResult result = new TiaoHouAnalyzer().analyze(BaZiChart.parse("乙酉 己丑 甲辰 戊辰"));
+
+        assertFalse(mapper.writeValueAsString(result).contains("empty"));
+        assertEquals(result, new TiaoHouAnalyzer().analyze(BaZiChart.parse("乙酉 己丑 甲辰 戊辰")));
+    }
+
+    @Test
+    void shenShaResultSerializesByPillar() throws Exception {
+        ShenShaResult result = new ShenShaAnalyzer().analyze(BaZiChart.parse("甲辰 丙寅 丙子 戊戌"));
+
+        Map<String, List<String>> json = mapper.readValue(mapper.writeValueAsString(result),
+                new TypeReference<LinkedHashMap<String, List<String>>>() { });
+        assertEquals(List.of("年", "月", "日", "时"), List.copyOf(json.keySet()));
+        assertEquals(result.shi(), json.get("时"));
+        assertThrows(UnsupportedOperationException.class, () -> result.nian().add("x"));
+    }
+
+    @Test
+    void riZhuInfoKeepsSectionOrder() throws Exception {
+        RiZhuInfo info = new RiZhuAnalyzer().analyze(BaZiChart.parse("乙酉 己丑 庚辰 戊辰"));
+
+        Map<String, Object> json = mapper.readValue(mapper.writeValueAsString(info),
+                new TypeReference<LinkedHashMap<String, Object>>() { });
+        assertEquals(List.of("等级", "等级标签", "干支关系", "十二运", "吉神", "凶神", "纳音", "类象", "日特点"),
+                List.copyOf(json.keySet()));
+        assertEquals(1, json.get("等级"));
+        assertEquals("上等日柱", json.get("等级标签"));
+        assertEquals("魁罡日", json.get("日特点"));
+    }
+}
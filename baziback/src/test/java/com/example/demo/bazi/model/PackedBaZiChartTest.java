@@ -0,0 +1,58 @@
+package com.example.demo.bazi.model;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.constants.ShiShen;
+import com.example.demo.bazi.constants.TianGan;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PackedBaZiChartTest {
+
+    @Test
+    void parseShouldEncodeEachPillarAsJiaZi() {
+        PackedBaZiChart packed = PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+
+        assertEquals(21, packed.jiaZi(PackedBaZiChart.NIAN));
+        assertEquals(25, packed.jiaZi(PackedBaZiChart.YUE));
+        assertEquals(40, packed.jiaZi(PackedBaZiChart.RI));
+        assertEquals(4, packed.jiaZi(PackedBaZiChart.SHI));
+        assertEquals(0, packed.riGan());
+        assertEquals("乙酉 己丑 甲辰 戊辰", packed.toString());
+    }
+
+    @Test
+    void codeShouldRoundTrip() {
+        PackedBaZiChart packed = PackedBaZiChart.parse("癸亥 甲子 庚申 丙子");
+
+        assertEquals(packed, PackedBaZiChart.fromCode(packed.code()));
+    }
+
+    @Test
+    void shiShenTableShouldMatchEnumCalculation() {
+        for (TianGan riGan : TianGan.values()) {
+            for (TianGan target : TianGan.values()) {
+                assertEquals(ShiShen.calculate(riGan, target),
+                        GanZhi.shiShen(riGan.ordinal(), target.ordinal()));
+            }
+        }
+    }
+
+    @Test
+    void parseShouldRejectMismatchedGanZhi() {
+        assertThrows(IllegalArgumentException.class, () -> PackedBaZiChart.parse("甲丑 己丑 甲辰 戊辰"));
+        assertThrows(IllegalArgumentException.class, () -> PackedBaZiChart.parse("乙酉 己丑 甲辰"));
+    }
+
+    @Test
+    void chartBuiltFromPackedShouldKeepStringView() {
+        BaZiChart chart = BaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+
+        assertEquals("冬", chart.getJiJie());
+        assertEquals("鸡", chart.getShengXiao());
+        assertEquals("正财", chart.getYueZhu().getTianGanShiShen());
+        assertEquals("日主", chart.getRiZhu().getTianGanShiShen());
+        assertEquals("乙酉己丑甲辰戊辰1", chart.getId());
+    }
+}
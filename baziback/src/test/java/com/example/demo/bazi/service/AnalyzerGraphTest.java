@@ -0,0 +1,220 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.model.PackedBaZiChart;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyzerGraphTest {
+
+    private static AnalysisContext context(String baZi) {
+        return new AnalysisContext(baZi, PackedBaZiChart.parse(baZi), true, 2005, 4);
+    }
+
+    @Test
+    void evaluatesOnlyRequestedSectionsAndDependencies() {
+        AtomicInteger calls = new AtomicInteger();
+        AnalyzerGraph graph = new AnalyzerGraph()
+                .chartNode("a", (ctx, deps) -> calls.incrementAndGet())
+                .chartNode("b", (ctx, deps) -> "b" + deps.get("a"), "a")
+                .chartNode("c", (ctx, deps) -> {
+                    throw new AssertionError("c 未被请求");
+                });
+
+        Map<String, Object> result = graph.evaluate(context("乙酉 己丑 甲辰 戊辰"), List.of("b"), null, Runnable::run);
+
+        assertEquals(List.of("b"), new ArrayList<>(result.keySet()));
+        assertEquals("b1", result.get("b"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void timingStatsCountOnlyComputedSections() {
+        AnalyzerGraph graph = new AnalyzerGraph()
+                .chartNode("a", (ctx, deps) -> 1)
+                .requestNode("b", (ctx, deps) -> 2, "a");
+        BaZiAnalysisCache cache = new BaZiAnalysisCache();
+
+        graph.evaluate(context("乙酉 己丑 甲辰 戊辰"), List.of("b"), cache, Runnable::run);
+        graph.evaluate(context("乙酉 己丑 甲辰 戊辰"), List.of("b"), cache, Runnable::run);
+
+        Map<String, Map<String, Object>> stats = graph.getTimingStats();
+        assertEquals(List.of("a", "b"), new ArrayList<>(stats.keySet()));
+        // a 第二次命中缓存，b 每次现算
+        assertEquals(1L, stats.get("a").get("count"));
+        assertEquals(2L, stats.get("b").get("count"));
+    }
+
+    @Test
+    void outputFollowsRegistrationOrder() {
+        AnalyzerGraph graph = new AnalyzerGraph()
+                .requestNode("x", (ctx, deps) -> 1)
+                .requestNode("y", (ctx, deps) -> 2)
+                .requestNode("z", (ctx, deps) -> 3);
+
+        Map<String, Object> result = graph.evaluate(context("乙酉 己丑 甲辰 戊辰"), List.of("z", "x"), null, Runnable::run);
+
+        assertEquals(List.of("x", "z"), new ArrayList<>(result.keySet()));
+    }
+
+    @Test
+    void cachedSectionSkipsItsDependencies() {
+        AtomicInteger calls = new AtomicInteger();
+        AnalyzerGraph graph = new AnalyzerGraph()
+                .chartNode("a", (ctx, deps) -> calls.incrementAndGet())
+                .chartNode("b", (ctx, deps) -> "b" + deps.get("a"), "a");
+        BaZiAnalysisCache cache = new BaZiAnalysisCache();
+
+        graph.evaluate(context("乙酉 己丑 甲辰 戊辰"), List.of("b"), cache, Runnable::run);
+        Map<String, Object> again = graph.evaluate(context("乙酉 己丑 甲辰 戊辰"), List.of("b"), cache, Runnable::run);
+
+        assertEquals("b1", again.get("b"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void rejectsUnknownSectionAndUnregisteredDependency() {
+        AnalyzerGraph graph = new AnalyzerGraph().requestNode("a", (ctx, deps) -> 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.evaluate(context("乙酉 己丑 甲辰 戊辰"), List.of("b"), null, Runnable::run));
+        assertThrows(IllegalStateException.class, () -> graph.chartNode("b", (ctx, deps) -> 1, "missing"));
+    }
+
+    @Test
+    void analyzerExceptionIsRethrownUnwrapped() {
+        AnalyzerGraph graph = new AnalyzerGraph()
+                .requestNode("a", (ctx, deps) -> {
+                    throw new IllegalArgumentException("boom");
+                });
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> graph.evaluate(context("乙酉 己丑 甲辰 戊辰"), List.of("a"), null, Runnable::run));
+        assertEquals("boom", e.getMessage());
+    }
+
+    @Test
+    void parallelExecutionMatchesSequential() {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            BaZiService parallel = new BaZiService(pool);
+            BaZiService sequential = new BaZiService();
+            for (String baZi : List.of("乙酉 己丑 甲辰 戊辰", "丙寅 辛卯 壬午 庚子", "癸亥 甲子 乙丑 丙子")) {
+                assertEquals(sequential.analyze(baZi, 1990, false, 5), parallel.analyze(baZi, 1990, false, 5));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void serviceSectionSubset() {
+        BaZiService service = new BaZiService();
+        Map<String, Object> result = service.analyze("乙酉 己丑 甲辰 戊辰", 2005, true, 4, List.of("神煞", "八字", "喜用神分析"));
+
+        assertEquals(List.of("八字", "神煞", "喜用神分析"), new ArrayList<>(result.keySet()));
+        assertEquals(service.analyze("乙酉 己丑 甲辰 戊辰", 2005, true).get("喜用神分析"), result.get("喜用神分析"));
+    }
+
+    @Test
+    void independentSectionsRunConcurrently() {
+        CountDownLatch started = new CountDownLatch(2);
+        AnalyzerGraph.Analysis awaitOther = (ctx, deps) -> {
+            started.countDown();
+            try {
+                // 两段都已排上才能在超时前等到对方
+                return started.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        };
+        AnalyzerGraph graph = new AnalyzerGraph()
+                .chartNode("a", awaitOther)
+                .chartNode("b", awaitOther);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            assertEquals(Map.of("a", true, "b", true),
+                    graph.evaluate(context("乙酉 己丑 甲辰 戊辰"), List.of("a", "b"), null, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void dayNodeIsSharedAcrossHourVariants() {
+        AtomicInteger dayCalls = new AtomicInteger();
+        AtomicInteger chartCalls = new AtomicInteger();
+        AnalyzerGraph graph = new AnalyzerGraph()
+                .dayNode("d", (ctx, deps) -> dayCalls.incrementAndGet())
+                .chartNode("h", (ctx, deps) -> chartCalls.incrementAndGet() + ":" + deps.get("d"), "d");
+        SanZhuContext sanZhu = new SanZhuContext();
+        List<AnalysisContext> contexts = new ArrayList<>();
+        for (String shi : List.of("甲子", "乙丑", "丙寅")) {
+            String baZi = "乙酉 己丑 甲辰 " + shi;
+            contexts.add(new AnalysisContext(baZi, PackedBaZiChart.parse(baZi), true, 2005, 4, sanZhu));
+        }
+
+        List<Map<String, Object>> results = graph.evaluateAll(contexts, List.of("h", "d"), null, Runnable::run);
+
+        assertEquals(3, results.size());
+        assertEquals(1, dayCalls.get());
+        assertEquals(3, chartCalls.get());
+        assertEquals(1, results.get(2).get("d"));
+        assertThrows(IllegalStateException.class, () -> new AnalyzerGraph()
+                .chartNode("a", (ctx, deps) -> 1)
+                .dayNode("b", (ctx, deps) -> 2, "a"));
+    }
+
+    @Test
+    void genderNodeIsCachedPerGender() {
+        AtomicInteger chartCalls = new AtomicInteger();
+        AtomicInteger genderCalls = new AtomicInteger();
+        AnalyzerGraph graph = new AnalyzerGraph()
+                .chartNode("a", (ctx, deps) -> chartCalls.incrementAndGet())
+                .genderNode("g", (ctx, deps) -> genderCalls.incrementAndGet() + ":" + ctx.isMale(), "a");
+        BaZiAnalysisCache cache = new BaZiAnalysisCache();
+        String baZi = "乙酉 己丑 甲辰 戊辰";
+        for (boolean isMale : new boolean[] {true, false, true, false}) {
+            AnalysisContext context = new AnalysisContext(baZi, PackedBaZiChart.parse(baZi), isMale, 2005, 4);
+            assertEquals((isMale ? "1" : "2") + ":" + isMale,
+                    graph.evaluate(context, List.of("g"), cache, Runnable::run).get("g"));
+        }
+
+        assertEquals(1, chartCalls.get());
+        assertEquals(2, genderCalls.get());
+        assertThrows(IllegalStateException.class, () -> graph.chartNode("b", (ctx, deps) -> 1, "g"));
+    }
+
+    @Test
+    void rejectedTaskFailsTheAnalysis() {
+        BaZiService service = new BaZiService(task -> {
+            throw new RejectedExecutionException("busy");
+        });
+
+        assertThrows(RejectedExecutionException.class, () -> service.analyze("乙酉 己丑 甲辰 戊辰", 2005, true, 4));
+    }
+
+    @Test
+    void hourVariantsMatchFullAnalyses() {
+        BaZiService service = new BaZiService();
+        List<Map<String, Object>> variants = service.analyzeHourVariants("乙酉 己丑 甲辰", 2005, false, 4,
+                service.getSections());
+
+        assertEquals(12, variants.size());
+        BaZiService reference = new BaZiService();
+        String[] hours = {"甲子", "乙丑", "丙寅", "丁卯", "戊辰", "己巳", "庚午", "辛未", "壬申", "癸酉", "甲戌", "乙亥"};
+        for (int i = 0; i < hours.length; i++) {
+            String baZi = "乙酉 己丑 甲辰 " + hours[i];
+            assertEquals(reference.analyze(baZi, 2005, false, 4), variants.get(i), baZi);
+        }
+    }
+}
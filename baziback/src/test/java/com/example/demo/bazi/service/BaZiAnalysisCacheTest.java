@@ -0,0 +1,89 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.model.DaYunResult;
+import com.example.demo.bazi.model.PillarDetail;
+import com.example.demo.bazi.model.ShenShaResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaZiAnalysisCacheTest {
+
+    @Test
+    void repeatedChartHitsCache() {
+        BaZiService service = new BaZiService();
+        Map<String, Object> first = service.analyze("乙酉 己丑 甲辰 戊辰", 2005, true, 4);
+        long misses = (long) service.getCacheStats().get("missCount");
+        assertTrue(misses > 0);
+        assertEquals(0L, service.getCacheStats().get("hitCount"));
+
+        Map<String, Object> second = service.analyze("乙酉 己丑 甲辰 戊辰", 1945, true, 6);
+        Map<String, Object> stats = service.getCacheStats();
+        assertEquals(misses, stats.get("missCount"));
+        assertEquals(misses, stats.get("hitCount"));
+
+        assertSame(first.get("神煞"), second.get("神煞"));
+        assertEquals(first.keySet(), second.keySet());
+        // 起运相关部分按请求参数重算
+        assertEquals(2009, ((DaYunResult) first.get("大运数据")).startYear());
+        assertEquals(1951, ((DaYunResult) second.get("大运数据")).startYear());
+    }
+
+    @Test
+    void genderIsPartOfKeyOnlyForGenderDependentSections() {
+        BaZiService service = new BaZiService();
+        Map<String, Object> male = service.analyze("乙酉 己丑 甲辰 戊辰", 2005, true, 4,
+                List.of("神煞", "喜用神分析", "夫妻星信息", "子女星信息"));
+        long misses = (long) service.getCacheStats().get("missCount");
+
+        Map<String, Object> female = service.analyze("乙酉 己丑 甲辰 戊辰", 2005, false, 4,
+                List.of("神煞", "喜用神分析", "夫妻星信息", "子女星信息"));
+        Map<String, Object> stats = service.getCacheStats();
+        // 神煞、喜用神男女命共用；夫妻星、子女星按性别各算一次
+        assertEquals(misses + 2, stats.get("missCount"));
+        assertEquals(2L, stats.get("hitCount"));
+        assertSame(male.get("神煞"), female.get("神煞"));
+        assertSame(male.get("喜用神分析"), female.get("喜用神分析"));
+        assertNotEquals(male.get("夫妻星信息"), female.get("夫妻星信息"));
+
+        service.analyze("乙酉 己丑 甲辰 戊辰", 2005, true, 4, List.of("夫妻星信息", "子女星信息"));
+        assertEquals(4L, service.getCacheStats().get("hitCount"));
+    }
+
+    @Test
+    void configuredCacheIsUsed() {
+        BaZiAnalysisCache cache = new BaZiAnalysisCache(1_000);
+        BaZiService service = new BaZiService(Runnable::run, BaZiAnalyzers.defaults(), cache);
+        service.analyzeSimple("乙酉 己丑 甲辰 戊辰", true);
+
+        assertSame(cache.getStats().get("missCount"), service.getCacheStats().get("missCount"));
+        assertTrue((long) cache.getStats().get("weightedSize") <= 1_000);
+    }
+
+    @Test
+    void cachedSectionsAreImmutable() {
+        BaZiService service = new BaZiService();
+        Map<String, Object> result = service.analyze("乙酉 己丑 甲辰 戊辰", 2005, true, 4);
+
+        ShenShaResult shenSha = (ShenShaResult) result.get("神煞");
+        assertThrows(UnsupportedOperationException.class, () -> shenSha.ri().add("x"));
+        @SuppressWarnings("unchecked")
+        Map<String, PillarDetail> pillars = (Map<String, PillarDetail>) result.get("详细各柱信息");
+        assertThrows(UnsupportedOperationException.class, () -> pillars.put("年", null));
+        // 顶层结果每次新建，调用方可以继续追加字段
+        result.put("性别", "男");
+    }
+
+    @Test
+    void cachedResultMatchesFreshComputation() {
+        BaZiService cached = new BaZiService();
+        cached.analyze("丙寅 辛卯 壬午 庚子", 1986, false, 3);
+        Map<String, Object> hit = cached.analyze("丙寅 辛卯 壬午 庚子", 1986, false, 3);
+        Map<String, Object> fresh = new BaZiService().analyze("丙寅 辛卯 壬午 庚子", 1986, false, 3);
+
+        assertEquals(fresh, hit);
+    }
+}
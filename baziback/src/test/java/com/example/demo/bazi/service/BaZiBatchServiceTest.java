@@ -0,0 +1,67 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.dto.BaZiRequest;
+import com.example.demo.dto.response.bazi.BaziAnalysisResponse;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaZiBatchServiceTest {
+
+    private static BaZiRequest request(String id, String baZi) {
+        BaZiRequest request = new BaZiRequest(baZi, 1990, true, 4);
+        request.setId(id);
+        return request;
+    }
+
+    @Test
+    void resultsKeepInputOrderAndReportErrorsPerLine() {
+        BaZiBatchService service = new BaZiBatchService(new BaZiService(), 4);
+        try {
+            List<BaZiRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                requests.add(request("r" + i, i % 10 == 3 ? "甲丑 乙丑 丙寅 丁卯" : "乙酉 己丑 甲辰 戊辰"));
+            }
+
+            List<Map<String, Object>> lines = service.analyze(Flux.fromIterable(requests)).collectList().block();
+
+            assertEquals(40, lines.size());
+            for (int i = 0; i < 40; i++) {
+                Map<String, Object> line = lines.get(i);
+                assertEquals((long) i, line.get("index"));
+                assertEquals("r" + i, line.get("id"));
+                if (i % 10 == 3) {
+                    assertNotNull(line.get("error"));
+                    assertFalse(line.containsKey("result"));
+                } else {
+                    assertEquals("乙酉 己丑 甲辰 戊辰", ((BaziAnalysisResponse) line.get("result")).getBaZi());
+                }
+            }
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void sectionsLimitComputedFields() {
+        BaZiBatchService service = new BaZiBatchService(new BaZiService(), 2);
+        try {
+            BaZiRequest request = request(null, "乙酉 己丑 甲辰 戊辰");
+            request.setSections(List.of("shenSha"));
+
+            Map<String, Object> line = service.analyze(Flux.just(request)).blockFirst();
+
+            BaziAnalysisResponse result = (BaziAnalysisResponse) line.get("result");
+            assertFalse(line.containsKey("id"));
+            assertNotNull(result.getShenSha());
+            assertNull(result.getDaYun());
+        } finally {
+            service.shutdown();
+        }
+    }
+}
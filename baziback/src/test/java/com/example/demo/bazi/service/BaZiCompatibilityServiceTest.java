@@ -0,0 +1,129 @@
+package com.example.demo.bazi.service;
+
+import com.example.demo.bazi.analyzer.CompatibilityAnalyzer;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.entity.BaziCompatibility;
+import com.example.demo.mapper.BaziCompatibilityMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BaZiCompatibilityServiceTest {
+
+    private static final String SELF = "乙酉 己丑 甲子 戊辰";
+    private static final int CODE_LIMIT = 60 * 60 * 60 * 60;
+
+    @Mock
+    private BaziCompatibilityMapper baziCompatibilityMapper;
+
+    private BaZiCompatibilityService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BaZiCompatibilityService(baziCompatibilityMapper, new ObjectMapper(), new CompatibilityAnalyzer());
+    }
+
+    @Test
+    void rankMatchesStableSortForEveryCutoff() {
+        SplittableRandom random = new SplittableRandom(15);
+        int[] codes = new int[2000];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = random.nextInt(CODE_LIMIT);
+        }
+        int[] scores = new CompatibilityAnalyzer.Scorer(PackedBaZiChart.parse(SELF)).scoreAll(codes);
+        // 分数降序、同分按下标升序
+        List<Integer> expected = IntStream.range(0, codes.length).boxed()
+                .sorted(Comparator.comparingInt((Integer i) -> -scores[i]).thenComparingInt(i -> i))
+                .toList();
+
+        // 覆盖阈值落在最高分桶内、跨多个桶、以及取满全部候选
+        for (int top : new int[]{1, 5, 37, 500, codes.length}) {
+            List<Map<String, Object>> ranked = service.rank(SELF, codes, top);
+            assertEquals(top, ranked.size());
+            for (int k = 0; k < top; k++) {
+                int index = expected.get(k);
+                assertEquals(index, ranked.get(k).get("序号"));
+                assertEquals(scores[index], ranked.get(k).get("总分"));
+                assertEquals(PackedBaZiChart.fromCode(codes[index]).toString(), ranked.get(k).get("八字"));
+            }
+        }
+    }
+
+    @Test
+    void rankKeepsInputOrderWithinTies() {
+        int partner = PackedBaZiChart.parse("丙寅 辛卯 己丑 丁卯").code();
+        int other = PackedBaZiChart.parse("丙寅 辛卯 庚午 丁卯").code();
+        int[] codes = {other, partner, other, partner, partner};
+
+        List<Map<String, Object>> ranked = service.rank(SELF, codes, 4);
+
+        assertEquals(List.of(1, 3, 4, 0), ranked.stream().map(item -> item.get("序号")).toList());
+    }
+
+    @Test
+    void rankReturnsAllCandidatesWhenTopExceedsCount() {
+        int[] codes = {0, 1, 2};
+
+        assertEquals(3, service.rank(SELF, codes, 20).size());
+        assertTrue(service.rank(SELF, new int[0], 20).isEmpty());
+    }
+
+    @Test
+    void rankRejectsCodesOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> service.rank(SELF, new int[]{0, -1}, 1));
+        assertThrows(IllegalArgumentException.class, () -> service.rank(SELF, new int[]{CODE_LIMIT}, 1));
+    }
+
+    @Test
+    void saveDefaultsPartnerTypeAndStoresDetailJson() {
+        Map<String, Object> detail = service.compare(SELF, "丙寅 辛卯 己丑 丁卯");
+
+        service.save(7L, " ", "小李", detail);
+
+        ArgumentCaptor<BaziCompatibility> captor = ArgumentCaptor.forClass(BaziCompatibility.class);
+        verify(baziCompatibilityMapper).insert(captor.capture());
+        BaziCompatibility saved = captor.getValue();
+        assertEquals(7L, saved.getUserId());
+        assertEquals(BaZiCompatibilityService.DEFAULT_PARTNER_TYPE, saved.getPartnerType());
+        assertEquals("小李", saved.getPartnerName());
+        assertEquals(SELF, saved.getUserBazi());
+        assertEquals("丙寅 辛卯 己丑 丁卯", saved.getPartnerBazi());
+        assertEquals(detail.get("总分"), saved.getCompatibilityScore());
+        assertTrue(((String) saved.getCompatibilityData()).contains("\"总分\":" + detail.get("总分")));
+        assertFalse(saved.getIsShared());
+    }
+
+    @Test
+    void getUserRecordsClampsPageAndSize() {
+        when(baziCompatibilityMapper.selectByUserIdPaged(7L, 0, 100))
+                .thenReturn(List.of(BaziCompatibility.builder().id(1L).build()));
+
+        List<BaziCompatibility> records = service.getUserRecords(7L, 0, 500);
+
+        assertEquals(1, records.size());
+        verify(baziCompatibilityMapper).selectByUserIdPaged(7L, 0, 100);
+    }
+
+    @Test
+    void getUserRecordUsesOwnerScopedLookup() {
+        BaziCompatibility record = BaziCompatibility.builder().id(10L).userId(7L).build();
+        when(baziCompatibilityMapper.selectByIdAndUserId(10L, 7L)).thenReturn(record);
+
+        assertSame(record, service.getUserRecord(7L, 10L));
+    }
+}
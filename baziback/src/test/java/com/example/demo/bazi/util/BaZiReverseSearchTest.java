@@ -0,0 +1,110 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.BirthTimeWindow;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaZiReverseSearchTest {
+
+    /**
+     * 2023-2024 两年的模拟节气表：节在每月 6 日 10:00，气在每月 21 日 10:00
+     */
+    private static SolarTermTable syntheticTable() {
+        long[] instants = new long[2 * SolarTermTable.TERMS_PER_YEAR];
+        for (int y = 0; y < 2; y++) {
+            for (int i = 0; i < SolarTermTable.TERMS_PER_YEAR; i++) {
+                instants[y * SolarTermTable.TERMS_PER_YEAR + i] = LocalDateTime
+                        .of(2023 + y, i / 2 + 1, i % 2 == 0 ? 6 : 21, 10, 0)
+                        .toEpochSecond(ZoneOffset.UTC);
+            }
+        }
+        return new SolarTermTable(2023, instants);
+    }
+
+    /**
+     * 逐分钟正向换算癸卯年全年，所有八字的反查结果都应与之完全一致
+     */
+    @Test
+    void matchesForwardConversionForWholeYear() {
+        SolarTermTable table = syntheticTable();
+        BulkBaZiConverter converter = new BulkBaZiConverter(table);
+        BaZiReverseSearch search = new BaZiReverseSearch(table);
+        int guiMao = GanZhi.yearJiaZi(2023);
+
+        Map<Integer, List<BirthTimeWindow>> expected = new HashMap<>();
+        long start = LocalDateTime.of(2023, 2, 4, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long end = LocalDateTime.of(2024, 2, 8, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        for (long t = start; t < end; t += 60) {
+            int code = converter.tableCode(t);
+            if (code / 216000 != guiMao) {
+                continue;
+            }
+            List<BirthTimeWindow> list = expected.computeIfAbsent(code, c -> new ArrayList<>());
+            LocalDateTime time = LocalDateTime.ofEpochSecond(t, 0, ZoneOffset.UTC);
+            BirthTimeWindow last = list.isEmpty() ? null : list.get(list.size() - 1);
+            if (last != null && last.end().equals(time)) {
+                list.set(list.size() - 1, new BirthTimeWindow(last.start(), time.plusMinutes(1)));
+            } else {
+                list.add(new BirthTimeWindow(time, time.plusMinutes(1)));
+            }
+        }
+
+        assertTrue(expected.size() > 4000);
+        for (Map.Entry<Integer, List<BirthTimeWindow>> entry : expected.entrySet()) {
+            PackedBaZiChart chart = PackedBaZiChart.fromCode(entry.getKey());
+            assertTrue(BaZiReverseSearch.isConsistent(chart), chart.toString());
+            assertEquals(entry.getValue(), search.search(chart, 2023, 2023, null), chart.toString());
+        }
+    }
+
+    @Test
+    void nightZiHourAcrossLiChun() {
+        BaZiReverseSearch search = new BaZiReverseSearch(syntheticTable());
+        // 2024-02-05 23 点：月柱仍为乙丑，年、日柱按次日（已过立春）
+        List<BirthTimeWindow> windows = search.search(PackedBaZiChart.parse("甲辰 乙丑 庚子 戊子"), 2023, 2024, null);
+        assertEquals(List.of(), windows, "甲辰年须次年立春，超出模拟表范围");
+
+        // 2023-02-05 23 点：年柱按次日入癸卯，月柱仍为壬寅年丑月
+        PackedBaZiChart mixed = PackedBaZiChart.parse("癸卯 癸丑 乙未 戊子");
+        assertTrue(BaZiReverseSearch.isConsistent(mixed));
+        assertEquals(List.of(new BirthTimeWindow(
+                LocalDateTime.of(2023, 2, 5, 23, 0), LocalDateTime.of(2023, 2, 6, 0, 0))),
+                search.search(mixed, 2023, 2023, null));
+        // 同样的月柱配早子时不可能出现
+        assertFalse(BaZiReverseSearch.isConsistent(PackedBaZiChart.parse("癸卯 癸丑 乙未 丙子")));
+    }
+
+    @Test
+    void inconsistentChartsHaveNoWindows() {
+        BaZiReverseSearch search = new BaZiReverseSearch(syntheticTable());
+        // 癸年无丙寅月
+        PackedBaZiChart badMonth = PackedBaZiChart.parse("癸卯 丙寅 甲子 甲子");
+        assertFalse(BaZiReverseSearch.isConsistent(badMonth));
+        assertTrue(search.search(badMonth, 2023, 2023, null).isEmpty());
+        // 甲日子时为甲子（早子）或丙子（夜子），不会是戊子
+        PackedBaZiChart badHour = PackedBaZiChart.parse("癸卯 甲寅 甲子 戊子");
+        assertFalse(BaZiReverseSearch.isConsistent(badHour));
+        assertTrue(search.search(badHour, 2023, 2023, null).isEmpty());
+        // 空表不覆盖任何年份
+        assertTrue(new BaZiReverseSearch(new SolarTermTable(1900, new long[0]))
+                .search(PackedBaZiChart.parse("癸卯 乙卯 甲子 甲子"), 1900, 2100, null).isEmpty());
+    }
+
+    @Test
+    void longitudeShiftsWindowsBackToClockTime() {
+        BaZiReverseSearch search = new BaZiReverseSearch(syntheticTable());
+        PackedBaZiChart chart = PackedBaZiChart.parse("癸卯 乙卯 甲子 庚午");
+        BirthTimeWindow solar = search.search(chart, 2023, 2023, null).get(0);
+        BirthTimeWindow clock = search.search(chart, 2023, 2023, 100.0).get(0);
+        int offset = TrueSolarTime.offsetSeconds(solar.start().toLocalDate(), 100.0, TrueSolarTime.BEIJING_MERIDIAN);
+        assertEquals(solar.start().minusSeconds(offset), clock.start());
+        assertEquals(solar.end().minusSeconds(offset), clock.end());
+    }
+}
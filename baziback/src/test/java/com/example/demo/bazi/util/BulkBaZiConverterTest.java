@@ -0,0 +1,183 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.model.PackedBaZiChart;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkBaZiConverterTest {
+
+    /**
+     * 2023-2024 两年的模拟节气表：节在每月 6 日 10:00，气在每月 21 日 10:00
+     */
+    private static BulkBaZiConverter syntheticConverter() {
+        long[] instants = new long[2 * SolarTermTable.TERMS_PER_YEAR];
+        for (int y = 0; y < 2; y++) {
+            for (int i = 0; i < SolarTermTable.TERMS_PER_YEAR; i++) {
+                instants[y * SolarTermTable.TERMS_PER_YEAR + i] = LocalDateTime
+                        .of(2023 + y, i / 2 + 1, i % 2 == 0 ? 6 : 21, 10, 0)
+                        .toEpochSecond(ZoneOffset.UTC);
+            }
+        }
+        return new BulkBaZiConverter(new SolarTermTable(2023, instants));
+    }
+
+    private static String convert(BulkBaZiConverter converter, LocalDateTime time) {
+        return BulkBaZiConverter.format(converter.tableCode(time.toEpochSecond(ZoneOffset.UTC)));
+    }
+
+    @Test
+    void pillarsSwitchAtLiChun() {
+        BulkBaZiConverter converter = syntheticConverter();
+        assertEquals("癸卯 乙丑 庚子 辛巳", convert(converter, LocalDateTime.of(2024, 2, 6, 9, 59, 59)));
+        assertEquals("甲辰 丙寅 庚子 辛巳", convert(converter, LocalDateTime.of(2024, 2, 6, 10, 0)));
+    }
+
+    @Test
+    void nightZiHourUsesNextDay() {
+        BulkBaZiConverter converter = syntheticConverter();
+        // 2024-02-10 为甲辰日，子时起甲子
+        assertEquals("甲辰 丙寅 甲辰 甲子", convert(converter, LocalDateTime.of(2024, 2, 10, 0, 30)));
+        // 前一日 23 点：日柱按次日甲辰，时干随节气库再按次日（乙日）起丙子
+        assertEquals("甲辰 丙寅 甲辰 丙子", convert(converter, LocalDateTime.of(2024, 2, 9, 23, 30)));
+        // 年柱按调整后的次日（已过立春），月柱不受夜子时影响
+        assertEquals("甲辰 乙丑", convert(converter, LocalDateTime.of(2024, 2, 5, 23, 0)).substring(0, 5));
+    }
+
+    @Test
+    void termPillarsFollowBeijingTimeDayAndHourFollowLocalTime() {
+        BulkBaZiConverter converter = syntheticConverter();
+        // 当地 2024-02-05 22:30 的真太阳时，北京时间已到 02-06 11:30，过了立春
+        long local = LocalDateTime.of(2024, 2, 5, 22, 30).toEpochSecond(ZoneOffset.UTC);
+        long beijing = LocalDateTime.of(2024, 2, 6, 11, 30).toEpochSecond(ZoneOffset.UTC);
+        String split = BulkBaZiConverter.format(converter.tableCode(local, beijing));
+        String localOnly = BulkBaZiConverter.format(converter.tableCode(local));
+
+        assertEquals("甲辰 丙寅", split.substring(0, 5));
+        assertEquals("癸卯 乙丑", localOnly.substring(0, 5));
+        assertEquals(localOnly.substring(6), split.substring(6));
+    }
+
+    @Test
+    void cityOutsideUtc8ComparesTermsInBeijingTime() {
+        BulkBaZiConverter converter = syntheticConverter();
+        CityLongitudeIndex.City newYork = new CityLongitudeIndex.City("纽约", -74.01, 40.71, ZoneId.of("America/New_York"));
+        // 模拟立春为北京时间 02-06 10:00，即纽约当地 02-05 21:00
+        for (int minute : new int[] {-10, 10}) {
+            LocalDateTime local = LocalDateTime.of(2024, 2, 5, 21, 0).plusMinutes(minute);
+            LocalDateTime solarTime = TrueSolarTime.apply(local, newYork.longitude(), newYork.standardMeridian(local));
+            String converted = BulkBaZiConverter.format(
+                    converter.convertSolarTime(solarTime, newYork.toBeijingTime(local)));
+            String localOnly = BulkBaZiConverter.format(converter.convertSolarTime(solarTime));
+
+            assertEquals(minute < 0 ? "癸卯 乙丑" : "甲辰 丙寅", converted.substring(0, 5));
+            // 按当地真太阳时比较节气会整整晚 13 小时
+            assertEquals("癸卯 乙丑", localOnly.substring(0, 5));
+            // 日柱、时柱仍按当地真太阳时
+            assertEquals(localOnly.substring(6), converted.substring(6));
+        }
+    }
+
+    @Test
+    void cityConversionNearLiChun2024() {
+        Assumptions.assumeTrue(SolarTermTable.getInstance().hasYear(2024), "节气表未加载");
+        CityLongitudeIndex.City newYork = CityLongitudeIndex.getInstance().find("纽约").orElseThrow();
+        // 2024 年立春为北京时间 02-04 16:26:53，即纽约当地 03:26:53
+        LocalDateTime before = LocalDateTime.of(2024, 2, 4, 3, 20);
+        LocalDateTime after = LocalDateTime.of(2024, 2, 4, 3, 35);
+
+        assertEquals("癸卯 乙丑", DateToBaZiConverter.convert(before, newYork).substring(0, 5));
+        assertEquals("甲辰 丙寅", DateToBaZiConverter.convert(after, newYork).substring(0, 5));
+        assertEquals(DateToBaZiConverter.convertWithLibrary(
+                TrueSolarTime.apply(after, newYork.longitude(), newYork.standardMeridian(after)),
+                newYork.toBeijingTime(after)), DateToBaZiConverter.convert(after, newYork));
+
+        Map<String, Object> detailed = DateToBaZiConverter.convertDetailed(after, true, newYork);
+        assertEquals("2024年02月04日 16时35分", detailed.get("北京时间"));
+        assertEquals(DateToBaZiConverter.convert(after, newYork), detailed.get("八字"));
+    }
+
+    @Test
+    void julyCityBirthsUseDaylightTime() {
+        Assumptions.assumeTrue(SolarTermTable.getInstance().hasYear(2024), "节气表未加载");
+        CityLongitudeIndex index = CityLongitudeIndex.getInstance();
+        CityLongitudeIndex.City newYork = index.find("纽约").orElseThrow();
+        CityLongitudeIndex.City london = index.find("伦敦").orElseThrow();
+
+        // 纽约夏令时 13:30，真太阳时约 12:28，午时
+        LocalDateTime nyLocal = LocalDateTime.of(2024, 7, 15, 13, 30);
+        Map<String, Object> ny = DateToBaZiConverter.convertDetailed(nyLocal, true, newYork);
+        assertEquals("午", ((String) ny.get("时柱")).substring(1));
+        assertEquals(-240, ny.get("时区偏移分钟"));
+        assertEquals("2024年07月16日 01时30分", ny.get("北京时间"));
+        assertEquals(DateToBaZiConverter.convert(nyLocal, newYork), ny.get("八字"));
+
+        // 伦敦夏令时 01:30，真太阳时约 00:23，子时
+        LocalDateTime londonLocal = LocalDateTime.of(2024, 7, 15, 1, 30);
+        Map<String, Object> ld = DateToBaZiConverter.convertDetailed(londonLocal, true, london);
+        assertEquals("子", ((String) ld.get("时柱")).substring(1));
+        assertEquals(60, ld.get("时区偏移分钟"));
+        assertEquals("2024年07月15日 08时30分", ld.get("北京时间"));
+    }
+
+    @Test
+    void outsideTableFallsBack() {
+        BulkBaZiConverter converter = syntheticConverter();
+        assertEquals(-1, converter.tableCode(LocalDateTime.of(2022, 12, 31, 12, 0).toEpochSecond(ZoneOffset.UTC)));
+        // 末日 23 点按次日计算，已超出表范围
+        assertEquals(-1, converter.tableCode(LocalDateTime.of(2024, 12, 31, 23, 0).toEpochSecond(ZoneOffset.UTC)));
+    }
+
+    @Test
+    void batchMatchesSingleConversion() {
+        BulkBaZiConverter converter = syntheticConverter();
+        LocalDateTime start = LocalDateTime.of(2023, 3, 1, 0, 0);
+        long[] timestamps = new long[2000];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = start.plusMinutes(397L * i).toEpochSecond(ZoneOffset.ofHours(8));
+        }
+        int[] codes = converter.convertAll(timestamps, 87.6);
+        for (int i = 0; i < timestamps.length; i++) {
+            LocalDateTime beijing = LocalDateTime.ofEpochSecond(timestamps[i], 0, ZoneOffset.ofHours(8));
+            assertEquals(converter.convert(beijing, 87.6), codes[i]);
+            assertEquals(PackedBaZiChart.fromCode(codes[i]).toString(), BulkBaZiConverter.format(codes[i]));
+        }
+    }
+
+    /**
+     * 1901-2100 年逐日（时辰轮换）及每个节气前后一秒，与节气库逐次计算结果比对
+     */
+    @Test
+    void matchesLunarLibraryFor200Years() {
+        SolarTermTable table = SolarTermTable.getInstance();
+        Assumptions.assumeTrue(table.hasYear(1901) && table.hasYear(2100), "节气表未加载");
+        BulkBaZiConverter converter = new BulkBaZiConverter(table);
+
+        LocalDate end = LocalDate.of(2100, 12, 31);
+        int i = 0;
+        for (LocalDate date = LocalDate.of(1901, 1, 1); date.isBefore(end); date = date.plusDays(1), i++) {
+            // 每天取一个时辰轮换，另加每天 23 点检查夜子时
+            assertSame(converter, date.atTime(i % 23, 30, 15));
+            assertSame(converter, date.atTime(23, i % 60));
+        }
+        for (int year = 1901; year <= 2100; year++) {
+            for (int term = 0; term < SolarTermTable.TERMS_PER_YEAR; term++) {
+                LocalDateTime instant = table.instant(year, term);
+                assertSame(converter, instant.minusSeconds(1));
+                assertSame(converter, instant);
+            }
+        }
+    }
+
+    private static void assertSame(BulkBaZiConverter converter, LocalDateTime time) {
+        assertEquals(DateToBaZiConverter.convertWithLibrary(time),
+                BulkBaZiConverter.format(converter.convertSolarTime(time)), time.toString());
+    }
+}
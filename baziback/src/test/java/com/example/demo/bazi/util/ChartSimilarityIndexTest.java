@@ -0,0 +1,159 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.model.PackedBaZiChart;
+import com.example.demo.bazi.model.SimilarChart;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChartSimilarityIndexTest {
+
+    @Test
+    void matchesDayPillarMonthBranchAndElements() {
+        ChartSimilarityIndex index = new ChartSimilarityIndex();
+        index.put(1, 10L, PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰"));
+        // 日柱、月令相同，五行分布相同
+        index.put(2, 10L, PackedBaZiChart.parse("乙酉 丁丑 甲辰 戊辰"));
+        // 月令不同
+        index.put(3, 10L, PackedBaZiChart.parse("乙酉 戊寅 甲辰 戊辰"));
+        // 日柱不同
+        index.put(4, 10L, PackedBaZiChart.parse("乙酉 己丑 乙巳 戊辰"));
+        // 他人的记录
+        index.put(5, 11L, PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰"));
+
+        PackedBaZiChart query = PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+        int[] target = ChartSimilarityIndex.histogram(query);
+        ChartSimilarityIndex.SimilarityResult result = index.query(query, 10L, 2, false, 10, null);
+        assertEquals(2, result.total());
+        assertEquals(1, result.matches().get(0).recordId());
+        assertEquals(2, result.matches().get(1).recordId());
+        assertEquals(ChartSimilarityIndex.distance(target,
+                ChartSimilarityIndex.histogram(PackedBaZiChart.parse("乙酉 丁丑 甲辰 戊辰"))),
+                result.matches().get(1).distance());
+
+        // 排除自己的记录
+        assertEquals(List.of(2L), index.query(query, 10L, 2, false, 10, 1L).matches().stream()
+                .map(SimilarChart::recordId).toList());
+        // 精确五行分布
+        assertEquals(1, index.query(query, 10L, 0, false, 10, null).total());
+        // 只看得到自己的记录
+        assertEquals(List.of(5L), index.query(query, 11L, 2, false, 10, null).matches().stream()
+                .map(SimilarChart::recordId).toList());
+        assertEquals(0, index.query(query, 12L, 2, false, 10, null).total());
+        assertEquals(4, index.size(10L));
+    }
+
+    @Test
+    void incrementalUpdatesAndRemovals() {
+        ChartSimilarityIndex index = new ChartSimilarityIndex();
+        PackedBaZiChart chart = PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+        index.put(1, 10L, chart);
+        index.put(2, 10L, chart);
+        index.put(3, 10L, chart);
+        index.put(4, 20L, chart);
+        assertEquals(3, index.query(chart, 10L, 0, true, 10, null).total());
+
+        // 覆盖写入为另一八字后不再命中
+        index.put(1, 10L, PackedBaZiChart.parse("甲子 丙寅 丙寅 戊子"));
+        assertEquals(2, index.query(chart, 10L, 0, true, 10, null).total());
+        assertEquals(4, index.size());
+
+        index.remove(3);
+        assertEquals(List.of(2L), index.query(chart, 10L, 0, true, 10, null).matches().stream()
+                .map(SimilarChart::recordId).toList());
+
+        index.removeUser(10L);
+        assertEquals(1, index.size());
+        assertEquals(0, index.query(chart, 10L, 8, false, 10, null).total());
+        assertEquals(1, index.query(chart, 20L, 8, false, 10, null).total());
+    }
+
+    /**
+     * 覆盖写入沿用原序号，删除空出的序号被新记录复用（结果按序号排列）
+     */
+    @Test
+    void reusesFreedSlots() {
+        ChartSimilarityIndex index = new ChartSimilarityIndex();
+        PackedBaZiChart chart = PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+        index.put(1, 10L, chart);
+        index.put(2, 10L, chart);
+        index.put(3, 10L, chart);
+
+        index.put(2, 10L, chart);
+        index.remove(1);
+        index.put(4, 10L, chart);
+        assertEquals(List.of(4L, 2L, 3L), index.query(chart, 10L, 0, false, 10, null).matches().stream()
+                .map(SimilarChart::recordId).toList());
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * 全量加载期间被增量写入、删除过的记录不被加载读到的旧数据覆盖或复活
+     */
+    @Test
+    void loadDoesNotOverrideIncrementalChanges() {
+        ChartSimilarityIndex index = new ChartSimilarityIndex();
+        PackedBaZiChart chart = PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+        PackedBaZiChart other = PackedBaZiChart.parse("甲子 丙寅 丙寅 戊子");
+        index.beginLoad();
+        index.remove(1);
+        index.put(2, 10L, other);
+        index.removeUser(20L);
+        assertFalse(index.load(1, 10L, chart));
+        assertFalse(index.load(2, 10L, chart));
+        assertFalse(index.load(3, 20L, chart));
+        assertTrue(index.load(4, 10L, chart));
+        index.endLoad();
+
+        assertEquals(List.of(4L), index.query(chart, 10L, 0, false, 10, null).matches().stream()
+                .map(SimilarChart::recordId).toList());
+        assertEquals(1, index.query(other, 10L, 0, false, 10, null).total());
+        assertEquals(0, index.size(20L));
+
+        // 加载结束后不再拦截
+        assertTrue(index.load(1, 10L, chart));
+    }
+
+    /**
+     * 随机八字与逐条比对的结果一致
+     */
+    @Test
+    void agreesWithLinearScan() {
+        SplittableRandom random = new SplittableRandom(7);
+        ChartSimilarityIndex index = new ChartSimilarityIndex();
+        List<PackedBaZiChart> charts = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            // 日柱、月令取值范围收窄，保证有足够的命中
+            PackedBaZiChart chart = PackedBaZiChart.of(random.nextInt(60), random.nextInt(6),
+                    random.nextInt(3), random.nextInt(60));
+            charts.add(chart);
+            index.put(i, (long) (i % 4), chart);
+        }
+        for (int q = 0; q < 50; q++) {
+            PackedBaZiChart query = charts.get(random.nextInt(charts.size()));
+            long userId = random.nextInt(4);
+            int tolerance = q % 4;
+            boolean samePattern = q % 2 == 0;
+            int[] target = ChartSimilarityIndex.histogram(query);
+            int expected = 0;
+            for (int i = 0; i < charts.size(); i++) {
+                PackedBaZiChart chart = charts.get(i);
+                if (i % 4 == userId
+                        && chart.jiaZi(PackedBaZiChart.RI) == query.jiaZi(PackedBaZiChart.RI)
+                        && chart.branch(PackedBaZiChart.YUE) == query.branch(PackedBaZiChart.YUE)
+                        && (!samePattern || ChartSimilarityIndex.pattern(chart) == ChartSimilarityIndex.pattern(query))
+                        && ChartSimilarityIndex.distance(target, ChartSimilarityIndex.histogram(chart)) <= tolerance) {
+                    expected++;
+                }
+            }
+            ChartSimilarityIndex.SimilarityResult result = index.query(query, userId, tolerance, samePattern, 5, null);
+            assertEquals(expected, result.total());
+            assertTrue(result.matches().size() <= 5);
+            result.matches().forEach(m -> assertTrue(m.distance() <= tolerance));
+        }
+    }
+}
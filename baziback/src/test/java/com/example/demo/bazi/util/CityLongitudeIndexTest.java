@@ -0,0 +1,73 @@
+package com.example.demo.bazi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityLongitudeIndexTest {
+
+    @Test
+    void findsByNameAndAlias() throws IOException {
+        CityLongitudeIndex index = CityLongitudeIndex.parse(new BufferedReader(new StringReader(
+                "# 注释\n北京,beijing|peking,116.41,39.90,Asia/Shanghai\n新德里,new delhi|delhi,77.21,28.61,Asia/Kolkata\n")));
+        assertEquals(2, index.getCities().size());
+        assertEquals(116.41, index.find("北京市").orElseThrow().longitude());
+        assertEquals("北京", index.find(" Peking ").orElseThrow().name());
+        CityLongitudeIndex.City delhi = index.find("DELHI").orElseThrow();
+        LocalDateTime noon = LocalDateTime.of(2024, 2, 4, 12, 0);
+        assertEquals(ZoneId.of("Asia/Kolkata"), delhi.zone());
+        assertEquals(330 * 60, delhi.offsetAt(noon).getTotalSeconds());
+        assertEquals(82.5, delhi.standardMeridian(noon));
+        assertEquals(LocalDateTime.of(2024, 2, 4, 14, 30), delhi.toBeijingTime(noon));
+        assertTrue(index.find("上海").isEmpty());
+        assertTrue(index.find(null).isEmpty());
+    }
+
+    @Test
+    void rejectsMalformedLine() {
+        assertThrows(IllegalArgumentException.class, () -> CityLongitudeIndex.parse(
+                new BufferedReader(new StringReader("北京,116.41,39.90\n"))));
+        assertThrows(IllegalArgumentException.class, () -> CityLongitudeIndex.parse(
+                new BufferedReader(new StringReader("北京,beijing,116.41,39.90,8\n"))));
+    }
+
+    @Test
+    void bundledTableLoads() {
+        CityLongitudeIndex index = CityLongitudeIndex.getInstance();
+        assertEquals("上海", index.find("shanghai").orElseThrow().name());
+        CityLongitudeIndex.City newYork = index.find("New York").orElseThrow();
+        assertEquals(-300 * 60, newYork.offsetAt(LocalDateTime.of(2024, 1, 15, 12, 0)).getTotalSeconds());
+    }
+
+    @Test
+    void julyBirthInNewYorkUsesDaylightTime() {
+        CityLongitudeIndex.City newYork = CityLongitudeIndex.getInstance().find("纽约").orElseThrow();
+        LocalDateTime july = LocalDateTime.of(2024, 7, 15, 13, 30);
+
+        assertEquals(-240 * 60, newYork.offsetAt(july).getTotalSeconds());
+        assertEquals(-60.0, newYork.standardMeridian(july));
+        assertEquals(LocalDateTime.of(2024, 7, 16, 1, 30), newYork.toBeijingTime(july));
+        // 夏令时 13:30 的真太阳时约 12:28，属午时；按固定 UTC-5 会算到 13:28 未时
+        assertEquals(12, TrueSolarTime.apply(july, newYork.longitude(), newYork.standardMeridian(july)).getHour());
+    }
+
+    @Test
+    void julyBirthInLondonUsesSummerTime() {
+        CityLongitudeIndex.City london = CityLongitudeIndex.getInstance().find("伦敦").orElseThrow();
+        LocalDateTime july = LocalDateTime.of(2024, 7, 15, 1, 30);
+
+        assertEquals(60 * 60, london.offsetAt(july).getTotalSeconds());
+        assertEquals(15.0, london.standardMeridian(july));
+        assertEquals(LocalDateTime.of(2024, 7, 15, 8, 30), london.toBeijingTime(july));
+        // 英国夏令时 01:30 即格林尼治 00:30，真太阳时约 00:23 属子时；按固定 UTC+0 会算到丑时
+        assertEquals(0, TrueSolarTime.apply(july, london.longitude(), london.standardMeridian(july)).getHour());
+        // 冬季仍为格林尼治时间
+        assertEquals(0, london.offsetAt(LocalDateTime.of(2024, 1, 15, 1, 30)).getTotalSeconds());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.constants.GanZhi;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolarTermTableTest {
+
+    /**
+     * 2023-2024 两年的模拟节气表：节在每月 6 日 10:00，气在每月 21 日 10:00
+     */
+    private static SolarTermTable syntheticTable() {
+        long[] instants = new long[2 * SolarTermTable.TERMS_PER_YEAR];
+        for (int y = 0; y < 2; y++) {
+            for (int i = 0; i < SolarTermTable.TERMS_PER_YEAR; i++) {
+                instants[y * SolarTermTable.TERMS_PER_YEAR + i] = LocalDateTime
+                        .of(2023 + y, i / 2 + 1, i % 2 == 0 ? 6 : 21, 10, 0)
+                        .toEpochSecond(ZoneOffset.UTC);
+            }
+        }
+        return new SolarTermTable(2023, instants);
+    }
+
+    @Test
+    void monthAndYearPillarsSwitchAtJie() {
+        SolarTermTable table = syntheticTable();
+        // 立春前一秒仍是癸卯年乙丑月
+        LocalDateTime beforeLiChun = LocalDateTime.of(2024, 2, 6, 9, 59, 59);
+        assertEquals("乙丑", GanZhi.jiaZiName(table.monthJiaZi(beforeLiChun)));
+        assertEquals("癸卯", GanZhi.jiaZiName(table.yearJiaZi(beforeLiChun)));
+        // 立春起甲辰年丙寅月
+        LocalDateTime liChun = LocalDateTime.of(2024, 2, 6, 10, 0);
+        assertEquals("丙寅", GanZhi.jiaZiName(table.monthJiaZi(liChun)));
+        assertEquals("甲辰", GanZhi.jiaZiName(table.yearJiaZi(liChun)));
+        // 中气不换月
+        assertEquals("丙寅", GanZhi.jiaZiName(table.monthJiaZi(LocalDateTime.of(2024, 2, 25, 0, 0))));
+        // 大雪后为子月
+        assertEquals("丙子", GanZhi.jiaZiName(table.monthJiaZi(LocalDateTime.of(2024, 12, 31, 23, 0))));
+        // 年初小寒前为上一年的子月
+        assertEquals("甲子", GanZhi.jiaZiName(table.monthJiaZi(LocalDateTime.of(2024, 1, 3, 0, 0))));
+    }
+
+    @Test
+    void coverageAndTermLookup() {
+        SolarTermTable table = syntheticTable();
+        assertFalse(table.covers(LocalDateTime.of(2023, 1, 1, 0, 0)));
+        assertTrue(table.covers(LocalDateTime.of(2023, 1, 6, 10, 0)));
+        assertTrue(table.covers(LocalDateTime.of(2024, 12, 31, 23, 59)));
+        assertFalse(table.covers(LocalDateTime.of(2025, 1, 1, 0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> table.monthJiaZi(LocalDateTime.of(2025, 3, 1, 0, 0)));
+
+        assertEquals("立春", table.termNameOn(LocalDate.of(2024, 2, 6)));
+        assertEquals("冬至", table.termNameOn(LocalDate.of(2023, 12, 21)));
+        assertEquals("", table.termNameOn(LocalDate.of(2024, 2, 7)));
+        assertEquals(LocalDateTime.of(2024, 3, 6, 10, 0), table.instant(2024, 4));
+        assertTrue(table.hasYear(2024));
+        assertFalse(table.hasYear(2025));
+    }
+
+    @Test
+    void emptyTableCoversNothing() {
+        SolarTermTable table = new SolarTermTable(1900, new long[0]);
+        assertFalse(table.covers(LocalDateTime.of(2000, 6, 1, 0, 0)));
+        assertFalse(table.hasYear(2000));
+        assertEquals("", table.termNameOn(LocalDate.of(2000, 6, 1)));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.bazi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrueSolarTimeTest {
+
+    @Test
+    void equationOfTimeFollowsSeasonalExtremes() {
+        // 二月中旬约 -14 分钟，十一月初约 +16 分钟
+        assertEquals(-14.2, TrueSolarTime.equationOfTimeSeconds(LocalDate.of(2024, 2, 11)) / 60d, 0.5);
+        assertEquals(16.4, TrueSolarTime.equationOfTimeSeconds(LocalDate.of(2023, 11, 3)) / 60d, 0.5);
+        // 四月中旬、六月中旬接近零
+        assertEquals(0, TrueSolarTime.equationOfTimeSeconds(LocalDate.of(2023, 4, 15)) / 60d, 1);
+        assertEquals(0, TrueSolarTime.equationOfTimeSeconds(LocalDate.of(2024, 6, 13)) / 60d, 1);
+        // 闰年年末不越界
+        assertEquals(TrueSolarTime.equationOfTimeSeconds(LocalDate.of(2023, 12, 31)),
+                TrueSolarTime.equationOfTimeSeconds(LocalDate.of(2024, 12, 31)), 5);
+    }
+
+    @Test
+    void offsetCombinesLongitudeAndEquationOfTime() {
+        LocalDate date = LocalDate.of(2024, 2, 11);
+        // 北京 116.41°E：经度时差约 -14.4 分钟
+        assertEquals(-862, TrueSolarTime.longitudeOffsetSeconds(116.41, TrueSolarTime.BEIJING_MERIDIAN));
+        assertEquals(-862 + TrueSolarTime.equationOfTimeSeconds(date),
+                TrueSolarTime.offsetSeconds(date, 116.41, TrueSolarTime.BEIJING_MERIDIAN));
+        // 东京按东九区中央经线 135°E
+        assertEquals(1126, TrueSolarTime.longitudeOffsetSeconds(139.69, 135d));
+
+        LocalDateTime clock = LocalDateTime.of(2024, 2, 11, 12, 0);
+        assertEquals(clock, TrueSolarTime.apply(clock, null));
+        assertEquals(clock.plusSeconds(TrueSolarTime.offsetSeconds(date, 116.41, 120d)),
+                TrueSolarTime.apply(clock, 116.41));
+    }
+}
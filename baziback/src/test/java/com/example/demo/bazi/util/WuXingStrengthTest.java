@@ -0,0 +1,64 @@
+package com.example.demo.bazi.util;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.model.PackedBaZiChart;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WuXingStrengthTest {
+
+    @Test
+    void flatWeightingCountsEightCharacters() {
+        WuXingStrength flat = new WuXingStrength(StandardWuXingWeighting.FLAT);
+        SplittableRandom random = new SplittableRandom(16);
+        double[] scores = new double[WuXingStrength.ELEMENT_COUNT];
+        for (int i = 0; i < 1000; i++) {
+            PackedBaZiChart chart = PackedBaZiChart.fromCode(random.nextInt(60 * 60 * 60 * 60));
+            flat.compute(chart, scores);
+            int[] histogram = ChartSimilarityIndex.histogram(chart);
+            for (int e = 0; e < WuXingStrength.ELEMENT_COUNT; e++) {
+                assertEquals(histogram[e], scores[e], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void codeAndChartGiveSameScores() {
+        PackedBaZiChart chart = PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+        double[] byChart = new double[WuXingStrength.ELEMENT_COUNT];
+        double[] byCode = new double[WuXingStrength.ELEMENT_COUNT];
+        WuXingStrength.getDefault().compute(chart, byChart);
+        WuXingStrength.getDefault().compute(chart.code(), byCode);
+        assertArrayEquals(byChart, byCode, 1e-12);
+    }
+
+    @Test
+    void commonWeightingCountsHiddenStemsAndMonthCommand() {
+        // 丑月：土旺、金相、火休、木囚、水死；丑藏己癸辛，月令加倍
+        PackedBaZiChart chart = PackedBaZiChart.parse("乙酉 己丑 甲辰 戊辰");
+        double[] scores = new double[WuXingStrength.ELEMENT_COUNT];
+        WuXingStrength.getDefault().compute(chart, scores);
+        // 木：乙、甲 + 辰藏乙中气 x2（日、时）
+        assertEquals((1 + 1 + 0.5 * 2) * 0.9, scores[0], 1e-9);
+        // 土：己、戊 + 丑本气 x 月令 + 辰本气 x2
+        assertEquals((1 + 1 + 2 + 1 * 2) * 1.2, scores[2], 1e-9);
+        // 水：丑藏癸中气 x 月令 + 辰藏癸余气 x2
+        assertEquals((0.5 * 2 + 0.3 * 2) * 0.8, scores[4], 1e-9);
+        assertEquals((scores[0] + scores[4]) / (scores[0] + scores[1] + scores[2] + scores[3] + scores[4]),
+                WuXingStrength.sameSideRatio(scores, GanZhi.stemWuXing(chart.riGan())), 1e-12);
+    }
+
+    @Test
+    void seasonStates() {
+        // 寅卯月木当令：木旺、火相、水休、金囚、土死
+        int mu = 0;
+        assertEquals(0, WuXingStrength.seasonState(mu, 0));
+        assertEquals(1, WuXingStrength.seasonState(mu, 1));
+        assertEquals(2, WuXingStrength.seasonState(mu, 4));
+        assertEquals(3, WuXingStrength.seasonState(mu, 3));
+        assertEquals(4, WuXingStrength.seasonState(mu, 2));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.example.demo.bazi.service.BaZiService;
+import com.example.demo.dto.response.bazi.BaziAnalysisResponse;
+import com.example.demo.dto.response.bazi.BaziResponseMapper;
+import com.example.demo.entity.BaziInterpretation;
+import com.example.demo.mapper.BaziInterpretationMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BaziInterpretationServiceTest {
+
+    private static final String[] GOD_TYPES = {"正财", "偏财", "正官", "七杀", "正印", "偏印", "比肩", "劫财", "食神", "伤官"};
+    private static final String[] POSITIONS = {"年干", "年支", "月干", "月支", "日支", "时干", "时支"};
+
+    @Mock
+    private BaziInterpretationMapper baziInterpretationMapper;
+
+    @InjectMocks
+    private BaziInterpretationService baziInterpretationService;
+
+    @Test
+    void loadedTableAnswersWithoutQueries() {
+        List<BaziInterpretation> rows = allRows();
+        when(baziInterpretationMapper.findAll()).thenReturn(rows);
+
+        assertEquals(GOD_TYPES.length * POSITIONS.length, baziInterpretationService.reload());
+        for (BaziInterpretation row : rows) {
+            assertSame(row, baziInterpretationService.getInterpretation(row.getGodType(), row.getGanzhiPosition()));
+        }
+        assertNull(baziInterpretationService.getInterpretation("日主", "日干"));
+        assertNull(baziInterpretationService.getInterpretation("正财", "胎元"));
+        verify(baziInterpretationMapper, never()).findByGodTypeAndPosition(any(), any());
+    }
+
+    @Test
+    void fallsBackToQueriesBeforeLoad() {
+        when(baziInterpretationMapper.findByGodTypeAndPosition("正财", "年干"))
+                .thenReturn(row(1, "正财", "年干", "年干正财"));
+
+        assertEquals("年干正财", baziInterpretationService.getInterpretation("正财", "年干").getBasicDef());
+        verify(baziInterpretationMapper).findByGodTypeAndPosition("正财", "年干");
+    }
+
+    @Test
+    void reloadReplacesTable() {
+        List<BaziInterpretation> modified = allRows();
+        modified.set(0, row(1, "正财", "年干", "修改后"));
+        modified.add(row(999, "正财", "胎元", null));
+        when(baziInterpretationMapper.findAll()).thenReturn(allRows(), modified);
+
+        baziInterpretationService.reload();
+        assertEquals("年干正财", baziInterpretationService.getInterpretation("正财", "年干").getBasicDef());
+        baziInterpretationService.reload();
+
+        assertEquals("修改后", baziInterpretationService.getInterpretation("正财", "年干").getBasicDef());
+        assertNotNull(baziInterpretationService.getInterpretation("正财", "胎元"));
+    }
+
+    @Test
+    void interpretsAnalysisResponsePillars() {
+        when(baziInterpretationMapper.findAll()).thenReturn(allRows());
+        baziInterpretationService.reload();
+        BaziAnalysisResponse analysis = BaziResponseMapper.fromAnalysisMap(
+                new BaZiService().analyze("乙酉 己丑 甲辰 戊辰", 2005, true));
+
+        List<Map<String, Object>> interpretations =
+                baziInterpretationService.getInterpretationsFromPillars(analysis.getPillars());
+
+        // 日支、年干、年支、月干、时干
+        assertEquals(List.of("rizhi", "niangan", "nianzhi", "yuegan", "shigan"),
+                interpretations.stream().map(item -> item.get("id")).toList());
+        // 甲日主：年干乙为劫财，月干己为正财
+        assertEquals("年干·劫财", interpretations.get(1).get("title"));
+        assertEquals("月干·正财", interpretations.get(3).get("title"));
+        verify(baziInterpretationMapper, never()).findByGodTypeAndPosition(any(), any());
+    }
+
+    private static List<BaziInterpretation> allRows() {
+        List<BaziInterpretation> rows = new ArrayList<>();
+        int id = 1;
+        for (String godType : GOD_TYPES) {
+            for (String position : POSITIONS) {
+                rows.add(row(id++, godType, position, position + godType));
+            }
+        }
+        return rows;
+    }
+
+    private static BaziInterpretation row(int id, String godType, String position, String basicDef) {
+        return BaziInterpretation.builder().id(id).godType(godType).ganzhiPosition(position).basicDef(basicDef).build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.service;
 
+import com.example.demo.bazi.service.BaZiSimilarityService;
 import com.example.demo.entity.TbCalculationRecord;
 import com.example.demo.exception.BusinessException;
 import com.example.demo.mapper.CalculationRecordMapper;
@@ -29,6 +30,9 @@ class CalculationRecordServiceTest {
     @Mock
     private ReferralService referralService;
 
+    @Mock
+    private BaZiSimilarityService baZiSimilarityService;
+
     @InjectMocks
     private CalculationRecordService calculationRecordService;
 
@@ -0,0 +1,57 @@
+package com.example.demo.yijing.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HexagramCastTest {
+
+    @Test
+    void timeFollowsXianTianNumbers() {
+        // 2024-05-17 13:45：上卦 2046%8=6 坎，下卦 2059%8=3 离，动爻 2104%6=4
+        int cast = HexagramCast.time(2024, 5, 17, 13, 45);
+        assertEquals("坎", HexagramCast.code(cast).upperName());
+        assertEquals("离", HexagramCast.code(cast).lowerName());
+        assertEquals(List.of(4), HexagramCast.movingLines(cast));
+    }
+
+    @Test
+    void remainderZeroCountsAsLast() {
+        int cast = HexagramCast.number(80);
+        assertEquals(0, HexagramCast.bits(cast));
+        assertEquals(List.of(2), HexagramCast.movingLines(cast));
+        assertEquals(HexagramCast.pack(0, HexagramCode.lineMask(6)), HexagramCast.number(0));
+        // 负数按数学取余，不再越界：上卦 0 作坤，下卦 -1 余 7 为艮，动爻 -1 余 5
+        assertEquals(HexagramCast.pack(4, HexagramCode.lineMask(5)), HexagramCast.number(-1));
+    }
+
+    @Test
+    void coinsDecideYangAndMovingLines() {
+        assertEquals(HexagramCast.pack(63, 63), HexagramCast.fromCoins((1 << HexagramCast.COIN_BITS) - 1));
+        assertEquals(HexagramCast.pack(0, 63), HexagramCast.fromCoins(0));
+        // 每爻两背一字：少阳不动
+        assertEquals(HexagramCast.pack(63, 0), HexagramCast.fromCoins(0b011_011_011_011_011_011));
+        // 初爻一背少阴，二爻三背老阳
+        int cast = HexagramCast.fromCoins(0b011_011_011_011_111_001);
+        assertEquals(0b111110, HexagramCast.bits(cast));
+        assertEquals(List.of(2), HexagramCast.movingLines(cast));
+    }
+
+    @Test
+    void coinDrawsAllEighteenCoinsAtOnce() {
+        int coins = new SplittableRandom(7).nextInt(1 << HexagramCast.COIN_BITS);
+        assertEquals(HexagramCast.fromCoins(coins), HexagramCast.coin(new SplittableRandom(7)));
+    }
+
+    @Test
+    void packRoundTrips() {
+        int cast = HexagramCast.pack(0b101001, 0b100010);
+        assertEquals(0b101001, HexagramCast.bits(cast));
+        assertEquals(0b100010, HexagramCast.movingMask(cast));
+        assertEquals(List.of(2, 6), HexagramCast.movingLines(cast));
+        assertTrue(cast < HexagramCast.CAST_COUNT);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.yijing.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HexagramCodeTest {
+
+    @Test
+    void parsesLinesFromBottom() {
+        // 水雷屯：初爻阳、五爻阳，下震上坎
+        HexagramCode zhun = HexagramCode.parse("100010");
+        assertEquals(0b010001, zhun.bits());
+        assertEquals("震", zhun.lowerName());
+        assertEquals("坎", zhun.upperName());
+        assertEquals("☵☳", zhun.symbol());
+        assertTrue(zhun.isYang(1));
+        assertFalse(zhun.isYang(2));
+        assertEquals("100010", zhun.binary());
+        assertSame(zhun, HexagramCode.ofTrigrams("坎", "震"));
+
+        assertEquals(-1, HexagramCode.parseBits("10001"));
+        assertEquals(-1, HexagramCode.parseBits("10001x"));
+        assertNull(HexagramCode.ofTrigrams("坎", "雷"));
+        assertThrows(IllegalArgumentException.class, () -> HexagramCode.parse(null));
+    }
+
+    @Test
+    void xianTianNumbers() {
+        String[] names = {"乾", "兑", "离", "震", "巽", "坎", "艮", "坤"};
+        for (int number = 1; number <= 8; number++) {
+            assertEquals(names[number - 1], HexagramCode.trigramName(HexagramCode.xianTianTrigram(number)));
+        }
+    }
+
+    @Test
+    void changingLinesFlipMaskedBits() {
+        HexagramCode qian = HexagramCode.parse("111111");
+        // 乾初爻动变姤，初、上爻动变大过
+        assertEquals("011111", qian.change(HexagramCode.lineMask(1)).binary());
+        assertEquals("011110", qian.change(HexagramCode.lineMask(List.of(1, 6))).binary());
+        assertSame(qian, qian.change(0));
+    }
+
+    @Test
+    void derivedHexagrams() {
+        // 水雷屯：互卦山地剥，错卦火风鼎，综卦山水蒙
+        HexagramCode zhun = HexagramCode.ofTrigrams("坎", "震");
+        assertSame(HexagramCode.ofTrigrams("艮", "坤"), zhun.hu());
+        assertSame(HexagramCode.ofTrigrams("离", "巽"), zhun.cuo());
+        assertSame(HexagramCode.ofTrigrams("艮", "坎"), zhun.zong());
+
+        for (int bits = 0; bits <= HexagramCode.ALL_LINES; bits++) {
+            HexagramCode code = HexagramCode.of(bits);
+            assertSame(code, code.cuo().cuo());
+            assertSame(code, code.zong().zong());
+            assertEquals(new StringBuilder(code.binary()).reverse().toString(), code.zong().binary());
+            String binary = code.binary();
+            assertEquals(binary.substring(1, 4) + binary.substring(2, 5), code.hu().binary());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.yijing.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NaJiaTableTest {
+
+    private static String naJia(NaJiaTable.Gua gua) {
+        StringBuilder sb = new StringBuilder();
+        for (NaJiaTable.Yao yao : gua.yaos()) {
+            sb.append(yao.stemName()).append(yao.branchName()).append(yao.liuQinName())
+                    .append(yao.shi() ? "世" : yao.ying() ? "应" : "").append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    @Test
+    void everyHexagramBelongsToOnePalace() {
+        int[] perPalace = new int[8];
+        Set<String> descriptions = new HashSet<>();
+        for (int bits = 0; bits <= HexagramCode.ALL_LINES; bits++) {
+            NaJiaTable.Gua gua = NaJiaTable.of(HexagramCode.of(bits));
+            assertNotNull(gua);
+            assertSame(HexagramCode.of(bits), gua.code());
+            perPalace[gua.palace()]++;
+            assertTrue(descriptions.add(gua.description()));
+            assertEquals(6, gua.yaos().size());
+            assertEquals(1, gua.yaos().stream().filter(NaJiaTable.Yao::shi).count());
+            assertEquals(1, gua.yaos().stream().filter(NaJiaTable.Yao::ying).count());
+            assertEquals(3, Math.abs(gua.shi() - gua.ying()));
+            for (int position = 1; position <= 6; position++) {
+                assertEquals(HexagramCode.of(bits).isYang(position), gua.yao(position).yang());
+            }
+        }
+        for (int count : perPalace) {
+            assertEquals(8, count);
+        }
+    }
+
+    @Test
+    void jingFangNaJia() {
+        NaJiaTable.Gua qian = NaJiaTable.of(HexagramCode.ofTrigrams("乾", "乾"));
+        assertEquals("乾宫首卦", qian.description());
+        assertEquals("金", qian.palaceWuXingName());
+        assertEquals("甲子子孙 甲寅妻财 甲辰父母应 壬午官鬼 壬申兄弟 壬戌父母世", naJia(qian));
+
+        NaJiaTable.Gua gou = NaJiaTable.of(HexagramCode.ofTrigrams("乾", "巽"));
+        assertEquals("乾宫一世卦", gou.description());
+        assertEquals("辛丑父母世 辛亥子孙 辛酉兄弟 壬午官鬼应 壬申兄弟 壬戌父母", naJia(gou));
+
+        NaJiaTable.Gua tai = NaJiaTable.of(HexagramCode.ofTrigrams("坤", "乾"));
+        assertEquals("坤宫三世卦", tai.description());
+        assertEquals("甲子妻财 甲寅官鬼 甲辰兄弟世 癸丑兄弟 癸亥妻财 癸酉子孙应", naJia(tai));
+
+        // 火地晋游魂世在四爻，火天大有归魂世在三爻
+        NaJiaTable.Gua jin = NaJiaTable.of(HexagramCode.ofTrigrams("离", "坤"));
+        assertEquals("乾宫游魂卦", jin.description());
+        assertEquals(List.of(4, 1), List.of(jin.shi(), jin.ying()));
+        NaJiaTable.Gua daYou = NaJiaTable.of(HexagramCode.ofTrigrams("离", "乾"));
+        assertEquals("乾宫归魂卦", daYou.description());
+        assertEquals(List.of(3, 6), List.of(daYou.shi(), daYou.ying()));
+        assertEquals("震宫归魂卦", NaJiaTable.of(HexagramCode.ofTrigrams("兑", "震")).description());
+        assertEquals("兑宫归魂卦", NaJiaTable.of(HexagramCode.ofTrigrams("震", "兑")).description());
+    }
+}
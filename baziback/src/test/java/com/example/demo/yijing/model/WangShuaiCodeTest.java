@@ -0,0 +1,67 @@
+package com.example.demo.yijing.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WangShuaiCodeTest {
+
+    // 地支编码
+    private static final int ZI = 0, YIN = 2, MAO = 3, WU = 6, SHEN = 8, YOU = 9, HAI = 11;
+    // 六亲序号
+    private static final int XIONG_DI = 0, ZI_SUN = 1, QI_CAI = 2, GUAN_GUI = 3, FU_MU = 4;
+
+    @Test
+    void monthAndDayRelations() {
+        // 午火用神：午月临月建，寅日木生火
+        int code = WangShuaiCode.evaluate(WU, QI_CAI, WU, YIN, 0, 0);
+        assertEquals(WangShuaiCode.LIN, WangShuaiCode.month(code));
+        assertEquals(WangShuaiCode.SHENG, WangShuaiCode.day(code));
+        assertEquals(WangShuaiCode.JI_WANG, WangShuaiCode.overall(code));
+
+        // 寅木用神：申月金克木，亥日水生木
+        code = WangShuaiCode.evaluate(YIN, QI_CAI, SHEN, HAI, 0, 0);
+        assertEquals(WangShuaiCode.KE, WangShuaiCode.month(code));
+        assertEquals(WangShuaiCode.SHENG, WangShuaiCode.day(code));
+        assertEquals(WangShuaiCode.SHUAI, WangShuaiCode.overall(code));
+    }
+
+    @Test
+    void overallNeedsBothShengForWang() {
+        // 卯木用神：子月亥日皆水生木
+        assertEquals(WangShuaiCode.WANG, WangShuaiCode.overall(WangShuaiCode.evaluate(MAO, FU_MU, ZI, HAI, 0, 0)));
+        // 子月生，酉日金克木
+        assertEquals(WangShuaiCode.SHUAI, WangShuaiCode.overall(WangShuaiCode.evaluate(MAO, FU_MU, ZI, YOU, 0, 0)));
+        // 寅木用神：子月生，卯日同类比和，算平
+        assertEquals(WangShuaiCode.PING, WangShuaiCode.overall(WangShuaiCode.evaluate(YIN, FU_MU, ZI, MAO, 0, 0)));
+    }
+
+    @Test
+    void movingLineEffectsFollowLiuQin() {
+        int lineLiuQins = XIONG_DI | ZI_SUN << 3 | QI_CAI << 6 | GUAN_GUI << 9 | FU_MU << 12 | XIONG_DI << 15;
+        int code = WangShuaiCode.evaluate(ZI, QI_CAI, WU, WU, 0b100111, lineLiuQins);
+
+        assertEquals(0b100111, WangShuaiCode.movingMask(code));
+        assertEquals(WangShuaiCode.EFFECT_KE, WangShuaiCode.effect(code, 1));
+        assertEquals(WangShuaiCode.EFFECT_SHENG, WangShuaiCode.effect(code, 2));
+        assertEquals(WangShuaiCode.EFFECT_BI_HE, WangShuaiCode.effect(code, 3));
+        // 静爻不计作用
+        assertEquals(WangShuaiCode.EFFECT_NONE, WangShuaiCode.effect(code, 4));
+        assertEquals(WangShuaiCode.EFFECT_KE, WangShuaiCode.effect(code, 6));
+        assertEquals(ZI, WangShuaiCode.branch(code));
+        assertEquals(QI_CAI, WangShuaiCode.liuQin(code));
+    }
+
+    @Test
+    void evaluateLinesMatchesSinglePositions() {
+        int[] codes = new int[HexagramCode.LINE_COUNT];
+        for (int bits = 0; bits <= HexagramCode.ALL_LINES; bits++) {
+            NaJiaTable.Gua gua = NaJiaTable.of(HexagramCode.of(bits));
+            WangShuaiCode.evaluateLines(gua, YIN, YOU, bits ^ 0b010101, codes);
+            for (int position = 1; position <= HexagramCode.LINE_COUNT; position++) {
+                assertEquals(WangShuaiCode.evaluate(gua, position, YIN, YOU, bits ^ 0b010101), codes[position - 1]);
+                assertEquals(gua.yao(position).branch(), WangShuaiCode.branch(codes[position - 1]));
+            }
+        }
+    }
+}
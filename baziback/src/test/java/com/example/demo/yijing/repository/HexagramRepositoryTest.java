@@ -0,0 +1,212 @@
+package com.example.demo.yijing.repository;
+
+import com.example.demo.entity.BaseHexagramText;
+import com.example.demo.entity.TbHexagram;
+import com.example.demo.entity.TbHexagramYao;
+import com.example.demo.mapper.HexagramMapper;
+import com.example.demo.yijing.model.Hexagram;
+import com.example.demo.yijing.model.HexagramCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HexagramRepositoryTest {
+
+    private static final String[] TRIGRAMS = {"乾", "兑", "离", "震", "巽", "坎", "艮", "坤"};
+
+    @Mock
+    private HexagramMapper hexagramMapper;
+
+    // 内存中的卦、爻、卦爻辞表，由 mock 的查询方法按 SQL 条件筛选
+    private final List<TbHexagram> rows = new ArrayList<>();
+    private final List<TbHexagramYao> yaos = new ArrayList<>();
+    private final List<BaseHexagramText> texts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        int id = 1;
+        int textId = 1;
+        for (String upper : TRIGRAMS) {
+            for (String lower : TRIGRAMS) {
+                rows.add(TbHexagram.builder().id(id).name(upper + lower + "卦").nameShort(upper + lower)
+                        .upperGua(upper).lowerGua(lower).palaceNature("金").description("卦" + id).build());
+                HexagramCode code = HexagramCode.ofTrigrams(upper, lower);
+                for (int position = 1; position <= 6; position++) {
+                    yaos.add(TbHexagramYao.builder().id(id * 10 + position).hexagramId(id).yaoPosition(position)
+                            .yaoType(code.isYang(position) ? "阳" : "阴").stem("甲").branch("子")
+                            .liuQin("父母").isShi(position == 6 ? 1 : 0).isYing(position == 3 ? 1 : 0).build());
+                    texts.add(BaseHexagramText.builder().id(textId++).hexagramId(id).textType("爻辞")
+                            .yaoPosition(position).content(id + "爻" + position).explanation("解" + position).build());
+                }
+                texts.add(BaseHexagramText.builder().id(textId++).hexagramId(id).textType("卦辞")
+                        .content("卦辞" + id).explanation("卦辞解" + id).build());
+                texts.add(BaseHexagramText.builder().id(textId++).hexagramId(id).textType("大象")
+                        .content("大象" + id).build());
+                id++;
+            }
+        }
+    }
+
+    @Test
+    void loadedTableMatchesQueries() {
+        stubTable();
+        stubQueries();
+        HexagramRepository queried = new HexagramRepository(hexagramMapper);
+        HexagramRepository loaded = new HexagramRepository(hexagramMapper);
+        assertEquals(64, loaded.reload());
+
+        for (int value = 0; value < 64; value++) {
+            StringBuilder binary = new StringBuilder();
+            for (int bit = 0; bit < 6; bit++) {
+                binary.append((value >> bit) & 1);
+            }
+            Hexagram expected = queried.findByBinary(binary.toString()).orElseThrow();
+            Hexagram actual = loaded.findByBinary(binary.toString()).orElseThrow();
+            assertEquals(expected, actual);
+            assertEquals(binary.toString(), actual.getBinary());
+            assertEquals(expected, loaded.findByUpperAndLower(actual.getUpper(), actual.getLower()).orElseThrow());
+            assertEquals(queried.getHexagramYaos(expected.getId()), loaded.getHexagramYaos(actual.getId()));
+        }
+        assertEquals(queried.findAll(), loaded.findAll());
+    }
+
+    @Test
+    void loadedTableAnswersWithoutQueries() {
+        stubTable();
+        HexagramRepository repository = new HexagramRepository(hexagramMapper);
+        repository.reload();
+
+        Hexagram byId = repository.findById(10).orElseThrow();
+        assertEquals(byId, repository.findByName(byId.getName()).orElseThrow());
+        assertEquals(byId, repository.findByName(rows.get(9).getName()).orElseThrow());
+        assertEquals("卦辞10", byId.getJudgment());
+        assertEquals("大象10", byId.getImage());
+        assertEquals("", byId.getImageExplanation());
+        assertEquals("10爻3", byId.getLines().get(2).getText());
+        assertEquals(6, repository.getHexagramYaos(10).size());
+
+        assertTrue(repository.findById(65).isEmpty());
+        assertTrue(repository.findByName("未济之外").isEmpty());
+        assertTrue(repository.findByBinary("0120ab").isEmpty());
+        assertTrue(repository.getHexagramYaos(99).isEmpty());
+        verify(hexagramMapper).findAll();
+        verify(hexagramMapper).findAllYaos();
+        verify(hexagramMapper).findAllTexts();
+        verifyNoMoreInteractions(hexagramMapper);
+    }
+
+    @Test
+    void indexesByTrigramColumnsLikeQuery() {
+        // 上下卦字段无法识别时，按上下卦查库查不到，内存表也不按爻登记
+        TbHexagram row = rows.get(10);
+        String binary = HexagramCode.ofTrigrams(row.getUpperGua(), row.getLowerGua()).binary();
+        row.setLowerGua("金");
+        stubTable();
+        stubTrigramQuery();
+        HexagramRepository queried = new HexagramRepository(hexagramMapper);
+        HexagramRepository loaded = new HexagramRepository(hexagramMapper);
+        loaded.reload();
+
+        assertTrue(queried.findByBinary(binary).isEmpty());
+        assertTrue(loaded.findByBinary(binary).isEmpty());
+        assertEquals(binary, loaded.findById(11).orElseThrow().getBinary());
+    }
+
+    @Test
+    void callersGetCopies() {
+        stubTable();
+        HexagramRepository repository = new HexagramRepository(hexagramMapper);
+        repository.reload();
+
+        Hexagram hexagram = repository.findById(10).orElseThrow();
+        hexagram.setJudgment("改");
+        hexagram.getLines().get(0).setText("改");
+        hexagram.getLines().clear();
+        repository.findEntityById(10).orElseThrow().setName("改");
+        repository.getHexagramYaos(10).get(0).setYaoType("改");
+        repository.findAll().get(9).setName("改");
+
+        Hexagram again = repository.findById(10).orElseThrow();
+        assertNotSame(hexagram, again);
+        assertEquals("卦辞10", again.getJudgment());
+        assertEquals("10爻1", again.getLines().get(0).getText());
+        assertEquals(rows.get(9).getNameShort(), again.getName());
+        assertEquals(rows.get(9).getName(), repository.findEntityById(10).orElseThrow().getName());
+        assertEquals(yaos.get(54).getYaoType(), repository.getHexagramYaos(10).get(0).getYaoType());
+        assertEquals(again, repository.findByName(again.getName()).orElseThrow());
+    }
+
+    @Test
+    void reloadReplacesTable() {
+        stubTable();
+        HexagramRepository repository = new HexagramRepository(hexagramMapper);
+        repository.reload();
+
+        texts.add(0, BaseHexagramText.builder().id(0).hexagramId(1).textType("卦辞").content("修改后").build());
+        repository.reload();
+
+        assertEquals("修改后", repository.findById(1).orElseThrow().getJudgment());
+    }
+
+    /**
+     * 整表载入用到的三个查询，每次调用返回当前表的副本
+     */
+    private void stubTable() {
+        when(hexagramMapper.findAll()).thenAnswer(invocation -> new ArrayList<>(rows));
+        when(hexagramMapper.findAllYaos()).thenAnswer(invocation -> new ArrayList<>(yaos));
+        when(hexagramMapper.findAllTexts()).thenAnswer(invocation -> new ArrayList<>(texts));
+    }
+
+    /**
+     * 未载入时逐条查库用到的查询
+     */
+    private void stubQueries() {
+        stubTrigramQuery();
+        when(hexagramMapper.findYaosByHexagramId(any())).thenAnswer(invocation -> new ArrayList<>(yaos.stream()
+                .filter(yao -> yao.getHexagramId().equals(invocation.getArgument(0)))
+                .toList()));
+        when(hexagramMapper.findTextDetailByHexagramIdAndType(any(), anyString())).thenAnswer(invocation ->
+                detail(invocation.getArgument(0), invocation.getArgument(1), null));
+        when(hexagramMapper.findTextDetailByHexagramIdAndYaoPosition(any(), anyString(), anyInt()))
+                .thenAnswer(invocation -> detail(invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getArgument(2)));
+    }
+
+    private void stubTrigramQuery() {
+        when(hexagramMapper.findByUpperAndLower(anyString(), anyString())).thenAnswer(invocation -> rows.stream()
+                .filter(row -> row.getUpperGua().equals(invocation.getArgument(0))
+                        && row.getLowerGua().equals(invocation.getArgument(1)))
+                .findFirst().orElse(null));
+    }
+
+    private Map<String, Object> detail(Integer hexagramId, String textType, Integer yaoPosition) {
+        return texts.stream()
+                .filter(text -> text.getHexagramId().equals(hexagramId) && text.getTextType().equals(textType)
+                        && Objects.equals(text.getYaoPosition(), yaoPosition))
+                .findFirst()
+                .map(text -> {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("content", text.getContent());
+                    row.put("explanation", text.getExplanation());
+                    return row;
+                })
+                .orElse(null);
+    }
+}
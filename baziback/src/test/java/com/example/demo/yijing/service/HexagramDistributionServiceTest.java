@@ -0,0 +1,137 @@
+package com.example.demo.yijing.service;
+
+import com.example.demo.dto.request.yijing.YijingDistributionRequest;
+import com.example.demo.exception.BusinessException;
+import com.example.demo.yijing.model.HexagramCast;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HexagramDistributionServiceTest {
+
+    private final HexagramDistributionService service =
+            new HexagramDistributionService(null, null, null, 2, Duration.ofMinutes(1));
+
+    private static long[] byHexagram(long[] counts) {
+        long[] hexagrams = new long[64];
+        for (int cast = 0; cast < counts.length; cast++) {
+            hexagrams[HexagramCast.bits(cast)] += counts[cast];
+        }
+        return hexagrams;
+    }
+
+    private static long total(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    @Test
+    void exactCoinEnumeratesAllCoinResults() {
+        long[] counts = service.count(YijingDistributionRequest.builder().method("coin").build());
+
+        assertEquals(1L << 18, total(counts));
+        for (long count : byHexagram(counts)) {
+            assertEquals(4096, count);
+        }
+        // 每爻 8 种硬币结果中 6 种不动
+        assertEquals(46656, counts[HexagramCast.pack(0, 0)] * 64);
+    }
+
+    @Test
+    void exactRandomHasOneMovingLine() {
+        long[] counts = service.count(YijingDistributionRequest.builder().method("random").mode("exact").build());
+
+        assertEquals(384, total(counts));
+        for (int cast = 0; cast < counts.length; cast++) {
+            if (counts[cast] > 0) {
+                assertEquals(1, Integer.bitCount(HexagramCast.movingMask(cast)));
+            }
+        }
+        for (long count : byHexagram(counts)) {
+            assertEquals(6, count);
+        }
+    }
+
+    @Test
+    void exactTimeCoversEveryMinute() {
+        long[] counts = service.count(YijingDistributionRequest.builder().method("time")
+                .startDate(LocalDate.of(2024, 1, 1)).endDate(LocalDate.of(2024, 12, 31)).build());
+
+        assertEquals(366L * 24 * 60, total(counts));
+        assertTrue(counts[HexagramCast.time(2024, 5, 17, 13, 45)] > 0);
+    }
+
+    @Test
+    void simulatedCoinMatchesExactAndIsReproducible() {
+        YijingDistributionRequest request = YijingDistributionRequest.builder()
+                .method("liuyao").mode("simulate").samples(4_000_000L).randomSeed(42L).build();
+        long[] counts = service.count(request);
+
+        assertEquals(4_000_000L, total(counts));
+        assertArrayEquals(counts, service.count(request));
+        for (long count : byHexagram(counts)) {
+            assertEquals(1.0 / 64, count / 4_000_000.0, 0.001);
+        }
+        long still = 0;
+        for (int bits = 0; bits < 64; bits++) {
+            still += counts[HexagramCast.pack(bits, 0)];
+        }
+        assertEquals(Math.pow(0.75, 6), still / 4_000_000.0, 0.002);
+    }
+
+    @Test
+    void rejectsUnknownMethodAndMode() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.count(YijingDistributionRequest.builder().method("tarot").build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.count(YijingDistributionRequest.builder().method("coin").mode("guess").build()));
+        assertThrows(IllegalArgumentException.class, () -> service.count(YijingDistributionRequest.builder()
+                .method("number").seedFrom(10).seedTo(9).build()));
+    }
+
+    @Test
+    void rejectsOversizedWork() {
+        assertThrows(IllegalArgumentException.class, () -> service.count(YijingDistributionRequest.builder()
+                .method("coin").mode("simulate").samples(HexagramDistributionService.MAX_SAMPLES + 1).build()));
+        assertThrows(IllegalArgumentException.class, () -> service.count(YijingDistributionRequest.builder()
+                .method("time").startDate(LocalDate.of(2000, 1, 1)).endDate(LocalDate.of(2020, 12, 31)).build()));
+        assertThrows(IllegalArgumentException.class, () -> service.count(YijingDistributionRequest.builder()
+                .method("number").seedFrom(0).seedTo((int) HexagramDistributionService.MAX_EXACT_SEEDS).build()));
+    }
+
+    @Test
+    void stopsCountingWhenBudgetRunsOut() {
+        HexagramDistributionService limited = new HexagramDistributionService(null, null, null, 2, Duration.ZERO);
+        YijingDistributionRequest request = YijingDistributionRequest.builder()
+                .method("coin").mode("simulate").samples(HexagramDistributionService.MAX_SAMPLES).build();
+
+        BusinessException error = assertThrows(BusinessException.class, () -> limited.count(request));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, error.getStatus());
+    }
+
+    @Test
+    void stopsCountingWhenCancelled() {
+        HexagramDistributionService.CountBudget budget =
+                new HexagramDistributionService.CountBudget(Duration.ofMinutes(1));
+        budget.cancel();
+
+        assertThrows(CancellationException.class, () -> service.count(YijingDistributionRequest.builder()
+                .method("coin").mode("simulate").samples(HexagramDistributionService.MAX_SAMPLES).build(), budget));
+    }
+
+    @Test
+    void analyzeAsyncReportsBadRequestsThroughMono() {
+        // 参数错误在专用线程上抛出，经 Mono 传回
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> service.analyzeAsync(YijingDistributionRequest.builder().method("tarot").build()).block());
+        assertTrue(error.getMessage().contains("tarot"));
+    }
+}
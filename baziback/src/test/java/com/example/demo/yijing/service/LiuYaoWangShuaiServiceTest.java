@@ -0,0 +1,41 @@
+package com.example.demo.yijing.service;
+
+import com.example.demo.yijing.model.HexagramCode;
+import com.example.demo.yijing.model.NaJiaTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiuYaoWangShuaiServiceTest {
+
+    private final LiuYaoWangShuaiService service = new LiuYaoWangShuaiService();
+
+    @Test
+    void rendersYongShenStatus() {
+        // 乾为天：初爻子水子孙，二爻寅木妻财；申月（金生水）子日
+        NaJiaTable.Gua qian = NaJiaTable.of(HexagramCode.of(HexagramCode.ALL_LINES));
+        LiuYaoWangShuaiService.WangShuaiResult result = service.analyzeYongShen(qian, 1, 8, 0, 0b000011);
+
+        assertEquals("子", result.getYongShenBranch());
+        assertEquals("子孙", result.getYongShenLiuQin());
+        assertEquals("★★★★☆ 得月建生，旺", result.getYueJianStatus());
+        assertEquals("★★★★★ 临日辰，极旺", result.getRiChenStatus());
+        assertEquals(List.of("第1爻：动爻与用神同类，比和助力", "第2爻：中性影响"), result.getDongYaoEffects());
+        assertEquals("★★★★★ 极旺 - 用神力量强大，成功概率高", result.getOverallStatus());
+    }
+
+    @Test
+    void renderIsSeparateFromEvaluation() {
+        NaJiaTable.Gua qian = NaJiaTable.of(HexagramCode.of(HexagramCode.ALL_LINES));
+        // 寅木妻财：申月金克木
+        LiuYaoWangShuaiService.WangShuaiResult result = service.analyzeYongShen(qian, 2, 8, 6, 0);
+
+        assertEquals("★☆☆☆☆ 被月建克，衰", result.getYueJianStatus());
+        assertEquals("平", result.getRiChenStatus());
+        assertTrue(result.getDongYaoEffects().isEmpty());
+        assertEquals("★☆☆☆☆ 衰 - 用神力量不足，需谨慎", result.getOverallStatus());
+        assertEquals(result.getOverallStatus(), service.render(result.getCode()).getOverallStatus());
+    }
+}
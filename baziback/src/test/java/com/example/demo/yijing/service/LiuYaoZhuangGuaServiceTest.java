@@ -0,0 +1,70 @@
+package com.example.demo.yijing.service;
+
+import com.example.demo.bazi.constants.GanZhi;
+import com.example.demo.bazi.constants.KongWang;
+import com.example.demo.yijing.model.HexagramCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiuYaoZhuangGuaServiceTest {
+
+    private final LiuYaoZhuangGuaService service = new LiuYaoZhuangGuaService(null);
+
+    @Test
+    void kongWangMatchesXunTable() {
+        for (int jiaZi = 0; jiaZi < GanZhi.JIA_ZI_COUNT; jiaZi++) {
+            String[] expected = KongWang.getKongWang(GanZhi.jiaZiName(jiaZi));
+            int first = LiuYaoZhuangGuaService.kongWang(GanZhi.stemOf(jiaZi), GanZhi.branchOf(jiaZi));
+            assertEquals(expected[0], GanZhi.branchName(first), GanZhi.jiaZiName(jiaZi));
+            assertEquals(expected[1], GanZhi.branchName((first + 1) % 12), GanZhi.jiaZiName(jiaZi));
+        }
+    }
+
+    @Test
+    void overlaysDateOnNaJia() {
+        // 2024-01-01 为甲子日，按公历月取月建，一月建寅
+        LiuYaoZhuangGuaService.ZhuangGuaResult result =
+                service.calculateZhuangGua(HexagramCode.ofTrigrams("乾", "乾"), LocalDate.of(2024, 1, 1));
+
+        assertEquals("甲子", result.getDateGanZhi());
+        assertEquals("寅", result.getYueJian());
+        assertEquals("子", result.getRiChen());
+        assertEquals(List.of("戌", "亥"), result.getKongWang());
+        assertEquals("金", result.getPalaceNature());
+        assertEquals("乾宫首卦", result.getDescription());
+
+        List<LiuYaoZhuangGuaService.YaoZhuangGuaInfo> yaos = result.getYaos();
+        assertEquals(List.of("青龙", "朱雀", "勾陈", "腾蛇", "白虎", "玄武"),
+                yaos.stream().map(LiuYaoZhuangGuaService.YaoZhuangGuaInfo::getLiuShen).toList());
+        // 初爻子得日辰、二爻寅得月建，上爻戌空亡
+        assertEquals("旺", yaos.get(0).getWangShuai());
+        assertEquals("旺", yaos.get(1).getWangShuai());
+        assertEquals("平", yaos.get(2).getWangShuai());
+        assertTrue(yaos.get(5).getIsKongWang());
+        assertFalse(yaos.get(4).getIsKongWang());
+        assertTrue(yaos.get(5).getIsShi());
+        assertEquals("阳", yaos.get(0).getYaoType());
+    }
+
+    @Test
+    void liuShenStartsFromDayStem() {
+        // 2024-01-05 为戊辰日，起勾陈
+        LiuYaoZhuangGuaService.ZhuangGuaResult result =
+                service.calculateZhuangGua(HexagramCode.ofTrigrams("坤", "坤"), LocalDate.of(2024, 1, 5));
+        assertEquals("戊辰", result.getDateGanZhi());
+        assertEquals("勾陈", result.getYaos().get(0).getLiuShen());
+        assertEquals("朱雀", result.getYaos().get(5).getLiuShen());
+    }
+
+    @Test
+    void dayPillarFollowsBaZiDayOrder() {
+        assertEquals("辛巳", GanZhi.jiaZiName(LiuYaoZhuangGuaService.dayJiaZi(LocalDate.of(1970, 1, 1))));
+        assertEquals("甲戌", GanZhi.jiaZiName(LiuYaoZhuangGuaService.dayJiaZi(LocalDate.of(1900, 1, 1))));
+        assertEquals("甲子", GanZhi.jiaZiName(LiuYaoZhuangGuaService.dayJiaZi(LocalDate.of(1899, 12, 22))));
+        assertEquals(GanZhi.branchIndex('戌'), LiuYaoZhuangGuaService.dayBranch(LocalDate.of(1900, 1, 1)));
+    }
+}